@@ -0,0 +1,48 @@
+package de.test.url.shortener.benchmark;
+
+import java.util.Random;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.test.url.shortener.service.shortcode.Base62ShortCodeGenerator;
+
+/**
+ * Deterministic data shared by the benchmarks, so results of different
+ * releases are measured against the same data set
+ * 
+ * @author Shijin Raj
+ *
+ */
+final class BenchmarkDataset {
+
+	static final long SEED = 42;
+
+	private BenchmarkDataset() {
+	}
+
+	static Random random() {
+		return new Random(SEED);
+	}
+
+	static String user(int index) {
+		return "user" + index;
+	}
+
+	static String url(int index) {
+		return "https://www.example.com/articles/" + index + "/a-reasonably-long-slug-for-the-article-" + index;
+	}
+
+	/**
+	 * @return a generator with a fixed secret, encoding sequence values without
+	 *         a data base
+	 */
+	static Base62ShortCodeGenerator shortCodeGenerator() {
+		Base62ShortCodeGenerator shortCodeGenerator = new Base62ShortCodeGenerator();
+		ReflectionTestUtils.setField(shortCodeGenerator, "blockSize", 1000l);
+		ReflectionTestUtils.setField(shortCodeGenerator, "obfuscate", true);
+		ReflectionTestUtils.setField(shortCodeGenerator, "secret", SEED);
+		shortCodeGenerator.init();
+		return shortCodeGenerator;
+	}
+
+}
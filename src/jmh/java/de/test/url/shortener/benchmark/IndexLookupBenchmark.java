@@ -0,0 +1,128 @@
+package de.test.url.shortener.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.test.url.shortener.service.shortcode.Base62ShortCodeGenerator;
+
+/**
+ * Repository lookups on a large table migrated to schema version 1 (primary
+ * key only) compared to version 2 (url_hash and the user id index)
+ * 
+ * @author Shijin Raj
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class IndexLookupBenchmark {
+
+	private static final int USERS = 10_000;
+
+	private static final String FIND_BY_USER_ID_AND_URL = "SELECT * FROM urldetails WHERE user_id = ? AND url = ?";
+
+	private static final String FIND_BY_USER_ID_AND_URL_HASH = "SELECT * FROM urldetails WHERE user_id = ? AND url_hash = HASH('SHA256', ?) AND url = ?";
+
+	private static final String FIND_BY_USER_ID = "SELECT * FROM urldetails WHERE user_id = ?";
+
+	@Param({ "1000000" })
+	private int rows;
+
+	@Param({ "1", "2" })
+	private String schemaVersion;
+
+	private Connection connection;
+
+	private PreparedStatement findByUserIdAndUrl;
+
+	private PreparedStatement findByUserId;
+
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		String url = "jdbc:h2:mem:index-" + schemaVersion;
+		connection = DriverManager.getConnection(url, "sa", "");
+		Flyway.configure().dataSource(url, "sa", "").target(schemaVersion).load().migrate();
+
+		Base62ShortCodeGenerator shortCodeGenerator = BenchmarkDataset.shortCodeGenerator();
+		try (PreparedStatement insert = connection.prepareStatement(
+				"INSERT INTO urldetails (id, user_id, url, creation_count, call_count) VALUES (?, ?, ?, 1, 0)")) {
+			for (int row = 0; row < rows; row++) {
+				insert.setString(1, shortCodeGenerator.encode(row));
+				insert.setString(2, user(row));
+				insert.setString(3, url(row));
+				insert.addBatch();
+				if (row % 10_000 == 0) {
+					insert.executeBatch();
+				}
+			}
+			insert.executeBatch();
+		}
+
+		findByUserIdAndUrl = connection
+				.prepareStatement("1".equals(schemaVersion) ? FIND_BY_USER_ID_AND_URL : FIND_BY_USER_ID_AND_URL_HASH);
+		findByUserId = connection.prepareStatement(FIND_BY_USER_ID);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		connection.close();
+	}
+
+	@Benchmark
+	public boolean findByUserIdAndUrl() throws SQLException {
+		int row = (int) ((next++ * 7_919L) % rows);
+		findByUserIdAndUrl.setString(1, user(row));
+		findByUserIdAndUrl.setString(2, url(row));
+		if (findByUserIdAndUrl.getParameterMetaData().getParameterCount() == 3) {
+			findByUserIdAndUrl.setString(3, url(row));
+		}
+		try (ResultSet resultSet = findByUserIdAndUrl.executeQuery()) {
+			return resultSet.next();
+		}
+	}
+
+	@Benchmark
+	public int findByUserId() throws SQLException {
+		findByUserId.setString(1, user(next++));
+		int count = 0;
+		try (ResultSet resultSet = findByUserId.executeQuery()) {
+			while (resultSet.next()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static String user(int row) {
+		return BenchmarkDataset.user(row % USERS);
+	}
+
+	private static String url(int row) {
+		return BenchmarkDataset.url(row);
+	}
+
+}
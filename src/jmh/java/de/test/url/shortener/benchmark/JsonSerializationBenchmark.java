@@ -0,0 +1,75 @@
+package de.test.url.shortener.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.URLDetails;
+
+/**
+ * JSON serialization of the response bodies with an object mapper configured
+ * like the one of the application
+ * 
+ * @author Shijin Raj
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonSerializationBenchmark {
+
+	@Param({ "1", "100", "10000" })
+	private int size;
+
+	private ObjectMapper objectMapper;
+
+	private URLDetails urlDetails;
+
+	private List<Statistics> statistics;
+
+	@Setup
+	public void setUp() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		urlDetails = URLDetails.builder().id(BenchmarkDataset.shortCodeGenerator().encode(0))
+				.userId(BenchmarkDataset.user(0)).url(BenchmarkDataset.url(0)).creationCount(1).callCount(0).build();
+
+		Random random = BenchmarkDataset.random();
+		statistics = new ArrayList<>(size);
+		for (int index = 0; index < size; index++) {
+			statistics.add(Statistics.builder().url(BenchmarkDataset.url(index)).creationCount(1 + random.nextInt(10))
+					.callCount(random.nextInt(1000)).build());
+		}
+	}
+
+	@Benchmark
+	public byte[] urlDetails() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(urlDetails);
+	}
+
+	@Benchmark
+	public byte[] statistics() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(statistics);
+	}
+
+}
@@ -0,0 +1,152 @@
+package de.test.url.shortener.benchmark;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.test.url.shortener.repository.domain.URLDetails;
+import de.test.url.shortener.service.ResolvedURL;
+import de.test.url.shortener.service.linkindex.LinkIndex;
+import de.test.url.shortener.service.shortcode.Base62ShortCodeGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Lookup of random ids among all links held on the heap, as
+ * {@link ResolvedURL} values of a map, compared to the off heap
+ * {@link LinkIndex}. The heap used by the links, the pause of a full garbage
+ * collection with the links live and the garbage collections during the
+ * measurement are printed at the end of the trial.
+ *
+ * Run at 50M links with a heap large enough for the heap store, for example
+ * -p rows=50000000 -jvmArgs -Xmx16g, the default is sized for a laptop.
+ *
+ * @author Shijin Raj
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LinkIndexBenchmark {
+
+	private static final int USERS = 10_000;
+
+	public enum Store {
+		HEAP, MAPPED
+	}
+
+	@Param({ "2000000" })
+	private int rows;
+
+	@Param({ "HEAP", "MAPPED" })
+	private Store store;
+
+	private Map<String, ResolvedURL> heapStore;
+
+	private LinkIndex linkIndex;
+
+	private Path directory;
+
+	private String[] ids;
+
+	private Random random;
+
+	private long heapUsedByLinks;
+
+	private long fullCollectionMillis;
+
+	private long collectionCount;
+
+	private long collectionTime;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		Base62ShortCodeGenerator shortCodeGenerator = BenchmarkDataset.shortCodeGenerator();
+		random = BenchmarkDataset.random();
+		ids = new String[rows];
+		for (int row = 0; row < rows; row++) {
+			ids[row] = shortCodeGenerator.encode(row);
+		}
+
+		long heapUsedBefore = heapUsedAfterGc();
+		if (store == Store.HEAP) {
+			heapStore = new ConcurrentHashMap<>(rows * 4 / 3 + 1);
+			for (int row = 0; row < rows; row++) {
+				heapStore.put(ids[row], new ResolvedURL(BenchmarkDataset.user(row % USERS), BenchmarkDataset.url(row)));
+			}
+		} else {
+			directory = Files.createTempDirectory("link-index-benchmark");
+			linkIndex = new LinkIndex();
+			ReflectionTestUtils.setField(linkIndex, "enabled", true);
+			ReflectionTestUtils.setField(linkIndex, "file", directory.resolve("links.idx").toString());
+			ReflectionTestUtils.setField(linkIndex, "capacity", (long) rows);
+			ReflectionTestUtils.setField(linkIndex, "meterRegistry", new SimpleMeterRegistry());
+			linkIndex.init();
+			for (int row = 0; row < rows; row++) {
+				linkIndex.put(URLDetails.builder().id(ids[row]).userId(BenchmarkDataset.user(row % USERS))
+						.url(BenchmarkDataset.url(row)).build());
+			}
+		}
+		heapUsedByLinks = heapUsedAfterGc() - heapUsedBefore;
+		long start = System.nanoTime();
+		heapUsedAfterGc();
+		fullCollectionMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			collectionCount -= garbageCollector.getCollectionCount();
+			collectionTime -= garbageCollector.getCollectionTime();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			collectionCount += garbageCollector.getCollectionCount();
+			collectionTime += garbageCollector.getCollectionTime();
+		}
+		System.out.printf(
+				"%n%s store of %d links: %d MB heap, full collection of %d ms, %d collections of %d ms in total during the run%n",
+				store, rows, heapUsedByLinks >> 20, fullCollectionMillis, collectionCount, collectionTime);
+
+		if (linkIndex != null) {
+			linkIndex.close();
+			Files.deleteIfExists(directory.resolve("links.idx"));
+			Files.deleteIfExists(directory);
+		}
+	}
+
+	@Benchmark
+	public ResolvedURL get() {
+		String id = ids[random.nextInt(rows)];
+		return store == Store.HEAP ? heapStore.get(id) : linkIndex.get(id);
+	}
+
+	private static long heapUsedAfterGc() {
+		System.gc();
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+}
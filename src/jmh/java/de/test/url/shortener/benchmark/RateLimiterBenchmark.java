@@ -0,0 +1,73 @@
+package de.test.url.shortener.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.test.url.shortener.service.ratelimit.RateLimitProperties;
+import de.test.url.shortener.service.ratelimit.RateLimitProperties.Quota;
+import de.test.url.shortener.service.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost of an admitted request in the {@link RateLimiter}, which every
+ * authenticated request pays
+ * 
+ * @author Shijin Raj
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RateLimiterBenchmark {
+
+	@Param({ "1000" })
+	private int users;
+
+	private RateLimiter rateLimiter;
+
+	private Authentication[] authentications;
+
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getRoles().put("USER", new Quota(1e9, Integer.MAX_VALUE));
+
+		rateLimiter = new RateLimiter();
+		ReflectionTestUtils.setField(rateLimiter, "properties", properties);
+		ReflectionTestUtils.setField(rateLimiter, "meterRegistry", new SimpleMeterRegistry());
+		rateLimiter.init();
+
+		authentications = new Authentication[users];
+		for (int user = 0; user < users; user++) {
+			authentications[user] = new UsernamePasswordAuthenticationToken(BenchmarkDataset.user(user), null,
+					AuthorityUtils.createAuthorityList("ROLE_USER"));
+		}
+	}
+
+	@Benchmark
+	public long tryAcquire() {
+		return rateLimiter.tryAcquire(authentications[next++ % users]);
+	}
+
+}
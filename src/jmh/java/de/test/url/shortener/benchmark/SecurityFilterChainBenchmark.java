@@ -0,0 +1,125 @@
+package de.test.url.shortener.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+
+import de.test.url.shortener.UrlshortenerApplication;
+import de.test.url.shortener.service.token.TokenService;
+
+/**
+ * Cost of one authenticated request through the Spring Security filter chain,
+ * up to the dispatcher servlet, by authentication mode: HTTP basic with a
+ * {noop} and a {bcrypt} password, and a bearer token.
+ *
+ * The DaoAuthenticationProvider upgrades a {noop} password to bcrypt after the
+ * first login, so both basic modes pay one bcrypt per request.
+ *
+ * @author Shijin Raj
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SecurityFilterChainBenchmark {
+
+	private static final String USER = "user";
+
+	private static final String BCRYPT_USER = "bcrypt";
+
+	private static final FilterChain DISPATCHER = (request, response) -> {
+	};
+
+	@Param({ "basic", "basicBcrypt", "bearer" })
+	private String authentication;
+
+	private ConfigurableApplicationContext applicationContext;
+
+	private Filter springSecurityFilterChain;
+
+	private String authorization;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		// the users are passed as arguments, default properties would not replace the users of application.yml
+		applicationContext = new SpringApplicationBuilder(UrlshortenerApplication.class).profiles("dev")
+				.properties("server.port=0",
+						"spring.datasource.url=jdbc:h2:mem:benchmark-security;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+						"logging.level.root=WARN")
+				.run("--urlshortener.security.users[0].username=" + USER,
+						"--urlshortener.security.users[0].password={noop}" + USER,
+						"--urlshortener.security.users[0].roles=USER",
+						"--urlshortener.security.users[1].username=" + BCRYPT_USER,
+						"--urlshortener.security.users[1].password="
+								+ PasswordEncoderFactories.createDelegatingPasswordEncoder().encode(BCRYPT_USER),
+						"--urlshortener.security.users[1].roles=USER");
+		springSecurityFilterChain = applicationContext.getBean("springSecurityFilterChain", Filter.class);
+
+		switch (authentication) {
+		case "basic":
+			authorization = basic(USER);
+			break;
+		case "basicBcrypt":
+			authorization = basic(BCRYPT_USER);
+			break;
+		default:
+			authorization = "Bearer " + applicationContext.getBean(TokenService.class)
+					.issue(new UsernamePasswordAuthenticationToken(USER, null,
+							AuthorityUtils.createAuthorityList("ROLE_USER")))
+					.getAccessToken();
+		}
+
+		int status = request().getStatus();
+		if (status != MockHttpServletResponse.SC_OK) {
+			throw new IllegalStateException("Authentication " + authentication + " failed with " + status);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		applicationContext.close();
+	}
+
+	@Benchmark
+	public MockHttpServletResponse request() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tinyurl/user/statistics");
+		request.setServletPath("/api/tinyurl/user/statistics");
+		request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		springSecurityFilterChain.doFilter(request, response, DISPATCHER);
+		return response;
+	}
+
+	private static String basic(String user) {
+		return "Basic " + Base64.getEncoder().encodeToString((user + ":" + user).getBytes(StandardCharsets.UTF_8));
+	}
+
+}
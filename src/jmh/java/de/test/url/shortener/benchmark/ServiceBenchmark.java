@@ -0,0 +1,162 @@
+package de.test.url.shortener.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import de.test.url.shortener.UrlshortenerApplication;
+import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.URLDetails;
+import de.test.url.shortener.service.URLShortenerService;
+
+/**
+ * {@link URLShortenerService} operations against the full application context
+ * and an in memory H2 data base seeded with {@link BenchmarkDataset}
+ * 
+ * @author Shijin Raj
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ServiceBenchmark {
+
+	private static final int USERS = 100;
+
+	private static final int BULK_SIZE = 100;
+
+	@Param({ "10000" })
+	private int rows;
+
+	@Param({ "true", "false" })
+	private boolean idFilter;
+
+	/**
+	 * Whether resolutions offer click events to a running consumer thread,
+	 * which competes with the resolving thread on few cores
+	 */
+	@Param({ "true", "false" })
+	private boolean clickEvents;
+
+	private ConfigurableApplicationContext applicationContext;
+
+	private URLShortenerService urlShortenerService;
+
+	private String[] ids;
+
+	private int next;
+
+	private int created;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		applicationContext = new SpringApplicationBuilder(UrlshortenerApplication.class).profiles("dev")
+				.properties("server.port=0",
+						"spring.datasource.url=jdbc:h2:mem:benchmark-service;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+						"logging.level.root=WARN")
+				.run("--urlshortener.id-filter.enabled=" + idFilter,
+						"--urlshortener.click-events.enabled=" + clickEvents);
+		urlShortenerService = applicationContext.getBean(URLShortenerService.class);
+
+		ids = new String[rows];
+		for (int row = 0; row < rows; row++) {
+			ids[row] = urlShortenerService.create(user(row), BenchmarkDataset.url(row)).getId();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		applicationContext.close();
+	}
+
+	/**
+	 * Creates a tiny URL already created by the user
+	 */
+	@Benchmark
+	public URLDetails createExisting() {
+		int row = next++ % rows;
+		return urlShortenerService.create(user(row), BenchmarkDataset.url(row));
+	}
+
+	/**
+	 * Creates a tiny URL for a URL not yet known
+	 */
+	@Benchmark
+	public URLDetails createNew() {
+		int row = rows + created++;
+		return urlShortenerService.create(user(row), BenchmarkDataset.url(row));
+	}
+
+	/**
+	 * Creates {@link #BULK_SIZE} tiny URLs for URLs not yet known in one batch,
+	 * compare per URL with {@link #createNew()}
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BULK_SIZE)
+	public Map<String, URLDetails> createAllNew() {
+		List<String> urls = new ArrayList<>(BULK_SIZE);
+		for (int index = 0; index < BULK_SIZE; index++) {
+			urls.add(BenchmarkDataset.url(rows + created++));
+		}
+		return urlShortenerService.createAll(BenchmarkDataset.user(0), urls);
+	}
+
+	@Benchmark
+	public String get() {
+		int row = next++ % rows;
+		return urlShortenerService.get(user(row), ids[row]);
+	}
+
+	/**
+	 * Resolution done by the public redirect
+	 */
+	@Benchmark
+	public String resolve() {
+		return urlShortenerService.resolve(ids[next++ % rows]);
+	}
+
+	/**
+	 * Resolution of an id never created and never looked up before, as probed by
+	 * a scanner
+	 */
+	@Benchmark
+	public String resolveUnknown() {
+		return urlShortenerService.resolve("unknown" + next++);
+	}
+
+	@Benchmark
+	public List<Statistics> getUserStatistics() {
+		return urlShortenerService.getUserStatistics(user(next++));
+	}
+
+	@Benchmark
+	public List<Statistics> getAllStatistics() {
+		return urlShortenerService.getAllStatistics();
+	}
+
+	private static String user(int row) {
+		return BenchmarkDataset.user(row % USERS);
+	}
+
+}
@@ -0,0 +1,53 @@
+package de.test.url.shortener.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.test.url.shortener.service.shortcode.Base62ShortCodeGenerator;
+
+/**
+ * Cost of the id generation itself: Hibernate uuid2 string compared to the
+ * obfuscated Base62 encoding of a sequence value
+ * 
+ * @author Shijin Raj
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ShortCodeGenerationBenchmark {
+
+	private Base62ShortCodeGenerator shortCodeGenerator;
+
+	private long value;
+
+	@Setup
+	public void setUp() {
+		shortCodeGenerator = BenchmarkDataset.shortCodeGenerator();
+	}
+
+	@Benchmark
+	public String uuid2() {
+		return UUID.randomUUID().toString();
+	}
+
+	@Benchmark
+	public String base62() {
+		return shortCodeGenerator.encode(value++);
+	}
+
+}
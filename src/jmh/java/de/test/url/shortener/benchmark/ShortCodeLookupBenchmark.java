@@ -0,0 +1,112 @@
+package de.test.url.shortener.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.test.url.shortener.service.shortcode.Base62ShortCodeGenerator;
+
+/**
+ * findByUserIdAndId against an H2 table keyed by 36 character uuid2 ids
+ * compared to one keyed by 6 character Base62 short codes
+ * 
+ * @author Shijin Raj
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ShortCodeLookupBenchmark {
+
+	private static final int USERS = 100;
+
+	public enum KeyType {
+		UUID, BASE62
+	}
+
+	@Param({ "1000000" })
+	private int rows;
+
+	@Param({ "UUID", "BASE62" })
+	private KeyType keyType;
+
+	private Connection connection;
+
+	private PreparedStatement findByUserIdAndId;
+
+	private String[] ids;
+
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		Base62ShortCodeGenerator shortCodeGenerator = BenchmarkDataset.shortCodeGenerator();
+		Random random = BenchmarkDataset.random();
+		ids = new String[rows];
+
+		connection = DriverManager.getConnection("jdbc:h2:mem:lookup-" + keyType);
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE urldetails (id VARCHAR(" + (keyType == KeyType.UUID ? 36 : 10)
+					+ ") PRIMARY KEY, user_id VARCHAR(255), url VARCHAR(255))");
+		}
+		try (PreparedStatement insert = connection.prepareStatement("INSERT INTO urldetails VALUES (?, ?, ?)")) {
+			for (int row = 0; row < rows; row++) {
+				ids[row] = keyType == KeyType.UUID ? UUID.randomUUID().toString() : shortCodeGenerator.encode(row);
+				insert.setString(1, ids[row]);
+				insert.setString(2, BenchmarkDataset.user(row % USERS));
+				insert.setString(3, BenchmarkDataset.url(row));
+				insert.addBatch();
+				if (row % 10_000 == 0) {
+					insert.executeBatch();
+				}
+			}
+			insert.executeBatch();
+		}
+		for (int row = rows - 1; row > 0; row--) {
+			int other = random.nextInt(row + 1);
+			String id = ids[row];
+			ids[row] = ids[other];
+			ids[other] = id;
+		}
+		findByUserIdAndId = connection.prepareStatement("SELECT url FROM urldetails WHERE user_id = ? AND id = ?");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		connection.close();
+	}
+
+	@Benchmark
+	public String findByUserIdAndId() throws SQLException {
+		String id = ids[next++ % rows];
+		findByUserIdAndId.setString(1, BenchmarkDataset.user(next % USERS));
+		findByUserIdAndId.setString(2, id);
+		try (ResultSet resultSet = findByUserIdAndId.executeQuery()) {
+			return resultSet.next() ? resultSet.getString(1) : null;
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package de.test.url.shortener.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.URLDetails;
+import de.test.url.shortener.service.StatisticsAggregator;
+
+/**
+ * The former two pass groupingBy aggregation of the user statistics compared
+ * to the single pass {@link StatisticsAggregator}, sequential and parallel
+ * 
+ * @author Shijin Raj
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StatisticsAggregationBenchmark {
+
+	/**
+	 * Number of URL details per distinct URL
+	 */
+	private static final int DUPLICATES_PER_URL = 10;
+
+	@Param({ "100", "10000", "1000000", "10000000" })
+	private int size;
+
+	private List<URLDetails> urlDetailList;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = BenchmarkDataset.random();
+		int distinctURLs = Math.max(1, size / DUPLICATES_PER_URL);
+		String[] urls = new String[distinctURLs];
+		for (int index = 0; index < distinctURLs; index++) {
+			urls[index] = BenchmarkDataset.url(index);
+		}
+		urlDetailList = new ArrayList<>(size);
+		for (int index = 0; index < size; index++) {
+			urlDetailList.add(URLDetails.builder().url(urls[random.nextInt(distinctURLs)])
+					.userId(BenchmarkDataset.user(0)).creationCount(1 + random.nextInt(10)).callCount(random.nextInt(1000)).build());
+		}
+	}
+
+	@Benchmark
+	public List<Statistics> twoPass() {
+		Map<String, Long> groupByURLAndCreationCount = Optional.ofNullable(urlDetailList).map(Collection::stream)
+				.orElseGet(Stream::empty).collect(Collectors.groupingBy(URLDetails::getUrl,
+						Collectors.summingLong(URLDetails::getCreationCount)));
+
+		Map<String, Long> groupByURLAndCallCount = Optional.ofNullable(urlDetailList).map(Collection::stream)
+				.orElseGet(Stream::empty)
+				.collect(Collectors.groupingBy(URLDetails::getUrl, Collectors.summingLong(URLDetails::getCallCount)));
+
+		return groupByURLAndCreationCount.entrySet().stream()
+				.map(urlCreationCountMap -> Statistics.builder().url(urlCreationCountMap.getKey())
+						.creationCount(urlCreationCountMap.getValue())
+						.callCount(groupByURLAndCallCount.get(urlCreationCountMap.getKey())).build())
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Statistics> singlePass() {
+		return StatisticsAggregator.aggregateSequential(urlDetailList);
+	}
+
+	@Benchmark
+	public List<Statistics> singlePassParallel() {
+		return StatisticsAggregator.aggregateParallel(urlDetailList);
+	}
+
+}
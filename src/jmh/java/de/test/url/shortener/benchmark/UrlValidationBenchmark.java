@@ -0,0 +1,64 @@
+package de.test.url.shortener.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.validator.routines.UrlValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.test.url.shortener.controller.URLShortenerController;
+
+/**
+ * URL validation as done by {@link URLShortenerController#create(String)}
+ * for valid and invalid URLs
+ * 
+ * @author Shijin Raj
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UrlValidationBenchmark {
+
+	private static final int URLS = 1024;
+
+	private static final String[] INVALID_URLS = { "www.example.com", "ftp://www.example.com/file",
+			"https://www.example.com/a path", "https://", "javascript:alert(1)" };
+
+	private UrlValidator urlValidator;
+
+	private String[] validURLs;
+
+	private int next;
+
+	@Setup
+	public void setUp() {
+		urlValidator = new URLShortenerController().urlValidator;
+		validURLs = new String[URLS];
+		for (int index = 0; index < URLS; index++) {
+			validURLs[index] = BenchmarkDataset.url(index);
+		}
+	}
+
+	@Benchmark
+	public boolean validURL() {
+		return urlValidator.isValid(validURLs[next++ & URLS - 1]);
+	}
+
+	@Benchmark
+	public boolean invalidURL() {
+		return urlValidator.isValid(INVALID_URLS[next++ % INVALID_URLS.length]);
+	}
+
+}
@@ -0,0 +1,123 @@
+package de.test.url.shortener.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.test.url.shortener.config.VirtualThreadConfig;
+
+/**
+ * Time to serve a burst of concurrent blocking requests on a pool of 200
+ * platform threads, the Tomcat default, compared to a virtual thread per
+ * request as with urlshortener.virtual-threads.enabled.
+ *
+ * Each request blocks for a data base round trip while holding one of the
+ * given number of connections, 20 as the Hikari pool of application.yml, or
+ * on no pool at all for 0, as for a remote call. The application itself is
+ * left out, src/load/compare-platform-virtual-threads.sh measures it over
+ * HTTP.
+ *
+ * Virtual threads need Java 21 or later, the VIRTUAL runs fail on an older
+ * runtime. Compile on Java 8 and run with the newer one, for example
+ * mvn -P benchmark test-compile dependency:build-classpath
+ * -Dmdep.outputFile=target/classpath.txt, then java -cp
+ * target/classes:target/test-classes:$(cat target/classpath.txt)
+ * org.openjdk.jmh.Main VirtualThreadBenchmark
+ *
+ * @author Shijin Raj
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VirtualThreadBenchmark {
+
+	private static final int TOMCAT_MAXIMUM_THREADS = 200;
+
+	public enum Threads {
+		PLATFORM, VIRTUAL
+	}
+
+	@Param
+	private Threads threads;
+
+	@Param({ "2000" })
+	private int requests;
+
+	@Param({ "5" })
+	private long latencyMillis;
+
+	@Param({ "0", "20" })
+	private int connections;
+
+	private ExecutorService executor;
+
+	private Semaphore pool;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		executor = threads == Threads.PLATFORM ? Executors.newFixedThreadPool(TOMCAT_MAXIMUM_THREADS)
+				: VirtualThreadConfig.newVirtualThreadPerTaskExecutor();
+		if (executor == null) {
+			throw new IllegalStateException("Virtual threads need Java 21 or later");
+		}
+		pool = connections == 0 ? null : new Semaphore(connections, true);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Benchmark
+	public void burst() throws InterruptedException {
+		CountDownLatch served = new CountDownLatch(requests);
+		for (int request = 0; request < requests; request++) {
+			executor.execute(() -> {
+				try {
+					serve();
+				} finally {
+					served.countDown();
+				}
+			});
+		}
+		served.await();
+	}
+
+	private void serve() {
+		try {
+			if (pool != null) {
+				pool.acquire();
+			}
+			try {
+				Thread.sleep(latencyMillis);
+			} finally {
+				if (pool != null) {
+					pool.release();
+				}
+			}
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
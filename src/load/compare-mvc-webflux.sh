@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+#
+# Throughput and tail latency of GET /api/tinyurl/{id} for the servlet (MVC)
+# and the reactive (WebFlux) profile, measured with wrk at the same number of
+# concurrent connections.
+#
+# Usage: src/load/compare-mvc-webflux.sh [connections] [duration] [threads]
+#
+# Requires wrk (https://github.com/wg/wrk) and a file descriptor limit above
+# the number of connections for both the application and wrk, e.g. ulimit -n 65536.
+# Run the load generator on a separate machine for numbers worth comparing.
+
+set -euo pipefail
+
+CONNECTIONS=${1:-10000}
+DURATION=${2:-60s}
+THREADS=${3:-8}
+PORT=${PORT:-8080}
+BASE_URL="http://localhost:${PORT}/api/tinyurl"
+AUTHORIZATION="Authorization: Basic $(printf 'user:user' | base64)"
+
+cd "$(dirname "$0")/../.."
+mvn -B -q -DskipTests package
+JAR=$(ls target/urlshortener-*.jar | grep -v original | head -1)
+
+run() {
+	local profile=$1
+	java -jar "${JAR}" --server.port="${PORT}" --spring.profiles.active="${profile},dev" \
+		--server.tomcat.max-connections="${CONNECTIONS}" --logging.level.root=WARN &
+	local pid=$!
+	trap "kill ${pid} 2>/dev/null" EXIT
+
+	until curl -s -o /dev/null "http://localhost:${PORT}/"; do
+		sleep 1
+	done
+
+	local id
+	id=$(curl -s -H "${AUTHORIZATION}" -H 'Content-Type: text/plain' -d 'https://www.example.com/' "${BASE_URL}" \
+		| sed 's/.*"id":"\([^"]*\)".*/\1/')
+
+	echo "== ${profile}: ${CONNECTIONS} connections, ${DURATION}"
+	wrk -t"${THREADS}" -c"${CONNECTIONS}" -d"${DURATION}" --latency -H "${AUTHORIZATION}" "${BASE_URL}/${id}"
+
+	kill "${pid}"
+	wait "${pid}" 2>/dev/null || true
+	trap - EXIT
+}
+
+run default
+run reactive
@@ -0,0 +1,71 @@
+#!/usr/bin/env bash
+#
+# Throughput and tail latency of POST /api/tinyurl (create) and
+# GET /api/tinyurl/{id} (get) with requests on the Tomcat thread pool and on
+# virtual threads (urlshortener.virtual-threads.enabled), measured with wrk at
+# the same number of concurrent connections. The rate limit is disabled so
+# that every request reaches the service.
+#
+# Usage: src/load/compare-platform-virtual-threads.sh [connections] [duration] [threads]
+#
+# Virtual threads need Java 21 or later, set JAVA to its java executable if
+# the default one is older, both modes are run on it. Requires wrk
+# (https://github.com/wg/wrk) and a file descriptor limit above the number of
+# connections for both the application and wrk, e.g. ulimit -n 65536. Run the
+# load generator on a separate machine for numbers worth comparing.
+
+set -euo pipefail
+
+CONNECTIONS=${1:-2000}
+DURATION=${2:-60s}
+THREADS=${3:-8}
+PORT=${PORT:-8080}
+JAVA=${JAVA:-java}
+BASE_URL="http://localhost:${PORT}/api/tinyurl"
+AUTHORIZATION="Authorization: Basic $(printf 'user:user' | base64)"
+
+cd "$(dirname "$0")/../.."
+mvn -B -q -DskipTests package
+JAR=$(ls target/urlshortener-*.jar | grep -v original | head -1)
+
+CREATE_SCRIPT=$(mktemp)
+trap "rm -f ${CREATE_SCRIPT}" EXIT
+cat > "${CREATE_SCRIPT}" <<'EOF'
+local counter = 0
+request = function()
+	counter = counter + 1
+	return wrk.format("POST", nil, { ["Content-Type"] = "text/plain" },
+		"https://www.example.com/" .. math.random(1000000000) .. "/" .. counter)
+end
+EOF
+
+run() {
+	local virtual_threads=$1
+	"${JAVA}" -jar "${JAR}" --server.port="${PORT}" --spring.profiles.active=dev --urlshortener.virtual-threads.enabled="${virtual_threads}" \
+		--urlshortener.rate-limit.enabled=false --server.tomcat.max-connections="${CONNECTIONS}" \
+		--logging.level.root=WARN &
+	local pid=$!
+	trap "kill ${pid} 2>/dev/null; rm -f ${CREATE_SCRIPT}" EXIT
+
+	until curl -s -o /dev/null "http://localhost:${PORT}/"; do
+		sleep 1
+	done
+
+	local id
+	id=$(curl -s -H "${AUTHORIZATION}" -H 'Content-Type: text/plain' -d 'https://www.example.com/' "${BASE_URL}" \
+		| sed 's/.*"id":"\([^"]*\)".*/\1/')
+
+	echo "== create, virtual threads ${virtual_threads}: ${CONNECTIONS} connections, ${DURATION}"
+	wrk -t"${THREADS}" -c"${CONNECTIONS}" -d"${DURATION}" --latency -H "${AUTHORIZATION}" -s "${CREATE_SCRIPT}" \
+		"${BASE_URL}"
+
+	echo "== get, virtual threads ${virtual_threads}: ${CONNECTIONS} connections, ${DURATION}"
+	wrk -t"${THREADS}" -c"${CONNECTIONS}" -d"${DURATION}" --latency -H "${AUTHORIZATION}" "${BASE_URL}/${id}"
+
+	kill "${pid}"
+	wait "${pid}" 2>/dev/null || true
+	trap "rm -f ${CREATE_SCRIPT}" EXIT
+}
+
+run false
+run true
@@ -2,10 +2,10 @@ package de.test.url.shortener;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@EnableGlobalMethodSecurity(prePostEnabled=true)
 @SpringBootApplication
+@EnableScheduling
 public class UrlshortenerApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,94 @@
+package de.test.url.shortener.config;
+
+import java.lang.reflect.Method;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every call of the {@link de.test.url.shortener.service.URLShortenerService}
+ * as urlshortener.service and of the
+ * {@link de.test.url.shortener.repository.URLShortenerRepository} as
+ * urlshortener.repository, tagged by method and exception. The method is
+ * tagged with the simple names of its parameter types, such as
+ * get(String,String), so overloads are timed apart. The percentiles are
+ * configured in management.metrics.distribution.
+ *
+ * The timer of a successful call is looked up once per method and kept, so a
+ * call costs a map lookup and the recording only. The resolve and peek of the
+ * redirect path are left out, the RedirectFilter times them as
+ * urlshortener.redirect without the proxy.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Aspect
+@Component
+public class MetricsAspect {
+
+	private static final String SERVICE_TIMER = "urlshortener.service";
+
+	private static final String REPOSITORY_TIMER = "urlshortener.repository";
+
+	private static final String NO_EXCEPTION = "none";
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private final ConcurrentMap<Method, Timer> timers = new ConcurrentHashMap<>();
+
+	@Around("execution(public * de.test.url.shortener.service.URLShortenerService+.*(..)) && !execution(* resolve(..)) && !execution(* peek(..))")
+	public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+		return time(SERVICE_TIMER, joinPoint);
+	}
+
+	@Around("execution(public * *(..)) && target(de.test.url.shortener.repository.URLShortenerRepository)")
+	public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+		return time(REPOSITORY_TIMER, joinPoint);
+	}
+
+	private Object time(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+		Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+		long start = System.nanoTime();
+		Object result;
+		try {
+			result = joinPoint.proceed();
+		} catch (Throwable throwable) {
+			timer(name, method, throwable.getClass().getSimpleName()).record(System.nanoTime() - start,
+					TimeUnit.NANOSECONDS);
+			throw throwable;
+		}
+
+		Timer timer = timers.get(method);
+		if (timer == null) {
+			timer = timers.computeIfAbsent(method, key -> timer(name, key, NO_EXCEPTION));
+		}
+		timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		return result;
+	}
+
+	private Timer timer(String name, Method method, String exception) {
+		return Timer.builder(name).tag("method", signature(method)).tag("exception", exception)
+				.register(meterRegistry);
+	}
+
+	private static String signature(Method method) {
+		StringJoiner parameterTypes = new StringJoiner(",", method.getName() + "(", ")");
+		for (Class<?> parameterType : method.getParameterTypes()) {
+			parameterTypes.add(parameterType.getSimpleName());
+		}
+		return parameterTypes.toString();
+	}
+
+}
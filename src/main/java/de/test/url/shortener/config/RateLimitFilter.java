@@ -0,0 +1,55 @@
+package de.test.url.shortener.config;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import de.test.url.shortener.service.ratelimit.RateLimiter;
+
+/**
+ * Rejects a request of an authenticated user beyond the quota of the
+ * {@link RateLimiter} with 429 and Retry-After in seconds. Runs after the
+ * authentication filters, requests without authentication are left to the
+ * authorization.
+ *
+ * @author Shijin Raj
+ *
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+	private final RateLimiter rateLimiter;
+
+	public RateLimitFilter(RateLimiter rateLimiter) {
+		this.rateLimiter = rateLimiter;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+		if (authentication != null && authentication.isAuthenticated()) {
+			long wait = rateLimiter.tryAcquire(authentication);
+			if (wait > 0) {
+				response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+				response.setHeader(HttpHeaders.RETRY_AFTER,
+						Long.toString((wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+				response.setContentLength(0);
+				return;
+			}
+		}
+
+		filterChain.doFilter(request, response);
+	}
+
+}
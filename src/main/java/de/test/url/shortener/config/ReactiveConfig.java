@@ -0,0 +1,48 @@
+package de.test.url.shortener.config;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Web server and data sources of the reactive profile
+ * 
+ * @author Shijin Raj
+ *
+ */
+@Profile("reactive")
+@Configuration
+public class ReactiveConfig {
+
+	/**
+	 * Tomcat is on the class path for the servlet stack and would be preferred,
+	 * the event loop of Netty is what the reactive profile is for
+	 */
+	@Bean
+	public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+		return new NettyReactiveWebServerFactory();
+	}
+
+	/**
+	 * Spring Boot backs off from the JDBC data source as soon as an R2DBC
+	 * connection factory exists, but Flyway, JPA and the call count flush still
+	 * need it
+	 */
+	@Bean
+	@ConfigurationProperties("spring.datasource")
+	public DataSourceProperties dataSourceProperties() {
+		return new DataSourceProperties();
+	}
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+		return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+}
@@ -0,0 +1,41 @@
+package de.test.url.shortener.config;
+
+import org.springframework.boot.actuate.autoconfigure.security.reactive.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+/**
+ * WebFlux counterpart of {@link SecurityConfig} for the reactive profile, with
+ * the same users, HTTP basic authentication and actuator endpoints besides
+ * health for admins
+ * 
+ * @author Shijin Raj
+ *
+ */
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+@EnableConfigurationProperties(UserStoreProperties.class)
+@Profile("reactive")
+@Configuration
+public class ReactiveSecurityConfig {
+
+	@Bean
+	public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+		return http.csrf().disable().authorizeExchange().matchers(EndpointRequest.to(HealthEndpoint.class))
+				.permitAll().matchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN").anyExchange().authenticated().and().httpBasic().and().build();
+	}
+
+	@Bean
+	public MapReactiveUserDetailsService userDetailsService(UserStoreProperties userStoreProperties) {
+		return new MapReactiveUserDetailsService(userStoreProperties.getUserDetails());
+	}
+
+}
@@ -1,22 +1,68 @@
 package de.test.url.shortener.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.config.annotation.authentication.configurers.provisioning.InMemoryUserDetailsManagerConfigurer;
+import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
+import de.test.url.shortener.controller.TokenController;
+import de.test.url.shortener.service.ratelimit.RateLimitProperties;
+import de.test.url.shortener.service.ratelimit.RateLimiter;
+import de.test.url.shortener.service.token.TokenService;
+
+/**
+ * Stateless authentication, by a bearer token issued by {@link TokenController}
+ * or by HTTP basic against the users of {@link UserStoreProperties}, followed by
+ * the per user rate limit. The health endpoint with its liveness and
+ * readiness groups is open to the probes, the other actuator endpoints such
+ * as metrics and prometheus are for admins.
+ * 
+ * @author Shijin Raj
+ *
+ */
+@EnableGlobalMethodSecurity(prePostEnabled = true)
+@EnableConfigurationProperties({ UserStoreProperties.class, RateLimitProperties.class })
+@Profile("!reactive")
 @Configuration
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
+	@Autowired
+	private UserStoreProperties userStoreProperties;
+
+	@Autowired
+	private TokenService tokenService;
+
+	@Autowired
+	private RateLimitProperties rateLimitProperties;
+
+	@Autowired
+	private RateLimiter rateLimiter;
+
 	@Override
 	protected void configure(HttpSecurity http) throws Exception {
-		http.csrf().disable().authorizeRequests().anyRequest().authenticated().and().httpBasic();
+		http.csrf().disable().sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and()
+				.addFilterBefore(new TokenAuthenticationFilter(tokenService, TokenController.TOKEN_PATH),
+						BasicAuthenticationFilter.class)
+				.authorizeRequests().requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+				.requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN").anyRequest().authenticated().and()
+				.httpBasic();
+		if (rateLimitProperties.isEnabled()) {
+			http.addFilterAfter(new RateLimitFilter(rateLimiter), BasicAuthenticationFilter.class);
+		}
 	}
 
 	@Autowired
 	public void configureGlobal(AuthenticationManagerBuilder auth) throws Exception {
-		auth.inMemoryAuthentication().withUser("user").password("{noop}user").roles("USER").and().withUser("admin")
-				.password("{noop}admin").roles("ADMIN").and().withUser("test").password("{noop}test").roles("TESTER");
+		InMemoryUserDetailsManagerConfigurer<AuthenticationManagerBuilder> users = auth.inMemoryAuthentication();
+		userStoreProperties.getUserDetails().forEach(users::withUser);
 	}
 }
@@ -0,0 +1,71 @@
+package de.test.url.shortener.config;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import de.test.url.shortener.service.token.TokenService;
+
+/**
+ * Authenticates a request with an Authorization: Bearer header by the
+ * {@link TokenService}, ahead of HTTP basic. An invalid or expired token is
+ * rejected right away with 401.
+ *
+ * The token path itself is skipped, so a new token can be issued for the
+ * credentials only and not for a token.
+ *
+ * @author Shijin Raj
+ *
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+	private static final String BEARER = "Bearer ";
+
+	private final TokenService tokenService;
+
+	private final String tokenPath;
+
+	public TokenAuthenticationFilter(TokenService tokenService, String tokenPath) {
+		this.tokenService = tokenService;
+		this.tokenPath = tokenPath;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+		if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+			return true;
+		}
+		String path = request.getRequestURI();
+		int contextPathLength = request.getContextPath().length();
+		return path.length() - contextPathLength == tokenPath.length()
+				&& path.startsWith(tokenPath, contextPathLength);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		Authentication authentication = tokenService
+				.verify(request.getHeader(HttpHeaders.AUTHORIZATION).substring(BEARER.length()).trim());
+
+		if (authentication == null) {
+			SecurityContextHolder.clearContext();
+			response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+			response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+			response.setContentLength(0);
+			return;
+		}
+
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+		filterChain.doFilter(request, response);
+	}
+
+}
@@ -0,0 +1,43 @@
+package de.test.url.shortener.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import lombok.Data;
+
+/**
+ * Users allowed to authenticate, configured under urlshortener.security.users.
+ * Passwords are stored in the {@link org.springframework.security.crypto.password.DelegatingPasswordEncoder}
+ * format, e.g. {noop}secret or {bcrypt}$2a$10$...
+ *
+ * @author Shijin Raj
+ *
+ */
+@Data
+@ConfigurationProperties(prefix = "urlshortener.security")
+public class UserStoreProperties {
+
+	private List<User> users = new ArrayList<>();
+
+	/**
+	 * @return the configured users as Spring Security user details
+	 */
+	public List<UserDetails> getUserDetails() {
+		return users.stream()
+				.map(user -> org.springframework.security.core.userdetails.User.withUsername(user.getUsername())
+						.password(user.getPassword()).roles(user.getRoles().toArray(new String[0])).build())
+				.collect(Collectors.toList());
+	}
+
+	@Data
+	public static class User {
+		private String username;
+		private String password;
+		private List<String> roles = new ArrayList<>();
+	}
+
+}
@@ -0,0 +1,65 @@
+package de.test.url.shortener.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional execution of each request on its own virtual thread instead of the
+ * Tomcat thread pool, so a request blocked on JDBC no longer holds one of a
+ * few hundred platform threads. The JDBC connection pool is then what bounds
+ * the concurrent data base work, sized by spring.datasource.hikari.*.
+ *
+ * Virtual threads are looked up at runtime, as the application is built for
+ * Java 8: on a Java runtime without them the Tomcat thread pool is kept.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Slf4j
+@ConditionalOnProperty(name = "urlshortener.virtual-threads.enabled", havingValue = "true")
+@Profile("!reactive")
+@Configuration
+public class VirtualThreadConfig {
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+		ExecutorService executor = newVirtualThreadPerTaskExecutor();
+		return protocolHandler -> {
+			if (executor != null) {
+				protocolHandler.setExecutor(executor);
+			}
+		};
+	}
+
+	/**
+	 * @return Executors.newVirtualThreadPerTaskExecutor(), or null if the Java
+	 *         runtime has no virtual threads
+	 */
+	public static ExecutorService newVirtualThreadPerTaskExecutor() {
+		Method factory;
+		try {
+			factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException exception) {
+			log.warn("Virtual threads are not available on Java {}, requests run on the Tomcat thread pool",
+					System.getProperty("java.version"));
+			return null;
+		}
+		try {
+			log.info("Requests run on virtual threads");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException exception) {
+			throw new IllegalStateException("Failed to create the virtual thread executor", exception);
+		}
+	}
+
+}
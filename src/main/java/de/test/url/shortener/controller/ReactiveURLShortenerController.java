@@ -0,0 +1,98 @@
+package de.test.url.shortener.controller;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.util.Optional;
+
+import org.apache.commons.validator.routines.UrlValidator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.URLDetails;
+import de.test.url.shortener.service.ReactiveURLShortenerService;
+import io.swagger.annotations.Api;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux variant of {@link URLShortenerController} for the reactive profile,
+ * serving the same paths without blocking a request thread on the data base
+ * 
+ * @author Shijin Raj
+ *
+ */
+@Api(value = "REST APIs related for URL Shortener")
+@Profile("reactive")
+@RestController
+@RequestMapping("/api/tinyurl")
+public class ReactiveURLShortenerController {
+
+	private static final String HAS_ROLE_ADMIN = "hasRole('ADMIN')";
+
+	private static final String HAS_ROLE_ADMIN_OR_HAS_ROLE_USER = "hasRole('ADMIN') or hasRole('USER')";
+
+	public final UrlValidator urlValidator = new UrlValidator(new String[] { "http", "https" });
+
+	@Autowired
+	private ReactiveURLShortenerService urlShortenerService;
+
+	@PreAuthorize(HAS_ROLE_ADMIN_OR_HAS_ROLE_USER)
+	@PostMapping
+	public Mono<URLDetails> create(@RequestBody final String url, final Mono<Principal> principal) {
+
+		Optional.of(url).filter(StringUtils::hasText).map(String::trim).filter(urlValidator::isValid)
+				.orElseThrow(() -> new IllegalArgumentException("Invalid URL - " + url));
+
+		return principal.flatMap(user -> urlShortenerService.create(user.getName(), url));
+	}
+
+	@PreAuthorize(HAS_ROLE_ADMIN_OR_HAS_ROLE_USER)
+	@GetMapping("/{id}")
+	public Mono<String> get(@PathVariable final String id,
+			@RequestHeader(value = HttpHeaders.REFERER, required = false) final String referrer,
+			@RequestHeader(value = HttpHeaders.USER_AGENT, required = false) final String userAgent,
+			final ServerHttpRequest request, final Mono<Principal> principal) {
+
+		Optional.of(id).filter(StringUtils::hasText).map(String::trim)
+				.orElseThrow(() -> new IllegalArgumentException("Invalid Tiny URL - " + id));
+
+		String clientAddress = Optional.ofNullable(request.getRemoteAddress()).map(InetSocketAddress::getAddress)
+				.map(InetAddress::getHostAddress).orElse(null);
+		return principal
+				.flatMap(user -> urlShortenerService.get(user.getName(), id, clientAddress, referrer, userAgent));
+	}
+
+	@PreAuthorize(HAS_ROLE_ADMIN)
+	@GetMapping("/statistics")
+	public Flux<Statistics> getAllStatistics() {
+		return urlShortenerService.getAllStatistics();
+	}
+
+	@PreAuthorize(HAS_ROLE_ADMIN_OR_HAS_ROLE_USER)
+	@GetMapping("/user/statistics")
+	public Flux<Statistics> getUserStatistics(final Mono<Principal> principal) {
+		return principal.flatMapMany(user -> urlShortenerService.getUserStatistics(user.getName()));
+	}
+
+	@PreAuthorize(HAS_ROLE_ADMIN)
+	@GetMapping("/user/{userId}/statistics")
+	public Flux<Statistics> getUserStatisticsForAdmin(@PathVariable final String userId) {
+		Optional.of(userId).filter(StringUtils::hasText).map(String::trim)
+				.orElseThrow(() -> new IllegalArgumentException("Invalid userId - " + userId));
+		return urlShortenerService.getUserStatistics(userId);
+	}
+
+}
@@ -0,0 +1,106 @@
+package de.test.url.shortener.controller;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import de.test.url.shortener.service.URLShortenerService;
+import de.test.url.shortener.service.shortcode.ShortCodeGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Public redirect from /{code} to the URL of the tiny URL.
+ *
+ * Registered ahead of the Spring Security filter chain and answered without
+ * the dispatcher servlet, so a redirect costs a cache lookup and two header
+ * writes. Only paths of a single short code the generator can issue are
+ * answered, any other path continues down the chain. A HEAD request is
+ * answered like a GET without counting a call or a click, link checkers and
+ * previews do not follow the redirect.
+ *
+ * Redirects are not seen by the http.server.requests metrics of Spring MVC,
+ * they are timed as urlshortener.redirect by outcome with timers registered
+ * up front.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Profile("!reactive")
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RedirectFilter extends OncePerRequestFilter {
+
+	private static final String REDIRECT_TIMER = "urlshortener.redirect";
+
+	@Value("${urlshortener.redirect.status:302}")
+	private int redirectStatus;
+
+	@Autowired
+	private URLShortenerService urlShortenerService;
+
+	@Autowired
+	private ShortCodeGenerator shortCodeGenerator;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Timer redirectTimer;
+
+	private Timer notFoundTimer;
+
+	@PostConstruct
+	public void registerMetrics() {
+		redirectTimer = Timer.builder(REDIRECT_TIMER).tag("outcome", "REDIRECT").register(meterRegistry);
+		notFoundTimer = Timer.builder(REDIRECT_TIMER).tag("outcome", "NOT_FOUND").register(meterRegistry);
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		String method = request.getMethod();
+		if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+			return true;
+		}
+		String path = request.getRequestURI();
+		int start = request.getContextPath().length() + 1;
+		return path.length() <= start || path.charAt(start - 1) != '/'
+				|| !shortCodeGenerator.isShortCode(path, start, path.length());
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		long start = System.nanoTime();
+		String path = request.getRequestURI();
+		String id = path.substring(request.getContextPath().length() + 1);
+		String url = HttpMethod.HEAD.matches(request.getMethod()) ? urlShortenerService.peek(id)
+				: urlShortenerService.resolve(id, request.getRemoteAddr(), request.getHeader(HttpHeaders.REFERER),
+						request.getHeader(HttpHeaders.USER_AGENT));
+
+		if (url == null) {
+			response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+		} else {
+			response.setStatus(redirectStatus);
+			response.setHeader(HttpHeaders.LOCATION, url);
+		}
+		response.setContentLength(0);
+
+		(url == null ? notFoundTimer : redirectTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+	}
+
+}
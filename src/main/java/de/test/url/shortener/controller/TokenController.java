@@ -0,0 +1,32 @@
+package de.test.url.shortener.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import de.test.url.shortener.repository.domain.AccessToken;
+import de.test.url.shortener.service.token.TokenService;
+import io.swagger.annotations.Api;
+
+@Api(value = "REST APIs related for URL Shortener authentication")
+@Profile("!reactive")
+@RestController
+public class TokenController {
+
+	public static final String TOKEN_PATH = "/api/token";
+
+	@Autowired
+	private TokenService tokenService;
+
+	/**
+	 * @return a signed token for the user authenticated by HTTP basic, to be
+	 *         sent as Authorization: Bearer header
+	 */
+	@PostMapping(TOKEN_PATH)
+	public AccessToken create() {
+		return tokenService.issue(SecurityContextHolder.getContext().getAuthentication());
+	}
+
+}
@@ -1,10 +1,31 @@
 package de.test.url.shortener.controller;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.validator.routines.UrlValidator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.StringUtils;
@@ -12,15 +33,30 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import de.test.url.shortener.repository.domain.BulkCreateResult;
+import de.test.url.shortener.repository.domain.ClickGranularity;
+import de.test.url.shortener.repository.domain.ClickTimeSeries;
+import de.test.url.shortener.repository.domain.LinkClicks;
+import de.test.url.shortener.repository.domain.LinkVisitors;
 import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.StatisticsPage;
+import de.test.url.shortener.repository.domain.StatisticsSort;
 import de.test.url.shortener.repository.domain.URLDetails;
 import de.test.url.shortener.service.URLShortenerService;
 import io.swagger.annotations.Api;
 
 @Api(value = "REST APIs related for URL Shortener")
+@Profile("!reactive")
 @RestController
 @RequestMapping("/api/tinyurl")
 public class URLShortenerController {
@@ -29,11 +65,22 @@ public class URLShortenerController {
 
 	private static final String HAS_ROLE_ADMIN_OR_HAS_ROLE_USER = "hasRole('ADMIN') or hasRole('USER')";
 
+	private static final String DEFAULT_PAGE_SIZE = "100";
+
+	private static final String DEFAULT_TOP_LINKS = "10";
+
+	private static final int STREAM_FLUSH_INTERVAL = 1000;
+
+	private static final int BULK_CHUNK_SIZE = 1000;
+
 	public final UrlValidator urlValidator = new UrlValidator(new String[] { "http", "https" });
 
 	@Autowired
 	private URLShortenerService urlShortenerService;
 
+	@Autowired
+	private ObjectMapper objectMapper;
+
 	@PreAuthorize(HAS_ROLE_ADMIN_OR_HAS_ROLE_USER)
 	@PostMapping
 	public URLDetails create(@RequestBody final String url) {
@@ -41,19 +88,73 @@ public class URLShortenerController {
 		Optional.of(url).filter(StringUtils::hasText).map(String::trim).filter(urlValidator::isValid)
 				.orElseThrow(() -> new IllegalArgumentException("Invalid URL - " + url));
 
-		return urlShortenerService.create(SecurityContextHolder.getContext().getAuthentication().getName(), url);
+		return urlShortenerService.create(getUserId(), url);
+	}
+
+	@PreAuthorize(HAS_ROLE_ADMIN_OR_HAS_ROLE_USER)
+	@PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public List<BulkCreateResult> createAll(@RequestBody final List<String> urls) {
+		return createAll(getUserId(), urls);
+	}
+
+	/**
+	 * Streaming variant of {@link #createAll(List)} for imports of any size. Each
+	 * line is a URL, as JSON string or plain, the results are written as one
+	 * JSON document per line in the same order, {@link #BULK_CHUNK_SIZE} URLs at
+	 * a time.
+	 */
+	@PreAuthorize(HAS_ROLE_ADMIN_OR_HAS_ROLE_USER)
+	@PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+			produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> createAllStream(final InputStream inputStream) {
+		String userId = getUserId();
+
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(outputStream -> {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+			try (JsonGenerator generator = createNdjsonGenerator(outputStream)) {
+				List<String> urls = new ArrayList<>(BULK_CHUNK_SIZE);
+				for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+					if (StringUtils.hasText(line)) {
+						urls.add(readNdjsonURL(line.trim()));
+					}
+					if (urls.size() == BULK_CHUNK_SIZE) {
+						writeBulkResults(generator, createAll(userId, urls));
+						urls.clear();
+					}
+				}
+				writeBulkResults(generator, createAll(userId, urls));
+			}
+		});
 	}
 
 	@PreAuthorize(HAS_ROLE_ADMIN_OR_HAS_ROLE_USER)
 	@GetMapping("/{id}")
-	public String get(@PathVariable final String id) {
+	public String get(@PathVariable final String id,
+			@RequestHeader(value = HttpHeaders.REFERER, required = false) final String referrer,
+			@RequestHeader(value = HttpHeaders.USER_AGENT, required = false) final String userAgent,
+			final HttpServletRequest request) {
 
-		return Optional.of(id).filter(StringUtils::hasText).map(String::trim)
-				.map(tinyURL -> urlShortenerService
-						.get(SecurityContextHolder.getContext().getAuthentication().getName(), id))
+		return Optional.of(id).filter(StringUtils::hasText).map(String::trim).map(tinyURL -> urlShortenerService
+				.get(getUserId(), id, request.getRemoteAddr(), referrer, userAgent))
 				.orElseThrow(() -> new IllegalArgumentException("Invalid Tiny URL - " + id));
 	}
 
+	/**
+	 * Bulk variant of {@link #get(String, String, String, HttpServletRequest)}
+	 *
+	 * @return id to URL of the ids resolved, in request order
+	 */
+	@PreAuthorize(HAS_ROLE_ADMIN_OR_HAS_ROLE_USER)
+	@PostMapping(value = "/resolve", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public Map<String, String> resolveAll(@RequestBody final List<String> ids) {
+		List<String> tinyURLs = ids.stream()
+				.map(id -> Optional.ofNullable(id).filter(StringUtils::hasText).map(String::trim)
+						.orElseThrow(() -> new IllegalArgumentException("Invalid Tiny URL - " + id)))
+				.collect(Collectors.toList());
+
+		return urlShortenerService.resolveAll(getUserId(), tinyURLs);
+	}
+
 	@PreAuthorize(HAS_ROLE_ADMIN)
 	@GetMapping("/statistics")
 	public List<Statistics> getAllStatistics() {
@@ -63,7 +164,7 @@ public class URLShortenerController {
 	@PreAuthorize(HAS_ROLE_ADMIN_OR_HAS_ROLE_USER)
 	@GetMapping("/user/statistics")
 	public List<Statistics> getUserStatistics() {
-		return urlShortenerService.getUserStatistics(SecurityContextHolder.getContext().getAuthentication().getName());
+		return urlShortenerService.getUserStatistics(getUserId());
 	}
 
 	@PreAuthorize(HAS_ROLE_ADMIN)
@@ -74,4 +175,164 @@ public class URLShortenerController {
 		return urlShortenerService.getUserStatistics(userId);
 	}
 
+	@PreAuthorize(HAS_ROLE_ADMIN)
+	@GetMapping("/statistics/page")
+	public StatisticsPage getAllStatisticsPage(@RequestParam(required = false) final String cursor,
+			@RequestParam(defaultValue = DEFAULT_PAGE_SIZE) final int size,
+			@RequestParam(defaultValue = "URL") final StatisticsSort sort) {
+		return urlShortenerService.getAllStatistics(cursor, size, sort);
+	}
+
+	@PreAuthorize(HAS_ROLE_ADMIN)
+	@GetMapping(value = "/statistics/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamAllStatistics() {
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+				.body(outputStream -> writeNdjson(outputStream, urlShortenerService::streamAllStatistics));
+	}
+
+	/**
+	 * Clicks of the tiny URL per bucket, from and to as ISO date times
+	 */
+	@PreAuthorize(HAS_ROLE_ADMIN)
+	@GetMapping("/statistics/clicks/{id}")
+	public ClickTimeSeries getClickTimeSeries(@PathVariable final String id,
+			@RequestParam(defaultValue = "HOUR") final ClickGranularity granularity,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) final Instant from,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) final Instant to) {
+		return urlShortenerService.getClickTimeSeries(id.trim(), granularity, from, to);
+	}
+
+	/**
+	 * Tiny URLs with the most clicks from to, summed on hour or day buckets
+	 */
+	@PreAuthorize(HAS_ROLE_ADMIN)
+	@GetMapping("/statistics/clicks")
+	public List<LinkClicks> getTopLinks(@RequestParam(defaultValue = "HOUR") final ClickGranularity granularity,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) final Instant from,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) final Instant to,
+			@RequestParam(defaultValue = DEFAULT_TOP_LINKS) final int limit) {
+		return urlShortenerService.getTopLinks(granularity, from, to, limit);
+	}
+
+	/**
+	 * Estimated distinct visitors of the tiny URL on the days from to, on all
+	 * days without from and to
+	 */
+	@PreAuthorize(HAS_ROLE_ADMIN)
+	@GetMapping("/statistics/visitors/{id}")
+	public LinkVisitors getUniqueVisitors(@PathVariable final String id,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) final Instant from,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) final Instant to) {
+		return urlShortenerService.getUniqueVisitors(id.trim(), from, to);
+	}
+
+	/**
+	 * Approximate tiny URLs clicked most since start, of all users or of the
+	 * given one
+	 */
+	@PreAuthorize(HAS_ROLE_ADMIN)
+	@GetMapping("/statistics/top")
+	public List<LinkClicks> getHotLinks(@RequestParam(required = false) final String userId,
+			@RequestParam(defaultValue = DEFAULT_TOP_LINKS) final int limit) {
+		return urlShortenerService.getHotLinks(
+				Optional.ofNullable(userId).filter(StringUtils::hasText).map(String::trim).orElse(null), limit);
+	}
+
+	@PreAuthorize(HAS_ROLE_ADMIN)
+	@GetMapping("/user/{userId}/statistics/page")
+	public StatisticsPage getUserStatisticsPageForAdmin(@PathVariable final String userId,
+			@RequestParam(required = false) final String cursor,
+			@RequestParam(defaultValue = DEFAULT_PAGE_SIZE) final int size,
+			@RequestParam(defaultValue = "URL") final StatisticsSort sort) {
+		return urlShortenerService.getUserStatistics(userId.trim(), cursor, size, sort);
+	}
+
+	@PreAuthorize(HAS_ROLE_ADMIN)
+	@GetMapping(value = "/user/{userId}/statistics/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamUserStatisticsForAdmin(@PathVariable final String userId) {
+		Optional.of(userId).filter(StringUtils::hasText).map(String::trim)
+				.orElseThrow(() -> new IllegalArgumentException("Invalid userId - " + userId));
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(outputStream -> writeNdjson(
+				outputStream, consumer -> urlShortenerService.streamUserStatistics(userId.trim(), consumer)));
+	}
+
+	/**
+	 * @return the name of the user authenticated for the current request
+	 */
+	private String getUserId() {
+		return SecurityContextHolder.getContext().getAuthentication().getName();
+	}
+
+	/**
+	 * Validates the URLs in parallel and creates the valid ones in one batch
+	 * 
+	 * @return one result per URL, in the same order
+	 */
+	private List<BulkCreateResult> createAll(String userId, List<String> urls) {
+		List<String> validURLs = urls.parallelStream()
+				.map(url -> Optional.ofNullable(url).map(String::trim).filter(urlValidator::isValid).orElse(null))
+				.collect(Collectors.toList());
+
+		Map<String, URLDetails> urlDetailsByURL = urlShortenerService.createAll(userId,
+				validURLs.stream().filter(Objects::nonNull).collect(Collectors.toList()));
+
+		List<BulkCreateResult> results = new ArrayList<>(urls.size());
+		for (int index = 0; index < urls.size(); index++) {
+			String validURL = validURLs.get(index);
+			results.add(validURL == null
+					? BulkCreateResult.builder().url(urls.get(index)).error("Invalid URL - " + urls.get(index)).build()
+					: BulkCreateResult.builder().url(validURL).urlDetails(urlDetailsByURL.get(validURL)).build());
+		}
+		return results;
+	}
+
+	private String readNdjsonURL(String line) {
+		if (line.charAt(0) != '"') {
+			return line;
+		}
+		try {
+			return objectMapper.readValue(line, String.class);
+		} catch (JsonProcessingException exception) {
+			return line;
+		}
+	}
+
+	private void writeBulkResults(JsonGenerator generator, List<BulkCreateResult> results) throws IOException {
+		for (BulkCreateResult result : results) {
+			generator.writeObject(result);
+			generator.writeRaw('\n');
+		}
+		generator.flush();
+	}
+
+	/**
+	 * Writes one JSON document per line, flushing the first line right away and
+	 * then every {@link #STREAM_FLUSH_INTERVAL} lines
+	 */
+	private void writeNdjson(OutputStream outputStream, Consumer<Consumer<Statistics>> statisticsSource)
+			throws IOException {
+		try (JsonGenerator generator = createNdjsonGenerator(outputStream)) {
+			int[] written = { 0 };
+			statisticsSource.accept(statistics -> {
+				try {
+					generator.writeObject(statistics);
+					generator.writeRaw('\n');
+					if (written[0]++ % STREAM_FLUSH_INTERVAL == 0) {
+						generator.flush();
+					}
+				} catch (IOException exception) {
+					throw new UncheckedIOException(exception);
+				}
+			});
+		}
+	}
+
+	/**
+	 * @return a generator separating root values by the line feeds written
+	 *         after each value only
+	 */
+	private JsonGenerator createNdjsonGenerator(OutputStream outputStream) throws IOException {
+		return objectMapper.getFactory().createGenerator(outputStream).setRootValueSeparator(null);
+	}
+
 }
@@ -12,4 +12,5 @@ public final class ExceptionHandlerConstants {
 	public final static String NULLPOINTER_EXCEPTION = "NullPointer Exception";
 	public final static String CONTACT_SUPPORTTEAM = "Please contact support team";
 	public final static String GENERAL_EXCEPTION = "General Exception";
+	public final static String NOT_FOUND = "Requested resource is not available";
 }
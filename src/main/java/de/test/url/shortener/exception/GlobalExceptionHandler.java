@@ -1,13 +1,17 @@
 package de.test.url.shortener.exception;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
+import javax.persistence.NoResultException;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -20,6 +24,9 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class GlobalExceptionHandler {
 
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	/**
 	 * @param exception
 	 * @return ResponseEntity<ErrorDetails>
@@ -27,7 +34,7 @@ public class GlobalExceptionHandler {
 	@ExceptionHandler(value = { IllegalArgumentException.class })
 	public ResponseEntity<ErrorDetails> handleIllegalArgumentException(final IllegalArgumentException exception) {
 
-		ErrorDetails error = ErrorDetails.builder().code(new Random().nextInt() & Integer.MAX_VALUE)
+		ErrorDetails error = ErrorDetails.builder().code(nextErrorCode())
 				.type(HttpStatus.BAD_REQUEST.getReasonPhrase()).description(ExceptionHandlerConstants.INVALID_PARAMETER)
 				.moreInfo(
 
@@ -35,7 +42,23 @@ public class GlobalExceptionHandler {
 								: exception.getLocalizedMessage())
 				.build();
 
-		return new ResponseEntity<ErrorDetails>(error, HttpStatus.BAD_REQUEST);
+		return countedResponse(exception, error, HttpStatus.BAD_REQUEST);
+	}
+
+	/**
+	 * Unknown ids are expected at a high rate, a {@link NotFoundException}
+	 * captures no stack trace, so its message is the only cost left
+	 *
+	 * @param exception
+	 * @return ResponseEntity<ErrorDetails>
+	 */
+	@ExceptionHandler(value = { NoResultException.class })
+	public ResponseEntity<ErrorDetails> handleNoResultException(final NoResultException exception) {
+
+		ErrorDetails error = ErrorDetails.builder().code(nextErrorCode()).type(HttpStatus.NOT_FOUND.getReasonPhrase())
+				.description(ExceptionHandlerConstants.NOT_FOUND).moreInfo(exception.getMessage()).build();
+
+		return countedResponse(exception, error, HttpStatus.NOT_FOUND);
 	}
 
 	/**
@@ -45,7 +68,7 @@ public class GlobalExceptionHandler {
 	@ExceptionHandler(value = { NullPointerException.class })
 	public ResponseEntity<ErrorDetails> handleNullPointerException(final NullPointerException nullPointerException) {
 		log.info("Started excecuting handleNullPointerException() : GlobalExceptionHandler");
-		ErrorDetails error = ErrorDetails.builder().code(new Random().nextInt() & Integer.MAX_VALUE)
+		ErrorDetails error = ErrorDetails.builder().code(nextErrorCode())
 				.type(HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase())
 				.description(ExceptionHandlerConstants.CONTACT_SUPPORTTEAM).moreInfo(
 
@@ -54,7 +77,7 @@ public class GlobalExceptionHandler {
 								: nullPointerException.getLocalizedMessage())
 				.build();
 
-		return new ResponseEntity<ErrorDetails>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+		return countedResponse(nullPointerException, error, HttpStatus.INTERNAL_SERVER_ERROR);
 	}
 
 	/**
@@ -63,14 +86,14 @@ public class GlobalExceptionHandler {
 	 */
 	@ExceptionHandler(value = { Exception.class })
 	public ResponseEntity<ErrorDetails> handleGeneralException(final Exception exception) {
-		ErrorDetails error = ErrorDetails.builder().code(new Random().nextInt() & Integer.MAX_VALUE)
+		ErrorDetails error = ErrorDetails.builder().code(nextErrorCode())
 				.type(HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase())
 				.description(ExceptionHandlerConstants.CONTACT_SUPPORTTEAM)
 				.moreInfo((exception.getMessage() != null && !exception.getMessage().isEmpty()) ? exception.getMessage()
 						: exception.getLocalizedMessage())
 				.build();
 
-		return new ResponseEntity<ErrorDetails>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+		return countedResponse(exception, error, HttpStatus.INTERNAL_SERVER_ERROR);
 	}
 
 	/**
@@ -80,14 +103,33 @@ public class GlobalExceptionHandler {
 	@ExceptionHandler(value = { AccessDeniedException.class })
 	public ResponseEntity<ErrorDetails> handleAccessDeniedException(final AccessDeniedException exception) {
 
-		ErrorDetails error = ErrorDetails.builder().code(new Random().nextInt() & Integer.MAX_VALUE)
+		ErrorDetails error = ErrorDetails.builder().code(nextErrorCode())
 				.type(HttpStatus.UNAUTHORIZED.getReasonPhrase())
 				.description(ExceptionHandlerConstants.CONTACT_SUPPORTTEAM)
 				.moreInfo((exception.getMessage() != null && !exception.getMessage().isEmpty()) ? exception.getMessage()
 						: exception.getLocalizedMessage())
 				.build();
 
-		return new ResponseEntity<ErrorDetails>(error, HttpStatus.UNAUTHORIZED);
+		return countedResponse(exception, error, HttpStatus.UNAUTHORIZED);
+	}
+
+	/**
+	 * Counts the handled exception as urlshortener.exceptions, tagged by
+	 * exception type and response status
+	 */
+	private ResponseEntity<ErrorDetails> countedResponse(final Exception exception, final ErrorDetails error,
+			final HttpStatus status) {
+		meterRegistry.counter("urlshortener.exceptions", "exception", exception.getClass().getSimpleName(), "status",
+				Integer.toString(status.value())).increment();
+		return new ResponseEntity<ErrorDetails>(error, status);
+	}
+
+	/**
+	 * @return a positive random code of the error, from the random of the
+	 *         current thread instead of a new seeded one
+	 */
+	private static long nextErrorCode() {
+		return ThreadLocalRandom.current().nextInt() & Integer.MAX_VALUE;
 	}
 
 }
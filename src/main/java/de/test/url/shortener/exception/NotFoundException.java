@@ -0,0 +1,28 @@
+package de.test.url.shortener.exception;
+
+import javax.persistence.NoResultException;
+
+/**
+ * Cheap {@link NoResultException} for the expected miss of an unknown id,
+ * handled as 404 by the {@link GlobalExceptionHandler}.
+ *
+ * No stack trace is captured, so a miss costs the exception and its message,
+ * which the response includes anyway.
+ *
+ * @author Shijin Raj
+ *
+ */
+public class NotFoundException extends NoResultException {
+
+	private static final long serialVersionUID = 2954120391474381206L;
+
+	public NotFoundException(String message) {
+		super(message);
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+
+}
@@ -0,0 +1,95 @@
+package de.test.url.shortener.repository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.test.url.shortener.repository.domain.ClickGranularity;
+import de.test.url.shortener.repository.domain.LinkClicks;
+
+/**
+ * JDBC repository of the clicks per tiny URL and hour or day bucket, in
+ * epoch milliseconds of the bucket start
+ *
+ * @author Shijin Raj
+ *
+ */
+@Repository
+public class ClickStatisticsRepository {
+
+	private static final String ADD_CLICKS = "MERGE INTO click_statistics target"
+			+ " USING (SELECT CAST(? AS VARCHAR(10)) id, CAST(? AS VARCHAR(6)) granularity, CAST(? AS BIGINT) bucket_start, CAST(? AS BIGINT) clicks) source"
+			+ " ON (target.id = source.id AND target.granularity = source.granularity AND target.bucket_start = source.bucket_start)"
+			+ " WHEN MATCHED THEN UPDATE SET clicks = target.clicks + source.clicks"
+			+ " WHEN NOT MATCHED THEN INSERT (id, granularity, bucket_start, clicks)"
+			+ " VALUES (source.id, source.granularity, source.bucket_start, source.clicks)";
+
+	private static final String FIND_BUCKETS = "SELECT bucket_start, clicks FROM click_statistics"
+			+ " WHERE id = ? AND granularity = ? AND bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start";
+
+	private static final String FIND_TOP = "SELECT id, SUM(clicks) clicks FROM click_statistics"
+			+ " WHERE granularity = ? AND bucket_start >= ? AND bucket_start < ?"
+			+ " GROUP BY id ORDER BY clicks DESC, id LIMIT ?";
+
+	private static final String DELETE_BEFORE = "DELETE FROM click_statistics WHERE granularity = ? AND bucket_start < ?";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Adds the clicks to their buckets, all granularities in one transaction
+	 *
+	 * @param clicks granularity to id to bucket start to the clicks to add
+	 */
+	@Transactional
+	public void addClicks(Map<ClickGranularity, Map<String, Map<Long, Long>>> clicks) {
+		List<Object[]> batchArgs = clicks.entrySet().stream()
+				.flatMap(byGranularity -> byGranularity.getValue().entrySet().stream()
+						.flatMap(byId -> byId.getValue().entrySet().stream()
+								.map(byBucket -> new Object[] { byId.getKey(), byGranularity.getKey().name(),
+										byBucket.getKey(), byBucket.getValue() })))
+				.collect(Collectors.toList());
+
+		jdbcTemplate.batchUpdate(ADD_CLICKS, batchArgs);
+	}
+
+	/**
+	 * @return bucket start to clicks of the buckets with clicks in [from, to),
+	 *         in order
+	 */
+	public Map<Long, Long> findBuckets(String id, ClickGranularity granularity, long from, long to) {
+		return jdbcTemplate.query(FIND_BUCKETS, resultSet -> {
+			Map<Long, Long> buckets = new LinkedHashMap<>();
+			while (resultSet.next()) {
+				buckets.put(resultSet.getLong(1), resultSet.getLong(2));
+			}
+			return buckets;
+		}, id, granularity.name(), from, to);
+	}
+
+	/**
+	 * @return the limit ids with the most clicks in the buckets of [from, to),
+	 *         most first, without their URLs
+	 */
+	public List<LinkClicks> findTop(ClickGranularity granularity, long from, long to, int limit) {
+		return jdbcTemplate.query(FIND_TOP,
+				(resultSet, rowNumber) -> LinkClicks.builder().id(resultSet.getString(1))
+						.clicks(resultSet.getLong(2)).build(),
+				granularity.name(), from, to, limit);
+	}
+
+	/**
+	 * @return the number of buckets deleted
+	 */
+	@Transactional
+	public int deleteBefore(ClickGranularity granularity, long before) {
+		return jdbcTemplate.update(DELETE_BEFORE, granularity.name(), before);
+	}
+
+}
@@ -0,0 +1,109 @@
+package de.test.url.shortener.repository;
+
+import java.util.function.BiFunction;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.URLDetails;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non blocking R2DBC counterpart of {@link URLShortenerRepository} for the
+ * reactive profile. Both work on the same tables, the schema is still migrated
+ * by Flyway over JDBC.
+ *
+ * The transaction manager is not a bean, a reactive transaction manager bean
+ * would make the JPA one of the servlet stack components back off.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Profile("reactive")
+@Repository
+public class ReactiveURLShortenerRepository {
+
+	private static final BiFunction<Row, RowMetadata, URLDetails> URL_DETAILS_MAPPER = (row, rowMetadata) -> URLDetails
+			.builder().id(row.get("id", String.class)).userId(row.get("user_id", String.class))
+			.url(row.get("url", String.class)).creationCount(count(row, "creation_count"))
+			.callCount(count(row, "call_count")).build();
+
+	private static final BiFunction<Row, RowMetadata, Statistics> STATISTICS_MAPPER = (row,
+			rowMetadata) -> new Statistics(row.get("url", String.class), count(row, "creation_count"),
+					count(row, "call_count"));
+
+	@Autowired
+	private DatabaseClient databaseClient;
+
+	@Autowired
+	private ConnectionFactory connectionFactory;
+
+	private TransactionalOperator transactionalOperator;
+
+	@PostConstruct
+	public void init() {
+		transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+	}
+
+	/**
+	 * The UPDATE and the SELECT of the updated row run in one transaction, as
+	 * {@link URLShortenerRepositoryCustom#incrementCreationCount(String, String)}
+	 * does
+	 * 
+	 * @return the updated row, empty if the user id and URL do not exist yet
+	 */
+	public Mono<URLDetails> incrementCreationCount(String userId, String url) {
+		return databaseClient.sql(URLDetailsSql.INCREMENT_CREATION_COUNT).bind("userId", userId).bind("url", url)
+				.fetch().rowsUpdated()
+				.flatMap(rowsUpdated -> rowsUpdated == 0 ? Mono.empty()
+						: databaseClient.sql(URLDetailsSql.FIND_BY_USER_ID_AND_URL).bind("userId", userId)
+								.bind("url", url).map(URL_DETAILS_MAPPER).one())
+				.as(transactionalOperator::transactional);
+	}
+
+	/**
+	 * The MERGE and the SELECT of the merged row run in one transaction, as
+	 * {@link URLShortenerRepositoryCustom#upsert(String, String, String)} does
+	 * 
+	 * @see URLShortenerRepositoryCustom#upsert(String, String, String)
+	 */
+	public Mono<URLDetails> upsert(String id, String userId, String url) {
+		return databaseClient.sql(URLDetailsSql.UPSERT).bind("id", id).bind("userId", userId).bind("url", url).then()
+				.then(databaseClient.sql(URLDetailsSql.FIND_BY_USER_ID_AND_URL).bind("userId", userId)
+						.bind("url", url).map(URL_DETAILS_MAPPER).one())
+				.as(transactionalOperator::transactional);
+	}
+
+	public Mono<URLDetails> findById(String id) {
+		return databaseClient.sql(URLDetailsSql.FIND_BY_ID).bind("id", id).map(URL_DETAILS_MAPPER).one();
+	}
+
+	public Flux<Statistics> findAllStatistics() {
+		return databaseClient.sql(URLDetailsSql.FIND_ALL_STATISTICS).map(STATISTICS_MAPPER).all();
+	}
+
+	public Flux<Statistics> findUserStatistics(String userId) {
+		return databaseClient.sql(URLDetailsSql.FIND_USER_STATISTICS).bind("userId", userId).map(STATISTICS_MAPPER)
+				.all();
+	}
+
+	/**
+	 * SUM widens the count columns depending on the data base, so they are read
+	 * as any number
+	 */
+	private static long count(Row row, String name) {
+		return row.get(name, Number.class).longValue();
+	}
+
+}
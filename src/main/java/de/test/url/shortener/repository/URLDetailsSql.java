@@ -0,0 +1,56 @@
+package de.test.url.shortener.repository;
+
+/**
+ * Native SQL shared by the JDBC and the R2DBC repositories, with named
+ * parameters so both can bind them
+ * 
+ * @author Shijin Raj
+ *
+ */
+final class URLDetailsSql {
+
+	static final String UPSERT = "MERGE INTO urldetails target"
+			+ " USING (SELECT CAST(:id AS VARCHAR(10)) id, CAST(:userId AS VARCHAR(255)) user_id, CAST(:url AS VARCHAR(2048)) url) source"
+			+ " ON (target.user_id = source.user_id AND target.url_hash = HASH('SHA256', source.url))"
+			+ " WHEN MATCHED THEN UPDATE SET creation_count = creation_count + 1"
+			+ " WHEN NOT MATCHED THEN INSERT (id, user_id, url, creation_count, call_count)"
+			+ " VALUES (source.id, source.user_id, source.url, 1, 0)";
+
+	/**
+	 * Counts a creation of an existing user id and URL, updates no row
+	 * otherwise
+	 */
+	static final String INCREMENT_CREATION_COUNT = "UPDATE urldetails SET creation_count = creation_count + 1"
+			+ " WHERE user_id = :userId AND url_hash = HASH('SHA256', :url) AND url = :url";
+
+	static final String SELECT_URL_DETAILS = "SELECT id, user_id, url, creation_count, call_count FROM urldetails";
+
+	static final String FIND_BY_USER_ID_AND_URL = SELECT_URL_DETAILS
+			+ " WHERE user_id = :userId AND url_hash = HASH('SHA256', :url) AND url = :url";
+
+	/**
+	 * Bulk variant of {@link #FIND_BY_USER_ID_AND_URL} with positional
+	 * parameters for an array of URLs and the user id. Joining the URLs does one
+	 * (user_id, url_hash) index lookup per URL, where H2 would use an IN list on
+	 * url_hash, as second index column, as filter of all rows of the user only.
+	 */
+	static final String FIND_BY_USER_ID_AND_URLS = "SELECT u.id, u.user_id, u.url, u.creation_count, u.call_count"
+			+ " FROM TABLE(url VARCHAR(2048) = ?) source INNER JOIN urldetails u"
+			+ " ON u.user_id = ? AND u.url_hash = HASH('SHA256', source.url) AND u.url = source.url";
+
+	static final String FIND_ALL_IDS = "SELECT id FROM urldetails";
+
+	static final String FIND_ALL_URLS = "SELECT id, user_id, url FROM urldetails";
+
+	static final String FIND_BY_ID = SELECT_URL_DETAILS + " WHERE id = :id";
+
+	static final String SELECT_STATISTICS = "SELECT url, SUM(creation_count) creation_count, SUM(call_count) call_count FROM urldetails";
+
+	static final String FIND_ALL_STATISTICS = SELECT_STATISTICS + " GROUP BY url ORDER BY url";
+
+	static final String FIND_USER_STATISTICS = SELECT_STATISTICS + " WHERE user_id = :userId GROUP BY url ORDER BY url";
+
+	private URLDetailsSql() {
+	}
+
+}
@@ -1,16 +1,64 @@
 package de.test.url.shortener.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import de.test.url.shortener.repository.domain.Statistics;
 import de.test.url.shortener.repository.domain.URLDetails;
 
-public interface URLShortenerRepository extends JpaRepository<URLDetails, String> {
-	
-	Optional<URLDetails> findByUserIdAndUrl(String userId,String url);
+public interface URLShortenerRepository extends JpaRepository<URLDetails, String>, URLShortenerRepositoryCustom {
+
+	String SELECT_STATISTICS = "SELECT new de.test.url.shortener.repository.domain.Statistics(u.url, SUM(u.creationCount), SUM(u.callCount)) FROM URLDetails u ";
+
+	String STREAM_FETCH_SIZE = "1000";
+
+	/**
+	 * Looks up by the indexed url_hash and compares the URL itself to rule out
+	 * hash collisions
+	 */
+	@Query(value = "SELECT * FROM urldetails WHERE user_id = :userId AND url_hash = HASH('SHA256', :url) AND url = :url", nativeQuery = true)
+	Optional<URLDetails> findByUserIdAndUrl(@Param("userId") String userId, @Param("url") String url);
+
 	Optional<URLDetails> findByUserIdAndId(String userId,String id);
 	Optional<List<URLDetails>> findByUserId(String userId);
 
+	/**
+	 * Aggregates in the data base, so no entity is loaded and the result size
+	 * depends on the number of distinct URLs only
+	 */
+	@Query(SELECT_STATISTICS + "GROUP BY u.url")
+	List<Statistics> findAllStatistics();
+
+	@Query(SELECT_STATISTICS + "WHERE u.url > :after GROUP BY u.url ORDER BY u.url")
+	List<Statistics> findAllStatisticsAfter(@Param("after") String after, Pageable pageable);
+
+	@Query(SELECT_STATISTICS + "GROUP BY u.url ORDER BY SUM(u.callCount) DESC, u.url")
+	List<Statistics> findTopStatisticsByCallCount(Pageable pageable);
+
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+	@Query(SELECT_STATISTICS + "GROUP BY u.url ORDER BY u.url")
+	Stream<Statistics> streamAllStatistics();
+
+	@Query(SELECT_STATISTICS + "WHERE u.userId = :userId AND u.url > :after GROUP BY u.url ORDER BY u.url")
+	List<Statistics> findUserStatisticsAfter(@Param("userId") String userId, @Param("after") String after,
+			Pageable pageable);
+
+	@Query(SELECT_STATISTICS + "WHERE u.userId = :userId GROUP BY u.url ORDER BY SUM(u.callCount) DESC, u.url")
+	List<Statistics> findTopUserStatisticsByCallCount(@Param("userId") String userId, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+	@Query(SELECT_STATISTICS + "WHERE u.userId = :userId GROUP BY u.url ORDER BY u.url")
+	Stream<Statistics> streamUserStatistics(@Param("userId") String userId);
+
 }
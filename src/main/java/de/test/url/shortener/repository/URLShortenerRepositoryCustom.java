@@ -0,0 +1,93 @@
+package de.test.url.shortener.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import de.test.url.shortener.repository.domain.URLDetails;
+
+/**
+ * Repository operations which are not expressible as Spring Data derived
+ * queries and are implemented with plain JDBC
+ * 
+ * @author Shijin Raj
+ *
+ */
+public interface URLShortenerRepositoryCustom {
+
+	/**
+	 * Adds the given deltas to the call count of the respective ids in a single
+	 * JDBC batch
+	 * 
+	 * @param callCountDeltas id to call count delta
+	 */
+	void incrementCallCounts(Map<String, Long> callCountDeltas);
+
+	/**
+	 * Increments the creation count of the existing tiny URL for the user id and
+	 * URL, so no id is drawn for it
+	 * 
+	 * @param userId
+	 * @param url
+	 * @return the updated row, empty if the user id and URL do not exist yet
+	 */
+	Optional<URLDetails> incrementCreationCount(String userId, String url);
+
+	/**
+	 * Bulk variant of {@link #incrementCreationCount(String, String)}, with one
+	 * JDBC batch for all UPDATEs in one transaction
+	 * 
+	 * @param userId
+	 * @param urls   distinct URLs
+	 * @return the updated rows of the URLs existing for the user id, in no
+	 *         particular order
+	 */
+	List<URLDetails> incrementCreationCounts(String userId, Collection<String> urls);
+
+	/**
+	 * Creates the tiny URL for the user id and URL with the given id, or
+	 * increments the creation count of the existing one, in one atomic MERGE
+	 * 
+	 * @param id     id used if the user id and URL do not exist yet
+	 * @param userId
+	 * @param url
+	 * @return the created or updated row
+	 * @throws org.springframework.dao.DataIntegrityViolationException if a
+	 *         concurrent upsert inserted the same user id and URL first
+	 */
+	URLDetails upsert(String id, String userId, String url);
+
+	/**
+	 * Bulk variant of {@link #upsert(String, String, String)}, with one JDBC
+	 * batch for all MERGEs in one transaction
+	 * 
+	 * @param userId
+	 * @param idsByURL distinct URL to the id used if it does not exist yet
+	 * @return the created or updated rows, in no particular order
+	 * @throws org.springframework.dao.DataIntegrityViolationException if a
+	 *         concurrent upsert inserted one of the URLs first
+	 */
+	List<URLDetails> upsertAll(String userId, Map<String, String> idsByURL);
+
+	/**
+	 * Scans the ids of all rows, fetched {@link URLShortenerRepository#STREAM_FETCH_SIZE}
+	 * rows at a time, without materializing them
+	 * 
+	 * @param consumer called once per id, in no particular order
+	 */
+	void forEachId(Consumer<String> consumer);
+
+	/**
+	 * Scans the id, user id and URL of all rows like {@link #forEachId(Consumer)}
+	 * 
+	 * @param consumer called once per row, with the counts not set
+	 */
+	void forEachURLDetails(Consumer<URLDetails> consumer);
+
+	/**
+	 * @return the next block number of the short code sequence
+	 */
+	long nextShortCodeBlock();
+}
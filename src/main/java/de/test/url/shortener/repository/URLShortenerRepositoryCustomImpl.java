@@ -0,0 +1,146 @@
+package de.test.url.shortener.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.test.url.shortener.repository.domain.URLDetails;
+
+/**
+ * JDBC backed implementation of {@link URLShortenerRepositoryCustom}
+ * 
+ * @author Shijin Raj
+ *
+ */
+public class URLShortenerRepositoryCustomImpl implements URLShortenerRepositoryCustom {
+
+	private static final String INCREMENT_CALL_COUNT = "UPDATE urldetails SET call_count = call_count + ? WHERE id = ?";
+
+	private static final String NEXT_SHORT_CODE_BLOCK = "SELECT NEXT VALUE FOR short_code_block_seq";
+
+	private static final RowMapper<URLDetails> URL_DETAILS_ROW_MAPPER = BeanPropertyRowMapper.newInstance(URLDetails.class);
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	@Override
+	@Transactional
+	public void incrementCallCounts(Map<String, Long> callCountDeltas) {
+		List<Object[]> batchArgs = callCountDeltas.entrySet().stream()
+				.map(callCountDelta -> new Object[] { callCountDelta.getValue(), callCountDelta.getKey() })
+				.collect(Collectors.toList());
+
+		jdbcTemplate.batchUpdate(INCREMENT_CALL_COUNT, batchArgs);
+	}
+
+	@Override
+	@Transactional
+	public Optional<URLDetails> incrementCreationCount(String userId, String url) {
+		MapSqlParameterSource parameters = new MapSqlParameterSource("userId", userId).addValue("url", url);
+		if (namedParameterJdbcTemplate.update(URLDetailsSql.INCREMENT_CREATION_COUNT, parameters) == 0) {
+			return Optional.empty();
+		}
+
+		return Optional.of(namedParameterJdbcTemplate.queryForObject(URLDetailsSql.FIND_BY_USER_ID_AND_URL,
+				parameters, URL_DETAILS_ROW_MAPPER));
+	}
+
+	/**
+	 * Selects only the URLs the batch updated, a row inserted concurrently
+	 * after its UPDATE is left to the upsert
+	 */
+	@Override
+	@Transactional
+	public List<URLDetails> incrementCreationCounts(String userId, Collection<String> urls) {
+		SqlParameterSource[] batchArgs = urls.stream()
+				.map(url -> new MapSqlParameterSource("userId", userId).addValue("url", url))
+				.toArray(SqlParameterSource[]::new);
+		int[] updateCounts = namedParameterJdbcTemplate.batchUpdate(URLDetailsSql.INCREMENT_CREATION_COUNT,
+				batchArgs);
+
+		List<String> updatedURLs = new ArrayList<>();
+		for (int index = 0; index < batchArgs.length; index++) {
+			if (updateCounts[index] > 0) {
+				updatedURLs.add((String) batchArgs[index].getValue("url"));
+			}
+		}
+		if (updatedURLs.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return jdbcTemplate.query(URLDetailsSql.FIND_BY_USER_ID_AND_URLS, URL_DETAILS_ROW_MAPPER,
+				updatedURLs.toArray(new String[0]), userId);
+	}
+
+	@Override
+	@Transactional
+	public URLDetails upsert(String id, String userId, String url) {
+		MapSqlParameterSource parameters = new MapSqlParameterSource("id", id).addValue("userId", userId)
+				.addValue("url", url);
+		namedParameterJdbcTemplate.update(URLDetailsSql.UPSERT, parameters);
+
+		return namedParameterJdbcTemplate.queryForObject(URLDetailsSql.FIND_BY_USER_ID_AND_URL, parameters,
+				URL_DETAILS_ROW_MAPPER);
+	}
+
+	@Override
+	@Transactional
+	public List<URLDetails> upsertAll(String userId, Map<String, String> idsByURL) {
+		SqlParameterSource[] batchArgs = idsByURL.entrySet().stream()
+				.map(idByURL -> new MapSqlParameterSource("id", idByURL.getValue()).addValue("userId", userId)
+						.addValue("url", idByURL.getKey()))
+				.toArray(SqlParameterSource[]::new);
+		namedParameterJdbcTemplate.batchUpdate(URLDetailsSql.UPSERT, batchArgs);
+
+		return jdbcTemplate.query(URLDetailsSql.FIND_BY_USER_ID_AND_URLS, URL_DETAILS_ROW_MAPPER,
+				idsByURL.keySet().toArray(new String[0]), userId);
+	}
+
+	@Override
+	public void forEachId(Consumer<String> consumer) {
+		scan(URLDetailsSql.FIND_ALL_IDS, resultSet -> consumer.accept(resultSet.getString(1)));
+	}
+
+	@Override
+	public void forEachURLDetails(Consumer<URLDetails> consumer) {
+		scan(URLDetailsSql.FIND_ALL_URLS, resultSet -> consumer.accept(URLDetails.builder().id(resultSet.getString(1))
+				.userId(resultSet.getString(2)).url(resultSet.getString(3)).build()));
+	}
+
+	@Override
+	public long nextShortCodeBlock() {
+		return jdbcTemplate.queryForObject(NEXT_SHORT_CODE_BLOCK, Long.class);
+	}
+
+	/**
+	 * Reads the rows forward only, {@link URLShortenerRepository#STREAM_FETCH_SIZE}
+	 * at a time
+	 */
+	private void scan(String sql, RowCallbackHandler rowCallbackHandler) {
+		jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY);
+			statement.setFetchSize(Integer.parseInt(URLShortenerRepository.STREAM_FETCH_SIZE));
+			return statement;
+		}, rowCallbackHandler);
+	}
+
+}
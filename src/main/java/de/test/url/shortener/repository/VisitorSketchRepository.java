@@ -0,0 +1,132 @@
+package de.test.url.shortener.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JDBC repository of the serialized visitor sketches per tiny URL and day
+ * bucket, in epoch milliseconds of the bucket start, and of all days
+ *
+ * @author Shijin Raj
+ *
+ */
+@Repository
+public class VisitorSketchRepository {
+
+	/**
+	 * Bucket start of the sketch of all days of a tiny URL
+	 */
+	public static final long ALL_DAYS = -1;
+
+	private static final String FIND_FOR_UPDATE = "SELECT id, sketch FROM visitor_sketches"
+			+ " WHERE bucket_start = ? AND id IN (SELECT id FROM TABLE(id VARCHAR(10) = ?)) FOR UPDATE";
+
+	private static final String UPDATE = "UPDATE visitor_sketches SET sketch = ? WHERE id = ? AND bucket_start = ?";
+
+	private static final String INSERT = "INSERT INTO visitor_sketches (id, bucket_start, sketch) VALUES (?, ?, ?)";
+
+	private static final String FIND_BUCKETS = "SELECT sketch FROM visitor_sketches"
+			+ " WHERE id = ? AND bucket_start >= ? AND bucket_start < ?";
+
+	private static final String FIND_BY_URLS = "SELECT u.url, s.sketch"
+			+ " FROM TABLE(url VARCHAR(2048) = ?) source INNER JOIN urldetails u"
+			+ " ON u.url_hash = HASH('SHA256', source.url) AND u.url = source.url"
+			+ " INNER JOIN visitor_sketches s ON s.id = u.id AND s.bucket_start = " + ALL_DAYS;
+
+	/**
+	 * Like {@link #FIND_BY_URLS}, one (user_id, url_hash) index lookup per URL
+	 */
+	private static final String FIND_BY_USER_ID_AND_URLS = "SELECT u.url, s.sketch"
+			+ " FROM TABLE(url VARCHAR(2048) = ?) source INNER JOIN urldetails u"
+			+ " ON u.user_id = ? AND u.url_hash = HASH('SHA256', source.url) AND u.url = source.url"
+			+ " INNER JOIN visitor_sketches s ON s.id = u.id AND s.bucket_start = " + ALL_DAYS;
+
+	private static final String DELETE_BEFORE = "DELETE FROM visitor_sketches WHERE bucket_start <> " + ALL_DAYS
+			+ " AND bucket_start < ?";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Merges the sketches into the stored ones in one transaction, the stored
+	 * ones locked meanwhile so a concurrent merge of another node waits.
+	 *
+	 * A lock on a row not stored yet is not possible, so a sketch not found is
+	 * inserted rather than upserted. If a concurrent merge inserted it first, the
+	 * insert fails and the whole merge is rolled back, instead of overwriting the
+	 * sketch inserted meanwhile. Merged again, the stored sketch is found and
+	 * locked.
+	 *
+	 * @param sketches bucket start to id to the serialized sketch to merge
+	 * @param merge    of the stored and the given serialized sketch
+	 * @throws org.springframework.dao.DataIntegrityViolationException if a
+	 *         concurrent merge inserted one of the sketches first
+	 */
+	@Transactional
+	public void merge(Map<Long, Map<String, byte[]>> sketches, BinaryOperator<byte[]> merge) {
+		List<Object[]> updateArgs = new ArrayList<>();
+		List<Object[]> insertArgs = new ArrayList<>();
+		sketches.forEach((bucketStart, sketchesById) -> {
+			Map<String, byte[]> stored = new HashMap<>();
+			jdbcTemplate.query(FIND_FOR_UPDATE,
+					(RowCallbackHandler) resultSet -> stored.put(resultSet.getString(1), resultSet.getBytes(2)),
+					bucketStart, sketchesById.keySet().toArray(new String[0]));
+			sketchesById.forEach((id, sketch) -> {
+				if (stored.containsKey(id)) {
+					updateArgs.add(new Object[] { merge.apply(stored.get(id), sketch), id, bucketStart });
+				} else {
+					insertArgs.add(new Object[] { id, bucketStart, sketch });
+				}
+			});
+		});
+
+		jdbcTemplate.batchUpdate(UPDATE, updateArgs);
+		jdbcTemplate.batchUpdate(INSERT, insertArgs);
+	}
+
+	/**
+	 * @return the sketches of the buckets in [from, to), the one of
+	 *         {@link #ALL_DAYS} from it to 0
+	 */
+	public List<byte[]> findSketches(String id, long from, long to) {
+		return jdbcTemplate.query(FIND_BUCKETS, (resultSet, rowNumber) -> resultSet.getBytes(1), id, from, to);
+	}
+
+	/**
+	 * @param userId owning the tiny URLs, null for all users
+	 * @param urls
+	 * @return URL to the sketches of all days of its tiny URLs, of the URLs
+	 *         with any
+	 */
+	public Map<String, List<byte[]>> findSketchesByURL(String userId, Collection<String> urls) {
+		Map<String, List<byte[]>> sketches = new HashMap<>();
+		RowCallbackHandler handler = resultSet -> sketches
+				.computeIfAbsent(resultSet.getString(1), url -> new ArrayList<>()).add(resultSet.getBytes(2));
+		String[] urlArray = urls.toArray(new String[0]);
+		if (userId == null) {
+			jdbcTemplate.query(FIND_BY_URLS, handler, (Object) urlArray);
+		} else {
+			jdbcTemplate.query(FIND_BY_USER_ID_AND_URLS, handler, urlArray, userId);
+		}
+		return sketches;
+	}
+
+	/**
+	 * @return the number of day buckets deleted
+	 */
+	@Transactional
+	public int deleteBefore(long before) {
+		return jdbcTemplate.update(DELETE_BEFORE, before);
+	}
+
+}
@@ -0,0 +1,22 @@
+package de.test.url.shortener.repository.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Signed bearer token issued for the authenticated user
+ *
+ * @author Shijin Raj
+ *
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccessToken {
+	private String accessToken;
+	private String tokenType;
+	private long expiresIn;
+}
@@ -0,0 +1,27 @@
+package de.test.url.shortener.repository.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of one URL of a bulk create, either the created tiny URL or the
+ * reason it was rejected
+ * 
+ * @author Shijin Raj
+ *
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(Include.NON_NULL)
+public class BulkCreateResult {
+	private String url;
+	private URLDetails urlDetails;
+	private String error;
+}
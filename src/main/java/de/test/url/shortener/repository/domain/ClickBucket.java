@@ -0,0 +1,23 @@
+package de.test.url.shortener.repository.domain;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clicks of a tiny URL from start, for the width of its granularity
+ * 
+ * @author Shijin Raj
+ *
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClickBucket {
+	private Instant start;
+	private long clicks;
+}
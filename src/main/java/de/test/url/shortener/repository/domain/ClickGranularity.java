@@ -0,0 +1,45 @@
+package de.test.url.shortener.repository.domain;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Width of the buckets of a click time series, aligned to UTC
+ * 
+ * @author Shijin Raj
+ *
+ */
+public enum ClickGranularity {
+	/**
+	 * Kept in memory for the last hour only
+	 */
+	MINUTE(TimeUnit.MINUTES.toMillis(1), 60),
+	HOUR(TimeUnit.HOURS.toMillis(1), 24),
+	DAY(TimeUnit.DAYS.toMillis(1), 30);
+
+	private final long millis;
+
+	private final int defaultBuckets;
+
+	ClickGranularity(long millis, int defaultBuckets) {
+		this.millis = millis;
+		this.defaultBuckets = defaultBuckets;
+	}
+
+	public long getMillis() {
+		return millis;
+	}
+
+	/**
+	 * @return the number of buckets of a range without start
+	 */
+	public int getDefaultBuckets() {
+		return defaultBuckets;
+	}
+
+	/**
+	 * @return start of the bucket of the epoch milliseconds
+	 */
+	public long floor(long epochMillis) {
+		return Math.floorDiv(epochMillis, millis) * millis;
+	}
+}
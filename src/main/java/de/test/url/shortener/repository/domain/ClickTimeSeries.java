@@ -0,0 +1,25 @@
+package de.test.url.shortener.repository.domain;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clicks of a tiny URL per bucket of a time range, including the buckets
+ * without clicks
+ * 
+ * @author Shijin Raj
+ *
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClickTimeSeries {
+	private String id;
+	private ClickGranularity granularity;
+	private List<ClickBucket> buckets;
+}
@@ -0,0 +1,28 @@
+package de.test.url.shortener.repository.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clicks of a tiny URL within a time range, or estimated by the hot links with
+ * an error, the most the clicks may exceed the true count
+ * 
+ * @author Shijin Raj
+ *
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LinkClicks {
+	private String id;
+	private String url;
+	private long clicks;
+	@JsonInclude(Include.NON_DEFAULT)
+	private long error;
+}
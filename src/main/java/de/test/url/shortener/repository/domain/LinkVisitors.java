@@ -0,0 +1,21 @@
+package de.test.url.shortener.repository.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estimated distinct visitors of a tiny URL within a range of days
+ * 
+ * @author Shijin Raj
+ *
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LinkVisitors {
+	private String id;
+	private long uniqueVisitors;
+}
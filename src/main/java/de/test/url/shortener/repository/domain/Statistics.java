@@ -1,13 +1,30 @@
 package de.test.url.shortener.repository.domain;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class Statistics {
 	private String url;
 	private long creationCount;
 	private long callCount;
+	/**
+	 * Estimated distinct visitors of the tiny URLs of the URL, as of the last
+	 * flush of their sketches
+	 */
+	private long uniqueVisitors;
+
+	/**
+	 * Of the counts aggregated by the data base, the unique visitors are added
+	 * afterwards
+	 */
+	public Statistics(String url, long creationCount, long callCount) {
+		this(url, creationCount, callCount, 0);
+	}
 
 }
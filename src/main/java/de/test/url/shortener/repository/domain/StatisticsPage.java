@@ -0,0 +1,24 @@
+package de.test.url.shortener.repository.domain;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of statistics. The next page is requested with nextCursor as
+ * cursor, which is null on the last page.
+ * 
+ * @author Shijin Raj
+ *
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatisticsPage {
+	private List<Statistics> statistics;
+	private String nextCursor;
+}
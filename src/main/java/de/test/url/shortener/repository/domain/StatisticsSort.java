@@ -0,0 +1,18 @@
+package de.test.url.shortener.repository.domain;
+
+/**
+ * Order of a statistics page
+ * 
+ * @author Shijin Raj
+ *
+ */
+public enum StatisticsSort {
+	/**
+	 * Ascending by URL, pages continue after the cursor URL
+	 */
+	URL,
+	/**
+	 * Descending by call count for top N queries, a single page without cursor
+	 */
+	CALL_COUNT
+}
@@ -1,11 +1,11 @@
 package de.test.url.shortener.repository.domain;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
+import javax.persistence.EntityListeners;
 import javax.persistence.Id;
 
-import org.hibernate.annotations.GenericGenerator;
-
+import de.test.url.shortener.service.URLDetailsCacheListener;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -20,13 +20,15 @@ import lombok.Setter;
 @AllArgsConstructor
 @Builder
 @Entity
+@EntityListeners(URLDetailsCacheListener.class)
 public class URLDetails {
 
 	@Id
-	@GeneratedValue(generator = "uuid")
-	@GenericGenerator(name = "uuid", strategy = "uuid2")
+	@Column(length = 10)
 	private String id;
+	@Column(nullable = false)
 	private String userId;
+	@Column(nullable = false, length = 2048)
 	private String url;
 	private long creationCount;
 	private long callCount;
@@ -0,0 +1,122 @@
+package de.test.url.shortener.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import de.test.url.shortener.repository.URLShortenerRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write behind buffer for the tiny URL call counts.
+ *
+ * Increments are absorbed by a striped {@link LongAdder} per id and flushed
+ * periodically to the data base as aggregated deltas, so a redirect never
+ * writes the row it reads.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Slf4j
+@Component
+public class CallCountBuffer {
+
+	private final ConcurrentMap<String, LongAdder> pendingCallCounts = new ConcurrentHashMap<>();
+
+	/**
+	 * Counters removed from {@link #pendingCallCounts} on the previous flush. An
+	 * increment racing with the removal may still land on them, so they are
+	 * drained once more before they are dropped.
+	 */
+	private final Map<String, LongAdder> retiredCallCounts = new HashMap<>();
+
+	@Autowired
+	private URLShortenerRepository repository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@PostConstruct
+	public void registerMetrics() {
+		Gauge.builder("urlshortener.callcount.pending", this, CallCountBuffer::getPendingCallCount)
+				.description("Call count increments not yet flushed to the data base").register(meterRegistry);
+	}
+
+	/**
+	 * @param id
+	 */
+	public void increment(String id) {
+		LongAdder callCount = pendingCallCounts.get(id);
+		if (callCount == null) {
+			callCount = pendingCallCounts.computeIfAbsent(id, key -> new LongAdder());
+		}
+		callCount.increment();
+	}
+
+	/**
+	 * @return sum of all call count increments not yet flushed
+	 */
+	public long getPendingCallCount() {
+		return pendingCallCounts.values().stream().mapToLong(LongAdder::sum).sum();
+	}
+
+	/**
+	 * Flushes the aggregated call count deltas in one batch. On failure the
+	 * deltas are put back and retried with the next flush.
+	 */
+	@PreDestroy
+	@Scheduled(fixedDelayString = "${urlshortener.call-count.flush-interval-ms:1000}")
+	public synchronized void flush() {
+		Map<String, Long> callCountDeltas = new HashMap<>();
+
+		retiredCallCounts.forEach((id, callCount) -> drain(id, callCount, callCountDeltas));
+		retiredCallCounts.clear();
+
+		pendingCallCounts.forEach((id, callCount) -> {
+			if (!drain(id, callCount, callCountDeltas) && pendingCallCounts.remove(id, callCount)) {
+				retiredCallCounts.put(id, callCount);
+			}
+		});
+
+		if (callCountDeltas.isEmpty()) {
+			return;
+		}
+
+		try {
+			repository.incrementCallCounts(callCountDeltas);
+		} catch (RuntimeException exception) {
+			log.warn("Flushing {} call count deltas failed, retrying with the next flush", callCountDeltas.size(),
+					exception);
+			callCountDeltas.forEach((id, delta) -> pendingCallCounts.computeIfAbsent(id, key -> new LongAdder())
+					.add(delta));
+		}
+	}
+
+	/**
+	 * Moves the current value of the counter into the deltas. Subtracting the
+	 * observed sum instead of resetting keeps concurrent increments.
+	 *
+	 * @return true if the counter had a pending delta
+	 */
+	private boolean drain(String id, LongAdder callCount, Map<String, Long> callCountDeltas) {
+		long delta = callCount.sum();
+		if (delta == 0) {
+			return false;
+		}
+		callCount.add(-delta);
+		callCountDeltas.merge(id, delta, Long::sum);
+		return true;
+	}
+
+}
@@ -0,0 +1,89 @@
+package de.test.url.shortener.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.test.url.shortener.repository.domain.LinkClicks;
+
+/**
+ * Binary snapshot file of the hot links and their clicks.
+ *
+ * The file holds MAGIC, VERSION and the number of links, followed by the
+ * links: long clicks, long error of the clicks and the id, a byte length
+ * followed by UTF-8 bytes. It is written to a temporary file moved over the
+ * previous snapshot, so a crash while writing leaves the previous one.
+ *
+ * @author Shijin Raj
+ *
+ */
+final class HotLinksSnapshot {
+
+	private static final long MAGIC = 0x484F544C494E4B53L;
+
+	private static final int VERSION = 2;
+
+	private HotLinksSnapshot() {
+	}
+
+	static void write(Path file, List<LinkClicks> links) throws IOException {
+		Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		try {
+			try (DataOutputStream output = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+				output.writeLong(MAGIC);
+				output.writeInt(VERSION);
+				output.writeInt(links.size());
+				for (LinkClicks link : links) {
+					byte[] id = link.getId().getBytes(StandardCharsets.UTF_8);
+					output.writeLong(link.getClicks());
+					output.writeLong(link.getError());
+					output.writeByte(id.length);
+					output.write(id);
+				}
+			}
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	/**
+	 * @param file
+	 * @return the links with the error of their clicks and without their URLs,
+	 *         none if there is no snapshot
+	 * @throws IOException if the snapshot is not readable or invalid
+	 */
+	static List<LinkClicks> read(Path file) throws IOException {
+		List<LinkClicks> links = new ArrayList<>();
+		if (!Files.exists(file)) {
+			return links;
+		}
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (input.readLong() != MAGIC || input.readInt() != VERSION) {
+				throw new IOException("Invalid hot links snapshot " + file);
+			}
+			int size = input.readInt();
+			for (int link = 0; link < size; link++) {
+				long clicks = input.readLong();
+				long error = input.readLong();
+				byte[] id = new byte[input.readUnsignedByte()];
+				input.readFully(id);
+				links.add(LinkClicks.builder().id(new String(id, StandardCharsets.UTF_8)).clicks(clicks).error(error)
+						.build());
+			}
+		}
+		return links;
+	}
+
+}
@@ -0,0 +1,18 @@
+package de.test.url.shortener.service;
+
+import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.URLDetails;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveURLShortenerService {
+	Mono<URLDetails> create(String userId, String url);
+
+	Mono<String> get(String userId, String id);
+
+	Mono<String> get(String userId, String id, String clientAddress, String referrer, String userAgent);
+
+	Flux<Statistics> getUserStatistics(String userId);
+
+	Flux<Statistics> getAllStatistics();
+}
@@ -0,0 +1,149 @@
+package de.test.url.shortener.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import de.test.url.shortener.exception.NotFoundException;
+import de.test.url.shortener.repository.ReactiveURLShortenerRepository;
+import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.URLDetails;
+import de.test.url.shortener.service.click.ClickEventPipeline;
+import de.test.url.shortener.service.click.UniqueVisitors;
+import de.test.url.shortener.service.linkindex.LinkIndex;
+import de.test.url.shortener.service.shortcode.ShortCodeGenerator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non blocking counterpart of {@link URLShortenerServiceImpl}, sharing its
+ * resolution cache, missing ids, id filter, link index, click event pipeline,
+ * call count buffer, short code generator and unique visitors.
+ *
+ * The generator is synchronized and reserves a new block of codes over JDBC
+ * once per block size creates, so it is called on the bounded elastic
+ * scheduler and never on an event loop thread, and only once an existing
+ * user id and URL was not found.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Profile("reactive")
+@Service
+public class ReactiveURLShortenerServiceImpl implements ReactiveURLShortenerService {
+
+	private static final int STATISTICS_CHUNK_SIZE = 1000;
+
+	@Autowired
+	private ReactiveURLShortenerRepository repository;
+
+	@Autowired
+	private CallCountBuffer callCountBuffer;
+
+	@Autowired
+	private URLResolutionCache resolutionCache;
+
+	@Autowired
+	private URLIdFilter idFilter;
+
+	@Autowired
+	private LinkIndex linkIndex;
+
+	@Autowired
+	private ClickEventPipeline clickEventPipeline;
+
+	@Autowired
+	private ShortCodeGenerator shortCodeGenerator;
+
+	@Autowired
+	private UniqueVisitors uniqueVisitors;
+
+	@Override
+	public Mono<URLDetails> create(String userId, String url) {
+
+		Assert.isTrue(StringUtils.hasText(userId), "Invalid user id " + userId);
+		Assert.isTrue(StringUtils.hasText(url), "Invalid URL " + url);
+
+		return repository.incrementCreationCount(userId, url)
+				.switchIfEmpty(Mono.defer(() -> Mono.fromCallable(shortCodeGenerator::next)
+						.subscribeOn(Schedulers.boundedElastic())
+						.flatMap(id -> repository.upsert(id, userId, url)
+								// a concurrent create for the same user id and URL inserted first, the MERGE matches now
+								.onErrorResume(DataIntegrityViolationException.class,
+										exception -> repository.upsert(id, userId, url)))))
+				.doOnNext(urlDetails -> {
+					idFilter.put(urlDetails.getId());
+					linkIndex.put(urlDetails);
+					resolutionCache.put(urlDetails);
+				});
+	}
+
+	@Override
+	public Mono<String> get(String userId, String id) {
+		return get(userId, id, null, null, null);
+	}
+
+	/**
+	 * Looked up like {@link URLShortenerServiceImpl#get(String, String)}, only
+	 * the data base is read over R2DBC
+	 */
+	@Override
+	public Mono<String> get(String userId, String id, String clientAddress, String referrer, String userAgent) {
+
+		Assert.isTrue(StringUtils.hasText(userId), "Invalid user id " + userId);
+		Assert.isTrue(StringUtils.hasText(id), "Invalid id " + id);
+
+		ResolvedURL resolvedURL = resolutionCache.getIfPresent(id);
+		if (resolvedURL == null) {
+			resolvedURL = linkIndex.get(id);
+		}
+
+		Mono<ResolvedURL> resolved;
+		if (resolvedURL != null) {
+			resolved = Mono.just(resolvedURL);
+		} else if (idFilter.mightContain(id) && !resolutionCache.isMissing(id)) {
+			resolved = repository.findById(id).doOnNext(urlDetails -> {
+				linkIndex.put(urlDetails);
+				resolutionCache.put(urlDetails);
+			}).map(urlDetails -> new ResolvedURL(urlDetails.getUserId(), urlDetails.getUrl()))
+					.switchIfEmpty(Mono.fromRunnable(() -> resolutionCache.putMissing(id)));
+		} else {
+			resolved = Mono.empty();
+		}
+
+		return resolved.filter(url -> url.getUserId().equals(userId)).map(url -> {
+			callCountBuffer.increment(id);
+			clickEventPipeline.record(id, userId, clientAddress, referrer, userAgent);
+			return url.getUrl();
+		}).switchIfEmpty(Mono.error(
+				() -> new NotFoundException("No URL available for the userid " + userId + " id " + id)));
+	}
+
+	@Override
+	public Flux<Statistics> getUserStatistics(String userId) {
+		Assert.isTrue(StringUtils.hasText(userId), "Invalid user id " + userId);
+		return addUniqueVisitors(userId, repository.findUserStatistics(userId));
+	}
+
+	@Override
+	public Flux<Statistics> getAllStatistics() {
+		return addUniqueVisitors(null, repository.findAllStatistics());
+	}
+
+	/**
+	 * Adds the unique visitors per chunk of statistics like
+	 * {@link URLShortenerServiceImpl}, the sketches are read over JDBC on the
+	 * bounded elastic scheduler
+	 */
+	private Flux<Statistics> addUniqueVisitors(String userId, Flux<Statistics> statistics) {
+		return statistics.buffer(STATISTICS_CHUNK_SIZE).concatMap(chunk -> Mono.fromCallable(() -> {
+			uniqueVisitors.addTo(userId, chunk);
+			return chunk;
+		}).subscribeOn(Schedulers.boundedElastic())).flatMapIterable(chunk -> chunk);
+	}
+
+}
@@ -0,0 +1,16 @@
+package de.test.url.shortener.service;
+
+import lombok.Value;
+
+/**
+ * Immutable resolution of a tiny URL id as held by the
+ * {@link URLResolutionCache}
+ * 
+ * @author Shijin Raj
+ *
+ */
+@Value
+public class ResolvedURL {
+	String userId;
+	String url;
+}
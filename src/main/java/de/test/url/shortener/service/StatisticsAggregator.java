@@ -0,0 +1,85 @@
+package de.test.url.shortener.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.URLDetails;
+
+/**
+ * Groups URL details by URL and sums both counters in a single pass into one
+ * mutable accumulator per URL. Large lists are aggregated on the fork join
+ * pool, every worker into its own map, which are merged at the end.
+ * 
+ * @author Shijin Raj
+ *
+ */
+public final class StatisticsAggregator {
+
+	static final int PARALLEL_THRESHOLD = 100_000;
+
+	private static final Collector<URLDetails, Accumulator, Accumulator> ACCUMULATOR_COLLECTOR = Collector
+			.of(Accumulator::new, Accumulator::add, Accumulator::merge);
+
+	private StatisticsAggregator() {
+	}
+
+	/**
+	 * @param urlDetailList
+	 * @return statistics per URL
+	 */
+	public static List<Statistics> aggregate(List<URLDetails> urlDetailList) {
+		if (urlDetailList == null) {
+			return new ArrayList<>();
+		}
+		return urlDetailList.size() < PARALLEL_THRESHOLD ? aggregateSequential(urlDetailList)
+				: aggregateParallel(urlDetailList);
+	}
+
+	public static List<Statistics> aggregateSequential(Collection<URLDetails> urlDetailList) {
+		Map<String, Accumulator> accumulatorByURL = new HashMap<>();
+		for (URLDetails urlDetails : urlDetailList) {
+			accumulatorByURL.computeIfAbsent(urlDetails.getUrl(), url -> new Accumulator()).add(urlDetails);
+		}
+		return toStatistics(accumulatorByURL);
+	}
+
+	public static List<Statistics> aggregateParallel(Collection<URLDetails> urlDetailList) {
+		return toStatistics(urlDetailList.parallelStream()
+				.collect(Collectors.groupingBy(URLDetails::getUrl, ACCUMULATOR_COLLECTOR)));
+	}
+
+	private static List<Statistics> toStatistics(Map<String, Accumulator> accumulatorByURL) {
+		List<Statistics> statistics = new ArrayList<>(accumulatorByURL.size());
+		for (Entry<String, Accumulator> accumulator : accumulatorByURL.entrySet()) {
+			statistics.add(new Statistics(accumulator.getKey(), accumulator.getValue().creationCount,
+					accumulator.getValue().callCount));
+		}
+		return statistics;
+	}
+
+	private static final class Accumulator {
+
+		private long creationCount;
+
+		private long callCount;
+
+		private void add(URLDetails urlDetails) {
+			creationCount += urlDetails.getCreationCount();
+			callCount += urlDetails.getCallCount();
+		}
+
+		private Accumulator merge(Accumulator other) {
+			creationCount += other.creationCount;
+			callCount += other.callCount;
+			return this;
+		}
+	}
+
+}
@@ -0,0 +1,34 @@
+package de.test.url.shortener.service;
+
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import de.test.url.shortener.repository.domain.URLDetails;
+import de.test.url.shortener.service.linkindex.LinkIndex;
+
+/**
+ * Invalidates the {@link URLResolutionCache} and the {@link LinkIndex} when a
+ * {@link URLDetails} entity is changed or deleted through JPA
+ * 
+ * @author Shijin Raj
+ *
+ */
+@Component
+public class URLDetailsCacheListener {
+
+	@Autowired
+	private URLResolutionCache resolutionCache;
+
+	@Autowired
+	private LinkIndex linkIndex;
+
+	@PostUpdate
+	@PostRemove
+	public void invalidate(URLDetails urlDetails) {
+		resolutionCache.invalidate(urlDetails.getId());
+		linkIndex.remove(urlDetails.getId());
+	}
+}
@@ -0,0 +1,157 @@
+package de.test.url.shortener.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import de.test.url.shortener.repository.URLShortenerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bloom filter of all tiny URL ids, consulted before the repository so an
+ * unknown id is rejected without a query. It has no false negatives, an id
+ * rejected does not exist, and an id passed exists with the configured false
+ * positive probability.
+ *
+ * The filter is built from a scan of the table once the application is ready
+ * and rebuilt periodically, sized for twice the ids at the time within the
+ * memory budget, so it keeps its false positive probability as the table
+ * grows. Ids created by this instance are added right away. Until the first
+ * build every id is passed.
+ *
+ * Ids created by another instance on the same data base, or written to it
+ * directly, are only known after the next rebuild and answer not found here
+ * until then. So the filter is off unless enabled, for a single instance
+ * creating all tiny URLs, and rebuilt every minute by default to bound that
+ * window where it is enabled otherwise.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Slf4j
+@Component
+public class URLIdFilter {
+
+	private static final long MINIMUM_EXPECTED_INSERTIONS = 10_000;
+
+	@Value("${urlshortener.id-filter.enabled:false}")
+	private boolean enabled;
+
+	@Value("${urlshortener.id-filter.false-positive-probability:0.01}")
+	private double falsePositiveProbability;
+
+	@Value("${urlshortener.id-filter.memory-budget-bytes:16777216}")
+	private long memoryBudgetBytes;
+
+	@Autowired
+	private URLShortenerRepository repository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private volatile BloomFilter<CharSequence> filter;
+
+	/**
+	 * Filter being built by {@link #rebuild()}, ids created meanwhile are added
+	 * to it as well as they may be behind the scan
+	 */
+	private volatile BloomFilter<CharSequence> pendingFilter;
+
+	private Counter rejectedCounter;
+
+	@PostConstruct
+	public void init() {
+		rejectedCounter = Counter.builder("urlshortener.idfilter.rejected")
+				.description("Lookups of ids rejected without a data base query").register(meterRegistry);
+		Gauge.builder("urlshortener.idfilter.ids", this,
+				idFilter -> idFilter.filter == null ? 0 : idFilter.filter.approximateElementCount())
+				.description("Approximate number of ids in the filter").register(meterRegistry);
+		Gauge.builder("urlshortener.idfilter.false.positive.probability", this,
+				idFilter -> idFilter.filter == null ? 1 : idFilter.filter.expectedFpp())
+				.description("Probability of an unknown id to pass the filter").register(meterRegistry);
+	}
+
+	/**
+	 * @param id
+	 * @return false if the id does not exist, true if it may exist
+	 */
+	public boolean mightContain(String id) {
+		BloomFilter<CharSequence> current = filter;
+		if (current == null || current.mightContain(id)) {
+			return true;
+		}
+		rejectedCounter.increment();
+		return false;
+	}
+
+	/**
+	 * @param id of a created tiny URL
+	 */
+	public void put(String id) {
+		// read before the filter, a rebuild not pending yet scans the id or has swapped the filter
+		BloomFilter<CharSequence> pending = pendingFilter;
+		if (pending != null) {
+			pending.put(id);
+		}
+		BloomFilter<CharSequence> current = filter;
+		if (current != null) {
+			current.put(id);
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(initialDelayString = "${urlshortener.id-filter.rebuild-interval-ms:60000}",
+			fixedDelayString = "${urlshortener.id-filter.rebuild-interval-ms:60000}")
+	public synchronized void rebuild() {
+		if (!enabled) {
+			return;
+		}
+		Stopwatch stopwatch = Stopwatch.createStarted();
+
+		long expectedInsertions = Math.min(getMaximumExpectedInsertions(),
+				Math.max(MINIMUM_EXPECTED_INSERTIONS, 2 * repository.count()));
+		BloomFilter<CharSequence> rebuilt = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+				expectedInsertions, falsePositiveProbability);
+		// set before the scan, an id created from now on is either scanned or put
+		pendingFilter = rebuilt;
+		try {
+			repository.forEachId(rebuilt::put);
+			filter = rebuilt;
+		} finally {
+			pendingFilter = null;
+		}
+
+		log.info("Rebuilt id filter of {} ids for {} expected ids in {} ms", rebuilt.approximateElementCount(),
+				expectedInsertions, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+		if (rebuilt.approximateElementCount() > getMaximumExpectedInsertions() / 2) {
+			log.warn("Id filter memory budget of {} bytes is short for {} ids, false positive probability is {}",
+					memoryBudgetBytes, rebuilt.approximateElementCount(), rebuilt.expectedFpp());
+		}
+	}
+
+	/**
+	 * @return the number of ids the memory budget holds at the configured false
+	 *         positive probability, from the optimal number of bits n * -ln(p) /
+	 *         ln(2)^2
+	 */
+	long getMaximumExpectedInsertions() {
+		return (long) (memoryBudgetBytes * Byte.SIZE * Math.log(2) * Math.log(2)
+				/ -Math.log(falsePositiveProbability));
+	}
+
+}
@@ -0,0 +1,129 @@
+package de.test.url.shortener.service;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import de.test.url.shortener.repository.domain.URLDetails;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+
+/**
+ * Bounded read through cache of tiny URL id to URL.
+ *
+ * The id is the primary key, so it is unique across users. The cache is keyed
+ * by id alone and the owning user is kept in the value to be checked on a hit,
+ * which serves the (userId, id) lookup without allocating a composite key.
+ *
+ * Ids found in no row are remembered for a short time as well, so an unknown
+ * id probed again and again reaches the database once per expiry. An id
+ * cached as resolved takes precedence over the same id cached as missing.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Component
+public class URLResolutionCache {
+
+	@Value("${urlshortener.resolution-cache.maximum-size:100000}")
+	private long maximumSize;
+
+	@Value("${urlshortener.resolution-cache.expire-after-write-minutes:60}")
+	private long expireAfterWriteMinutes;
+
+	@Value("${urlshortener.resolution-cache.missing.maximum-size:100000}")
+	private long missingMaximumSize;
+
+	@Value("${urlshortener.resolution-cache.missing.expire-after-write-seconds:60}")
+	private long missingExpireAfterWriteSeconds;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Cache<String, ResolvedURL> cache;
+
+	private Cache<String, Boolean> missingIds;
+
+	@PostConstruct
+	public void init() {
+		cache = CacheBuilder.newBuilder().maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWriteMinutes, TimeUnit.MINUTES).recordStats().build();
+		GuavaCacheMetrics.monitor(meterRegistry, cache, "urlResolution");
+		Gauge.builder("urlshortener.cache.hit.ratio", cache, monitoredCache -> monitoredCache.stats().hitRate())
+				.description("Hit ratio since start").tag("cache", "urlResolution").register(meterRegistry);
+		missingIds = CacheBuilder.newBuilder().maximumSize(missingMaximumSize)
+				.expireAfterWrite(missingExpireAfterWriteSeconds, TimeUnit.SECONDS).recordStats().build();
+		GuavaCacheMetrics.monitor(meterRegistry, missingIds, "urlResolutionMissing");
+	}
+
+	/**
+	 * @param id
+	 * @return the cached resolution or null
+	 */
+	public ResolvedURL getIfPresent(String id) {
+		return cache.getIfPresent(id);
+	}
+
+	/**
+	 * @param id
+	 * @return true if the resolution is cached, not counted as a hit or miss
+	 */
+	public boolean contains(String id) {
+		return cache.asMap().containsKey(id);
+	}
+
+	/**
+	 * @param urlDetails
+	 */
+	public void put(URLDetails urlDetails) {
+		cache.put(urlDetails.getId(), new ResolvedURL(urlDetails.getUserId(), urlDetails.getUrl()));
+		missingIds.invalidate(urlDetails.getId());
+	}
+
+	/**
+	 * @param id
+	 * @return true if the id was found in no row recently
+	 */
+	public boolean isMissing(String id) {
+		return missingIds.getIfPresent(id) != null;
+	}
+
+	/**
+	 * @param id found in no row
+	 */
+	public void putMissing(String id) {
+		missingIds.put(id, Boolean.TRUE);
+	}
+
+	/**
+	 * Invalidation hook for a changed or deleted tiny URL
+	 * 
+	 * @param id
+	 */
+	public void invalidate(String id) {
+		cache.invalidate(id);
+		missingIds.invalidate(id);
+	}
+
+	public void invalidateAll() {
+		cache.invalidateAll();
+		missingIds.invalidateAll();
+	}
+
+	/**
+	 * @return hit, miss and eviction statistics
+	 */
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+}
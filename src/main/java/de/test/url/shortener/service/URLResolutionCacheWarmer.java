@@ -0,0 +1,214 @@
+package de.test.url.shortener.service;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.test.url.shortener.repository.URLShortenerRepository;
+import de.test.url.shortener.repository.domain.LinkClicks;
+import de.test.url.shortener.repository.domain.URLDetails;
+import de.test.url.shortener.service.click.HotLinks;
+import de.test.url.shortener.service.linkindex.LinkIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads the {@link HotLinks} not in the {@link URLResolutionCache} into it
+ * periodically, by one query on the primary key, so a hot tiny URL evicted or
+ * expired is back before its next redirect misses.
+ *
+ * The hot links and their clicks are written to a {@link HotLinksSnapshot}
+ * after each warming and on shutdown. At startup the tiny URLs of the
+ * snapshot are loaded in parallel into the resolution cache and their clicks,
+ * with the error of the estimates, into the hot links by an application
+ * runner, which Spring Boot completes
+ * before it reports the application ready, so a new instance takes traffic
+ * with the hot links cached already.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Slf4j
+@Component
+public class URLResolutionCacheWarmer implements ApplicationRunner {
+
+	private static final int MAXIMUM_CHUNK_SIZE = 1000;
+
+	/**
+	 * No snapshot if empty
+	 */
+	@Value("${urlshortener.hot-links.snapshot-file:data/hot-links.snapshot}")
+	private String snapshotFile;
+
+	@Value("${urlshortener.hot-links.warm-up-threads:4}")
+	private int warmUpThreads;
+
+	@Autowired
+	private HotLinks hotLinks;
+
+	@Autowired
+	private URLShortenerRepository repository;
+
+	@Autowired
+	private URLResolutionCache resolutionCache;
+
+	@Autowired
+	private LinkIndex linkIndex;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Counter warmedCounter;
+
+	private Timer warmUpTimer;
+
+	private volatile long startupMillis;
+
+	@PostConstruct
+	public void init() {
+		warmedCounter = Counter.builder("urlshortener.cache.warmed")
+				.description("Hot tiny URLs loaded into the resolution cache").tag("cache", "urlResolution")
+				.register(meterRegistry);
+		warmUpTimer = Timer.builder("urlshortener.cache.warmup")
+				.description("Startup load of the hot links snapshot into the resolution cache")
+				.tag("cache", "urlResolution").register(meterRegistry);
+	}
+
+	/**
+	 * Loads the tiny URLs of the snapshot into the resolution cache and their
+	 * clicks into the hot links
+	 */
+	@Override
+	public void run(ApplicationArguments args) throws InterruptedException {
+		if (StringUtils.hasText(snapshotFile)) {
+			long start = System.nanoTime();
+			int warmed = warmUp();
+			long nanos = System.nanoTime() - start;
+			warmUpTimer.record(nanos, TimeUnit.NANOSECONDS);
+			log.info("Loaded {} hot tiny URLs of the snapshot into the resolution cache in {} ms", warmed,
+					TimeUnit.NANOSECONDS.toMillis(nanos));
+		}
+
+		startupMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+		TimeGauge.builder("urlshortener.startup.time", this, TimeUnit.MILLISECONDS, warmer -> warmer.startupMillis)
+				.description("From the start of the JVM until the application is ready").register(meterRegistry);
+	}
+
+	@Scheduled(fixedDelayString = "${urlshortener.hot-links.warm-interval-ms:60000}")
+	public void warm() {
+		List<LinkClicks> hot = hotLinks.getTop(hotLinks.getCapacity());
+		List<String> uncachedIds = hot.stream().map(LinkClicks::getId).filter(id -> !resolutionCache.contains(id))
+				.collect(Collectors.toList());
+		if (!uncachedIds.isEmpty()) {
+			try {
+				for (URLDetails urlDetails : repository.findAllById(uncachedIds)) {
+					linkIndex.put(urlDetails);
+					resolutionCache.put(urlDetails);
+					warmedCounter.increment();
+				}
+			} catch (RuntimeException exception) {
+				log.warn("Loading {} hot tiny URLs into the resolution cache failed", uncachedIds.size(), exception);
+			}
+		}
+		snapshot(hot);
+	}
+
+	@PreDestroy
+	public void close() {
+		snapshot(hotLinks.getTop(hotLinks.getCapacity()));
+	}
+
+	/**
+	 * The URLs are read by primary key, one chunk per thread, rather than
+	 * taken from the snapshot, so a tiny URL changed or deleted meanwhile or an
+	 * id of a data base since recreated is never resolved wrongly
+	 *
+	 * @return the number of tiny URLs loaded
+	 */
+	private int warmUp() throws InterruptedException {
+		List<LinkClicks> links;
+		try {
+			links = HotLinksSnapshot.read(Paths.get(snapshotFile));
+		} catch (IOException exception) {
+			log.warn("Reading the hot links snapshot {} failed, starting with a cold cache", snapshotFile, exception);
+			return 0;
+		}
+		if (links.isEmpty()) {
+			return 0;
+		}
+
+		Map<String, LinkClicks> linksById = links.stream()
+				.collect(Collectors.toMap(LinkClicks::getId, Function.identity(), (link, other) -> LinkClicks
+						.builder().id(link.getId()).clicks(link.getClicks() + other.getClicks())
+						.error(link.getError() + other.getError()).build()));
+		List<String> ids = new ArrayList<>(linksById.keySet());
+		int chunkSize = Math.min(MAXIMUM_CHUNK_SIZE, (ids.size() + warmUpThreads - 1) / warmUpThreads);
+		ExecutorService executor = Executors.newFixedThreadPool(warmUpThreads,
+				new ThreadFactoryBuilder().setNameFormat("cache-warm-up-%d").setDaemon(true).build());
+		try {
+			List<Future<List<URLDetails>>> chunks = new ArrayList<>();
+			for (List<String> chunk : Lists.partition(ids, chunkSize)) {
+				chunks.add(executor.submit(() -> repository.findAllById(chunk)));
+			}
+			int warmed = 0;
+			for (Future<List<URLDetails>> chunk : chunks) {
+				try {
+					for (URLDetails urlDetails : chunk.get()) {
+						linkIndex.put(urlDetails);
+						resolutionCache.put(urlDetails);
+						LinkClicks link = linksById.get(urlDetails.getId());
+						hotLinks.restore(urlDetails.getId(), urlDetails.getUserId(), link.getClicks(),
+								link.getError());
+						warmedCounter.increment();
+						warmed++;
+					}
+				} catch (ExecutionException exception) {
+					log.warn("Loading hot tiny URLs of the snapshot into the resolution cache failed",
+							exception.getCause());
+				}
+			}
+			return warmed;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void snapshot(List<LinkClicks> hot) {
+		if (!StringUtils.hasText(snapshotFile) || hot.isEmpty()) {
+			return;
+		}
+		try {
+			HotLinksSnapshot.write(Paths.get(snapshotFile), hot);
+		} catch (IOException exception) {
+			log.warn("Writing the hot links snapshot {} failed", snapshotFile, exception);
+		}
+	}
+
+}
@@ -1,16 +1,73 @@
 package de.test.url.shortener.service;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import de.test.url.shortener.repository.domain.ClickGranularity;
+import de.test.url.shortener.repository.domain.ClickTimeSeries;
+import de.test.url.shortener.repository.domain.LinkClicks;
+import de.test.url.shortener.repository.domain.LinkVisitors;
 import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.StatisticsPage;
+import de.test.url.shortener.repository.domain.StatisticsSort;
 import de.test.url.shortener.repository.domain.URLDetails;
 
 public interface URLShortenerService {
 	URLDetails create(String userId, String url);
+
+	Map<String, URLDetails> createAll(String userId, Collection<String> urls);
 	
 	String get(String userId, String id);
+
+	String get(String userId, String id, String clientAddress, String referrer, String userAgent);
+
+	String resolve(String id);
+
+	String resolve(String id, String clientAddress, String referrer, String userAgent);
+
+	/**
+	 * Looks up the URL like {@link #resolve(String)} without counting a call or
+	 * recording a click, for requests that do not follow the redirect
+	 * 
+	 * @param id
+	 * @return the URL, null if the id is unknown
+	 */
+	String peek(String id);
+
+	Map<String, String> resolveAll(String userId, Collection<String> ids);
 	
 	List<Statistics> getUserStatistics(String userId);
 	
 	List<Statistics> getAllStatistics();
+
+	StatisticsPage getUserStatistics(String userId, String cursor, int size, StatisticsSort sort);
+
+	StatisticsPage getAllStatistics(String cursor, int size, StatisticsSort sort);
+
+	void streamUserStatistics(String userId, Consumer<Statistics> consumer);
+
+	void streamAllStatistics(Consumer<Statistics> consumer);
+
+	ClickTimeSeries getClickTimeSeries(String id, ClickGranularity granularity, Instant from, Instant to);
+
+	List<LinkClicks> getTopLinks(ClickGranularity granularity, Instant from, Instant to, int limit);
+
+	/**
+	 * @param userId owning the tiny URLs, null for all users
+	 * @param limit
+	 * @return the approximate limit tiny URLs clicked most since start, most
+	 *         first
+	 */
+	List<LinkClicks> getHotLinks(String userId, int limit);
+
+	/**
+	 * @param id
+	 * @param from start of the range of days, null for the first
+	 * @param to   end of the range, exclusive, null for now
+	 * @return the estimated distinct visitors of the tiny URL
+	 */
+	LinkVisitors getUniqueVisitors(String id, Instant from, Instant to);
 }
@@ -1,90 +1,424 @@
 package de.test.url.shortener.service;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import javax.persistence.NoResultException;
-
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
+import com.google.common.collect.Iterators;
+
+import de.test.url.shortener.exception.NotFoundException;
 import de.test.url.shortener.repository.URLShortenerRepository;
+import de.test.url.shortener.repository.domain.ClickGranularity;
+import de.test.url.shortener.repository.domain.ClickTimeSeries;
+import de.test.url.shortener.repository.domain.LinkClicks;
+import de.test.url.shortener.repository.domain.LinkVisitors;
 import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.StatisticsPage;
+import de.test.url.shortener.repository.domain.StatisticsSort;
 import de.test.url.shortener.repository.domain.URLDetails;
+import de.test.url.shortener.service.click.ClickEventPipeline;
+import de.test.url.shortener.service.click.ClickStatistics;
+import de.test.url.shortener.service.click.HotLinks;
+import de.test.url.shortener.service.click.UniqueVisitors;
+import de.test.url.shortener.service.linkindex.LinkIndex;
+import de.test.url.shortener.service.shortcode.ShortCodeGenerator;
 
 @Service
 public class URLShortenerServiceImpl implements URLShortenerService {
 
+	private static final int MAXIMUM_PAGE_SIZE = 1000;
+
+	private static final int MAXIMUM_BULK_SIZE = 10_000;
+
+	private static final int STREAM_CHUNK_SIZE = 1000;
+
 	@Autowired
 	private URLShortenerRepository repository;
 
+	@Autowired
+	private CallCountBuffer callCountBuffer;
+
+	@Autowired
+	private URLResolutionCache resolutionCache;
+
+	@Autowired
+	private URLIdFilter idFilter;
+
+	@Autowired
+	private LinkIndex linkIndex;
+
+	@Autowired
+	private ClickEventPipeline clickEventPipeline;
+
+	@Autowired
+	private ClickStatistics clickStatistics;
+
+	@Autowired
+	private HotLinks hotLinks;
+
+	@Autowired
+	private UniqueVisitors uniqueVisitors;
+
+	@Autowired
+	private ShortCodeGenerator shortCodeGenerator;
+
+	/**
+	 * An existing user id and URL is counted without drawing a short code, a
+	 * code is drawn only for an insert
+	 */
 	@Override
 	public URLDetails create(String userId, String url) {
 
 		Assert.isTrue(StringUtils.hasText(userId), "Invalid user id " + userId);
 		Assert.isTrue(StringUtils.hasText(url), "Invalid URL " + url);
 
-		URLDetails urlDetails = repository.findByUserIdAndUrl(userId, url).orElse(null);
+		URLDetails urlDetails = repository.incrementCreationCount(userId, url).orElse(null);
+		if (urlDetails == null) {
+			String id = shortCodeGenerator.next();
+			try {
+				urlDetails = repository.upsert(id, userId, url);
+			} catch (DataIntegrityViolationException exception) {
+				// a concurrent create for the same user id and URL inserted first, the MERGE matches now
+				urlDetails = repository.upsert(id, userId, url);
+			}
+		}
+		// replaces an earlier miss of the id
+		idFilter.put(urlDetails.getId());
+		linkIndex.put(urlDetails);
+		resolutionCache.put(urlDetails);
+
+		return urlDetails;
+	}
 
-		if (Optional.ofNullable(urlDetails).isPresent()) {
-			urlDetails.setCreationCount(urlDetails.getCreationCount() + 1);
-		} else {
-			urlDetails = URLDetails.builder().userId(userId).url(url).creationCount(1).build();
+	/**
+	 * Creates each distinct URL once, the creation count of a URL repeated
+	 * within the batch is incremented once. Short codes are drawn only for the
+	 * URLs not existing for the user yet.
+	 */
+	@Override
+	public Map<String, URLDetails> createAll(String userId, Collection<String> urls) {
+
+		Assert.isTrue(StringUtils.hasText(userId), "Invalid user id " + userId);
+		Assert.notNull(urls, "Invalid URLs " + urls);
+		Assert.isTrue(urls.size() <= MAXIMUM_BULK_SIZE, "Maximum " + MAXIMUM_BULK_SIZE + " URLs per batch");
+
+		Set<String> distinctURLs = new LinkedHashSet<>();
+		for (String url : urls) {
+			Assert.isTrue(StringUtils.hasText(url), "Invalid URL " + url);
+			distinctURLs.add(url);
+		}
+
+		if (distinctURLs.isEmpty()) {
+			return Collections.emptyMap();
+		}
+
+		List<URLDetails> urlDetailList = new ArrayList<>(repository.incrementCreationCounts(userId, distinctURLs));
+		urlDetailList.forEach(urlDetails -> distinctURLs.remove(urlDetails.getUrl()));
+
+		if (!distinctURLs.isEmpty()) {
+			Map<String, String> idsByURL = new LinkedHashMap<>();
+			for (String url : distinctURLs) {
+				idsByURL.put(url, shortCodeGenerator.next());
+			}
+			try {
+				urlDetailList.addAll(repository.upsertAll(userId, idsByURL));
+			} catch (DataIntegrityViolationException exception) {
+				// a concurrent create for one of the URLs inserted first, the MERGE matches now
+				urlDetailList.addAll(repository.upsertAll(userId, idsByURL));
+			}
+		}
+
+		for (URLDetails urlDetails : urlDetailList) {
+			idFilter.put(urlDetails.getId());
+			linkIndex.put(urlDetails);
+			resolutionCache.put(urlDetails);
 		}
 
-		return repository.save(urlDetails);
+		return urlDetailList.stream().collect(Collectors.toMap(URLDetails::getUrl, Function.identity()));
 	}
 
+	/**
+	 * The id is looked up by primary key alone, so the resolution is cached
+	 * whoever owns it and an unknown id is remembered as missing. An id rejected
+	 * by the {@link URLIdFilter} is not looked up at all. Before the data base
+	 * the id is looked up in the off heap {@link LinkIndex}, if enabled.
+	 */
 	@Override
 	public String get(String userId, String id) {
+		return get(userId, id, null, null, null);
+	}
+
+	/**
+	 * Besides the call count, a resolution records a click event into the
+	 * {@link ClickEventPipeline} without waiting for it to be written. The client
+	 * address and the User-Agent header identify the visitor.
+	 */
+	@Override
+	public String get(String userId, String id, String clientAddress, String referrer, String userAgent) {
 
 		Assert.isTrue(StringUtils.hasText(userId), "Invalid user id " + userId);
 		Assert.isTrue(StringUtils.hasText(id), "Invalid id " + id);
 
-		URLDetails urlDetails = repository.findByUserIdAndId(userId, id)
-				.orElseThrow(() -> new NoResultException("No URL available for the userid " + userId + " id " + id));
+		ResolvedURL resolvedURL = lookup(id);
+		if (resolvedURL == null || !resolvedURL.getUserId().equals(userId)) {
+			throw new NotFoundException("No URL available for the userid " + userId + " id " + id);
+		}
+
+		callCountBuffer.increment(id);
+		clickEventPipeline.record(id, userId, clientAddress, referrer, userAgent);
+
+		return resolvedURL.getUrl();
 
-		urlDetails.setCallCount(urlDetails.getCallCount() + 1);
+	}
+
+	@Override
+	public String resolve(String id) {
+		return resolve(id, null, null, null);
+	}
+
+	/**
+	 * The click event of a resolution is recorded for the user owning the tiny
+	 * URL
+	 */
+	@Override
+	public String resolve(String id, String clientAddress, String referrer, String userAgent) {
+
+		ResolvedURL resolvedURL = lookup(id);
+		if (resolvedURL == null) {
+			return null;
+		}
 
-		return repository.save(urlDetails).getUrl();
+		callCountBuffer.increment(id);
+		clickEventPipeline.record(id, resolvedURL.getUserId(), clientAddress, referrer, userAgent);
 
+		return resolvedURL.getUrl();
+	}
+
+	@Override
+	public String peek(String id) {
+		ResolvedURL resolvedURL = lookup(id);
+		return resolvedURL == null ? null : resolvedURL.getUrl();
+	}
+
+	/**
+	 * @return the resolution of the id from the cache, the link index or the
+	 *         data base, null if it is unknown
+	 */
+	private ResolvedURL lookup(String id) {
+
+		ResolvedURL resolvedURL = resolutionCache.getIfPresent(id);
+		if (resolvedURL == null) {
+			resolvedURL = linkIndex.get(id);
+		}
+
+		if (resolvedURL == null) {
+			if (!idFilter.mightContain(id) || resolutionCache.isMissing(id)) {
+				return null;
+			}
+			Optional<URLDetails> urlDetails = repository.findById(id);
+			if (!urlDetails.isPresent()) {
+				resolutionCache.putMissing(id);
+				return null;
+			}
+			linkIndex.put(urlDetails.get());
+			resolutionCache.put(urlDetails.get());
+			resolvedURL = new ResolvedURL(urlDetails.get().getUserId(), urlDetails.get().getUrl());
+		}
+		return resolvedURL;
+	}
+
+	/**
+	 * Bulk variant of {@link #get(String, String)}, the ids not in the cache or
+	 * the link index are loaded by one query on the primary key. Ids unknown or of another user are
+	 * left out, each distinct id resolved counts as one call. Ids not found are
+	 * remembered as missing and not queried again.
+	 */
+	@Override
+	public Map<String, String> resolveAll(String userId, Collection<String> ids) {
+
+		Assert.isTrue(StringUtils.hasText(userId), "Invalid user id " + userId);
+		Assert.notNull(ids, "Invalid ids " + ids);
+		Assert.isTrue(ids.size() <= MAXIMUM_BULK_SIZE, "Maximum " + MAXIMUM_BULK_SIZE + " ids per batch");
+
+		Set<String> distinctIds = new LinkedHashSet<>(ids);
+		Map<String, ResolvedURL> resolvedURLs = new HashMap<>();
+		List<String> uncachedIds = new ArrayList<>();
+		for (String id : distinctIds) {
+			Assert.isTrue(StringUtils.hasText(id), "Invalid id " + id);
+			ResolvedURL resolvedURL = resolutionCache.getIfPresent(id);
+			if (resolvedURL == null) {
+				resolvedURL = linkIndex.get(id);
+			}
+			if (resolvedURL != null) {
+				resolvedURLs.put(id, resolvedURL);
+			} else if (idFilter.mightContain(id) && !resolutionCache.isMissing(id)) {
+				uncachedIds.add(id);
+			}
+		}
+
+		if (!uncachedIds.isEmpty()) {
+			for (URLDetails urlDetails : repository.findAllById(uncachedIds)) {
+				linkIndex.put(urlDetails);
+				resolutionCache.put(urlDetails);
+				resolvedURLs.put(urlDetails.getId(), new ResolvedURL(urlDetails.getUserId(), urlDetails.getUrl()));
+			}
+			for (String id : uncachedIds) {
+				if (!resolvedURLs.containsKey(id)) {
+					resolutionCache.putMissing(id);
+				}
+			}
+		}
+
+		Map<String, String> urlsById = new LinkedHashMap<>();
+		for (String id : distinctIds) {
+			ResolvedURL resolvedURL = resolvedURLs.get(id);
+			if (resolvedURL != null && resolvedURL.getUserId().equals(userId)) {
+				urlsById.put(id, resolvedURL.getUrl());
+				callCountBuffer.increment(id);
+				clickEventPipeline.record(id, userId, null, null, null);
+			}
+		}
+
+		return urlsById;
 	}
 
 	@Override
 	public List<Statistics> getUserStatistics(String userId) {
 		Assert.isTrue(StringUtils.hasText(userId), "Invalid user id " + userId);
 		List<URLDetails> urlDetailList = repository.findByUserId(userId)
-				.orElseThrow(() -> new NoResultException("No details available for the user id " + userId));
+				.orElseThrow(() -> new NotFoundException("No details available for the user id " + userId));
 
-		return getStatistics(urlDetailList);
+		return addUniqueVisitors(userId, StatisticsAggregator.aggregate(urlDetailList));
 
 	}
 
-	private List<Statistics> getStatistics(List<URLDetails> urlDetailList) {
-		Map<String, Long> groupByURLAndCreationCount = Optional.ofNullable(urlDetailList).map(Collection::stream)
-				.orElseGet(Stream::empty).collect(Collectors.groupingBy(URLDetails::getUrl,
-						Collectors.summingLong(URLDetails::getCreationCount)));
+	@Override
+	public List<Statistics> getAllStatistics() {
+		return addUniqueVisitors(null, repository.findAllStatistics());
+	}
 
-		Map<String, Long> groupByURLAndCallCount = Optional.ofNullable(urlDetailList).map(Collection::stream)
-				.orElseGet(Stream::empty)
-				.collect(Collectors.groupingBy(URLDetails::getUrl, Collectors.summingLong(URLDetails::getCallCount)));
+	@Override
+	public StatisticsPage getUserStatistics(String userId, String cursor, int size, StatisticsSort sort) {
+		Assert.isTrue(StringUtils.hasText(userId), "Invalid user id " + userId);
+		validatePage(cursor, size, sort);
 
-		return groupByURLAndCreationCount.entrySet().stream()
-				.map(urlCreationCountMap -> Statistics.builder().url(urlCreationCountMap.getKey())
-						.creationCount(urlCreationCountMap.getValue())
-						.callCount(groupByURLAndCallCount.get(urlCreationCountMap.getKey())).build())
-				.collect(Collectors.toList());
+		Pageable pageable = PageRequest.of(0, size);
+		return getStatisticsPage(addUniqueVisitors(userId, sort == StatisticsSort.CALL_COUNT
+				? repository.findTopUserStatisticsByCallCount(userId, pageable)
+				: repository.findUserStatisticsAfter(userId, Optional.ofNullable(cursor).orElse(""), pageable)), size,
+				sort);
 	}
 
 	@Override
-	public List<Statistics> getAllStatistics() {
-		return getStatistics(repository.findAll());
+	public StatisticsPage getAllStatistics(String cursor, int size, StatisticsSort sort) {
+		validatePage(cursor, size, sort);
+
+		Pageable pageable = PageRequest.of(0, size);
+		return getStatisticsPage(addUniqueVisitors(null,
+				sort == StatisticsSort.CALL_COUNT ? repository.findTopStatisticsByCallCount(pageable)
+						: repository.findAllStatisticsAfter(Optional.ofNullable(cursor).orElse(""), pageable)),
+				size, sort);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void streamUserStatistics(String userId, Consumer<Statistics> consumer) {
+		Assert.isTrue(StringUtils.hasText(userId), "Invalid user id " + userId);
+		try (Stream<Statistics> statistics = repository.streamUserStatistics(userId)) {
+			streamWithUniqueVisitors(userId, statistics, consumer);
+		}
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void streamAllStatistics(Consumer<Statistics> consumer) {
+		try (Stream<Statistics> statistics = repository.streamAllStatistics()) {
+			streamWithUniqueVisitors(null, statistics, consumer);
+		}
+	}
+
+	@Override
+	public ClickTimeSeries getClickTimeSeries(String id, ClickGranularity granularity, Instant from, Instant to) {
+		Assert.isTrue(StringUtils.hasText(id), "Invalid id " + id);
+		return clickStatistics.getTimeSeries(id, granularity, from, to);
+	}
+
+	/**
+	 * The URLs of the top links are loaded with one query on the primary key
+	 */
+	@Override
+	public List<LinkClicks> getTopLinks(ClickGranularity granularity, Instant from, Instant to, int limit) {
+		return addURLs(clickStatistics.getTop(granularity, from, to, limit));
+	}
+
+	@Override
+	public List<LinkClicks> getHotLinks(String userId, int limit) {
+		return addURLs(userId == null ? hotLinks.getTop(limit) : hotLinks.getTop(userId, limit));
+	}
+
+	@Override
+	public LinkVisitors getUniqueVisitors(String id, Instant from, Instant to) {
+		Assert.isTrue(StringUtils.hasText(id), "Invalid id " + id);
+		return LinkVisitors.builder().id(id).uniqueVisitors(uniqueVisitors.getUniqueVisitors(id, from, to)).build();
+	}
+
+	/**
+	 * The unique visitors are added per page of statistics, by one query per
+	 * chunk of URLs
+	 */
+	private List<Statistics> addUniqueVisitors(String userId, List<Statistics> statistics) {
+		uniqueVisitors.addTo(userId, statistics);
+		return statistics;
+	}
+
+	private void streamWithUniqueVisitors(String userId, Stream<Statistics> statistics,
+			Consumer<Statistics> consumer) {
+		Iterators.partition(statistics.iterator(), STREAM_CHUNK_SIZE)
+				.forEachRemaining(chunk -> addUniqueVisitors(userId, chunk).forEach(consumer));
+	}
+
+	private List<LinkClicks> addURLs(List<LinkClicks> links) {
+		if (!links.isEmpty()) {
+			Map<String, String> urlsById = new HashMap<>();
+			repository.findAllById(links.stream().map(LinkClicks::getId).collect(Collectors.toList()))
+					.forEach(urlDetails -> urlsById.put(urlDetails.getId(), urlDetails.getUrl()));
+			links.forEach(linkClicks -> linkClicks.setUrl(urlsById.get(linkClicks.getId())));
+		}
+		return links;
+	}
+
+	private void validatePage(String cursor, int size, StatisticsSort sort) {
+		Assert.isTrue(size > 0 && size <= MAXIMUM_PAGE_SIZE, "Invalid page size " + size);
+		Assert.notNull(sort, "Invalid sort " + sort);
+		Assert.isTrue(sort == StatisticsSort.URL || cursor == null, "Cursor is not supported for sort " + sort);
+	}
+
+	private StatisticsPage getStatisticsPage(List<Statistics> statistics, int size, StatisticsSort sort) {
+		String nextCursor = sort == StatisticsSort.URL && statistics.size() == size
+				? statistics.get(statistics.size() - 1).getUrl()
+				: null;
+		return StatisticsPage.builder().statistics(statistics).nextCursor(nextCursor).build();
 	}
 
 }
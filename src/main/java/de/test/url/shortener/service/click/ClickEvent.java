@@ -0,0 +1,32 @@
+package de.test.url.shortener.service.click;
+
+import lombok.Value;
+
+/**
+ * One resolution of a tiny URL, as appended to the {@link ClickEventLog}
+ *
+ * @author Shijin Raj
+ *
+ */
+@Value
+public class ClickEvent {
+	String id;
+	/**
+	 * Epoch milliseconds of the resolution
+	 */
+	long timestamp;
+	String userId;
+	/**
+	 * Referer header of the request, null if it had none
+	 */
+	String referrer;
+	/**
+	 * 32 bit MurmurHash3 of the User-Agent header, 0 if the request had none
+	 */
+	int userAgentHash;
+	/**
+	 * First 64 bits of the HMAC-SHA256 of the client address and the User-Agent
+	 * header keyed with the visitor secret, 0 if the client address is unknown
+	 */
+	long visitorHash;
+}
@@ -0,0 +1,20 @@
+package de.test.url.shortener.service.click;
+
+import java.util.List;
+
+/**
+ * Consumer of the click events drained by the {@link ClickEventPipeline},
+ * called on its single consumer thread after each batch is logged
+ *
+ * @author Shijin Raj
+ *
+ */
+public interface ClickEventHandler {
+
+	/**
+	 * @param events of the batch in the order recorded, not to be kept beyond
+	 *               the call
+	 */
+	void handle(List<ClickEvent> events);
+
+}
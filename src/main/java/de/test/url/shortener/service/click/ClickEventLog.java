@@ -0,0 +1,298 @@
+package de.test.url.shortener.service.click;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.util.Assert;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append only binary log of click events, split into numbered segment files
+ * of a maximum size.
+ *
+ * Each open starts a new segment, so a segment torn by a crash is never
+ * appended to, and the oldest segments beyond the retained number are deleted
+ * on rotation. Appends reach the page cache with each batch and the disk on
+ * rotation and close. A failed append or rotation drops the buffered
+ * records and leaves the current segment for a new one, so the next append
+ * never continues a segment after a partly written record.
+ *
+ * A segment starts with MAGIC and VERSION, followed by the records: long
+ * timestamp, int user agent hash, long visitor hash, id, user id and
+ * referrer, each a short byte length (-1 for null) followed by UTF-8 bytes.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Slf4j
+class ClickEventLog implements Closeable {
+
+	private static final long MAGIC = 0x434C49434B4C4F47L;
+
+	private static final int VERSION = 2;
+
+	private static final String SEGMENT_PREFIX = "clicks-";
+
+	private static final String SEGMENT_SUFFIX = ".log";
+
+	/**
+	 * Longer strings are cut, so a record fits the buffer and a short length
+	 */
+	private static final int MAXIMUM_STRING_LENGTH = 2048;
+
+	private static final int BUFFER_SIZE = 1 << 18;
+
+	private final Path directory;
+
+	private final long segmentSize;
+
+	private final int retainedSegments;
+
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	private long segmentNumber;
+
+	private FileChannel channel;
+
+	private long segmentPosition;
+
+	private ClickEventLog(Path directory, long segmentSize, int retainedSegments) {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.retainedSegments = retainedSegments;
+	}
+
+	/**
+	 * @param directory        of the segments, created if missing
+	 * @param segmentSize      in bytes, a segment is rotated before it would
+	 *                         exceed it
+	 * @param retainedSegments 0 to keep all segments
+	 */
+	static ClickEventLog open(Path directory, long segmentSize, int retainedSegments) throws IOException {
+		Assert.isTrue(segmentSize >= BUFFER_SIZE, "Invalid segment size " + segmentSize);
+		Assert.isTrue(retainedSegments >= 0, "Invalid retained segments " + retainedSegments);
+		Files.createDirectories(directory);
+
+		ClickEventLog eventLog = new ClickEventLog(directory, segmentSize, retainedSegments);
+		List<Path> segments = segments(directory);
+		eventLog.segmentNumber = segments.isEmpty() ? 0 : segmentNumber(segments.get(segments.size() - 1));
+		eventLog.rotate();
+		return eventLog;
+	}
+
+	/**
+	 * Appends the events to the current segment, rotating it when full
+	 *
+	 * @throws IOException if the events are not appended, any of them may have
+	 *                     been appended before the current segment was left
+	 */
+	void append(List<ClickEvent> events) throws IOException {
+		try {
+			if (channel == null) {
+				rotate();
+			}
+			appendToSegment(events);
+		} catch (IOException | RuntimeException exception) {
+			recover(exception);
+			throw exception;
+		}
+	}
+
+	private void appendToSegment(List<ClickEvent> events) throws IOException {
+		for (ClickEvent event : events) {
+			byte[] id = encode(event.getId());
+			byte[] userId = encode(event.getUserId());
+			byte[] referrer = encode(event.getReferrer());
+			int recordSize = 20 + length(id) + length(userId) + length(referrer);
+
+			if (buffer.remaining() < recordSize) {
+				write();
+			}
+			if (segmentPosition + buffer.position() + recordSize > segmentSize) {
+				write();
+				rotate();
+			}
+			buffer.putLong(event.getTimestamp());
+			buffer.putInt(event.getUserAgentHash());
+			buffer.putLong(event.getVisitorHash());
+			put(id);
+			put(userId);
+			put(referrer);
+		}
+		write();
+	}
+
+	/**
+	 * @return the segment files, oldest first
+	 */
+	List<Path> segments() throws IOException {
+		return segments(directory);
+	}
+
+	/**
+	 * Forces the current segment to disk and closes it
+	 */
+	@Override
+	public void close() throws IOException {
+		if (channel != null) {
+			write();
+			channel.force(false);
+			channel.close();
+			channel = null;
+		}
+	}
+
+	/**
+	 * Reads the events of all segments in the directory in order. A segment of
+	 * another format is skipped, a torn record ends its segment.
+	 */
+	static void read(Path directory, Consumer<ClickEvent> consumer) throws IOException {
+		for (Path segment : segments(directory)) {
+			try (DataInputStream input = new DataInputStream(
+					new BufferedInputStream(Files.newInputStream(segment), 1 << 16))) {
+				if (input.readLong() != MAGIC || input.readInt() != VERSION) {
+					log.warn("Skipping click event segment {} of another format", segment);
+					continue;
+				}
+				while (true) {
+					long timestamp = input.readLong();
+					int userAgentHash = input.readInt();
+					long visitorHash = input.readLong();
+					String id = readString(input);
+					String userId = readString(input);
+					String referrer = readString(input);
+					consumer.accept(new ClickEvent(id, timestamp, userId, referrer, userAgentHash, visitorHash));
+				}
+			} catch (EOFException exception) {
+				// end of the segment, or a record torn by a crash
+			}
+		}
+	}
+
+	/**
+	 * Drops the buffered records and closes the current segment, then opens a
+	 * new one, or leaves it to the next append if that fails as well
+	 */
+	private void recover(Exception exception) {
+		buffer.clear();
+		closeChannel(exception);
+		try {
+			rotate();
+		} catch (IOException | RuntimeException rotateException) {
+			exception.addSuppressed(rotateException);
+			buffer.clear();
+			closeChannel(exception);
+		}
+	}
+
+	private void closeChannel(Exception exception) {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException closeException) {
+				exception.addSuppressed(closeException);
+			}
+			channel = null;
+		}
+	}
+
+	private void rotate() throws IOException {
+		FileChannel previous = channel;
+		channel = null;
+		buffer.clear();
+		if (previous != null) {
+			try {
+				previous.force(false);
+			} finally {
+				previous.close();
+			}
+		}
+		segmentNumber++;
+		channel = FileChannel.open(directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentNumber,
+				SEGMENT_SUFFIX)), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		buffer.putLong(MAGIC).putInt(VERSION);
+		segmentPosition = 0;
+		write();
+
+		if (retainedSegments > 0) {
+			List<Path> segments = segments();
+			for (Path segment : segments.subList(0, Math.max(0, segments.size() - retainedSegments))) {
+				Files.deleteIfExists(segment);
+			}
+		}
+	}
+
+	private void write() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			segmentPosition += channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private void put(byte[] bytes) {
+		if (bytes == null) {
+			buffer.putShort((short) -1);
+		} else {
+			buffer.putShort((short) bytes.length);
+			buffer.put(bytes);
+		}
+	}
+
+	private static String readString(DataInputStream input) throws IOException {
+		int length = input.readShort();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static byte[] encode(String value) {
+		if (value == null) {
+			return null;
+		}
+		return (value.length() > MAXIMUM_STRING_LENGTH ? value.substring(0, MAXIMUM_STRING_LENGTH) : value)
+				.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static int length(byte[] bytes) {
+		return 2 + (bytes == null ? 0 : bytes.length);
+	}
+
+	private static List<Path> segments(Path directory) throws IOException {
+		List<Path> segments = new ArrayList<>();
+		if (!Files.isDirectory(directory)) {
+			return segments;
+		}
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+				SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+			stream.forEach(segments::add);
+		}
+		// fixed width numbers sort by name
+		Collections.sort(segments);
+		return segments;
+	}
+
+	private static long segmentNumber(Path segment) {
+		String name = segment.getFileName().toString();
+		return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+	}
+
+}
@@ -0,0 +1,218 @@
+package de.test.url.shortener.service.click;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asynchronous pipeline of a click event per tiny URL resolution into the
+ * {@link ClickEventLog}, for a per click history next to the call counts.
+ *
+ * A resolution only offers its event to a bounded lock free ring buffer and
+ * returns, a single background thread drains it in batches and appends them
+ * to the log, then hands them to the {@link ClickEventHandler} beans. When
+ * the consumer falls behind and the buffer is full, events
+ * are dropped and counted rather than slowing down the redirect, as are the
+ * batches the log fails to append.
+ *
+ * The visitor hash is an HMAC-SHA256 of the client address and User-Agent
+ * keyed with a configured secret, so the logged hashes cannot be reversed by
+ * hashing the address space, nor visitors crafted to collide in the sketches.
+ * It is computed on the resolving thread, about 1.5 microseconds per click.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Slf4j
+@Component
+public class ClickEventPipeline {
+
+	/**
+	 * Pause of the consumer on an empty buffer, producers never signal it
+	 */
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private static final HashFunction USER_AGENT_HASH = Hashing.murmur3_32();
+
+	@Value("${urlshortener.click-events.enabled:true}")
+	private boolean enabled;
+
+	@Value("${urlshortener.click-events.buffer-size:65536}")
+	private int bufferSize;
+
+	@Value("${urlshortener.click-events.batch-size:1024}")
+	private int batchSize;
+
+	@Value("${urlshortener.click-events.directory:data/clicks}")
+	private String directory;
+
+	@Value("${urlshortener.click-events.segment-size-bytes:67108864}")
+	private long segmentSize;
+
+	@Value("${urlshortener.click-events.retained-segments:100}")
+	private int retainedSegments;
+
+	/**
+	 * Shared by all instances, so a visitor hashes the same on each of them and
+	 * after a restart
+	 */
+	@Value("${urlshortener.click-events.visitor-secret:}")
+	private String visitorSecret;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired(required = false)
+	private List<ClickEventHandler> handlers = Collections.emptyList();
+
+	private ClickEventRingBuffer ringBuffer;
+
+	private ClickEventLog eventLog;
+
+	private Thread consumer;
+
+	private volatile boolean running;
+
+	private Counter loggedCounter;
+
+	private Counter droppedCounter;
+
+	private Counter failedCounter;
+
+	private HashFunction visitorHashFunction;
+
+	@PostConstruct
+	public void init() throws IOException {
+		loggedCounter = Counter.builder("urlshortener.clicks.logged")
+				.description("Click events appended to the click event log").register(meterRegistry);
+		droppedCounter = Counter.builder("urlshortener.clicks.dropped")
+				.description("Click events dropped as the ring buffer was full").register(meterRegistry);
+		failedCounter = Counter.builder("urlshortener.clicks.failed")
+				.description("Click events lost as the click event log failed to append them")
+				.register(meterRegistry);
+		Gauge.builder("urlshortener.clicks.pending", this,
+				pipeline -> pipeline.ringBuffer == null ? 0 : pipeline.ringBuffer.size())
+				.description("Click events in the ring buffer").register(meterRegistry);
+
+		if (enabled) {
+			byte[] key;
+			if (StringUtils.hasText(visitorSecret)) {
+				key = visitorSecret.getBytes(StandardCharsets.UTF_8);
+			} else {
+				key = new byte[32];
+				new SecureRandom().nextBytes(key);
+				log.warn("No urlshortener.click-events.visitor-secret configured,"
+						+ " visitors are counted again on each instance and after a restart");
+			}
+			visitorHashFunction = Hashing.hmacSha256(key);
+			Path path = Paths.get(directory).toAbsolutePath();
+			eventLog = ClickEventLog.open(path, segmentSize, retainedSegments);
+			ringBuffer = new ClickEventRingBuffer(bufferSize);
+			running = true;
+			consumer = new Thread(this::consume, "click-event-consumer");
+			consumer.setDaemon(true);
+			consumer.start();
+			log.info("Logging click events to {}", path);
+		}
+	}
+
+	/**
+	 * Offers the click event of a resolution, without waiting
+	 *
+	 * The client address is logged only as part of the visitor hash.
+	 *
+	 * @param id            of the tiny URL
+	 * @param userId        owning the tiny URL
+	 * @param clientAddress of the request, may be null
+	 * @param referrer      Referer header of the request, may be null
+	 * @param userAgent     User-Agent header of the request, may be null
+	 */
+	public void record(String id, String userId, String clientAddress, String referrer, String userAgent) {
+		ClickEventRingBuffer buffer = ringBuffer;
+		if (buffer == null) {
+			return;
+		}
+		int userAgentHash = userAgent == null ? 0
+				: USER_AGENT_HASH.hashString(userAgent, StandardCharsets.UTF_8).asInt();
+		long visitorHash = clientAddress == null ? 0
+				: visitorHashFunction.newHasher().putString(clientAddress, StandardCharsets.UTF_8).putByte((byte) 0)
+						.putString(userAgent == null ? "" : userAgent, StandardCharsets.UTF_8).hash().asLong();
+		if (!buffer.offer(new ClickEvent(id, System.currentTimeMillis(), userId, referrer, userAgentHash,
+				visitorHash))) {
+			droppedCounter.increment();
+		}
+	}
+
+	/**
+	 * Stops the consumer once it has appended the events offered so far
+	 */
+	@PreDestroy
+	public void close() throws IOException, InterruptedException {
+		if (consumer == null) {
+			return;
+		}
+		running = false;
+		LockSupport.unpark(consumer);
+		consumer.join(TimeUnit.SECONDS.toMillis(10));
+		if (consumer.isAlive()) {
+			log.warn("Click event consumer did not stop, the click event log is left open");
+		} else {
+			eventLog.close();
+		}
+		consumer = null;
+	}
+
+	private void consume() {
+		List<ClickEvent> batch = new ArrayList<>(batchSize);
+		while (true) {
+			// read before the drain, the events offered before the stop are drained
+			boolean stopping = !running;
+			if (ringBuffer.drainTo(batch, batchSize) == 0) {
+				if (stopping) {
+					return;
+				}
+				LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+				continue;
+			}
+			try {
+				eventLog.append(batch);
+				loggedCounter.increment(batch.size());
+			} catch (IOException | RuntimeException exception) {
+				failedCounter.increment(batch.size());
+				log.warn("Failed to append {} click events", batch.size(), exception);
+			}
+			for (ClickEventHandler handler : handlers) {
+				try {
+					handler.handle(batch);
+				} catch (RuntimeException exception) {
+					log.warn("Click event handler {} failed on {} click events", handler, batch.size(), exception);
+				}
+			}
+			batch.clear();
+		}
+	}
+
+}
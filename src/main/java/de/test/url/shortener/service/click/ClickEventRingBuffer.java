@@ -0,0 +1,114 @@
+package de.test.url.shortener.service.click;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.util.Assert;
+
+/**
+ * Bounded lock free ring buffer of click events for many producers and a
+ * single consumer.
+ *
+ * Each slot carries a sequence telling whose turn it is: a producer claims the
+ * slot of the tail position by a compare and set of the tail once the
+ * sequence equals the position, stores the event and publishes it by setting
+ * the sequence to the position + 1. The consumer takes the event once the
+ * sequence reads position + 1 and hands the slot back for the next lap by
+ * setting it to position + capacity. A producer never waits, a full buffer
+ * refuses the event.
+ *
+ * @author Shijin Raj
+ *
+ */
+class ClickEventRingBuffer {
+
+	private final int mask;
+
+	private final ClickEvent[] events;
+
+	private final AtomicLongArray sequences;
+
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * Position of the next event to take, only written by the consumer
+	 */
+	private volatile long head;
+
+	/**
+	 * @param capacity rounded up to a power of two
+	 */
+	ClickEventRingBuffer(int capacity) {
+		Assert.isTrue(capacity > 0 && capacity <= 1 << 30, "Invalid capacity " + capacity);
+		int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+		mask = size - 1;
+		events = new ClickEvent[size];
+		sequences = new AtomicLongArray(size);
+		for (int index = 0; index < size; index++) {
+			sequences.set(index, index);
+		}
+	}
+
+	/**
+	 * @return false if the buffer is full
+	 */
+	boolean offer(ClickEvent event) {
+		long position = tail.get();
+		while (true) {
+			int index = (int) position & mask;
+			long difference = sequences.get(index) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					// the volatile write of the sequence publishes the event
+					events[index] = event;
+					sequences.lazySet(index, position + 1);
+					return true;
+				}
+				position = tail.get();
+			} else if (difference < 0) {
+				// the slot still holds the event of the previous lap
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Moves the published events in order into the list, by the single
+	 * consumer only
+	 *
+	 * @return the number of events moved
+	 */
+	int drainTo(List<ClickEvent> batch, int maximum) {
+		long position = head;
+		int count = 0;
+		while (count < maximum) {
+			int index = (int) position & mask;
+			if (sequences.get(index) != position + 1) {
+				break;
+			}
+			batch.add(events[index]);
+			events[index] = null;
+			sequences.lazySet(index, position + events.length);
+			position++;
+			count++;
+		}
+		head = position;
+		return count;
+	}
+
+	/**
+	 * @return the number of events offered and not taken yet, approximate while
+	 *         producers are active
+	 */
+	long size() {
+		return Math.max(0, tail.get() - head);
+	}
+
+	int capacity() {
+		return events.length;
+	}
+
+}
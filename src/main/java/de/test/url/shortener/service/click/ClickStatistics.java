@@ -0,0 +1,353 @@
+package de.test.url.shortener.service.click;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import de.test.url.shortener.repository.ClickStatisticsRepository;
+import de.test.url.shortener.repository.domain.ClickBucket;
+import de.test.url.shortener.repository.domain.ClickGranularity;
+import de.test.url.shortener.repository.domain.ClickTimeSeries;
+import de.test.url.shortener.repository.domain.LinkClicks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Clicks per tiny URL in minute, hour and day buckets.
+ *
+ * The clicks of the last {@link #MINUTES} minutes are counted in memory, in a
+ * ring of int counters per tiny URL clicked meanwhile, by the single consumer
+ * thread of the {@link ClickEventPipeline}. Every rollup adds the minutes
+ * completed since the previous one to their hour and day buckets in the
+ * {@link ClickStatisticsRepository}, one minute after their end at the
+ * earliest, and drops the rings without clicks in the last hour. A click of a
+ * minute already rolled up or of an older one is counted as late and left
+ * out. The clicks of a failed rollup are held as pending and added with the
+ * next one, their minutes stay rolled up.
+ *
+ * A time series adds the minutes not rolled up yet to the buckets of the
+ * repository, the top links are ranked on the buckets of the repository only.
+ * Neither includes pending clicks.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Slf4j
+@Component
+public class ClickStatistics implements ClickEventHandler {
+
+	/**
+	 * Minutes counted in memory per tiny URL
+	 */
+	static final int MINUTES = 60;
+
+	private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+	private static final int MAXIMUM_BUCKETS = 1000;
+
+	private static final int MAXIMUM_TOP_LINKS = 1000;
+
+	@Value("${urlshortener.click-statistics.hour-retention-days:31}")
+	private int hourRetentionDays;
+
+	@Value("${urlshortener.click-statistics.day-retention-days:1096}")
+	private int dayRetentionDays;
+
+	@Autowired
+	private ClickStatisticsRepository repository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Clock clock = Clock.systemUTC();
+
+	private final ConcurrentMap<String, MinuteCounts> minuteCounts = new ConcurrentHashMap<>();
+
+	/**
+	 * Last minute rolled up, a click of it or an earlier minute is late
+	 */
+	private volatile long sealedMinute;
+
+	/**
+	 * Clicks of a failed rollup, granularity to id to bucket start to clicks,
+	 * guarded by the rollup
+	 */
+	private Map<ClickGranularity, Map<String, Map<Long, Long>>> pending = new EnumMap<>(ClickGranularity.class);
+
+	private Counter lateCounter;
+
+	@PostConstruct
+	public void init() {
+		sealedMinute = currentMinute() - 1;
+		lateCounter = Counter.builder("urlshortener.clickstatistics.late")
+				.description("Clicks of a minute already rolled up, left out of the click statistics")
+				.register(meterRegistry);
+		Gauge.builder("urlshortener.clickstatistics.links", minuteCounts, Map::size)
+				.description("Tiny URLs with clicks counted in memory").register(meterRegistry);
+	}
+
+	@Override
+	public void handle(List<ClickEvent> events) {
+		for (ClickEvent event : events) {
+			add(event.getId(), Math.floorDiv(event.getTimestamp(), MINUTE_MILLIS));
+		}
+	}
+
+	/**
+	 * @param id
+	 * @param granularity
+	 * @param from        start of the range, defaults to the default number of
+	 *                    buckets of the granularity up to the one of to
+	 * @param to          end of the range, exclusive, defaults to now
+	 * @return the clicks per bucket from the bucket of from to the one of to
+	 */
+	public ClickTimeSeries getTimeSeries(String id, ClickGranularity granularity, Instant from, Instant to) {
+		Assert.notNull(granularity, "Invalid granularity " + granularity);
+		long end = end(to);
+		long start = start(granularity, from, end);
+		long bucketCount = (end - start + granularity.getMillis() - 1) / granularity.getMillis();
+		Assert.isTrue(bucketCount <= MAXIMUM_BUCKETS, "Maximum " + MAXIMUM_BUCKETS + " buckets per time series");
+		Assert.isTrue(granularity != ClickGranularity.MINUTE || start > (currentMinute() - MINUTES) * MINUTE_MILLIS,
+				"Minute buckets are kept for the last " + MINUTES + " minutes");
+
+		long[] clicks = new long[(int) bucketCount];
+		long sealed = Long.MIN_VALUE;
+		if (granularity != ClickGranularity.MINUTE) {
+			repository.findBuckets(id, granularity, start, end).forEach((bucketStart,
+					bucketClicks) -> clicks[(int) ((bucketStart - start) / granularity.getMillis())] += bucketClicks);
+			// read after the repository, a rollup in between leaves its minutes out instead of adding them twice
+			sealed = sealedMinute;
+		}
+
+		MinuteCounts counts = minuteCounts.get(id);
+		if (counts != null) {
+			synchronized (counts) {
+				long first = Math.max(sealed + 1, counts.lastMinute - MINUTES + 1);
+				for (long minute = first; minute <= counts.lastMinute; minute++) {
+					long millis = minute * MINUTE_MILLIS;
+					if (millis >= start && millis < end) {
+						clicks[(int) ((millis - start) / granularity.getMillis())] += counts.get(minute);
+					}
+				}
+			}
+		}
+
+		List<ClickBucket> buckets = new ArrayList<>(clicks.length);
+		for (int bucket = 0; bucket < clicks.length; bucket++) {
+			buckets.add(
+					new ClickBucket(Instant.ofEpochMilli(start + bucket * granularity.getMillis()), clicks[bucket]));
+		}
+		return ClickTimeSeries.builder().id(id).granularity(granularity).buckets(buckets).build();
+	}
+
+	/**
+	 * @param granularity of the buckets summed, hour or day
+	 * @param from        start of the range, defaults like
+	 *                    {@link #getTimeSeries(String, ClickGranularity, Instant, Instant)}
+	 * @param to          end of the range, exclusive, defaults to now
+	 * @param limit
+	 * @return the limit tiny URLs with the most clicks in the range as of the
+	 *         last rollup, most first, without their URLs
+	 */
+	public List<LinkClicks> getTop(ClickGranularity granularity, Instant from, Instant to, int limit) {
+		Assert.isTrue(granularity == ClickGranularity.HOUR || granularity == ClickGranularity.DAY,
+				"Invalid granularity " + granularity);
+		Assert.isTrue(limit > 0 && limit <= MAXIMUM_TOP_LINKS, "Invalid limit " + limit);
+		long end = end(to);
+		return repository.findTop(granularity, start(granularity, from, end), end, limit);
+	}
+
+	/**
+	 * Rolls up the minutes completed more than a minute ago, leaving the events
+	 * still in the ring buffer of the pipeline a minute to arrive
+	 */
+	@Scheduled(fixedDelayString = "${urlshortener.click-statistics.rollup-interval-ms:60000}")
+	public void rollup() {
+		rollup(currentMinute() - 2);
+	}
+
+	/**
+	 * Rolls up all minutes including the current one, the ones not rolled up
+	 * would be lost
+	 */
+	@PreDestroy
+	public void close() {
+		rollup(currentMinute());
+	}
+
+	/**
+	 * Adds the clicks of the minutes after the last rolled up one up to the given
+	 * one to the repository. On failure they are kept pending and retried with
+	 * the next rollup.
+	 */
+	synchronized void rollup(long upToMinute) {
+		long previous = sealedMinute;
+		if (upToMinute <= previous) {
+			return;
+		}
+		// set before the counters are read, a click of these minutes counted afterwards is late instead of lost
+		sealedMinute = upToMinute;
+
+		// copied, the clicks passed to a failed rollup are never changed
+		Map<String, Map<Long, Long>> hours = copy(pending.get(ClickGranularity.HOUR));
+		Map<String, Map<Long, Long>> days = copy(pending.get(ClickGranularity.DAY));
+		minuteCounts.forEach((id, counts) -> {
+			synchronized (counts) {
+				long last = Math.min(upToMinute, counts.lastMinute);
+				for (long minute = Math.max(previous + 1, counts.lastMinute - MINUTES + 1); minute <= last; minute++) {
+					int clicks = counts.get(minute);
+					if (clicks > 0) {
+						long millis = minute * MINUTE_MILLIS;
+						hours.computeIfAbsent(id, key -> new HashMap<>())
+								.merge(ClickGranularity.HOUR.floor(millis), (long) clicks, Long::sum);
+						days.computeIfAbsent(id, key -> new HashMap<>())
+								.merge(ClickGranularity.DAY.floor(millis), (long) clicks, Long::sum);
+					}
+				}
+			}
+		});
+
+		Map<ClickGranularity, Map<String, Map<Long, Long>>> clicks = new EnumMap<>(ClickGranularity.class);
+		clicks.put(ClickGranularity.HOUR, hours);
+		clicks.put(ClickGranularity.DAY, days);
+		try {
+			if (!hours.isEmpty()) {
+				repository.addClicks(clicks);
+			}
+			pending = new EnumMap<>(ClickGranularity.class);
+		} catch (RuntimeException exception) {
+			// the minutes stay rolled up, so the clicks of them counted as late meanwhile are late indeed
+			pending = clicks;
+			log.warn("Rolling up the clicks of {} tiny URLs failed, retrying with the next rollup", hours.size(),
+					exception);
+		}
+
+		if (pending.isEmpty()) {
+			try {
+				long now = clock.millis();
+				repository.deleteBefore(ClickGranularity.HOUR, now - TimeUnit.DAYS.toMillis(hourRetentionDays));
+				repository.deleteBefore(ClickGranularity.DAY, now - TimeUnit.DAYS.toMillis(dayRetentionDays));
+			} catch (RuntimeException exception) {
+				log.warn("Deleting the click statistics beyond their retention failed", exception);
+			}
+		}
+
+		long oldestHeld = currentMinute() - MINUTES;
+		minuteCounts.values().removeIf(counts -> {
+			synchronized (counts) {
+				counts.evicted = counts.lastMinute <= upToMinute && counts.lastMinute <= oldestHeld;
+				return counts.evicted;
+			}
+		});
+	}
+
+	private void add(String id, long minute) {
+		while (true) {
+			MinuteCounts counts = minuteCounts.get(id);
+			if (counts == null) {
+				counts = minuteCounts.computeIfAbsent(id, key -> new MinuteCounts());
+			}
+			synchronized (counts) {
+				if (counts.evicted) {
+					// removed by a rollup meanwhile
+					continue;
+				}
+				if (minute <= sealedMinute || !counts.increment(minute)) {
+					lateCounter.increment();
+				}
+				return;
+			}
+		}
+	}
+
+	private static Map<String, Map<Long, Long>> copy(Map<String, Map<Long, Long>> clicks) {
+		Map<String, Map<Long, Long>> copy = new HashMap<>();
+		if (clicks != null) {
+			clicks.forEach((id, buckets) -> copy.put(id, new HashMap<>(buckets)));
+		}
+		return copy;
+	}
+
+	/**
+	 * @return the epoch milliseconds of the end of the range, exclusive
+	 */
+	private long end(Instant to) {
+		return to == null ? clock.millis() + 1 : to.toEpochMilli();
+	}
+
+	/**
+	 * @return the epoch milliseconds of the start of the first bucket of the
+	 *         range
+	 */
+	private long start(ClickGranularity granularity, Instant from, long end) {
+		long start = from == null
+				? granularity.floor(end - 1) - (granularity.getDefaultBuckets() - 1) * granularity.getMillis()
+				: granularity.floor(from.toEpochMilli());
+		Assert.isTrue(start < end, "Invalid range from " + from + " to " + Instant.ofEpochMilli(end));
+		return start;
+	}
+
+	private long currentMinute() {
+		return Math.floorDiv(clock.millis(), MINUTE_MILLIS);
+	}
+
+	/**
+	 * Clicks of the {@link ClickStatistics#MINUTES} minutes up to the last
+	 * minute clicked, guarded by itself
+	 */
+	private static final class MinuteCounts {
+
+		private final int[] counts = new int[MINUTES];
+
+		private long lastMinute;
+
+		/**
+		 * Set once removed from the map, so a click counts in its successor
+		 */
+		private boolean evicted;
+
+		/**
+		 * @return false if the minute is before the ones held
+		 */
+		boolean increment(long minute) {
+			if (minute > lastMinute) {
+				for (long cleared = Math.max(lastMinute + 1, minute - MINUTES + 1); cleared <= minute; cleared++) {
+					counts[slot(cleared)] = 0;
+				}
+				lastMinute = minute;
+			} else if (minute <= lastMinute - MINUTES) {
+				return false;
+			}
+			counts[slot(minute)]++;
+			return true;
+		}
+
+		int get(long minute) {
+			return minute > lastMinute || minute <= lastMinute - MINUTES ? 0 : counts[slot(minute)];
+		}
+
+		private static int slot(long minute) {
+			return (int) Math.floorMod(minute, (long) MINUTES);
+		}
+
+	}
+
+}
@@ -0,0 +1,153 @@
+package de.test.url.shortener.service.click;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import de.test.url.shortener.repository.domain.LinkClicks;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Approximate most clicked tiny URLs, overall and per user owning them, in
+ * constant memory.
+ *
+ * The clicks are counted by the single consumer thread of the
+ * {@link ClickEventPipeline} into a {@link SpaceSaving} summary of a fixed
+ * number of counters overall and one per user, the summaries of the least
+ * recently clicked users beyond the maximum are dropped. The clicks of a tiny
+ * URL are an estimate, never below its clicks counted meanwhile and at most
+ * its error above them.
+ *
+ * The counts are not since start: the clicks and errors of the previous run
+ * are restored from its snapshot at startup, so they accumulate across
+ * restarts as long as the snapshot is kept.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Component
+public class HotLinks implements ClickEventHandler {
+
+	@Value("${urlshortener.hot-links.capacity:1000}")
+	private int capacity;
+
+	@Value("${urlshortener.hot-links.per-user-capacity:100}")
+	private int perUserCapacity;
+
+	@Value("${urlshortener.hot-links.maximum-users:10000}")
+	private long maximumUsers;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private SpaceSaving links;
+
+	private Cache<String, SpaceSaving> linksByUser;
+
+	@PostConstruct
+	public void init() {
+		links = new SpaceSaving(capacity);
+		linksByUser = CacheBuilder.newBuilder().maximumSize(maximumUsers).build();
+		Gauge.builder("urlshortener.hotlinks.users", linksByUser, Cache::size)
+				.description("Users with their hot links counted").register(meterRegistry);
+	}
+
+	@Override
+	public void handle(List<ClickEvent> events) {
+		synchronized (links) {
+			for (ClickEvent event : events) {
+				links.add(event.getId());
+			}
+		}
+		for (ClickEvent event : events) {
+			if (event.getUserId() != null) {
+				SpaceSaving userLinks = userLinks(event.getUserId());
+				synchronized (userLinks) {
+					userLinks.add(event.getId());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the estimated clicks of a tiny URL counted before a restart, overall
+	 * and to its user
+	 *
+	 * @param id
+	 * @param userId owning the tiny URL
+	 * @param clicks positive
+	 * @param error  of the clicks, at most the clicks
+	 */
+	public void restore(String id, String userId, long clicks, long error) {
+		synchronized (links) {
+			links.add(id, clicks, error);
+		}
+		SpaceSaving userLinks = userLinks(userId);
+		synchronized (userLinks) {
+			userLinks.add(id, clicks, error);
+		}
+	}
+
+	/**
+	 * @param limit at most the capacity
+	 * @return the limit tiny URLs clicked most, most first, with the error of
+	 *         their clicks and without their URLs
+	 */
+	public List<LinkClicks> getTop(int limit) {
+		Assert.isTrue(limit > 0 && limit <= capacity, "Invalid limit " + limit);
+		synchronized (links) {
+			return toLinkClicks(links.top(limit));
+		}
+	}
+
+	/**
+	 * @param userId
+	 * @param limit  at most the capacity per user
+	 * @return the limit tiny URLs of the user clicked most, most first, without
+	 *         their URLs
+	 */
+	public List<LinkClicks> getTop(String userId, int limit) {
+		Assert.isTrue(limit > 0 && limit <= perUserCapacity, "Invalid limit " + limit);
+		SpaceSaving userLinks = linksByUser.getIfPresent(userId);
+		if (userLinks == null) {
+			return Collections.emptyList();
+		}
+		synchronized (userLinks) {
+			return toLinkClicks(userLinks.top(limit));
+		}
+	}
+
+	/**
+	 * @return the number of tiny URLs counted overall, at most the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Created atomically, the clicks are restored while the consumer thread
+	 * counts
+	 */
+	private SpaceSaving userLinks(String userId) {
+		return linksByUser.asMap().computeIfAbsent(userId, user -> new SpaceSaving(perUserCapacity));
+	}
+
+	private static List<LinkClicks> toLinkClicks(List<SpaceSaving.Counter> counters) {
+		return counters.stream()
+				.map(counter -> LinkClicks.builder().id(counter.getItem()).clicks(counter.getCount())
+						.error(counter.getError()).build())
+				.collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,176 @@
+package de.test.url.shortener.service.click;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.springframework.util.Assert;
+
+/**
+ * HyperLogLog sketch of the distinct 64 bit hashes added, with
+ * {@link #REGISTERS} registers for a standard error of about 1.6%.
+ *
+ * A sketch with few registers set keeps them sparse, as a sorted array of
+ * register index and rank, and turns dense once the sparse form would
+ * outgrow one byte per register. Sketches merge by taking the highest rank
+ * per register, so merging is commutative and idempotent, and serialize in
+ * their current form: a format byte, the precision and either the sparse
+ * pairs of short index and byte rank or all registers. Not thread safe.
+ *
+ * @author Shijin Raj
+ *
+ */
+final class HyperLogLog {
+
+	static final int PRECISION = 12;
+
+	static final int REGISTERS = 1 << PRECISION;
+
+	private static final int MAXIMUM_RANK = Long.SIZE - PRECISION + 1;
+
+	/**
+	 * Sparse entries beyond which the dense registers are smaller
+	 */
+	private static final int MAXIMUM_SPARSE = REGISTERS / 4;
+
+	private static final byte SPARSE = 0;
+
+	private static final byte DENSE = 1;
+
+	private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+	/**
+	 * Register index shifted left by 8 bits or'ed with its rank, sorted
+	 */
+	private int[] sparse = new int[4];
+
+	private int sparseSize;
+
+	/**
+	 * Null while sparse
+	 */
+	private byte[] registers;
+
+	void add(long hash) {
+		int index = (int) (hash >>> (Long.SIZE - PRECISION));
+		// the bit below the index bits bounds the rank to MAXIMUM_RANK
+		int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1l << (PRECISION - 1))) + 1;
+		set(index, rank);
+	}
+
+	void merge(HyperLogLog other) {
+		if (other.registers != null) {
+			for (int index = 0; index < REGISTERS; index++) {
+				if (other.registers[index] != 0) {
+					set(index, other.registers[index]);
+				}
+			}
+		} else {
+			for (int entry = 0; entry < other.sparseSize; entry++) {
+				set(other.sparse[entry] >>> 8, other.sparse[entry] & 0xFF);
+			}
+		}
+	}
+
+	/**
+	 * @return the estimated number of distinct hashes added
+	 */
+	long estimate() {
+		double sum;
+		int zeros;
+		if (registers != null) {
+			sum = 0;
+			zeros = 0;
+			for (byte rank : registers) {
+				sum += Math.scalb(1.0, -rank);
+				if (rank == 0) {
+					zeros++;
+				}
+			}
+		} else {
+			zeros = REGISTERS - sparseSize;
+			sum = zeros;
+			for (int entry = 0; entry < sparseSize; entry++) {
+				sum += Math.scalb(1.0, -(sparse[entry] & 0xFF));
+			}
+		}
+		double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+		if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+			// linear counting is more accurate for small cardinalities
+			estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+		}
+		return Math.round(estimate);
+	}
+
+	byte[] toBytes() {
+		if (registers != null) {
+			return ByteBuffer.allocate(2 + REGISTERS).put(DENSE).put((byte) PRECISION).put(registers).array();
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(2 + 3 * sparseSize).put(SPARSE).put((byte) PRECISION);
+		for (int entry = 0; entry < sparseSize; entry++) {
+			buffer.putShort((short) (sparse[entry] >>> 8)).put((byte) sparse[entry]);
+		}
+		return buffer.array();
+	}
+
+	static HyperLogLog fromBytes(byte[] bytes) {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		byte format = buffer.get();
+		Assert.isTrue(buffer.get() == PRECISION, "Invalid precision of the sketch");
+		HyperLogLog sketch = new HyperLogLog();
+		if (format == DENSE) {
+			Assert.isTrue(buffer.remaining() == REGISTERS, "Invalid size of the dense sketch " + bytes.length);
+			sketch.registers = new byte[REGISTERS];
+			buffer.get(sketch.registers);
+		} else {
+			Assert.isTrue(format == SPARSE && buffer.remaining() % 3 == 0, "Invalid sketch format " + format);
+			while (buffer.hasRemaining()) {
+				int index = buffer.getShort() & 0xFFFF;
+				int rank = buffer.get();
+				Assert.isTrue(index < REGISTERS && rank > 0 && rank <= MAXIMUM_RANK,
+						"Invalid register " + index + " rank " + rank);
+				sketch.set(index, rank);
+			}
+		}
+		return sketch;
+	}
+
+	private void set(int index, int rank) {
+		if (registers != null) {
+			if (rank > registers[index]) {
+				registers[index] = (byte) rank;
+			}
+			return;
+		}
+
+		int entry = Arrays.binarySearch(sparse, 0, sparseSize, index << 8 | 0xFF);
+		// never found, the rank is below 0xFF, so the insertion point follows the entry of the index if any
+		entry = -entry - 1;
+		if (entry > 0 && sparse[entry - 1] >>> 8 == index) {
+			if (rank > (sparse[entry - 1] & 0xFF)) {
+				sparse[entry - 1] = index << 8 | rank;
+			}
+			return;
+		}
+		if (sparseSize == MAXIMUM_SPARSE) {
+			toDense();
+			set(index, rank);
+			return;
+		}
+		if (sparseSize == sparse.length) {
+			sparse = Arrays.copyOf(sparse, Math.min(2 * sparse.length, MAXIMUM_SPARSE));
+		}
+		System.arraycopy(sparse, entry, sparse, entry + 1, sparseSize - entry);
+		sparse[entry] = index << 8 | rank;
+		sparseSize++;
+	}
+
+	private void toDense() {
+		registers = new byte[REGISTERS];
+		for (int entry = 0; entry < sparseSize; entry++) {
+			registers[sparse[entry] >>> 8] = (byte) sparse[entry];
+		}
+		sparse = null;
+		sparseSize = 0;
+	}
+
+}
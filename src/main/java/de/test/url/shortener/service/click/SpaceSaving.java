@@ -0,0 +1,185 @@
+package de.test.url.shortener.service.click;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * Space-Saving summary of the most frequent items of a stream in a fixed
+ * number of counters.
+ *
+ * An item not counted yet takes over the counter of the least frequent one,
+ * inheriting its count as the error of the estimate. The count of an item is
+ * never underestimated and overestimated by at most its error, an item more
+ * frequent than the stream length divided by the capacity is always counted.
+ * The counters are kept in a binary min heap, so an addition takes O(log
+ * capacity). Not thread safe.
+ *
+ * @author Shijin Raj
+ *
+ */
+final class SpaceSaving {
+
+	private static final Comparator<Counter> BY_COUNT_DESCENDING = Comparator.comparingLong(Counter::getCount)
+			.reversed().thenComparing(Counter::getItem);
+
+	private final Counter[] heap;
+
+	private final Map<String, Counter> counters;
+
+	private int size;
+
+	SpaceSaving(int capacity) {
+		Assert.isTrue(capacity > 0, "Invalid capacity " + capacity);
+		heap = new Counter[capacity];
+		counters = new HashMap<>(capacity * 4 / 3 + 1);
+	}
+
+	void add(String item) {
+		add(item, 1, 0);
+	}
+
+	/**
+	 * @param item
+	 * @param count occurrences of the item, positive
+	 */
+	void add(String item, long count) {
+		add(item, count, 0);
+	}
+
+	/**
+	 * Adds an estimated count, as of a counter of another summary, keeping its
+	 * error
+	 *
+	 * @param item
+	 * @param count occurrences of the item, positive
+	 * @param error the most the count exceeds the true occurrences, at most the
+	 *              count
+	 */
+	void add(String item, long count, long error) {
+		Counter counter = counters.get(item);
+		if (counter != null) {
+			counter.count += count;
+			counter.error += error;
+			siftDown(counter.index);
+		} else if (size < heap.length) {
+			counter = new Counter(item, size);
+			counter.count = count;
+			counter.error = error;
+			heap[size++] = counter;
+			counters.put(item, counter);
+			siftUp(counter.index);
+		} else {
+			counter = heap[0];
+			counters.remove(counter.item);
+			counter.item = item;
+			counter.error = counter.count + error;
+			counter.count += count;
+			counters.put(item, counter);
+			siftDown(0);
+		}
+	}
+
+	/**
+	 * @param limit
+	 * @return copies of the limit counters with the highest counts, highest
+	 *         first
+	 */
+	List<Counter> top(int limit) {
+		Counter[] sorted = Arrays.copyOf(heap, size);
+		Arrays.sort(sorted, BY_COUNT_DESCENDING);
+		List<Counter> top = new ArrayList<>(Math.min(limit, size));
+		for (int rank = 0; rank < sorted.length && rank < limit; rank++) {
+			top.add(sorted[rank].copy());
+		}
+		return top;
+	}
+
+	int size() {
+		return size;
+	}
+
+	int capacity() {
+		return heap.length;
+	}
+
+	private void siftUp(int index) {
+		Counter counter = heap[index];
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (heap[parent].count <= counter.count) {
+				break;
+			}
+			place(heap[parent], index);
+			index = parent;
+		}
+		place(counter, index);
+	}
+
+	private void siftDown(int index) {
+		Counter counter = heap[index];
+		int half = size >>> 1;
+		while (index < half) {
+			int child = 2 * index + 1;
+			if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+				child++;
+			}
+			if (counter.count <= heap[child].count) {
+				break;
+			}
+			place(heap[child], index);
+			index = child;
+		}
+		place(counter, index);
+	}
+
+	private void place(Counter counter, int index) {
+		heap[index] = counter;
+		counter.index = index;
+	}
+
+	/**
+	 * Estimated count of an item, at most error more than its true count
+	 */
+	static final class Counter {
+
+		private String item;
+
+		private long count;
+
+		private long error;
+
+		private int index;
+
+		private Counter(String item, int index) {
+			this.item = item;
+			this.index = index;
+		}
+
+		String getItem() {
+			return item;
+		}
+
+		long getCount() {
+			return count;
+		}
+
+		long getError() {
+			return error;
+		}
+
+		private Counter copy() {
+			Counter copy = new Counter(item, -1);
+			copy.count = count;
+			copy.error = error;
+			return copy;
+		}
+
+	}
+
+}
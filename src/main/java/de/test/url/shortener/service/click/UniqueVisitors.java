@@ -0,0 +1,194 @@
+package de.test.url.shortener.service.click;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import com.google.common.collect.Lists;
+
+import de.test.url.shortener.repository.VisitorSketchRepository;
+import de.test.url.shortener.repository.domain.ClickGranularity;
+import de.test.url.shortener.repository.domain.Statistics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Distinct visitors per tiny URL, estimated by {@link HyperLogLog} sketches of
+ * the visitor hashes of the click events.
+ *
+ * The sketches of the clicks since the last flush are kept in memory per day
+ * and tiny URL, and merged into the stored sketches of their day and of all
+ * days with each flush. Merging takes the maximum per register, so a flush
+ * failed is simply retried with the next one and the sketches of several
+ * nodes add up without counting a visitor twice. The unique visitors are the
+ * ones flushed.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Slf4j
+@Component
+public class UniqueVisitors implements ClickEventHandler {
+
+	private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+	private static final int URLS_PER_QUERY = 1000;
+
+	@Value("${urlshortener.unique-visitors.retention-days:1096}")
+	private int retentionDays;
+
+	@Autowired
+	private VisitorSketchRepository repository;
+
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * Day bucket start to tiny URL id to the sketch of its clicks since the last
+	 * flush, guarded by this
+	 */
+	private Map<Long, Map<String, HyperLogLog>> pendingSketches = new HashMap<>();
+
+	/**
+	 * Day of the last deletion of the day buckets beyond the retention
+	 */
+	private long retainedDay = Long.MIN_VALUE;
+
+	@Override
+	public synchronized void handle(List<ClickEvent> events) {
+		for (ClickEvent event : events) {
+			if (event.getVisitorHash() != 0) {
+				pendingSketches
+						.computeIfAbsent(ClickGranularity.DAY.floor(event.getTimestamp()), day -> new HashMap<>())
+						.computeIfAbsent(event.getId(), id -> new HyperLogLog()).add(event.getVisitorHash());
+			}
+		}
+	}
+
+	/**
+	 * Merges the sketches since the last flush into the stored ones, once more
+	 * right away if another node inserted one of them first. On failure they are
+	 * merged back and retried with the next flush.
+	 */
+	@PreDestroy
+	@Scheduled(fixedDelayString = "${urlshortener.unique-visitors.flush-interval-ms:60000}")
+	public void flush() {
+		Map<Long, Map<String, HyperLogLog>> flushed;
+		synchronized (this) {
+			flushed = pendingSketches;
+			pendingSketches = new HashMap<>();
+		}
+
+		if (!flushed.isEmpty()) {
+			Map<Long, Map<String, byte[]>> sketches = new HashMap<>();
+			Map<String, HyperLogLog> allDays = new HashMap<>();
+			flushed.forEach((day, sketchesById) -> {
+				Map<String, byte[]> daySketches = new HashMap<>();
+				sketchesById.forEach((id, sketch) -> {
+					daySketches.put(id, sketch.toBytes());
+					allDays.computeIfAbsent(id, key -> new HyperLogLog()).merge(sketch);
+				});
+				sketches.put(day, daySketches);
+			});
+			sketches.put(VisitorSketchRepository.ALL_DAYS, allDays.entrySet().stream()
+					.collect(Collectors.toMap(Map.Entry::getKey, sketch -> sketch.getValue().toBytes())));
+
+			try {
+				save(sketches);
+			} catch (RuntimeException exception) {
+				synchronized (this) {
+					flushed.forEach((day, sketchesById) -> sketchesById.forEach((id, sketch) -> pendingSketches
+							.computeIfAbsent(day, key -> new HashMap<>()).merge(id, sketch, (pending, retried) -> {
+								pending.merge(retried);
+								return pending;
+							})));
+				}
+				log.warn("Flushing the visitor sketches of {} tiny URLs failed, retrying with the next flush",
+						allDays.size(), exception);
+				return;
+			}
+		}
+
+		long today = Math.floorDiv(clock.millis(), DAY_MILLIS);
+		if (today != retainedDay) {
+			try {
+				repository.deleteBefore((today - retentionDays) * DAY_MILLIS);
+				retainedDay = today;
+			} catch (RuntimeException exception) {
+				log.warn("Deleting the visitor sketches beyond their retention failed", exception);
+			}
+		}
+	}
+
+	/**
+	 * Sets the unique visitors of the statistics, of the tiny URLs of the user or
+	 * of all users, by one query per {@value #URLS_PER_QUERY} URLs
+	 *
+	 * @param userId     owning the tiny URLs, null for all users
+	 * @param statistics
+	 */
+	public void addTo(String userId, List<Statistics> statistics) {
+		for (List<Statistics> chunk : Lists.partition(statistics, URLS_PER_QUERY)) {
+			Map<String, List<byte[]>> sketchesByURL = repository.findSketchesByURL(userId,
+					chunk.stream().map(Statistics::getUrl).collect(Collectors.toList()));
+			for (Statistics urlStatistics : chunk) {
+				List<byte[]> sketches = sketchesByURL.get(urlStatistics.getUrl());
+				if (sketches != null) {
+					urlStatistics.setUniqueVisitors(estimate(sketches));
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param id
+	 * @param from start of the range, defaults to the first day
+	 * @param to   end of the range, exclusive, defaults to now
+	 * @return the estimated distinct visitors of the tiny URL on the days of
+	 *         the range, on all days without a range
+	 */
+	public long getUniqueVisitors(String id, Instant from, Instant to) {
+		if (from == null && to == null) {
+			return estimate(repository.findSketches(id, VisitorSketchRepository.ALL_DAYS, 0));
+		}
+		long start = from == null ? 0 : Math.max(0, ClickGranularity.DAY.floor(from.toEpochMilli()));
+		long end = to == null ? clock.millis() + 1 : to.toEpochMilli();
+		Assert.isTrue(start < end, "Invalid range from " + from + " to " + to);
+		return estimate(repository.findSketches(id, start, end));
+	}
+
+	private static long estimate(List<byte[]> sketches) {
+		HyperLogLog visitors = new HyperLogLog();
+		for (byte[] sketch : sketches) {
+			visitors.merge(HyperLogLog.fromBytes(sketch));
+		}
+		return visitors.estimate();
+	}
+
+	private void save(Map<Long, Map<String, byte[]>> sketches) {
+		try {
+			repository.merge(sketches, UniqueVisitors::merge);
+		} catch (DataIntegrityViolationException exception) {
+			// rolled back, the sketches inserted by the other node are stored and locked now
+			repository.merge(sketches, UniqueVisitors::merge);
+		}
+	}
+
+	private static byte[] merge(byte[] stored, byte[] sketch) {
+		HyperLogLog merged = HyperLogLog.fromBytes(stored);
+		merged.merge(HyperLogLog.fromBytes(sketch));
+		return merged.toBytes();
+	}
+
+}
@@ -0,0 +1,223 @@
+package de.test.url.shortener.service.linkindex;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Stopwatch;
+
+import de.test.url.shortener.repository.URLShortenerRepository;
+import de.test.url.shortener.repository.domain.URLDetails;
+import de.test.url.shortener.service.ResolvedURL;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional off heap index of all tiny URL ids to their user id and URL, in a
+ * memory mapped {@link LinkTable} file, consulted before the repository.
+ *
+ * Tens of millions of links cost no heap and no garbage collection, and the
+ * file is mapped again on restart instead of being loaded. Once the
+ * application is ready the index is checked against the number of rows and a
+ * checksum of their ids, scanning the ids only, and rebuilt from a scan of the
+ * table if either differs, as for a new file or a data base changed
+ * meanwhile. The rebuild is written to a new file moved
+ * over the old one, lookups are served by the old index until then and
+ * created links are added to both.
+ *
+ * A full index keeps serving the ids it holds, the others fall back to the
+ * repository until the next rebuild sizes it for twice the rows.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Slf4j
+@Component
+public class LinkIndex {
+
+	@Value("${urlshortener.link-index.enabled:false}")
+	private boolean enabled;
+
+	@Value("${urlshortener.link-index.file:data/urlshortener-links.idx}")
+	private String file;
+
+	@Value("${urlshortener.link-index.capacity:1000000}")
+	private long capacity;
+
+	@Autowired
+	private URLShortenerRepository repository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private volatile LinkTable table;
+
+	/**
+	 * Table being built by {@link #rebuild()}, links created meanwhile are added
+	 * to it as well as they may be behind the scan
+	 */
+	private volatile LinkTable pendingTable;
+
+	private volatile boolean full;
+
+	private Counter hitCounter;
+
+	private Counter missCounter;
+
+	@PostConstruct
+	public void init() throws IOException {
+		hitCounter = Counter.builder("urlshortener.linkindex.lookups").tag("result", "hit")
+				.description("Lookups of ids in the link index").register(meterRegistry);
+		missCounter = Counter.builder("urlshortener.linkindex.lookups").tag("result", "miss")
+				.description("Lookups of ids in the link index").register(meterRegistry);
+		Gauge.builder("urlshortener.linkindex.size", this,
+				linkIndex -> linkIndex.table == null ? 0 : linkIndex.table.size())
+				.description("Number of ids in the link index").register(meterRegistry);
+
+		if (enabled) {
+			Path path = Paths.get(file).toAbsolutePath();
+			Files.createDirectories(path.getParent());
+			table = LinkTable.open(path, capacity);
+			log.info("Opened link index {} of {} ids", path, table.size());
+		}
+	}
+
+	/**
+	 * @param id
+	 * @return the resolution of the id, or null if it is not indexed
+	 */
+	public ResolvedURL get(String id) {
+		LinkTable current = table;
+		if (current == null) {
+			return null;
+		}
+		ResolvedURL resolvedURL = current.get(id);
+		(resolvedURL == null ? missCounter : hitCounter).increment();
+		return resolvedURL;
+	}
+
+	/**
+	 * @param urlDetails of a created or loaded tiny URL
+	 */
+	public void put(URLDetails urlDetails) {
+		// read before the table, a rebuild not pending yet scans the link or has swapped the table
+		LinkTable pending = pendingTable;
+		if (pending != null) {
+			put(pending, urlDetails);
+		}
+		LinkTable current = table;
+		if (current != null) {
+			put(current, urlDetails);
+		}
+	}
+
+	/**
+	 * Invalidation hook for a changed or deleted tiny URL
+	 *
+	 * @param id
+	 */
+	public void remove(String id) {
+		LinkTable pending = pendingTable;
+		if (pending != null) {
+			pending.remove(id);
+		}
+		LinkTable current = table;
+		if (current != null) {
+			current.remove(id);
+		}
+	}
+
+	/**
+	 * Rebuilds the index unless it holds exactly the ids of the table
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void verify() throws IOException {
+		if (!enabled) {
+			return;
+		}
+		long rows = repository.count();
+		if (table.size() != rows) {
+			log.info("Link index of {} ids is not in sync with {} rows", table.size(), rows);
+			rebuild();
+			return;
+		}
+		long[] checksum = new long[1];
+		repository.forEachId(id -> checksum[0] += LinkTable.checksum(id));
+		if (table.checksum() != checksum[0]) {
+			log.info("Link index of {} ids is not in sync with the ids of the rows", table.size());
+			rebuild();
+		}
+	}
+
+	/**
+	 * Builds the index from a scan of the table into a new file, for twice the
+	 * rows at least
+	 */
+	public synchronized void rebuild() throws IOException {
+		if (!enabled) {
+			return;
+		}
+		Stopwatch stopwatch = Stopwatch.createStarted();
+		Path path = Paths.get(file).toAbsolutePath();
+		Path rebuildPath = path.resolveSibling(path.getFileName() + ".rebuild");
+		Files.deleteIfExists(rebuildPath);
+
+		LinkTable rebuilt = LinkTable.open(rebuildPath, Math.max(capacity, 2 * repository.count()));
+		// set before the scan, a link created from now on is either scanned or put
+		pendingTable = rebuilt;
+		LinkTable previous = table;
+		try {
+			repository.forEachURLDetails(urlDetails -> put(rebuilt, urlDetails));
+			Files.move(rebuildPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			table = rebuilt;
+			full = false;
+		} catch (IOException | RuntimeException exception) {
+			rebuilt.close();
+			throw exception;
+		} finally {
+			pendingTable = null;
+		}
+		if (previous != null) {
+			previous.close();
+		}
+
+		log.info("Rebuilt link index {} of {} ids in {} ms", path, rebuilt.size(),
+				stopwatch.elapsed(TimeUnit.MILLISECONDS));
+	}
+
+	@PreDestroy
+	public synchronized void close() throws IOException {
+		if (table != null) {
+			table.close();
+			table = null;
+		}
+	}
+
+	private void put(LinkTable linkTable, URLDetails urlDetails) {
+		try {
+			if (!linkTable.put(urlDetails.getId(), urlDetails.getUserId(), urlDetails.getUrl()) && !full) {
+				full = true;
+				log.warn("Link index of {} ids is full, the ids not indexed are loaded from the data base",
+						linkTable.size());
+			}
+		} catch (IOException exception) {
+			// the id is loaded from the data base instead
+			log.warn("Failed to index the id {}", urlDetails.getId(), exception);
+		}
+	}
+
+}
@@ -0,0 +1,498 @@
+package de.test.url.shortener.service.linkindex;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.springframework.util.Assert;
+
+import com.google.common.hash.Hashing;
+
+import de.test.url.shortener.service.ResolvedURL;
+
+/**
+ * Open addressing hash table of id to user id and URL in a memory mapped
+ * file, off the heap and kept across restarts.
+ *
+ * The file starts with a header, followed by the slot array and the entries
+ * appended after it:
+ *
+ * <pre>
+ * header  magic, version, slot count, end of the entries, number of entries, checksum of the ids
+ * slots   one long per slot: 0 empty, -1 removed, else 23 hash bits and the 40 bit entry position
+ * entries short id length, id, short user id length, user id, int URL length, URL, all UTF-8
+ * </pre>
+ *
+ * The file is mapped in segments of {@link #SEGMENT_SIZE} bytes, as a mapped
+ * buffer is limited to 2 GB, and an entry never crosses a segment. The last
+ * segment is mapped only up to the end of the entries rounded up to
+ * {@link #MAPPING_CHUNK} bytes, and mapped again larger as the entries grow,
+ * so the file and the address space reserved follow the table. Slots are
+ * probed linearly.
+ *
+ * There is one writer at a time, readers are lock free. An entry and its slot
+ * are published by the volatile write of the end of the entries after them. A
+ * reader reads the end first and takes a slot pointing at or beyond it for a
+ * miss, so it only reads entries written before the end it has read.
+ *
+ * The checksum is the sum of {@link #checksum(String)} over the ids in the
+ * table, independent of their order, to compare the table with the ids of
+ * the data base.
+ *
+ * @author Shijin Raj
+ *
+ */
+class LinkTable implements Closeable {
+
+	static final int SEGMENT_SIZE = 1 << 30;
+
+	static final int MAPPING_CHUNK = 1 << 20;
+
+	private static final long MAGIC = 0x4C494E4B54424C31L;
+
+	private static final int VERSION = 2;
+
+	private static final int HEADER_SIZE = 64;
+
+	private static final int MAGIC_POSITION = 0;
+
+	private static final int VERSION_POSITION = 8;
+
+	private static final int SLOT_COUNT_POSITION = 16;
+
+	private static final int END_POSITION = 24;
+
+	private static final int SIZE_POSITION = 32;
+
+	private static final int CHECKSUM_POSITION = 40;
+
+	private static final long TOMBSTONE = -1;
+
+	private static final long POSITION_MASK = (1L << 40) - 1;
+
+	private static final double MAXIMUM_LOAD_FACTOR = 0.75;
+
+	private final FileChannel channel;
+
+	private final long slotCount;
+
+	private final long slotMask;
+
+	/**
+	 * Replaced by a copy when a segment is mapped or mapped again larger, so a
+	 * reader holds a consistent array
+	 */
+	private volatile MappedByteBuffer[] segments;
+
+	private volatile long end;
+
+	private long size;
+
+	private long checksum;
+
+	private long used;
+
+	private LinkTable(FileChannel channel, long slotCount) {
+		this.channel = channel;
+		this.slotCount = slotCount;
+		this.slotMask = slotCount - 1;
+		this.segments = new MappedByteBuffer[0];
+	}
+
+	/**
+	 * Opens the table in the file, or creates it if the file is new or not a
+	 * table of at least the given capacity
+	 *
+	 * @param file
+	 * @param capacity number of entries the table holds at least
+	 * @return the table
+	 * @throws IOException
+	 */
+	static LinkTable open(Path file, long capacity) throws IOException {
+		Assert.isTrue(capacity > 0, "Invalid capacity " + capacity);
+		long slotCount = Long.highestOneBit((long) (capacity / MAXIMUM_LOAD_FACTOR)) << 1;
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			channel.read(header, 0);
+			long fileSlotCount = header.getLong(SLOT_COUNT_POSITION);
+			boolean valid = header.getLong(MAGIC_POSITION) == MAGIC && header.getInt(VERSION_POSITION) == VERSION
+					&& fileSlotCount >= slotCount && Long.bitCount(fileSlotCount) == 1;
+
+			LinkTable table;
+			if (valid) {
+				table = new LinkTable(channel, fileSlotCount);
+				table.ensureMapped(table.getEntriesStart());
+				table.end = header.getLong(END_POSITION);
+				table.size = header.getLong(SIZE_POSITION);
+				table.checksum = header.getLong(CHECKSUM_POSITION);
+				table.ensureMapped(table.end);
+				table.used = table.countUsedSlots();
+			} else {
+				// zeroes all slots
+				channel.truncate(0);
+				table = new LinkTable(channel, slotCount);
+				table.ensureMapped(table.getEntriesStart());
+				table.initHeader();
+			}
+			return table;
+		} catch (IOException | RuntimeException exception) {
+			channel.close();
+			throw exception;
+		}
+	}
+
+	/**
+	 * @param id
+	 * @return the resolution of the id, or null if the id is not in the table
+	 */
+	ResolvedURL get(String id) {
+		// read first, the entries before it and their slots are visible
+		long publishedEnd = end;
+		MappedByteBuffer[] mappedSegments = segments;
+		byte[] idBytes = encode(id);
+		long hash = hash(id);
+
+		for (long index = hash & slotMask, probes = 0; probes < slotCount; index = (index + 1) & slotMask, probes++) {
+			long slot = getLong(mappedSegments, slotPosition(index));
+			if (slot == 0) {
+				return null;
+			}
+			if (slot != TOMBSTONE && (slot >>> 40) == tag(hash) && (slot & POSITION_MASK) < publishedEnd) {
+				ResolvedURL resolvedURL = readEntry(mappedSegments, slot & POSITION_MASK, idBytes);
+				if (resolvedURL != null) {
+					return resolvedURL;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds the id, a present id keeps its entry as the URL of an id never
+	 * changes
+	 *
+	 * @return false if the table is full
+	 * @throws IOException if a segment cannot be mapped
+	 */
+	synchronized boolean put(String id, String userId, String url) throws IOException {
+		byte[] idBytes = encode(id);
+		long hash = hash(id);
+		long index = findSlot(idBytes, hash);
+		if (index < 0) {
+			return true;
+		}
+		// removed slots are not reused, so they count as used
+		if (used + 1 > capacity()) {
+			return false;
+		}
+
+		byte[] userIdBytes = encode(userId);
+		byte[] urlBytes = encode(url);
+		int entrySize = 2 + idBytes.length + 2 + userIdBytes.length + 4 + urlBytes.length;
+		if (entrySize > SEGMENT_SIZE) {
+			return false;
+		}
+		long position = end;
+		if ((position & (SEGMENT_SIZE - 1)) + entrySize > SEGMENT_SIZE) {
+			position = (position | (SEGMENT_SIZE - 1)) + 1;
+		}
+		if (position + entrySize > POSITION_MASK) {
+			return false;
+		}
+		ensureMapped(position + entrySize);
+
+		MappedByteBuffer segment = segments[segmentOf(position)];
+		int offset = offsetOf(position);
+		segment.putShort(offset, (short) idBytes.length);
+		put(segment, offset + 2, idBytes);
+		offset += 2 + idBytes.length;
+		segment.putShort(offset, (short) userIdBytes.length);
+		put(segment, offset + 2, userIdBytes);
+		offset += 2 + userIdBytes.length;
+		segment.putInt(offset, urlBytes.length);
+		put(segment, offset + 4, urlBytes);
+
+		putLong(slotPosition(index), tag(hash) << 40 | position);
+		used++;
+		size++;
+		checksum += checksum(id);
+		putLong(SIZE_POSITION, size);
+		putLong(CHECKSUM_POSITION, checksum);
+		putLong(END_POSITION, position + entrySize);
+		// publishes the entry and its slot to the readers
+		end = position + entrySize;
+		return true;
+	}
+
+	/**
+	 * @return true if the id was in the table
+	 */
+	synchronized boolean remove(String id) {
+		byte[] idBytes = encode(id);
+		long hash = hash(id);
+		for (long index = hash & slotMask, probes = 0; probes < slotCount; index = (index + 1) & slotMask, probes++) {
+			long slot = getLong(segments, slotPosition(index));
+			if (slot == 0) {
+				return false;
+			}
+			if (slot != TOMBSTONE && (slot >>> 40) == tag(hash)
+					&& readEntry(segments, slot & POSITION_MASK, idBytes) != null) {
+				putLong(slotPosition(index), TOMBSTONE);
+				size--;
+				checksum -= checksum(id);
+				putLong(SIZE_POSITION, size);
+				putLong(CHECKSUM_POSITION, checksum);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return number of ids in the table
+	 */
+	synchronized long size() {
+		return size;
+	}
+
+	/**
+	 * @return sum of the {@link #checksum(String)} of the ids in the table
+	 */
+	synchronized long checksum() {
+		return checksum;
+	}
+
+	/**
+	 * @param id
+	 * @return the share of the id in the checksum of a table
+	 */
+	static long checksum(String id) {
+		return Hashing.murmur3_128().hashString(id, StandardCharsets.UTF_8).asLong();
+	}
+
+	/**
+	 * @return number of entries the table holds
+	 */
+	long capacity() {
+		return (long) (slotCount * MAXIMUM_LOAD_FACTOR);
+	}
+
+	/**
+	 * Writes the mapped changes through to the file
+	 */
+	synchronized void force() {
+		for (MappedByteBuffer segment : segments) {
+			segment.force();
+		}
+	}
+
+	/**
+	 * Closes the file, the mapped segments stay valid for readers still holding
+	 * them until they are garbage collected
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		force();
+		channel.close();
+	}
+
+	/**
+	 * @return the index of the empty slot for the id, or -1 if the id is present
+	 */
+	private long findSlot(byte[] idBytes, long hash) {
+		// the load factor leaves an empty slot on every probe sequence
+		for (long index = hash & slotMask;; index = (index + 1) & slotMask) {
+			long slot = getLong(segments, slotPosition(index));
+			if (slot == 0) {
+				return index;
+			}
+			if (slot != TOMBSTONE && (slot >>> 40) == tag(hash)
+					&& readEntry(segments, slot & POSITION_MASK, idBytes) != null) {
+				return -1;
+			}
+		}
+	}
+
+	/**
+	 * @return the resolution of the entry at the position if it is of the id,
+	 *         otherwise null
+	 */
+	private ResolvedURL readEntry(MappedByteBuffer[] mappedSegments, long position, byte[] idBytes) {
+		int segmentIndex = segmentOf(position);
+		if (segmentIndex >= mappedSegments.length) {
+			return null;
+		}
+		MappedByteBuffer segment = mappedSegments[segmentIndex];
+		int offset = offsetOf(position);
+		int limit = segment.capacity();
+
+		if (offset + 2 > limit || segment.getShort(offset) != idBytes.length
+				|| offset + 2 + idBytes.length + 2 > limit) {
+			return null;
+		}
+		offset += 2;
+		for (byte idByte : idBytes) {
+			if (segment.get(offset++) != idByte) {
+				return null;
+			}
+		}
+		int userIdLength = segment.getShort(offset);
+		offset += 2;
+		if (userIdLength < 0 || offset + userIdLength + 4 > limit) {
+			return null;
+		}
+		String userId = read(segment, offset, userIdLength);
+		offset += userIdLength;
+		int urlLength = segment.getInt(offset);
+		offset += 4;
+		if (urlLength < 0 || urlLength > limit - offset) {
+			return null;
+		}
+		return new ResolvedURL(userId, read(segment, offset, urlLength));
+	}
+
+	private void initHeader() {
+		end = getEntriesStart();
+		MappedByteBuffer header = segments[0];
+		header.putLong(MAGIC_POSITION, MAGIC);
+		header.putInt(VERSION_POSITION, VERSION);
+		header.putLong(SLOT_COUNT_POSITION, slotCount);
+		header.putLong(END_POSITION, end);
+		header.putLong(SIZE_POSITION, size);
+		header.putLong(CHECKSUM_POSITION, checksum);
+	}
+
+	private long countUsedSlots() {
+		long count = 0;
+		for (long index = 0; index < slotCount; index++) {
+			if (getLong(segments, slotPosition(index)) != 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Maps the segments up to the position, all but the last one in full. A
+	 * segment mapped again leaves the smaller mapping valid for readers still
+	 * holding it, both share the pages of the file.
+	 */
+	private void ensureMapped(long position) throws IOException {
+		MappedByteBuffer[] mappedSegments = segments;
+		int last = mappedSegments.length - 1;
+		if (last >= 0 && position <= (long) last * SEGMENT_SIZE + mappedSegments[last].capacity()) {
+			return;
+		}
+		int segmentCount = segmentOf(position - 1) + 1;
+		mappedSegments = Arrays.copyOf(mappedSegments, segmentCount);
+		for (int segment = Math.max(last, 0); segment < segmentCount; segment++) {
+			long start = (long) segment * SEGMENT_SIZE;
+			int size = segment < segmentCount - 1 ? SEGMENT_SIZE
+					: (int) Math.min(SEGMENT_SIZE, (position - start + MAPPING_CHUNK - 1) / MAPPING_CHUNK * MAPPING_CHUNK);
+			if (mappedSegments[segment] == null || mappedSegments[segment].capacity() < size) {
+				mappedSegments[segment] = channel.map(MapMode.READ_WRITE, start, size);
+			}
+		}
+		segments = mappedSegments;
+	}
+
+	private long getEntriesStart() {
+		return HEADER_SIZE + slotCount * 8;
+	}
+
+	private void putLong(long position, long value) {
+		segments[segmentOf(position)].putLong(offsetOf(position), value);
+	}
+
+	private static long slotPosition(long index) {
+		return HEADER_SIZE + index * 8;
+	}
+
+	private static long getLong(MappedByteBuffer[] mappedSegments, long position) {
+		return mappedSegments[segmentOf(position)].getLong(offsetOf(position));
+	}
+
+	private static int segmentOf(long position) {
+		return (int) (position / SEGMENT_SIZE);
+	}
+
+	private static int offsetOf(long position) {
+		return (int) (position & (SEGMENT_SIZE - 1));
+	}
+
+	private static void put(MappedByteBuffer segment, int offset, byte[] bytes) {
+		ByteBuffer view = segment.duplicate();
+		view.position(offset);
+		view.put(bytes);
+	}
+
+	/**
+	 * Copies the bytes in bulk through a view, as the shared segment has no
+	 * absolute bulk get
+	 */
+	private static String read(MappedByteBuffer segment, int offset, int length) {
+		byte[] bytes = new byte[length];
+		ByteBuffer view = segment.duplicate();
+		view.position(offset);
+		view.get(bytes);
+		return decode(bytes);
+	}
+
+	/**
+	 * UTF-8 with a fast path for ASCII, as String.getBytes(Charset) creates a
+	 * new encoder per call on Java 8
+	 */
+	private static byte[] encode(String value) {
+		byte[] bytes = new byte[value.length()];
+		for (int index = 0; index < bytes.length; index++) {
+			char character = value.charAt(index);
+			if (character >= 0x80) {
+				return value.getBytes(StandardCharsets.UTF_8);
+			}
+			bytes[index] = (byte) character;
+		}
+		return bytes;
+	}
+
+	private static String decode(byte[] bytes) {
+		char[] characters = new char[bytes.length];
+		for (int index = 0; index < bytes.length; index++) {
+			if (bytes[index] < 0) {
+				return new String(bytes, StandardCharsets.UTF_8);
+			}
+			characters[index] = (char) bytes[index];
+		}
+		return new String(characters);
+	}
+
+	/**
+	 * @return the string hash spread over 64 bits by the MurmurHash3 finalizer
+	 */
+	private static long hash(String id) {
+		long hash = id.hashCode();
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb34f6a5ad0e5L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	/**
+	 * @return 23 bits of the hash not used for the slot index, never 0
+	 */
+	private static long tag(long hash) {
+		long tag = hash >>> 41;
+		return tag == 0 ? 1 : tag;
+	}
+
+}
@@ -0,0 +1,48 @@
+package de.test.url.shortener.service.ratelimit;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request quotas per role, configured under urlshortener.rate-limit. A user
+ * with several roles gets the largest of their quotas, a user without a role
+ * quota the default quota.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Data
+@ConfigurationProperties(prefix = "urlshortener.rate-limit")
+public class RateLimitProperties {
+
+	private boolean enabled = true;
+
+	/**
+	 * Upper bound of users tracked at once
+	 */
+	private long maximumSize = 100_000;
+
+	/**
+	 * An idle bucket is full again long before, so dropping it changes nothing
+	 */
+	private long expireAfterAccessMinutes = 10;
+
+	private Quota defaultQuota = new Quota(10, 20);
+
+	private Map<String, Quota> roles = new HashMap<>();
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Quota {
+		private double requestsPerSecond;
+		private int burst;
+	}
+
+}
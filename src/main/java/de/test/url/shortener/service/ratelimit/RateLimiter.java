@@ -0,0 +1,113 @@
+package de.test.url.shortener.service.ratelimit;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import de.test.url.shortener.service.ratelimit.RateLimitProperties.Quota;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+
+/**
+ * Per user rate limit with one {@link TokenBucket} per user name, held in a
+ * bounded cache expiring idle users. An admitted request costs a cache hit and
+ * one compare and set, the quota is resolved once when the bucket is created.
+ *
+ * Throttled requests are counted as urlshortener.ratelimit.throttled with the
+ * tag quota, one counter per quota registered up front.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Profile("!reactive")
+@Component
+public class RateLimiter {
+
+	private static final String ROLE_PREFIX = "ROLE_";
+
+	private static final String DEFAULT_QUOTA = "default";
+
+	@Autowired
+	private RateLimitProperties properties;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Cache<String, TokenBucket> buckets;
+
+	/**
+	 * Quota name to its throttled counter, not changed after the init
+	 */
+	private final Map<String, Counter> throttledCounters = new HashMap<>();
+
+	@PostConstruct
+	public void init() {
+		buckets = CacheBuilder.newBuilder().maximumSize(properties.getMaximumSize())
+				.expireAfterAccess(properties.getExpireAfterAccessMinutes(), TimeUnit.MINUTES).recordStats().build();
+		GuavaCacheMetrics.monitor(meterRegistry, buckets, "rateLimitBuckets");
+		throttledCounters.put(DEFAULT_QUOTA, throttledCounter(DEFAULT_QUOTA));
+		properties.getRoles().keySet().forEach(role -> throttledCounters.put(role, throttledCounter(role)));
+	}
+
+	/**
+	 * @param authentication authenticated user
+	 * @return 0 if the request is admitted, otherwise the nanos until the next
+	 *         request of the user is admitted
+	 */
+	public long tryAcquire(Authentication authentication) {
+		String userId = authentication.getName();
+		TokenBucket bucket = buckets.getIfPresent(userId);
+		if (bucket == null) {
+			bucket = buckets.asMap().computeIfAbsent(userId, key -> createBucket(authentication));
+		}
+
+		long wait = bucket.tryAcquire(System.nanoTime());
+		if (wait > 0) {
+			throttledCounters.get(bucket.getQuota()).increment();
+		}
+		return wait;
+	}
+
+	private Counter throttledCounter(String quota) {
+		return Counter.builder("urlshortener.ratelimit.throttled").description("Requests rejected by the rate limit")
+				.tag("quota", quota).register(meterRegistry);
+	}
+
+	private TokenBucket createBucket(Authentication authentication) {
+		String quotaName = DEFAULT_QUOTA;
+		Quota quota = properties.getDefaultQuota();
+		boolean roleQuota = false;
+		for (GrantedAuthority authority : authentication.getAuthorities()) {
+			String role = authority.getAuthority();
+			if (role == null || !role.startsWith(ROLE_PREFIX)) {
+				continue;
+			}
+			role = role.substring(ROLE_PREFIX.length());
+			Quota candidate = properties.getRoles().get(role);
+			if (candidate != null && (!roleQuota || isLarger(candidate, quota))) {
+				quotaName = role;
+				quota = candidate;
+				roleQuota = true;
+			}
+		}
+		return new TokenBucket(quotaName, quota.getRequestsPerSecond(), quota.getBurst(), System.nanoTime());
+	}
+
+	private static boolean isLarger(Quota quota, Quota other) {
+		return quota.getRequestsPerSecond() > other.getRequestsPerSecond()
+				|| quota.getRequestsPerSecond() == other.getRequestsPerSecond() && quota.getBurst() > other.getBurst();
+	}
+
+}
@@ -0,0 +1,56 @@
+package de.test.url.shortener.service.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+
+/**
+ * Lock free token bucket of {@code burst} tokens refilled at
+ * {@code requestsPerSecond}.
+ *
+ * Implemented as generic cell rate algorithm: instead of a token count and a
+ * refill time the only state is the time at which the bucket would be full
+ * again, advanced by one token interval per request with a compare and set.
+ *
+ * @author Shijin Raj
+ *
+ */
+class TokenBucket {
+
+	@Getter
+	private final String quota;
+
+	private final long nanosPerToken;
+
+	private final long burstNanos;
+
+	private final AtomicLong fullAt;
+
+	TokenBucket(String quota, double requestsPerSecond, int burst, long now) {
+		this.quota = quota;
+		this.nanosPerToken = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+		this.burstNanos = nanosPerToken * burst;
+		this.fullAt = new AtomicLong(now);
+	}
+
+	/**
+	 * @param now {@link System#nanoTime()}
+	 * @return 0 if a token was taken, otherwise the nanos until the next token
+	 *         is available
+	 */
+	long tryAcquire(long now) {
+		for (;;) {
+			long current = fullAt.get();
+			long next = Math.max(current, now) + nanosPerToken;
+			long wait = next - now - burstNanos;
+			if (wait > 0) {
+				return wait;
+			}
+			if (fullAt.compareAndSet(current, next)) {
+				return 0;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+package de.test.url.shortener.service.shortcode;
+
+/**
+ * Fixed width Base62 codec for non negative numbers
+ * 
+ * @author Shijin Raj
+ *
+ */
+public final class Base62 {
+
+	private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+	private static final int RADIX = DIGITS.length;
+
+	private Base62() {
+	}
+
+	/**
+	 * @param value non negative value
+	 * @param width number of digits, left padded with '0'
+	 * @return the Base62 code
+	 */
+	public static String encode(long value, int width) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Negative value " + value);
+		}
+		char[] code = new char[width];
+		for (int index = width - 1; index >= 0; index--) {
+			code[index] = DIGITS[(int) (value % RADIX)];
+			value /= RADIX;
+		}
+		if (value != 0) {
+			throw new IllegalArgumentException("Value does not fit in " + width + " Base62 digits");
+		}
+		return new String(code);
+	}
+
+	/**
+	 * @param code
+	 * @return the decoded value
+	 */
+	public static long decode(CharSequence code) {
+		long value = 0;
+		for (int index = 0; index < code.length(); index++) {
+			int digit = digit(code.charAt(index));
+			if (digit < 0) {
+				throw new IllegalArgumentException("Invalid Base62 code " + code);
+			}
+			value = value * RADIX + digit;
+		}
+		return value;
+	}
+
+	/**
+	 * Decodes a part of a value without extracting it first
+	 * 
+	 * @param value
+	 * @param start first index, inclusive
+	 * @param end   last index, exclusive, at most 10 digits after start
+	 * @return the decoded value of [start, end), -1 if it is not a Base62 code
+	 */
+	public static long decode(CharSequence value, int start, int end) {
+		long decoded = 0;
+		for (int index = start; index < end; index++) {
+			int digit = digit(value.charAt(index));
+			if (digit < 0) {
+				return -1;
+			}
+			decoded = decoded * RADIX + digit;
+		}
+		return decoded;
+	}
+
+	/**
+	 * @param value
+	 * @param start first index, inclusive
+	 * @param end   last index, exclusive
+	 * @return true if all characters in [start, end) are Base62 digits
+	 */
+	public static boolean isCode(CharSequence value, int start, int end) {
+		for (int index = start; index < end; index++) {
+			if (digit(value.charAt(index)) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param character
+	 * @return the digit value or -1 if the character is not a Base62 digit
+	 */
+	public static int digit(char character) {
+		if (character >= '0' && character <= '9') {
+			return character - '0';
+		}
+		if (character >= 'A' && character <= 'Z') {
+			return character - 'A' + 10;
+		}
+		if (character >= 'a' && character <= 'z') {
+			return character - 'a' + 36;
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,130 @@
+package de.test.url.shortener.service.shortcode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import com.google.common.hash.Hashing;
+
+import de.test.url.shortener.repository.URLShortenerRepository;
+
+/**
+ * Base62 short codes from a block allocated data base sequence.
+ *
+ * Each node reserves a block of {@link #blockSize} values with one sequence
+ * call and issues the codes of the block from memory. Values below 2^35 are
+ * encoded with 6 digits, larger ones with 10 digits, so the two ranges can
+ * never produce the same code. The optional obfuscation is a bijection within
+ * each range and keeps the codes collision free.
+ *
+ * Reserved codes, such as names of top level paths served besides the
+ * redirect, are skipped when drawn and never recognized as short codes.
+ *
+ * The block size must not be changed once codes have been issued, as block n
+ * always covers the values [n * blockSize, (n + 1) * blockSize). Neither must
+ * the secret of the obfuscation, which is required rather than defaulted, as
+ * codes obfuscated with another secret collide with the ones issued.
+ * 
+ * @author Shijin Raj
+ *
+ */
+@Component
+public class Base62ShortCodeGenerator implements ShortCodeGenerator {
+
+	private static final int SHORT_CODE_BITS = 35;
+
+	private static final int SHORT_CODE_LENGTH = 6;
+
+	private static final int LONG_CODE_BITS = 59;
+
+	private static final int LONG_CODE_LENGTH = 10;
+
+	@Value("${urlshortener.short-code.block-size:1000}")
+	private long blockSize;
+
+	@Value("${urlshortener.short-code.obfuscate:true}")
+	private boolean obfuscate;
+
+	@Value("${urlshortener.short-code.secret:}")
+	private String secret;
+
+	@Value("${urlshortener.short-code.reserved:}")
+	private Set<String> reserved = Collections.emptySet();
+
+	@Autowired
+	private URLShortenerRepository repository;
+
+	private ShortCodePermutation shortCodePermutation;
+
+	private ShortCodePermutation longCodePermutation;
+
+	private long nextValue;
+
+	private long blockEnd;
+
+	@PostConstruct
+	public void init() {
+		Assert.state(!obfuscate || StringUtils.hasText(secret), "No urlshortener.short-code.secret configured"
+				+ " to obfuscate the short codes, set URLSHORTENER_SHORT_CODE_SECRET or run with the dev profile");
+		// any text, the key is derived from its SHA-256
+		long key = StringUtils.hasText(secret) ? Hashing.sha256().hashString(secret, StandardCharsets.UTF_8).asLong()
+				: 0;
+		shortCodePermutation = new ShortCodePermutation(SHORT_CODE_BITS, key);
+		longCodePermutation = new ShortCodePermutation(LONG_CODE_BITS, key);
+	}
+
+	@Override
+	public String next() {
+		String code;
+		do {
+			code = encode(nextValue());
+		} while (reserved.contains(code));
+		return code;
+	}
+
+	@Override
+	public boolean isShortCode(CharSequence value, int start, int end) {
+		int bits;
+		if (end - start == SHORT_CODE_LENGTH) {
+			bits = SHORT_CODE_BITS;
+		} else if (end - start == LONG_CODE_LENGTH) {
+			bits = LONG_CODE_BITS;
+		} else {
+			return false;
+		}
+		long decoded = Base62.decode(value, start, end);
+		return decoded >= 0 && decoded < (1L << bits)
+				&& (reserved.isEmpty() || !reserved.contains(value.subSequence(start, end).toString()));
+	}
+
+	/**
+	 * @param value sequence value
+	 * @return the short code for the value
+	 */
+	public String encode(long value) {
+		if (value < (1L << SHORT_CODE_BITS)) {
+			return Base62.encode(obfuscate ? shortCodePermutation.apply(value) : value, SHORT_CODE_LENGTH);
+		}
+		if (value < (1L << LONG_CODE_BITS)) {
+			return Base62.encode(obfuscate ? longCodePermutation.apply(value) : value, LONG_CODE_LENGTH);
+		}
+		throw new IllegalStateException("Short code sequence exhausted at " + value);
+	}
+
+	private synchronized long nextValue() {
+		if (nextValue == blockEnd) {
+			nextValue = repository.nextShortCodeBlock() * blockSize;
+			blockEnd = nextValue + blockSize;
+		}
+		return nextValue++;
+	}
+
+}
@@ -0,0 +1,27 @@
+package de.test.url.shortener.service.shortcode;
+
+/**
+ * Generates the tiny URL ids. Implementations must never return the same code
+ * twice, across all nodes sharing the data base.
+ * 
+ * @author Shijin Raj
+ *
+ */
+public interface ShortCodeGenerator {
+
+	/**
+	 * @return a new, unused short code
+	 */
+	String next();
+
+	/**
+	 * Checks a part of a request path without extracting it first
+	 * 
+	 * @param value
+	 * @param start first index, inclusive
+	 * @param end   last index, exclusive
+	 * @return true if [start, end) is a code this generator can issue, of its
+	 *         length and range of values and not reserved
+	 */
+	boolean isShortCode(CharSequence value, int start, int end);
+}
@@ -0,0 +1,57 @@
+package de.test.url.shortener.service.shortcode;
+
+/**
+ * Keyed bijection on the numbers of a fixed bit width. Consecutive sequence
+ * values are mapped to scattered codes so issued codes are not trivially
+ * enumerable, while distinct values still never share a code.
+ *
+ * Every round is invertible modulo 2^bits: a multiplication by an odd
+ * constant, a xor shift to the right and a xor with the key.
+ * 
+ * @author Shijin Raj
+ *
+ */
+final class ShortCodePermutation {
+
+	private static final int ROUNDS = 3;
+
+	private final int bits;
+
+	private final long mask;
+
+	private final long[] multipliers = new long[ROUNDS];
+
+	private final long[] keys = new long[ROUNDS];
+
+	ShortCodePermutation(int bits, long secret) {
+		this.bits = bits;
+		this.mask = (1L << bits) - 1;
+		long state = secret;
+		for (int round = 0; round < ROUNDS; round++) {
+			state = mix(state + 0x9E3779B97F4A7C15L);
+			multipliers[round] = (state | 1) & mask;
+			state = mix(state + 0x9E3779B97F4A7C15L);
+			keys[round] = state & mask;
+		}
+	}
+
+	long apply(long value) {
+		long result = value & mask;
+		for (int round = 0; round < ROUNDS; round++) {
+			result = (result * multipliers[round]) & mask;
+			result ^= result >>> (bits / 2);
+			result ^= keys[round];
+		}
+		return result;
+	}
+
+	/**
+	 * SplitMix64 finalizer used to derive the round constants from the secret
+	 */
+	private static long mix(long value) {
+		value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+		return value ^ (value >>> 31);
+	}
+
+}
@@ -0,0 +1,187 @@
+package de.test.url.shortener.service.token;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import de.test.url.shortener.repository.domain.AccessToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JWT compatible HS256 tokens, verified locally with the shared secret.
+ *
+ * A verified token is kept in a short lived cache, so a client reusing its
+ * token costs one cache lookup per request instead of a HMAC and a JSON parse.
+ * The expiry of the token itself is checked on every lookup.
+ *
+ * @author Shijin Raj
+ *
+ */
+@Slf4j
+@Profile("!reactive")
+@Service
+public class HmacTokenService implements TokenService {
+
+	private static final String ALGORITHM = "HmacSHA256";
+
+	private static final String TOKEN_TYPE = "Bearer";
+
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+	private static final String HEADER = ENCODER
+			.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.US_ASCII));
+
+	@Value("${urlshortener.security.token.secret:}")
+	private String secret;
+
+	@Value("${urlshortener.security.token.validity-seconds:3600}")
+	private long validitySeconds;
+
+	@Value("${urlshortener.security.token.cache.maximum-size:10000}")
+	private long cacheMaximumSize;
+
+	@Value("${urlshortener.security.token.cache.expire-after-write-seconds:60}")
+	private long cacheExpireAfterWriteSeconds;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	/**
+	 * {@link Mac} is not thread safe, each thread signs with its own instance
+	 */
+	private ThreadLocal<Mac> macs;
+
+	private Cache<String, VerifiedToken> verifiedTokens;
+
+	@PostConstruct
+	public void init() {
+		byte[] key;
+		if (StringUtils.hasText(secret)) {
+			key = secret.getBytes(StandardCharsets.UTF_8);
+		} else {
+			key = new byte[32];
+			new SecureRandom().nextBytes(key);
+			log.warn("No urlshortener.security.token.secret configured, tokens are valid on this instance only");
+		}
+		SecretKeySpec secretKey = new SecretKeySpec(key, ALGORITHM);
+		macs = ThreadLocal.withInitial(() -> {
+			try {
+				Mac mac = Mac.getInstance(ALGORITHM);
+				mac.init(secretKey);
+				return mac;
+			} catch (GeneralSecurityException exception) {
+				throw new IllegalStateException(ALGORITHM + " is not available", exception);
+			}
+		});
+
+		verifiedTokens = CacheBuilder.newBuilder().maximumSize(cacheMaximumSize)
+				.expireAfterWrite(cacheExpireAfterWriteSeconds, TimeUnit.SECONDS).recordStats().build();
+		GuavaCacheMetrics.monitor(meterRegistry, verifiedTokens, "verifiedTokens");
+	}
+
+	@Override
+	public AccessToken issue(Authentication authentication) {
+		long issuedAt = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+		TokenClaims claims = TokenClaims.builder().sub(authentication.getName())
+				.authorities(AuthorityUtils.authorityListToSet(authentication.getAuthorities()).stream().sorted()
+						.collect(Collectors.toList()))
+				.iat(issuedAt).exp(issuedAt + validitySeconds).build();
+
+		String unsignedToken;
+		try {
+			unsignedToken = HEADER + '.' + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+		} catch (JsonProcessingException exception) {
+			throw new IllegalStateException("Token claims are not serializable", exception);
+		}
+
+		return AccessToken.builder().accessToken(unsignedToken + '.' + ENCODER.encodeToString(sign(unsignedToken)))
+				.tokenType(TOKEN_TYPE).expiresIn(validitySeconds).build();
+	}
+
+	@Override
+	public Authentication verify(String token) {
+		VerifiedToken verifiedToken = verifiedTokens.getIfPresent(token);
+		if (verifiedToken == null) {
+			verifiedToken = parse(token);
+			if (verifiedToken == null) {
+				return null;
+			}
+			verifiedTokens.put(token, verifiedToken);
+		}
+
+		return verifiedToken.getExpiresAt() > TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis())
+				? verifiedToken.getAuthentication()
+				: null;
+	}
+
+	/**
+	 * @return the verified token, or null if the token is malformed, the
+	 *         signature does not match or it has expired
+	 */
+	private VerifiedToken parse(String token) {
+		int payloadStart = HEADER.length() + 1;
+		int signatureStart = token.lastIndexOf('.');
+		if (signatureStart <= payloadStart || !token.startsWith(HEADER) || token.charAt(HEADER.length()) != '.') {
+			return null;
+		}
+
+		TokenClaims claims;
+		try {
+			byte[] signature = DECODER.decode(token.substring(signatureStart + 1));
+			if (!MessageDigest.isEqual(signature, sign(token.substring(0, signatureStart)))) {
+				return null;
+			}
+			claims = objectMapper.readValue(DECODER.decode(token.substring(payloadStart, signatureStart)),
+					TokenClaims.class);
+		} catch (IllegalArgumentException | IOException exception) {
+			return null;
+		}
+
+		if (claims.getSub() == null
+				|| claims.getExp() <= TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis())) {
+			return null;
+		}
+
+		List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList(
+				claims.getAuthorities() == null ? new String[0] : claims.getAuthorities().toArray(new String[0]));
+		return new VerifiedToken(new UsernamePasswordAuthenticationToken(claims.getSub(), null, authorities),
+				claims.getExp());
+	}
+
+	private byte[] sign(String unsignedToken) {
+		return macs.get().doFinal(unsignedToken.getBytes(StandardCharsets.US_ASCII));
+	}
+
+}
@@ -0,0 +1,26 @@
+package de.test.url.shortener.service.token;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Payload of a token issued by {@link HmacTokenService}, with JWT claim names
+ * and times in epoch seconds
+ *
+ * @author Shijin Raj
+ *
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+class TokenClaims {
+	private String sub;
+	private List<String> authorities;
+	private long iat;
+	private long exp;
+}
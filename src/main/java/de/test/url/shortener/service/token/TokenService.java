@@ -0,0 +1,29 @@
+package de.test.url.shortener.service.token;
+
+import org.springframework.security.core.Authentication;
+
+import de.test.url.shortener.repository.domain.AccessToken;
+
+/**
+ * Issues and verifies stateless signed bearer tokens, so an authenticated
+ * request needs neither a session nor a user store lookup
+ *
+ * @author Shijin Raj
+ *
+ */
+public interface TokenService {
+
+	/**
+	 * @param authentication authenticated user, with the authorities to carry
+	 *                       in the token
+	 * @return the signed token
+	 */
+	AccessToken issue(Authentication authentication);
+
+	/**
+	 * @param token
+	 * @return the authentication of a token with a valid signature which has
+	 *         not expired yet, otherwise null
+	 */
+	Authentication verify(String token);
+}
@@ -0,0 +1,21 @@
+package de.test.url.shortener.service.token;
+
+import org.springframework.security.core.Authentication;
+
+import lombok.Value;
+
+/**
+ * Token with a valid signature as held by the verified token cache of
+ * {@link HmacTokenService}
+ * 
+ * @author Shijin Raj
+ *
+ */
+@Value
+class VerifiedToken {
+	Authentication authentication;
+	/**
+	 * epoch seconds
+	 */
+	long expiresAt;
+}
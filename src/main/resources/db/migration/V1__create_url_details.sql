@@ -0,0 +1,10 @@
+CREATE SEQUENCE short_code_block_seq START WITH 1;
+
+CREATE TABLE urldetails (
+	id VARCHAR(10) NOT NULL,
+	user_id VARCHAR(255),
+	url VARCHAR(255),
+	creation_count BIGINT NOT NULL,
+	call_count BIGINT NOT NULL,
+	PRIMARY KEY (id)
+);
@@ -0,0 +1,8 @@
+ALTER TABLE urldetails ALTER COLUMN user_id SET NOT NULL;
+ALTER TABLE urldetails ALTER COLUMN url VARCHAR(2048) NOT NULL;
+
+-- Fixed width SHA-256 of the URL, so long URLs are not part of any index key
+ALTER TABLE urldetails ADD COLUMN url_hash BINARY(32) AS HASH('SHA256', url);
+
+-- One row per user and URL, serves findByUserIdAndUrl and by its user_id prefix findByUserId
+CREATE UNIQUE INDEX uk_urldetails_user_id_url_hash ON urldetails (user_id, url_hash);
@@ -0,0 +1,11 @@
+-- Clicks per tiny URL and hour or day bucket, added to by the rollup of the in memory minute counters
+CREATE TABLE click_statistics (
+	id VARCHAR(10) NOT NULL,
+	granularity VARCHAR(6) NOT NULL,
+	bucket_start BIGINT NOT NULL,
+	clicks BIGINT NOT NULL,
+	PRIMARY KEY (id, granularity, bucket_start)
+);
+
+-- Top N of a time range and retention, covering so the rows are not read
+CREATE INDEX ix_click_statistics_window ON click_statistics (granularity, bucket_start, id, clicks);
@@ -0,0 +1,11 @@
+-- HyperLogLog sketch of the visitors per tiny URL and day bucket, merged into by each flush
+-- bucket_start -1 holds the sketch of all days, so the unique visitors of a tiny URL are one row
+CREATE TABLE visitor_sketches (
+	id VARCHAR(10) NOT NULL,
+	bucket_start BIGINT NOT NULL,
+	sketch VARBINARY(4098) NOT NULL,
+	PRIMARY KEY (id, bucket_start)
+);
+
+-- Serves the unique visitors of the statistics of all users, looked up per URL
+CREATE INDEX ix_urldetails_url_hash ON urldetails (url_hash);
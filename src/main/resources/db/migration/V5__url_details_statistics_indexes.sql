@@ -0,0 +1,7 @@
+-- Serve the statistics pages by URL, WHERE url > :after GROUP BY url ORDER BY url, by a seek to the cursor.
+-- Without them every page scans all rows, or all rows of the user, and groups and sorts them.
+-- The page of all users reads the rows after the cursor in index order and groups them without a hash table of all URLs.
+-- The page of one user reads the user's rows after the cursor only, but H2 still groups and sorts those,
+-- so a page costs O(rows of the user after the cursor) rather than O(page size).
+CREATE INDEX ix_urldetails_url ON urldetails (url);
+CREATE INDEX ix_urldetails_user_id_url ON urldetails (user_id, url);
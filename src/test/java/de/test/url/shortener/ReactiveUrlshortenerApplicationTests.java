@@ -0,0 +1,146 @@
+package de.test.url.shortener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import de.test.url.shortener.exception.ErrorDetails;
+import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.URLDetails;
+import de.test.url.shortener.service.CallCountBuffer;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({ "reactive", "dev" })
+class ReactiveUrlshortenerApplicationTests {
+
+	private static final String VALID_URL = "https://www.kernel.org/";
+	private static final String VALID_URL_2 = "https://www.gnu.org/";
+	private static final String NORMAL_USER = "user";
+	private static final String NORMAL_USER_PASSWORD = "user";
+	private static final String USER_ADMIN = "admin";
+	private static final String USER_ADMIN_PASSWORD = "admin";
+	private static final String UNAUTHORIZED_USER = "test";
+	private static final String BASE_URL = "/api/tinyurl";
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private CallCountBuffer callCountBuffer;
+
+	/**
+	 * Keeps the files the application writes out of the working directory
+	 */
+	@DynamicPropertySource
+	static void dataFiles(DynamicPropertyRegistry registry) throws IOException {
+		Path directory = Files.createTempDirectory("urlshortener");
+		registry.add("urlshortener.click-events.directory", () -> directory.resolve("clicks").toString());
+		registry.add("urlshortener.hot-links.snapshot-file", () -> directory.resolve("hot-links.snapshot").toString());
+	}
+
+	@Test
+	@DisplayName("Test Create Tiny URL for Unauthorized User")
+	void testCreateForInvalidUser() {
+		// When & Then
+		webTestClient.post().uri(BASE_URL).headers(headers -> headers.setBasicAuth("invalidUser", "invalid"))
+				.bodyValue(VALID_URL).exchange().expectStatus().isUnauthorized();
+	}
+
+	@Test
+	@DisplayName("Test Create Tiny URL for a user without role")
+	void testCreateForUserWithoutRole() {
+		// When & Then
+		webTestClient.post().uri(BASE_URL).headers(headers -> headers.setBasicAuth(UNAUTHORIZED_USER, "test"))
+				.bodyValue(VALID_URL).exchange().expectStatus().isEqualTo(HttpStatus.UNAUTHORIZED);
+	}
+
+	@Test
+	@DisplayName("Test Create Tiny URL with invalid URL input")
+	void testCreateForNormalUserWithInvalidURL() {
+		// When & Then
+		webTestClient.post().uri(BASE_URL).headers(headers -> headers.setBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD))
+				.bodyValue("abcde").exchange().expectStatus().isBadRequest().expectBody(ErrorDetails.class)
+				.value(errorDetails -> assertThat(errorDetails.getMoreInfo()).contains("Invalid URL"));
+	}
+
+	@Test
+	@DisplayName("Test Create and Get Tiny URL for Normal User")
+	void testCreateAndGetForNormalUser() {
+		// Given
+		URLDetails urlDetails = webTestClient.post().uri(BASE_URL)
+				.headers(headers -> headers.setBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)).bodyValue(VALID_URL)
+				.exchange().expectStatus().isOk().expectBody(URLDetails.class).returnResult().getResponseBody();
+
+		// When
+		URLDetails urlDetailsCreatedTwice = webTestClient.post().uri(BASE_URL)
+				.headers(headers -> headers.setBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)).bodyValue(VALID_URL)
+				.exchange().expectStatus().isOk().expectBody(URLDetails.class).returnResult().getResponseBody();
+
+		// Then
+		assertThat(urlDetails.getUrl()).isEqualTo(VALID_URL);
+		assertThat(urlDetails.getUserId()).isEqualTo(NORMAL_USER);
+		assertThat(urlDetails.getCreationCount()).isEqualTo(1l);
+		assertThat(urlDetailsCreatedTwice.getId()).isEqualTo(urlDetails.getId());
+		assertThat(urlDetailsCreatedTwice.getCreationCount()).isEqualTo(2l);
+		webTestClient.get().uri(BASE_URL + "/" + urlDetails.getId())
+				.headers(headers -> headers.setBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)).exchange()
+				.expectStatus().isOk().expectBody(String.class).isEqualTo(VALID_URL);
+		webTestClient.get().uri(BASE_URL + "/" + urlDetails.getId())
+				.headers(headers -> headers.setBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD)).exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	@DisplayName("Test Get User and All Statistics after the call counts are flushed")
+	void testGetStatisticsAfterCallCountFlush() {
+		// Given
+		Statistics statisticsExpected = Statistics.builder().url(VALID_URL_2).creationCount(1l).callCount(1l).build();
+		URLDetails urlDetails = webTestClient.post().uri(BASE_URL)
+				.headers(headers -> headers.setBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD)).bodyValue(VALID_URL_2)
+				.exchange().expectBody(URLDetails.class).returnResult().getResponseBody();
+		webTestClient.get().uri(BASE_URL + "/" + urlDetails.getId())
+				.headers(headers -> headers.setBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD)).exchange()
+				.expectStatus().isOk();
+
+		// When
+		callCountBuffer.flush();
+
+		// Then
+		webTestClient.get().uri(BASE_URL + "/user/statistics")
+				.headers(headers -> headers.setBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD)).exchange()
+				.expectStatus().isOk().expectBodyList(Statistics.class).contains(statisticsExpected);
+		webTestClient.get().uri(BASE_URL + "/statistics")
+				.headers(headers -> headers.setBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD)).exchange()
+				.expectStatus().isOk().expectBodyList(Statistics.class).contains(statisticsExpected);
+		webTestClient.get().uri(BASE_URL + "/statistics")
+				.headers(headers -> headers.setBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)).exchange()
+				.expectStatus().isUnauthorized();
+	}
+
+	@Test
+	@DisplayName("Test Actuator endpoints besides health are for admins only")
+	void testActuatorForNormalUser() {
+		// When & Then
+		webTestClient.get().uri("/actuator/metrics")
+				.headers(headers -> headers.setBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)).exchange()
+				.expectStatus().isForbidden();
+		webTestClient.get().uri("/actuator/metrics")
+				.headers(headers -> headers.setBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD)).exchange()
+				.expectStatus().isOk();
+		webTestClient.get().uri("/actuator/health").exchange().expectStatus().isOk();
+	}
+
+}
@@ -1,8 +1,30 @@
 package de.test.url.shortener;
 
 import static org.assertj.core.api.Assertions.assertThat;
-
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BinaryOperator;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
@@ -10,23 +32,66 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import de.test.url.shortener.controller.TokenController;
 import de.test.url.shortener.exception.ErrorDetails;
+import de.test.url.shortener.repository.ClickStatisticsRepository;
+import de.test.url.shortener.repository.VisitorSketchRepository;
+import de.test.url.shortener.repository.domain.AccessToken;
+import de.test.url.shortener.repository.domain.BulkCreateResult;
+import de.test.url.shortener.repository.domain.ClickBucket;
+import de.test.url.shortener.repository.domain.ClickGranularity;
+import de.test.url.shortener.repository.domain.ClickTimeSeries;
+import de.test.url.shortener.repository.domain.LinkClicks;
+import de.test.url.shortener.repository.domain.LinkVisitors;
 import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.StatisticsPage;
 import de.test.url.shortener.repository.domain.URLDetails;
+import de.test.url.shortener.service.CallCountBuffer;
+import de.test.url.shortener.service.URLShortenerService;
+import de.test.url.shortener.service.click.UniqueVisitors;
+import io.micrometer.core.instrument.MeterRegistry;
 
+@AutoConfigureMetrics
 @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
 @TestInstance(Lifecycle.PER_CLASS)
 class UrlshortenerApplicationTests {
 
+	private static final String VALID_URL_20 = "https://www.freebsd.org/";
+	private static final String VALID_URL_19 = "https://www.debian.org/";
+	private static final String VALID_URL_18 = "https://www.gnu.org/";
+	private static final String VALID_URL_17 = "https://www.kernel.org/";
+	private static final String VALID_URL_16 = "https://www.rust-lang.org/";
+	private static final String VALID_URL_15 = "https://www.ruby-lang.org/";
+	private static final String VALID_URL_14 = "https://www.postgresql.org/";
+	private static final String VALID_URL_13 = "https://www.python.org/";
+	private static final String VALID_URL_12 = "https://www.eclipse.org/";
+	private static final String VALID_URL_11 = "https://www.apache.org/";
+	private static final String VALID_URL_10 = "https://www.mozilla.org/";
+	private static final String VALID_URL_9 = "https://www.openstreetmap.org/";
+	private static final String VALID_URL_8 = "https://www.wikipedia.org/";
 	private static final String VALID_URL_7 = "https://koblenz-bringts.de/";
 	private static final String VALID_URL_6 = "https://news.google.com/";
 	private static final String VALID_URL_5 = "http://news.google.de/";
@@ -56,6 +121,43 @@ class UrlshortenerApplicationTests {
 	@Autowired
 	private TestRestTemplate restTemplate;
 
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CallCountBuffer callCountBuffer;
+
+	@Autowired
+	private URLShortenerService urlShortenerService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private ClickStatisticsRepository clickStatisticsRepository;
+
+	@Autowired
+	private UniqueVisitors uniqueVisitors;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private VisitorSketchRepository visitorSketchRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/**
+	 * Keeps the files the application writes out of the working directory
+	 */
+	@DynamicPropertySource
+	static void dataFiles(DynamicPropertyRegistry registry) throws IOException {
+		Path directory = Files.createTempDirectory("urlshortener");
+		registry.add("urlshortener.click-events.directory", () -> directory.resolve("clicks").toString());
+		registry.add("urlshortener.hot-links.snapshot-file", () -> directory.resolve("hot-links.snapshot").toString());
+	}
+
 	@BeforeAll
 	void setUpBeforeClass() throws Exception {
 		BASE_URL = LOCAL_HOST + randomServerPort + BASE_URL;
@@ -129,6 +231,58 @@ class UrlshortenerApplicationTests {
 		assertThat(result.getBody()).usingRecursiveComparison().ignoringFields("id").isEqualTo(urlDetailsExpected);
 	}
 
+	@Test
+	@DisplayName("Test Create Tiny URL twice for the same user and URL")
+	void testCreateForNormalUserWithSameURLTwice() {
+		// Given
+		ResponseEntity<URLDetails> first = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.postForEntity(BASE_URL, VALID_URL_9, URLDetails.class);
+
+		// When
+		ResponseEntity<URLDetails> result = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.postForEntity(BASE_URL, VALID_URL_9, URLDetails.class);
+
+		// Then
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody().getId()).isEqualTo(first.getBody().getId());
+		assertThat(result.getBody().getCreationCount()).isEqualTo(2l);
+	}
+
+	@Test
+	@DisplayName("Test Create Tiny URL for the same user and URL from many threads")
+	void testCreateConcurrentlyForSameURL() throws Exception {
+		// Given
+		int threads = 16;
+		int createsPerThread = 50;
+		ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		List<Callable<List<URLDetails>>> creators = new ArrayList<>();
+		for (int thread = 0; thread < threads; thread++) {
+			creators.add(() -> {
+				List<URLDetails> created = new ArrayList<>();
+				for (int create = 0; create < createsPerThread; create++) {
+					created.add(urlShortenerService.create(NORMAL_USER, VALID_URL_10));
+				}
+				return created;
+			});
+		}
+
+		// When
+		List<URLDetails> created = new ArrayList<>();
+		for (Future<List<URLDetails>> future : executorService.invokeAll(creators)) {
+			created.addAll(future.get());
+		}
+		executorService.shutdown();
+
+		// Then
+		assertThat(created).extracting(URLDetails::getId).containsOnly(created.get(0).getId());
+		assertThat(created).extracting(URLDetails::getCreationCount).doesNotHaveDuplicates()
+				.contains((long) threads * createsPerThread);
+		ResponseEntity<Statistics[]> result = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.getForEntity(BASE_URL + "/user/statistics", Statistics[].class);
+		assertThat(Arrays.asList(result.getBody())).contains(Statistics.builder().url(VALID_URL_10)
+				.creationCount((long) threads * createsPerThread).callCount(0l).build());
+	}
+
 	@Test
 	@DisplayName("Test Get Tiny URL for Unauthorized User")
 	void testGetForInvalidUser() {
@@ -179,6 +333,23 @@ class UrlshortenerApplicationTests {
 
 	}
 
+	@Test
+	@DisplayName("Test Get Tiny URL created by another instance on the same data base")
+	void testGetCreatedByAnotherInstance() {
+		// Given
+		jdbcTemplate.update(
+				"INSERT INTO urldetails (id, user_id, url, creation_count, call_count) VALUES (?, ?, ?, 1, 0)",
+				"elsewhere", NORMAL_USER, VALID_URL_20);
+
+		// When
+		ResponseEntity<String> result = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.getForEntity(BASE_URL + "/elsewhere", String.class);
+
+		// Then
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody()).isEqualTo(VALID_URL_20);
+	}
+
 	@Test
 	@DisplayName("Test Get Tiny URL for admin user with valid URL id")
 	void tesGetForAdminUserWithValidTinyURLId() {
@@ -324,4 +495,416 @@ class UrlshortenerApplicationTests {
 		assertThat(Arrays.asList(result.getBody())).contains(statisticsListExpected);
 	}
 
+	@Test
+	@DisplayName("Test Get User Statistics after the call counts are flushed")
+	void testGetUserStatisticsAfterCallCountFlush() {
+		// Given
+		Statistics statisticsListExpected = Statistics.builder().url(VALID_URL_8).creationCount(1l).callCount(2l)
+				.build();
+
+		ResponseEntity<URLDetails> createTinyURLDetails = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.postForEntity(BASE_URL, VALID_URL_8, URLDetails.class);
+		restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.getForEntity(BASE_URL + "/" + createTinyURLDetails.getBody().getId(), String.class);
+		restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.getForEntity(BASE_URL + "/" + createTinyURLDetails.getBody().getId(), String.class);
+
+		// When
+		callCountBuffer.flush();
+		ResponseEntity<Statistics[]> result = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.getForEntity(BASE_URL + "/user/statistics", Statistics[].class);
+
+		// Then
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(Arrays.asList(result.getBody())).contains(statisticsListExpected);
+	}
+
+	@Test
+	@DisplayName("Test Get All Statistics Page and Stream for Admin User")
+	void testGetAllStatisticsPageAndStreamForAdminUser() throws JsonProcessingException {
+		// Given
+		restTemplate.withBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD).postForEntity(BASE_URL, VALID_URL_11,
+				URLDetails.class);
+		// the calls of earlier tests, a scheduled flush between the stream and the page would change the counts
+		callCountBuffer.flush();
+
+		// When
+		ResponseEntity<StatisticsPage> page = restTemplate.withBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD)
+				.getForEntity(BASE_URL + "/statistics/page?size=1", StatisticsPage.class);
+		ResponseEntity<String> stream = restTemplate.withBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD)
+				.getForEntity(BASE_URL + "/statistics/stream", String.class);
+		List<Statistics> allStatistics = restTemplate.withBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD)
+				.getForEntity(BASE_URL + "/statistics/page?size=1000", StatisticsPage.class).getBody()
+				.getStatistics();
+
+		// Then
+		assertThat(page.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(page.getBody().getStatistics()).hasSize(1);
+		assertThat(page.getBody().getNextCursor()).isEqualTo(page.getBody().getStatistics().get(0).getUrl());
+		assertThat(stream.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(allStatistics).extracting(Statistics::getUrl).contains(VALID_URL_11);
+		StringBuilder lines = new StringBuilder();
+		for (Statistics statistics : allStatistics) {
+			lines.append(objectMapper.writeValueAsString(statistics)).append('\n');
+		}
+		assertThat(stream.getBody()).isEqualTo(lines.toString());
+	}
+
+	@Test
+	@DisplayName("Test Statistics Pages by URL seek the cursor in an index")
+	void testStatisticsPagesUseURLIndexes() {
+		// When
+		String allPlan = jdbcTemplate.queryForObject(
+				"EXPLAIN SELECT url, SUM(creation_count), SUM(call_count) FROM urldetails WHERE url > ? GROUP BY url ORDER BY url LIMIT 10",
+				String.class, "");
+		String userPlan = jdbcTemplate.queryForObject(
+				"EXPLAIN SELECT url, SUM(creation_count), SUM(call_count) FROM urldetails WHERE user_id = ? AND url > ? GROUP BY url ORDER BY url LIMIT 10",
+				String.class, NORMAL_USER, "");
+
+		// Then
+		assertThat(allPlan).contains("IX_URLDETAILS_URL: URL > ?1").contains("/* group sorted */");
+		assertThat(userPlan).contains("IX_URLDETAILS_USER_ID_URL: USER_ID = ?1\n        AND URL > ?2");
+	}
+
+	@Test
+	@DisplayName("Test Redirect without authentication, a HEAD request counts no call")
+	void testRedirect() {
+		// Given
+		URLDetails urlDetails = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.postForEntity(BASE_URL, VALID_URL_12, URLDetails.class).getBody();
+
+		// When
+		ResponseEntity<Void> result = restTemplate.exchange(
+				LOCAL_HOST + randomServerPort + "/" + urlDetails.getId(), HttpMethod.HEAD, null, Void.class);
+		ResponseEntity<Void> unknown = restTemplate.exchange(LOCAL_HOST + randomServerPort + "/000000",
+				HttpMethod.HEAD, null, Void.class);
+		ResponseEntity<Void> reserved = restTemplate.exchange(LOCAL_HOST + randomServerPort + "/assets",
+				HttpMethod.HEAD, null, Void.class);
+		callCountBuffer.flush();
+
+		// Then
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.FOUND);
+		assertThat(result.getHeaders().getFirst(HttpHeaders.LOCATION)).isEqualTo(VALID_URL_12);
+		assertThat(unknown.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(reserved.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+		assertThat(urlShortenerService.getUserStatistics(NORMAL_USER))
+				.contains(Statistics.builder().url(VALID_URL_12).creationCount(1l).callCount(0l).build());
+	}
+
+	@Test
+	@DisplayName("Test Bulk Create Tiny URLs as list and as NDJSON stream")
+	void testCreateAll() {
+		// Given
+		List<String> urls = Arrays.asList(VALID_URL_13, "abcde", VALID_URL_13, VALID_URL_14);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_NDJSON);
+
+		// When
+		ResponseEntity<BulkCreateResult[]> result = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.postForEntity(BASE_URL + "/bulk", urls, BulkCreateResult[].class);
+		ResponseEntity<String> stream = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD).postForEntity(
+				BASE_URL + "/bulk", new HttpEntity<>("\"" + VALID_URL_13 + "\"\n" + VALID_URL_14 + "\n", headers),
+				String.class);
+
+		// Then
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody()).hasSize(4);
+		assertThat(result.getBody()[0].getUrlDetails().getCreationCount()).isEqualTo(1l);
+		assertThat(result.getBody()[1].getError()).isEqualTo("Invalid URL - abcde");
+		assertThat(result.getBody()[2].getUrlDetails()).isEqualTo(result.getBody()[0].getUrlDetails());
+		assertThat(result.getBody()[3].getUrlDetails().getUrl()).isEqualTo(VALID_URL_14);
+		assertThat(stream.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(stream.getBody().split("\n")).hasSize(2);
+		assertThat(urlShortenerService.getUserStatistics(NORMAL_USER)).contains(
+				Statistics.builder().url(VALID_URL_13).creationCount(2l).callCount(0l).build(),
+				Statistics.builder().url(VALID_URL_14).creationCount(2l).callCount(0l).build());
+	}
+
+	@Test
+	@DisplayName("Test Resolve Tiny URLs for Normal User")
+	void testResolveAll() {
+		// Given
+		ResponseEntity<URLDetails> createTinyURLDetails = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.postForEntity(BASE_URL, VALID_URL_15, URLDetails.class);
+		String id = createTinyURLDetails.getBody().getId();
+
+		// When
+		@SuppressWarnings("rawtypes")
+		ResponseEntity<Map> result = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.postForEntity(BASE_URL + "/resolve", Arrays.asList(id, "zzzzzz", id), Map.class);
+		callCountBuffer.flush();
+
+		// Then
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody()).isEqualTo(Collections.singletonMap(id, VALID_URL_15));
+		assertThat(urlShortenerService.getUserStatistics(NORMAL_USER))
+				.contains(Statistics.builder().url(VALID_URL_15).creationCount(1l).callCount(1l).build());
+	}
+
+	@Test
+	@DisplayName("Test Get Tiny URL with unknown id is not found and rejected by the id filter")
+	void testGetWithUnknownId() {
+		// Given
+		String unknownId = "yyyyyy";
+		double rejected = meterRegistry.get("urlshortener.idfilter.rejected").counter().count();
+
+		// When
+		ResponseEntity<ErrorDetails> result = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.getForEntity(BASE_URL + "/" + unknownId, ErrorDetails.class);
+
+		// Then
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(result.getBody().getType()).isEqualTo(HttpStatus.NOT_FOUND.getReasonPhrase());
+		assertThat(result.getBody().getMoreInfo())
+				.isEqualTo("No URL available for the userid " + NORMAL_USER + " id " + unknownId);
+		// the id filter is off by default, the id is not found in the data base
+		assertThat(meterRegistry.get("urlshortener.idfilter.rejected").counter().count()).isEqualTo(rejected);
+	}
+
+	@Test
+	@DisplayName("Test Create and Get Tiny URL with a bearer token")
+	void testCreateAndGetWithBearerToken() {
+		// Given
+		ResponseEntity<AccessToken> token = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.postForEntity(LOCAL_HOST + randomServerPort + TokenController.TOKEN_PATH, null, AccessToken.class);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setBearerAuth(token.getBody().getAccessToken());
+
+		// When
+		ResponseEntity<URLDetails> createTinyURLDetails = restTemplate.postForEntity(BASE_URL,
+				new HttpEntity<>(VALID_URL_16, headers), URLDetails.class);
+		ResponseEntity<String> result = restTemplate.exchange(BASE_URL + "/" + createTinyURLDetails.getBody().getId(),
+				HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+		// Then
+		assertThat(token.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(token.getBody().getTokenType()).isEqualTo("Bearer");
+		assertThat(createTinyURLDetails.getBody().getUserId()).isEqualTo(NORMAL_USER);
+		assertThat(result.getBody()).isEqualTo(VALID_URL_16);
+	}
+
+	@Test
+	@DisplayName("Test Get User Statistics with a bearer token tampered to another user")
+	void testGetUserStatisticsWithInvalidBearerToken() {
+		// Given
+		String accessToken = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.postForEntity(LOCAL_HOST + randomServerPort + TokenController.TOKEN_PATH, null, AccessToken.class)
+				.getBody().getAccessToken();
+		String[] parts = accessToken.split("\\.");
+		String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setBearerAuth(parts[0] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(
+				payload.replace("\"sub\":\"" + NORMAL_USER + "\"", "\"sub\":\"" + USER_ADMIN + "\"")
+						.getBytes(StandardCharsets.UTF_8))
+				+ "." + parts[2]);
+
+		// When
+		ResponseEntity<String> result = restTemplate.exchange(BASE_URL + "/user/statistics", HttpMethod.GET,
+				new HttpEntity<>(headers), String.class);
+
+		// Then
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+	}
+
+	@Test
+	@DisplayName("Test Prometheus scrape contains the service and repository timers, overloads apart")
+	void testPrometheus() {
+		// Given
+		restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD).postForEntity(BASE_URL, VALID_URL,
+				URLDetails.class);
+		restTemplate.withBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD).getForEntity(BASE_URL + "/statistics",
+				String.class);
+		restTemplate.withBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD).getForEntity(BASE_URL + "/statistics/page",
+				String.class);
+
+		// When
+		ResponseEntity<String> result = restTemplate.withBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD)
+				.getForEntity(LOCAL_HOST + randomServerPort + "/actuator/prometheus", String.class);
+
+		// Then
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody())
+				.contains("urlshortener_service_seconds_count{exception=\"none\",method=\"create(String,String)\",}")
+				.contains("urlshortener_service_seconds{exception=\"none\",method=\"create(String,String)\","
+						+ "quantile=\"0.99\",}")
+				.contains("urlshortener_service_seconds_count{exception=\"none\",method=\"getAllStatistics()\",}")
+				.contains("urlshortener_service_seconds_count{exception=\"none\","
+						+ "method=\"getAllStatistics(String,int,StatisticsSort)\",}")
+				.contains("urlshortener_repository_seconds_count{exception=\"none\","
+						+ "method=\"upsert(String,String,String)\",}")
+				.contains("urlshortener_cache_hit_ratio{cache=\"urlResolution\",}");
+	}
+
+	@Test
+	@DisplayName("Test Actuator endpoints besides health are for admins only")
+	void testActuatorForNormalUser() {
+		// When
+		ResponseEntity<String> metrics = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.getForEntity(LOCAL_HOST + randomServerPort + "/actuator/metrics", String.class);
+		ResponseEntity<String> prometheus = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.getForEntity(LOCAL_HOST + randomServerPort + "/actuator/prometheus", String.class);
+
+		// Then
+		assertThat(metrics.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+		assertThat(prometheus.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+	}
+
+	@Test
+	@DisplayName("Test Click Statistics count the clicks of a Tiny URL per minute and rank the rolled up ones")
+	void testClickStatistics() throws InterruptedException {
+		// Given
+		String id = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.postForEntity(BASE_URL, VALID_URL_17, URLDetails.class).getBody().getId();
+		Instant day = Instant.parse("2020-09-13T00:00:00Z");
+		Map<ClickGranularity, Map<String, Map<Long, Long>>> clicks = new EnumMap<>(ClickGranularity.class);
+		clicks.put(ClickGranularity.DAY,
+				Collections.singletonMap(id, Collections.singletonMap(day.toEpochMilli(), 3l)));
+		clickStatisticsRepository.addClicks(clicks);
+		clickStatisticsRepository.addClicks(clicks);
+
+		// When
+		restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD).getForEntity(BASE_URL + "/" + id, String.class);
+		restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD).getForEntity(BASE_URL + "/" + id, String.class);
+		long minuteClicks = 0;
+		for (int attempt = 0; attempt < 50 && minuteClicks < 2; attempt++) {
+			Thread.sleep(100);
+			minuteClicks = restTemplate.withBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD)
+					.getForEntity(BASE_URL + "/statistics/clicks/" + id + "?granularity=MINUTE", ClickTimeSeries.class)
+					.getBody().getBuckets().stream().mapToLong(ClickBucket::getClicks).sum();
+		}
+		ResponseEntity<LinkClicks[]> result = restTemplate.withBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD).getForEntity(
+				BASE_URL + "/statistics/clicks?granularity=DAY&from=2020-09-13T00:00:00Z&to=2020-09-14T00:00:00Z",
+				LinkClicks[].class);
+
+		// Then
+		assertThat(minuteClicks).isEqualTo(2);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody())
+				.containsExactly(LinkClicks.builder().id(id).url(VALID_URL_17).clicks(6l).build());
+	}
+
+	@Test
+	@DisplayName("Test Hot Links rank the Tiny URLs of a user clicked most")
+	void testHotLinks() throws InterruptedException {
+		// Given
+		String id = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.postForEntity(BASE_URL, VALID_URL_18, URLDetails.class).getBody().getId();
+
+		// When
+		for (int click = 0; click < 50; click++) {
+			urlShortenerService.resolve(id);
+		}
+		List<LinkClicks> hotLinks = Collections.emptyList();
+		for (int attempt = 0; attempt < 50 && hotLinks.isEmpty(); attempt++) {
+			Thread.sleep(100);
+			hotLinks = Arrays.asList(restTemplate.withBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD)
+					.getForEntity(BASE_URL + "/statistics/top?userId=" + NORMAL_USER + "&limit=1", LinkClicks[].class)
+					.getBody());
+			hotLinks = hotLinks.stream().filter(linkClicks -> linkClicks.getClicks() >= 50)
+					.collect(Collectors.toList());
+		}
+
+		// Then
+		assertThat(hotLinks).containsExactly(LinkClicks.builder().id(id).url(VALID_URL_18).clicks(50l).build());
+	}
+
+	@Test
+	@DisplayName("Test Unique Visitors counts each client address and user agent once")
+	void testUniqueVisitors() throws InterruptedException {
+		// Given
+		String id = restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.postForEntity(BASE_URL, VALID_URL_19, URLDetails.class).getBody().getId();
+
+		// When
+		restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD).getForEntity(BASE_URL + "/" + id, String.class);
+		for (int click = 0; click < 3; click++) {
+			urlShortenerService.resolve(id, "192.0.2.1", null, "Mozilla/5.0");
+		}
+		LinkVisitors linkVisitors = null;
+		for (int attempt = 0; attempt < 50
+				&& (linkVisitors == null || linkVisitors.getUniqueVisitors() < 2); attempt++) {
+			Thread.sleep(100);
+			uniqueVisitors.flush();
+			linkVisitors = restTemplate.withBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD)
+					.getForEntity(BASE_URL + "/statistics/visitors/" + id, LinkVisitors.class).getBody();
+		}
+
+		// Then
+		assertThat(linkVisitors).isEqualTo(LinkVisitors.builder().id(id).uniqueVisitors(2).build());
+		assertThat(restTemplate.withBasicAuth(USER_ADMIN, USER_ADMIN_PASSWORD)
+				.getForEntity(BASE_URL + "/statistics/visitors/" + id + "?from=" + Instant.now().minus(1, ChronoUnit.DAYS),
+						LinkVisitors.class)
+				.getBody().getUniqueVisitors()).isEqualTo(2);
+		Statistics statistics = Arrays.stream(restTemplate.withBasicAuth(NORMAL_USER, NORMAL_USER_PASSWORD)
+				.getForEntity(BASE_URL + "/user/statistics", Statistics[].class).getBody())
+				.filter(urlStatistics -> urlStatistics.getUrl().equals(VALID_URL_19)).findFirst().get();
+		assertThat(statistics.getUniqueVisitors()).isEqualTo(2);
+	}
+
+	@Test
+	@DisplayName("Test Visitor Sketch merge losing the insert of a new sketch to another node fails and merges when retried")
+	void testMergeVisitorSketchInsertedConcurrently() throws Exception {
+		// Given
+		jdbcTemplate.update("DELETE FROM visitor_sketches WHERE id = 'race'");
+		visitorSketchRepository.merge(Collections.singletonMap(43l, Collections.singletonMap("race", new byte[] { 0 })),
+				(stored, sketch) -> sketch);
+		Map<Long, Map<String, byte[]>> otherSketches = Collections.singletonMap(42l,
+				Collections.singletonMap("race", new byte[] { 1 }));
+		Map<Long, Map<String, byte[]>> sketches = new LinkedHashMap<>();
+		sketches.put(42l, Collections.singletonMap("race", new byte[] { 2 }));
+		sketches.put(43l, Collections.singletonMap("race", new byte[] { 2 }));
+		CountDownLatch inserted = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<?> otherNode = executor.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+			visitorSketchRepository.merge(otherSketches, (stored, sketch) -> sketch);
+			inserted.countDown();
+			try {
+				commit.await();
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		}));
+		// called after the sketch of bucket 42 was looked up and not found, before it is saved
+		BinaryOperator<byte[]> concatenateOnceCommitted = (stored, sketch) -> {
+			commit.countDown();
+			try {
+				otherNode.get();
+			} catch (InterruptedException | ExecutionException exception) {
+				throw new IllegalStateException(exception);
+			}
+			byte[] merged = Arrays.copyOf(stored, stored.length + sketch.length);
+			System.arraycopy(sketch, 0, merged, stored.length, sketch.length);
+			return merged;
+		};
+
+		try {
+			inserted.await();
+
+			// When & Then
+			assertThatThrownBy(() -> visitorSketchRepository.merge(sketches, concatenateOnceCommitted))
+					.isInstanceOf(DataIntegrityViolationException.class);
+			visitorSketchRepository.merge(sketches, concatenateOnceCommitted);
+			assertThat(visitorSketchRepository.findSketches("race", 42, 44)).containsExactlyInAnyOrder(
+					new byte[] { 1, 2 }, new byte[] { 0, 2 });
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	@DisplayName("Test Readiness Probe reports ready after the resolution cache warm up without authentication")
+	void testReadinessProbe() {
+		// When
+		ResponseEntity<String> result = restTemplate
+				.getForEntity(LOCAL_HOST + randomServerPort + "/actuator/health/readiness", String.class);
+
+		// Then
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody()).contains("UP");
+		assertThat(meterRegistry.get("urlshortener.cache.warmup").timer().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("urlshortener.startup.time").timeGauge().value()).isPositive();
+	}
+
 }
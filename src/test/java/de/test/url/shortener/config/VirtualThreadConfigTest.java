@@ -0,0 +1,59 @@
+package de.test.url.shortener.config;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.apache.coyote.ProtocolHandler;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+
+@DisplayName("Virtual Thread Config Test")
+class VirtualThreadConfigTest {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withUserConfiguration(VirtualThreadConfig.class);
+
+	@Test
+	@DisplayName("Test Virtual Thread Config registers no customizer unless enabled")
+	void testDisabled() {
+		// When & Then
+		contextRunner.run(context -> Assertions.assertThat(context)
+				.doesNotHaveBean(TomcatProtocolHandlerCustomizer.class));
+		contextRunner.withPropertyValues("urlshortener.virtual-threads.enabled=false").run(
+				context -> Assertions.assertThat(context).doesNotHaveBean(TomcatProtocolHandlerCustomizer.class));
+	}
+
+	@Test
+	@DisplayName("Test Virtual Thread Config enabled registers the customizer, outside the reactive profile only")
+	void testEnabled() {
+		// When & Then
+		contextRunner.withPropertyValues("urlshortener.virtual-threads.enabled=true").run(
+				context -> Assertions.assertThat(context).hasSingleBean(TomcatProtocolHandlerCustomizer.class));
+		contextRunner.withPropertyValues("urlshortener.virtual-threads.enabled=true", "spring.profiles.active=reactive")
+				.run(context -> Assertions.assertThat(context)
+						.doesNotHaveBean(TomcatProtocolHandlerCustomizer.class));
+	}
+
+	@Test
+	@EnabledOnJre(JRE.JAVA_8)
+	@DisplayName("Test Virtual Thread Config keeps the Tomcat thread pool on Java 8")
+	void testJava8() {
+		// Given
+		ProtocolHandler protocolHandler = mock(ProtocolHandler.class);
+
+		// When
+		new VirtualThreadConfig().virtualThreadProtocolHandlerCustomizer().customize(protocolHandler);
+
+		// Then
+		Assertions.assertThat(VirtualThreadConfig.newVirtualThreadPerTaskExecutor()).isNull();
+		verify(protocolHandler, never()).setExecutor(any());
+	}
+
+}
@@ -1,34 +1,69 @@
 package de.test.url.shortener.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import de.test.url.shortener.exception.NotFoundException;
+import de.test.url.shortener.repository.domain.BulkCreateResult;
+import de.test.url.shortener.repository.domain.ClickBucket;
+import de.test.url.shortener.repository.domain.ClickGranularity;
+import de.test.url.shortener.repository.domain.ClickTimeSeries;
+import de.test.url.shortener.repository.domain.LinkClicks;
+import de.test.url.shortener.repository.domain.LinkVisitors;
 import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.StatisticsPage;
+import de.test.url.shortener.repository.domain.StatisticsSort;
 import de.test.url.shortener.repository.domain.URLDetails;
 import de.test.url.shortener.service.URLShortenerService;
+import de.test.url.shortener.service.ratelimit.RateLimiter;
+import de.test.url.shortener.service.shortcode.ShortCodeGenerator;
+import de.test.url.shortener.service.token.TokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(controllers = URLShortenerController.class)
@@ -58,15 +93,44 @@ class URLShortenerControllerTest {
 
 	private static final String VALID_TINY_URL_ID = "e02a1c6b-9574-4178-b01a-88d9c2ccf1e2";
 
+	private static final String SHORT_CODE = "3fKq9Z";
+
+	private static final String VALID_REFERRER = "https://www.example.com/";
+
+	private static final String VALID_USER_AGENT = "Mozilla/5.0";
+
+	private static final String CLIENT_ADDRESS = "127.0.0.1";
+
 	@Autowired
 	private MockMvc mockMvc;
 
 	@MockBean
 	private URLShortenerService urlShortenerService;
 
+	@MockBean
+	private ShortCodeGenerator shortCodeGenerator;
+
+	@MockBean
+	private TokenService tokenService;
+
+	@MockBean
+	private RateLimiter rateLimiter;
+
 	@Autowired
 	private ObjectMapper objectMapper;
 
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@TestConfiguration
+	static class MetricsConfiguration {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+
 	@WithMockUser(username = INVALID_USER, authorities = { ROLE_INVALID })
 	@Test
 	@DisplayName("Test Create Tiny URL for Unauthorized User")
@@ -93,6 +157,8 @@ class URLShortenerControllerTest {
 		// When & Then
 		mockMvc.perform(post(BASE_URL).content("abcde").characterEncoding(UTF_8)).andDo(print())
 				.andExpect(status().isBadRequest()).andExpect(content().string(containsString("Invalid URL")));
+		assertThat(meterRegistry.get("urlshortener.exceptions").tag("exception", "IllegalArgumentException")
+				.tag("status", "400").counter().count()).isPositive();
 	}
 
 	@WithMockUser(username = USER_ADMIN, authorities = { ROLE_ADMIN })
@@ -159,21 +225,41 @@ class URLShortenerControllerTest {
 	@DisplayName("Test Get Tiny URL for normal user with valid URL id")
 	void tesGetForNormalUserWithValidTinyURLId() throws JsonProcessingException, Exception {
 		// Given
-		when(urlShortenerService.get(eq(NORMAL_USER), eq(VALID_TINY_URL_ID))).thenReturn(VALID_URL);
+		when(urlShortenerService.get(eq(NORMAL_USER), eq(VALID_TINY_URL_ID), eq(CLIENT_ADDRESS), eq(VALID_REFERRER),
+				eq(VALID_USER_AGENT))).thenReturn(VALID_URL);
 
 		// When & Then
-		mockMvc.perform(get(BASE_URL + "/" + VALID_TINY_URL_ID).characterEncoding(UTF_8)).andDo(print())
+		mockMvc.perform(get(BASE_URL + "/" + VALID_TINY_URL_ID).header(HttpHeaders.REFERER, VALID_REFERRER)
+				.header(HttpHeaders.USER_AGENT, VALID_USER_AGENT).characterEncoding(UTF_8)).andDo(print())
 				.andExpect(status().isOk()).andExpect(content().string(containsString(VALID_URL)));
 
 	}
 
+	@WithMockUser(username = NORMAL_USER, authorities = { ROLE_USER })
+	@Test
+	@DisplayName("Test Get Tiny URL for normal user with unknown URL id")
+	void tesGetForNormalUserWithUnknownTinyURLId() throws JsonProcessingException, Exception {
+		// Given
+		when(urlShortenerService.get(eq(NORMAL_USER), eq(VALID_TINY_URL_ID), eq(CLIENT_ADDRESS), isNull(), isNull()))
+				.thenThrow(
+				new NotFoundException("No URL available for the userid " + NORMAL_USER + " id " + VALID_TINY_URL_ID));
+
+		// When & Then
+		mockMvc.perform(get(BASE_URL + "/" + VALID_TINY_URL_ID).characterEncoding(UTF_8)).andDo(print())
+				.andExpect(status().isNotFound()).andExpect(content().string(containsString(
+						"No URL available for the userid " + NORMAL_USER + " id " + VALID_TINY_URL_ID)));
+		assertThat(meterRegistry.get("urlshortener.exceptions").tags("exception", "NotFoundException", "status", "404")
+				.counter().count()).isEqualTo(1);
+	}
+
 	@WithMockUser(username = USER_ADMIN, authorities = { ROLE_ADMIN })
 	@Test
 	@DisplayName("Test Get Tiny URL for admin user with valid URL id")
 	void tesGetForAdminUserWithValidTinyURLId() throws JsonProcessingException, Exception {
 
 		// Given
-		when(urlShortenerService.get(eq(USER_ADMIN), eq(VALID_TINY_URL_ID))).thenReturn(VALID_URL);
+		when(urlShortenerService.get(eq(USER_ADMIN), eq(VALID_TINY_URL_ID), eq(CLIENT_ADDRESS), isNull(), isNull()))
+				.thenReturn(VALID_URL);
 
 		// When & Then
 		mockMvc.perform(get(BASE_URL + "/" + VALID_TINY_URL_ID).characterEncoding(UTF_8)).andDo(print())
@@ -288,4 +374,311 @@ class URLShortenerControllerTest {
 				.andExpect(content().string(containsString(objectMapper.writeValueAsString(statisticsListExpected))));
 	}
 
+	@WithMockUser(username = NORMAL_USER, authorities = { ROLE_USER })
+	@Test
+	@DisplayName("Test Get All Statistics Page for Normal User")
+	void testGetAllStatisticsPageForNormalUser() throws JsonProcessingException, Exception {
+		// When & Then
+		mockMvc.perform(get(BASE_URL + "/statistics/page").characterEncoding(UTF_8)).andDo(print())
+				.andExpect(status().isUnauthorized()).andExpect(content().string(containsString("Access is denied")));
+	}
+
+	@WithMockUser(username = USER_ADMIN, authorities = { ROLE_ADMIN })
+	@Test
+	@DisplayName("Test Get All Statistics Page for Admin User")
+	void testGetAllStatisticsPageForAdminUser() throws JsonProcessingException, Exception {
+		// Given
+		StatisticsPage statisticsPageExpected = StatisticsPage.builder()
+				.statistics(Collections.singletonList(
+						Statistics.builder().url(VALID_URL).creationCount(1l).callCount(1l).build()))
+				.nextCursor(VALID_URL).build();
+
+		when(urlShortenerService.getAllStatistics(VALID_URL, 1, StatisticsSort.URL)).thenReturn(statisticsPageExpected);
+
+		// When & Then
+		mockMvc.perform(get(BASE_URL + "/statistics/page").param("cursor", VALID_URL).param("size", "1")
+				.characterEncoding(UTF_8)).andDo(print()).andExpect(status().isOk())
+				.andExpect(content().string(containsString(objectMapper.writeValueAsString(statisticsPageExpected))));
+	}
+
+	@WithMockUser(username = NORMAL_USER, authorities = { ROLE_USER })
+	@Test
+	@DisplayName("Test Get Click Time Series for Normal User")
+	void testGetClickTimeSeriesForNormalUser() throws JsonProcessingException, Exception {
+		// When & Then
+		mockMvc.perform(get(BASE_URL + "/statistics/clicks/" + SHORT_CODE).characterEncoding(UTF_8)).andDo(print())
+				.andExpect(status().isUnauthorized()).andExpect(content().string(containsString("Access is denied")));
+	}
+
+	@WithMockUser(username = USER_ADMIN, authorities = { ROLE_ADMIN })
+	@Test
+	@DisplayName("Test Get Click Time Series for Admin User")
+	void testGetClickTimeSeriesForAdminUser() throws JsonProcessingException, Exception {
+		// Given
+		Instant from = Instant.parse("2020-09-13T12:00:00Z");
+		ClickTimeSeries timeSeriesExpected = ClickTimeSeries.builder().id(SHORT_CODE)
+				.granularity(ClickGranularity.MINUTE)
+				.buckets(Collections.singletonList(ClickBucket.builder().start(from).clicks(5l).build())).build();
+
+		when(urlShortenerService.getClickTimeSeries(SHORT_CODE, ClickGranularity.MINUTE, from,
+				Instant.parse("2020-09-13T12:01:00Z"))).thenReturn(timeSeriesExpected);
+
+		// When & Then
+		mockMvc.perform(get(BASE_URL + "/statistics/clicks/" + SHORT_CODE).param("granularity", "MINUTE")
+				.param("from", "2020-09-13T12:00:00Z").param("to", "2020-09-13T12:01:00Z").characterEncoding(UTF_8))
+				.andDo(print()).andExpect(status().isOk())
+				.andExpect(content().string(containsString(objectMapper.writeValueAsString(timeSeriesExpected))));
+	}
+
+	@WithMockUser(username = USER_ADMIN, authorities = { ROLE_ADMIN })
+	@Test
+	@DisplayName("Test Get Top Links for Admin User")
+	void testGetTopLinksForAdminUser() throws JsonProcessingException, Exception {
+		// Given
+		List<LinkClicks> topLinksExpected = Collections
+				.singletonList(LinkClicks.builder().id(SHORT_CODE).url(VALID_URL).clicks(5l).build());
+
+		when(urlShortenerService.getTopLinks(ClickGranularity.DAY, null, null, 5)).thenReturn(topLinksExpected);
+
+		// When & Then
+		mockMvc.perform(get(BASE_URL + "/statistics/clicks").param("granularity", "DAY").param("limit", "5")
+				.characterEncoding(UTF_8)).andDo(print()).andExpect(status().isOk())
+				.andExpect(content().string(containsString(objectMapper.writeValueAsString(topLinksExpected))));
+	}
+
+	@WithMockUser(username = NORMAL_USER, authorities = { ROLE_USER })
+	@Test
+	@DisplayName("Test Get Hot Links for Normal User")
+	void testGetHotLinksForNormalUser() throws JsonProcessingException, Exception {
+		// When & Then
+		mockMvc.perform(get(BASE_URL + "/statistics/top").characterEncoding(UTF_8)).andDo(print())
+				.andExpect(status().isUnauthorized()).andExpect(content().string(containsString("Access is denied")));
+	}
+
+	@WithMockUser(username = USER_ADMIN, authorities = { ROLE_ADMIN })
+	@Test
+	@DisplayName("Test Get Hot Links of a user for Admin User")
+	void testGetHotLinksForAdminUser() throws JsonProcessingException, Exception {
+		// Given
+		List<LinkClicks> hotLinksExpected = Collections
+				.singletonList(LinkClicks.builder().id(SHORT_CODE).url(VALID_URL).clicks(5l).build());
+
+		when(urlShortenerService.getHotLinks(NORMAL_USER, 3)).thenReturn(hotLinksExpected);
+
+		// When & Then
+		mockMvc.perform(get(BASE_URL + "/statistics/top").param("userId", NORMAL_USER).param("limit", "3")
+				.characterEncoding(UTF_8)).andDo(print()).andExpect(status().isOk())
+				.andExpect(content().string(containsString(objectMapper.writeValueAsString(hotLinksExpected))));
+	}
+
+	@WithMockUser(username = USER_ADMIN, authorities = { ROLE_ADMIN })
+	@Test
+	@DisplayName("Test Get Unique Visitors of a day for Admin User")
+	void testGetUniqueVisitorsForAdminUser() throws JsonProcessingException, Exception {
+		// Given
+		LinkVisitors linkVisitorsExpected = LinkVisitors.builder().id(SHORT_CODE).uniqueVisitors(7l).build();
+
+		when(urlShortenerService.getUniqueVisitors(SHORT_CODE, Instant.parse("2020-09-13T00:00:00Z"),
+				Instant.parse("2020-09-14T00:00:00Z"))).thenReturn(linkVisitorsExpected);
+
+		// When & Then
+		mockMvc.perform(get(BASE_URL + "/statistics/visitors/" + SHORT_CODE).param("from", "2020-09-13T00:00:00Z")
+				.param("to", "2020-09-14T00:00:00Z").characterEncoding(UTF_8)).andDo(print())
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString(objectMapper.writeValueAsString(linkVisitorsExpected))));
+	}
+
+	@WithMockUser(username = USER_ADMIN, authorities = { ROLE_ADMIN })
+	@Test
+	@DisplayName("Test Stream User Statistics for Admin User")
+	void testStreamUserStatisticsForAdminUser() throws JsonProcessingException, Exception {
+		// Given
+		List<Statistics> statisticsExpected = Arrays.asList(
+				Statistics.builder().url(VALID_URL).creationCount(1l).callCount(1l).build(),
+				Statistics.builder().url("http://www.gmail.com/").creationCount(2l).callCount(0l).build(),
+				Statistics.builder().url("http://www.yahoo.com/").creationCount(1l).callCount(5l).build());
+
+		doAnswer(invocation -> {
+			statisticsExpected.forEach(invocation.<Consumer<Statistics>>getArgument(1));
+			return null;
+		}).when(urlShortenerService).streamUserStatistics(eq(NORMAL_USER), any());
+
+		// When
+		MvcResult mvcResult = mockMvc.perform(get(GET_USER_STATISTICS_FOR_ADMIN + "/stream").characterEncoding(UTF_8))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		// Then
+		mockMvc.perform(asyncDispatch(mvcResult)).andDo(print()).andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+				.andExpect(content().string(objectMapper.writeValueAsString(statisticsExpected.get(0)) + "\n"
+						+ objectMapper.writeValueAsString(statisticsExpected.get(1)) + "\n"
+						+ objectMapper.writeValueAsString(statisticsExpected.get(2)) + "\n"));
+	}
+
+	@Test
+	@DisplayName("Test Redirect for a known short code without authentication")
+	void testRedirect() throws Exception {
+		// Given
+		when(shortCodeGenerator.isShortCode(any(), eq(1), eq(7))).thenReturn(true);
+		when(urlShortenerService.resolve(SHORT_CODE, CLIENT_ADDRESS, VALID_REFERRER, VALID_USER_AGENT))
+				.thenReturn(VALID_URL);
+
+		// When & Then
+		mockMvc.perform(get("/" + SHORT_CODE).header(HttpHeaders.REFERER, VALID_REFERRER)
+				.header(HttpHeaders.USER_AGENT, VALID_USER_AGENT)).andDo(print()).andExpect(status().isFound())
+				.andExpect(header().string(HttpHeaders.LOCATION, VALID_URL));
+		assertThat(meterRegistry.get("urlshortener.redirect").tag("outcome", "REDIRECT").timer().count())
+				.isPositive();
+	}
+
+	@Test
+	@DisplayName("Test Redirect of a HEAD request counts no call")
+	void testRedirectHead() throws Exception {
+		// Given
+		when(shortCodeGenerator.isShortCode(any(), eq(1), eq(7))).thenReturn(true);
+		when(urlShortenerService.peek(SHORT_CODE)).thenReturn(VALID_URL);
+
+		// When & Then
+		mockMvc.perform(head("/" + SHORT_CODE)).andDo(print()).andExpect(status().isFound())
+				.andExpect(header().string(HttpHeaders.LOCATION, VALID_URL));
+		verify(urlShortenerService, never()).resolve(anyString(), any(), any(), any());
+	}
+
+	@Test
+	@DisplayName("Test Redirect for an unknown short code")
+	void testRedirectWithUnknownShortCode() throws Exception {
+		// Given
+		when(shortCodeGenerator.isShortCode(any(), eq(1), eq(7))).thenReturn(true);
+
+		// When & Then
+		mockMvc.perform(get("/" + SHORT_CODE)).andDo(print()).andExpect(status().isNotFound())
+				.andExpect(header().doesNotExist(HttpHeaders.LOCATION));
+	}
+
+	@Test
+	@DisplayName("Test Redirect is not applied to paths other than short codes")
+	void testRedirectWithInvalidShortCode() throws Exception {
+		// When & Then
+		mockMvc.perform(get("/" + SHORT_CODE + ".html")).andDo(print()).andExpect(status().isUnauthorized());
+		verify(urlShortenerService, never()).resolve(anyString(), any(), any(), any());
+	}
+
+	@WithMockUser(username = NORMAL_USER, authorities = { ROLE_USER })
+	@Test
+	@DisplayName("Test Bulk Create Tiny URLs for Normal User")
+	void testCreateAllForNormalUser() throws JsonProcessingException, Exception {
+		// Given
+		URLDetails urlDetails = URLDetails.builder().id(SHORT_CODE).userId(NORMAL_USER).url(VALID_URL)
+				.creationCount(1l).build();
+		when(urlShortenerService.createAll(NORMAL_USER, Arrays.asList(VALID_URL, VALID_URL)))
+				.thenReturn(Collections.singletonMap(VALID_URL, urlDetails));
+		List<BulkCreateResult> resultsExpected = Arrays.asList(
+				BulkCreateResult.builder().url(VALID_URL).urlDetails(urlDetails).build(),
+				BulkCreateResult.builder().url("abcde").error("Invalid URL - abcde").build(),
+				BulkCreateResult.builder().url(VALID_URL).urlDetails(urlDetails).build());
+
+		// When & Then
+		mockMvc.perform(post(BASE_URL + "/bulk").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(Arrays.asList(VALID_URL, "abcde", VALID_URL)))
+				.characterEncoding(UTF_8)).andDo(print()).andExpect(status().isOk())
+				.andExpect(content().string(objectMapper.writeValueAsString(resultsExpected)));
+	}
+
+	@WithMockUser(username = NORMAL_USER, authorities = { ROLE_USER })
+	@Test
+	@DisplayName("Test Bulk Create Tiny URLs as NDJSON stream for Normal User")
+	void testCreateAllStreamForNormalUser() throws JsonProcessingException, Exception {
+		// Given
+		URLDetails urlDetails = URLDetails.builder().id(SHORT_CODE).userId(NORMAL_USER).url(VALID_URL)
+				.creationCount(1l).build();
+		when(urlShortenerService.createAll(NORMAL_USER, Collections.singletonList(VALID_URL)))
+				.thenReturn(Collections.singletonMap(VALID_URL, urlDetails));
+
+		// When
+		MvcResult mvcResult = mockMvc.perform(post(BASE_URL + "/bulk").contentType(MediaType.APPLICATION_NDJSON)
+				.content("\"" + VALID_URL + "\"\n\nabcde\n").characterEncoding(UTF_8))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		// Then
+		mockMvc.perform(asyncDispatch(mvcResult)).andDo(print()).andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+				.andExpect(content().string(objectMapper.writeValueAsString(
+						BulkCreateResult.builder().url(VALID_URL).urlDetails(urlDetails).build()) + "\n"
+						+ objectMapper.writeValueAsString(
+								BulkCreateResult.builder().url("abcde").error("Invalid URL - abcde").build())
+						+ "\n"));
+	}
+
+	@WithMockUser(username = NORMAL_USER, authorities = { ROLE_USER })
+	@Test
+	@DisplayName("Test Resolve Tiny URLs for Normal User")
+	void testResolveAllForNormalUser() throws JsonProcessingException, Exception {
+		// Given
+		when(urlShortenerService.resolveAll(NORMAL_USER, Arrays.asList(SHORT_CODE, "4gLr0a")))
+				.thenReturn(Collections.singletonMap(SHORT_CODE, VALID_URL));
+
+		// When & Then
+		mockMvc.perform(post(BASE_URL + "/resolve").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(Arrays.asList(SHORT_CODE, " 4gLr0a ")))
+				.characterEncoding(UTF_8)).andDo(print()).andExpect(status().isOk())
+				.andExpect(content().string(
+						objectMapper.writeValueAsString(Collections.singletonMap(SHORT_CODE, VALID_URL))));
+	}
+
+	@WithMockUser(username = NORMAL_USER, authorities = { ROLE_USER })
+	@Test
+	@DisplayName("Test Resolve Tiny URLs with an empty id")
+	void testResolveAllWithEmptyId() throws JsonProcessingException, Exception {
+		// When & Then
+		mockMvc.perform(post(BASE_URL + "/resolve").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(Arrays.asList(SHORT_CODE, " ")))
+				.characterEncoding(UTF_8)).andDo(print()).andExpect(status().isBadRequest());
+		verify(urlShortenerService, never()).resolveAll(anyString(), any());
+	}
+
+	@Test
+	@DisplayName("Test Get Tiny URL with a bearer token")
+	void testGetWithBearerToken() throws Exception {
+		// Given
+		when(tokenService.verify("token")).thenReturn(new UsernamePasswordAuthenticationToken(NORMAL_USER, null,
+				AuthorityUtils.createAuthorityList(ROLE_USER)));
+		when(urlShortenerService.get(NORMAL_USER, SHORT_CODE, CLIENT_ADDRESS, null, null)).thenReturn(VALID_URL);
+
+		// When & Then
+		mockMvc.perform(get(BASE_URL + "/" + SHORT_CODE).header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+				.andDo(print()).andExpect(status().isOk()).andExpect(content().string(VALID_URL));
+	}
+
+	@Test
+	@DisplayName("Test Get Tiny URL with an invalid bearer token")
+	void testGetWithInvalidBearerToken() throws Exception {
+		// When & Then
+		mockMvc.perform(get(BASE_URL + "/" + SHORT_CODE).header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+				.andDo(print()).andExpect(status().isUnauthorized())
+				.andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\""));
+		verify(urlShortenerService, never()).get(anyString(), anyString());
+	}
+
+	@Test
+	@DisplayName("Test Token is not issued for a bearer token")
+	void testCreateTokenWithBearerToken() throws Exception {
+		// When & Then
+		mockMvc.perform(post(TokenController.TOKEN_PATH).header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+				.andDo(print()).andExpect(status().isUnauthorized());
+		verify(tokenService, never()).verify(anyString());
+	}
+
+	@WithMockUser(username = NORMAL_USER, authorities = { ROLE_USER })
+	@Test
+	@DisplayName("Test Create Tiny URL beyond the rate limit of the user")
+	void testCreateForNormalUserBeyondRateLimit() throws Exception {
+		// Given
+		when(rateLimiter.tryAcquire(any())).thenReturn(TimeUnit.MILLISECONDS.toNanos(1500));
+
+		// When & Then
+		mockMvc.perform(post(BASE_URL).content(VALID_URL).characterEncoding(UTF_8)).andDo(print())
+				.andExpect(status().isTooManyRequests()).andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+		verify(urlShortenerService, never()).create(anyString(), anyString());
+	}
+
 }
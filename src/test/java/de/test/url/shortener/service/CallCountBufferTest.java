@@ -0,0 +1,82 @@
+package de.test.url.shortener.service;
+
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import de.test.url.shortener.repository.URLShortenerRepository;
+
+@ExtendWith(SpringExtension.class)
+@DisplayName("Call Count Buffer Test")
+class CallCountBufferTest {
+
+	private static final String VALID_TINY_URL_ID = "e02a1c6b-9574-4178-b01a-88d9c2ccf1e2";
+
+	private static final String OTHER_TINY_URL_ID = "a2b3c4d5";
+
+	@Mock
+	private URLShortenerRepository repository;
+
+	@InjectMocks
+	private CallCountBuffer callCountBuffer;
+
+	@Test
+	@DisplayName("Test Flush aggregates the increments per id")
+	void testFlush() {
+		// Given
+		callCountBuffer.increment(VALID_TINY_URL_ID);
+		callCountBuffer.increment(VALID_TINY_URL_ID);
+		callCountBuffer.increment(OTHER_TINY_URL_ID);
+		Map<String, Long> callCountDeltasExpected = new HashMap<>();
+		callCountDeltasExpected.put(VALID_TINY_URL_ID, 2l);
+		callCountDeltasExpected.put(OTHER_TINY_URL_ID, 1l);
+
+		// When
+		callCountBuffer.flush();
+
+		// Then
+		verify(repository).incrementCallCounts(callCountDeltasExpected);
+		Assertions.assertThat(callCountBuffer.getPendingCallCount()).isZero();
+	}
+
+	@Test
+	@DisplayName("Test Flush without any increment")
+	void testFlushWithoutIncrement() {
+		// When
+		callCountBuffer.flush();
+
+		// Then
+		verify(repository, never()).incrementCallCounts(anyMap());
+	}
+
+	@Test
+	@DisplayName("Test Flush keeps the deltas when the data base update fails")
+	void testFlushWithFailure() {
+		// Given
+		callCountBuffer.increment(VALID_TINY_URL_ID);
+		doThrow(new DataAccessResourceFailureException("Data base not available")).when(repository)
+				.incrementCallCounts(anyMap());
+
+		// When
+		callCountBuffer.flush();
+
+		// Then
+		Assertions.assertThat(callCountBuffer.getPendingCallCount()).isEqualTo(1l);
+		verify(repository).incrementCallCounts(Collections.singletonMap(VALID_TINY_URL_ID, 1l));
+	}
+
+}
@@ -0,0 +1,54 @@
+package de.test.url.shortener.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.test.url.shortener.repository.domain.LinkClicks;
+
+@DisplayName("Hot Links Snapshot Test")
+class HotLinksSnapshotTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	@DisplayName("Test Hot Links Snapshot reads the links written over the previous snapshot")
+	void testWrite() throws IOException {
+		// Given
+		Path file = directory.resolve("snapshots").resolve("hot-links.snapshot");
+		List<LinkClicks> links = Arrays.asList(LinkClicks.builder().id("3fKq9Z").clicks(42l).error(5l).build(),
+				LinkClicks.builder().id("4gLr0a").clicks(7l).build());
+		HotLinksSnapshot.write(file, Arrays.asList(LinkClicks.builder().id("5hMs1b").clicks(1l).build()));
+
+		// When
+		HotLinksSnapshot.write(file, links);
+
+		// Then
+		Assertions.assertThat(HotLinksSnapshot.read(file)).isEqualTo(links);
+		try (Stream<Path> files = Files.list(file.getParent())) {
+			Assertions.assertThat(files).containsExactly(file);
+		}
+	}
+
+	@Test
+	@DisplayName("Test Hot Links Snapshot reads no links without a snapshot and rejects an invalid one")
+	void testRead() throws IOException {
+		// Given
+		Path file = directory.resolve("hot-links.snapshot");
+
+		// When & Then
+		Assertions.assertThat(HotLinksSnapshot.read(file)).isEmpty();
+		Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 0, 0, 0, 1 });
+		Assertions.assertThatIOException().isThrownBy(() -> HotLinksSnapshot.read(file));
+	}
+
+}
@@ -0,0 +1,249 @@
+package de.test.url.shortener.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.NoResultException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import de.test.url.shortener.repository.ReactiveURLShortenerRepository;
+import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.URLDetails;
+import de.test.url.shortener.service.click.ClickEventPipeline;
+import de.test.url.shortener.service.click.UniqueVisitors;
+import de.test.url.shortener.service.linkindex.LinkIndex;
+import de.test.url.shortener.service.shortcode.ShortCodeGenerator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(SpringExtension.class)
+@DisplayName("Reactive URL Shortener Service Test")
+class ReactiveURLShortenerServiceTest {
+
+	private static final String VALID_TINY_URL_ID = "3fKq9Z";
+
+	private static final String VALID_USER = "user";
+
+	private static final String VALID_URL = "http://www.google.com/";
+
+	@Mock
+	private ReactiveURLShortenerRepository repository;
+
+	@Mock
+	private CallCountBuffer callCountBuffer;
+
+	@Mock
+	private URLResolutionCache resolutionCache;
+
+	@Mock
+	private URLIdFilter idFilter;
+
+	@Mock
+	private LinkIndex linkIndex;
+
+	@Mock
+	private ClickEventPipeline clickEventPipeline;
+
+	@Mock
+	private ShortCodeGenerator shortCodeGenerator;
+
+	@Mock
+	private UniqueVisitors uniqueVisitors;
+
+	@InjectMocks
+	private ReactiveURLShortenerService urlShortenerService = new ReactiveURLShortenerServiceImpl();
+
+	@Test
+	@DisplayName("Test Reactive URL Shortener Creation retries a concurrently inserted URL once")
+	void testCreateRetriesOnConcurrentInsert() {
+		// Given
+		URLDetails urlDetailsExpected = URLDetails.builder().id(VALID_TINY_URL_ID).userId(VALID_USER).url(VALID_URL)
+				.creationCount(2l).build();
+		when(repository.incrementCreationCount(VALID_USER, VALID_URL)).thenReturn(Mono.empty());
+		when(shortCodeGenerator.next()).thenReturn(VALID_TINY_URL_ID);
+		when(repository.upsert(VALID_TINY_URL_ID, VALID_USER, VALID_URL)).thenReturn(
+				Mono.error(new DataIntegrityViolationException("duplicate key")), Mono.just(urlDetailsExpected));
+
+		// When and Then
+		StepVerifier.create(urlShortenerService.create(VALID_USER, VALID_URL)).expectNext(urlDetailsExpected)
+				.verifyComplete();
+		verify(idFilter).put(VALID_TINY_URL_ID);
+		verify(linkIndex).put(urlDetailsExpected);
+		verify(resolutionCache).put(urlDetailsExpected);
+	}
+
+	@Test
+	@DisplayName("Test Reactive URL Shortener Creation of an existing URL draws no short code")
+	void testCreateExisting() {
+		// Given
+		URLDetails urlDetailsExpected = URLDetails.builder().id(VALID_TINY_URL_ID).userId(VALID_USER).url(VALID_URL)
+				.creationCount(2l).build();
+		when(repository.incrementCreationCount(VALID_USER, VALID_URL)).thenReturn(Mono.just(urlDetailsExpected));
+
+		// When and Then
+		StepVerifier.create(urlShortenerService.create(VALID_USER, VALID_URL)).expectNext(urlDetailsExpected)
+				.verifyComplete();
+		verify(shortCodeGenerator, never()).next();
+		verify(repository, never()).upsert(any(), any(), any());
+		verify(resolutionCache).put(urlDetailsExpected);
+	}
+
+	@Test
+	@DisplayName("Test Reactive URL Shortener Creation draws the short code off the event loop")
+	void testCreateDrawsShortCodeOnBoundedElastic() {
+		// Given
+		URLDetails urlDetailsExpected = URLDetails.builder().id(VALID_TINY_URL_ID).userId(VALID_USER).url(VALID_URL)
+				.creationCount(1l).build();
+		String[] threadName = new String[1];
+		when(repository.incrementCreationCount(VALID_USER, VALID_URL)).thenReturn(Mono.empty());
+		when(shortCodeGenerator.next()).thenAnswer(invocation -> {
+			threadName[0] = Thread.currentThread().getName();
+			return VALID_TINY_URL_ID;
+		});
+		when(repository.upsert(VALID_TINY_URL_ID, VALID_USER, VALID_URL)).thenReturn(Mono.just(urlDetailsExpected));
+
+		// When
+		Mono<URLDetails> created = urlShortenerService.create(VALID_USER, VALID_URL);
+
+		// Then
+		verify(shortCodeGenerator, never()).next();
+		StepVerifier.create(created).expectNext(urlDetailsExpected).verifyComplete();
+		assertThat(threadName[0]).startsWith("boundedElastic-");
+	}
+
+	@Test
+	@DisplayName("Test Reactive URL Shortener Get with valid user id and id")
+	void testGet() {
+		// Given
+		URLDetails urlDetailsExpected = URLDetails.builder().id(VALID_TINY_URL_ID).userId(VALID_USER).url(VALID_URL)
+				.creationCount(1l).build();
+		when(idFilter.mightContain(VALID_TINY_URL_ID)).thenReturn(true);
+		when(repository.findById(VALID_TINY_URL_ID)).thenReturn(Mono.just(urlDetailsExpected));
+
+		// When and Then
+		StepVerifier.create(urlShortenerService.get(VALID_USER, VALID_TINY_URL_ID, "192.0.2.1", null, "curl/7.68.0"))
+				.expectNext(VALID_URL).verifyComplete();
+		verify(linkIndex).put(urlDetailsExpected);
+		verify(resolutionCache).put(urlDetailsExpected);
+		verify(callCountBuffer).increment(VALID_TINY_URL_ID);
+		verify(clickEventPipeline).record(VALID_TINY_URL_ID, VALID_USER, "192.0.2.1", null, "curl/7.68.0");
+	}
+
+	@Test
+	@DisplayName("Test Reactive URL Shortener Get with valid user id and id of the link index")
+	void testGetIndexed() {
+		// Given
+		when(linkIndex.get(VALID_TINY_URL_ID)).thenReturn(new ResolvedURL(VALID_USER, VALID_URL));
+
+		// When and Then
+		StepVerifier.create(urlShortenerService.get(VALID_USER, VALID_TINY_URL_ID)).expectNext(VALID_URL)
+				.verifyComplete();
+		verify(repository, never()).findById(any());
+		verify(callCountBuffer).increment(VALID_TINY_URL_ID);
+	}
+
+	@Test
+	@DisplayName("Test Reactive URL Shortener Get with valid user id and cached id")
+	void testGetCached() {
+		// Given
+		when(resolutionCache.getIfPresent(VALID_TINY_URL_ID)).thenReturn(new ResolvedURL(VALID_USER, VALID_URL));
+
+		// When and Then
+		StepVerifier.create(urlShortenerService.get(VALID_USER, VALID_TINY_URL_ID)).expectNext(VALID_URL)
+				.verifyComplete();
+		verify(repository, never()).findById(any());
+		verify(callCountBuffer).increment(VALID_TINY_URL_ID);
+	}
+
+	@Test
+	@DisplayName("Test Reactive URL Shortener Get with cached id of another user")
+	void testGetCachedWithInvalidUserId() {
+		// Given
+		when(resolutionCache.getIfPresent(VALID_TINY_URL_ID)).thenReturn(new ResolvedURL(VALID_USER, VALID_URL));
+
+		// When and Then
+		StepVerifier.create(urlShortenerService.get("invaliduser", VALID_TINY_URL_ID))
+				.verifyErrorMessage("No URL available for the userid invaliduser id " + VALID_TINY_URL_ID);
+		verify(callCountBuffer, never()).increment(any());
+		verify(clickEventPipeline, never()).record(any(), any(), any(), any(), any());
+	}
+
+	@Test
+	@DisplayName("Test Reactive URL Shortener Get with invalid id")
+	void testGetWithInvalidId() {
+		// Given
+		when(idFilter.mightContain(VALID_TINY_URL_ID)).thenReturn(true);
+		when(repository.findById(VALID_TINY_URL_ID)).thenReturn(Mono.empty());
+
+		// When and Then
+		StepVerifier.create(urlShortenerService.get(VALID_USER, VALID_TINY_URL_ID))
+				.expectError(NoResultException.class).verify();
+		verify(resolutionCache).putMissing(VALID_TINY_URL_ID);
+		verify(callCountBuffer, never()).increment(any());
+	}
+
+	@Test
+	@DisplayName("Test Reactive URL Shortener Get with missing id or id rejected by the id filter")
+	void testGetWithMissingOrFilteredId() {
+		// Given
+		when(idFilter.mightContain(VALID_TINY_URL_ID)).thenReturn(true);
+		when(resolutionCache.isMissing(VALID_TINY_URL_ID)).thenReturn(true);
+
+		// When and Then
+		StepVerifier.create(urlShortenerService.get(VALID_USER, VALID_TINY_URL_ID))
+				.expectError(NoResultException.class).verify();
+		StepVerifier.create(urlShortenerService.get(VALID_USER, "4gLr0a")).expectError(NoResultException.class)
+				.verify();
+		verify(repository, never()).findById(any());
+	}
+
+	@Test
+	@DisplayName("Test Reactive URL Shortener Get All Statistics adds the unique visitors off the event loop")
+	void testGetAllStatistics() {
+		// Given
+		Statistics statistics = Statistics.builder().url(VALID_URL).creationCount(1l).build();
+		String[] threadName = new String[1];
+		when(repository.findAllStatistics()).thenReturn(Flux.just(statistics));
+		doAnswer(invocation -> {
+			threadName[0] = Thread.currentThread().getName();
+			invocation.<List<Statistics>>getArgument(1).forEach(added -> added.setUniqueVisitors(42l));
+			return null;
+		}).when(uniqueVisitors).addTo(eq(null), any());
+
+		// When & Then
+		StepVerifier.create(urlShortenerService.getAllStatistics())
+				.expectNext(Statistics.builder().url(VALID_URL).creationCount(1l).uniqueVisitors(42l).build())
+				.verifyComplete();
+		assertThat(threadName[0]).startsWith("boundedElastic-");
+	}
+
+	@Test
+	@DisplayName("Test Reactive URL Shortener Get User Statistics adds the unique visitors of the user")
+	void testGetUserStatistics() {
+		// Given
+		Statistics statistics = Statistics.builder().url(VALID_URL).creationCount(1l).build();
+		when(repository.findUserStatistics(VALID_USER)).thenReturn(Flux.just(statistics));
+
+		// When & Then
+		StepVerifier.create(urlShortenerService.getUserStatistics(VALID_USER)).expectNext(statistics)
+				.verifyComplete();
+		verify(uniqueVisitors).addTo(VALID_USER, Collections.singletonList(statistics));
+	}
+
+}
@@ -0,0 +1,63 @@
+package de.test.url.shortener.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.URLDetails;
+
+@DisplayName("Statistics Aggregator Test")
+class StatisticsAggregatorTest {
+
+	private static final String VALID_URL = "http://www.google.com/";
+
+	private static final String VALID_URL_2 = "http://www.gmail.com/";
+
+	@Test
+	@DisplayName("Test Aggregate sums both counters per URL")
+	void testAggregate() {
+		// Given
+		List<URLDetails> urlDetailList = new ArrayList<>();
+		urlDetailList.add(URLDetails.builder().url(VALID_URL).userId("user").creationCount(1l).callCount(2l).build());
+		urlDetailList.add(URLDetails.builder().url(VALID_URL).userId("admin").creationCount(3l).callCount(4l).build());
+		urlDetailList.add(URLDetails.builder().url(VALID_URL_2).userId("user").creationCount(5l).build());
+
+		// When
+		List<Statistics> statisticsListActual = StatisticsAggregator.aggregate(urlDetailList);
+
+		// Then
+		Assertions.assertThat(statisticsListActual).containsExactlyInAnyOrder(
+				Statistics.builder().url(VALID_URL).creationCount(4l).callCount(6l).build(),
+				Statistics.builder().url(VALID_URL_2).creationCount(5l).build());
+	}
+
+	@Test
+	@DisplayName("Test Aggregate of a large list in parallel matches the sequential result")
+	void testAggregateParallel() {
+		// Given
+		List<URLDetails> urlDetailList = new ArrayList<>();
+		for (int index = 0; index < StatisticsAggregator.PARALLEL_THRESHOLD; index++) {
+			urlDetailList.add(URLDetails.builder().url(VALID_URL + index % 100).creationCount(1l).callCount(index)
+					.build());
+		}
+
+		// When
+		List<Statistics> statisticsListActual = StatisticsAggregator.aggregate(urlDetailList);
+
+		// Then
+		Assertions.assertThat(statisticsListActual).hasSize(100)
+				.containsExactlyInAnyOrderElementsOf(StatisticsAggregator.aggregateSequential(urlDetailList));
+	}
+
+	@Test
+	@DisplayName("Test Aggregate without any URL details")
+	void testAggregateWithNull() {
+		// When & Then
+		Assertions.assertThat(StatisticsAggregator.aggregate(null)).isEmpty();
+	}
+
+}
@@ -0,0 +1,151 @@
+package de.test.url.shortener.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.test.url.shortener.repository.URLShortenerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("URL Id Filter Test")
+class URLIdFilterTest {
+
+	private static final String VALID_TINY_URL_ID = "3fKq9Z";
+
+	private static final String OTHER_TINY_URL_ID = "4gLr0a";
+
+	private static final String UNKNOWN_TINY_URL_ID = "zzzzzz";
+
+	private final URLShortenerRepository repository = mock(URLShortenerRepository.class);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private URLIdFilter idFilter;
+
+	@BeforeEach
+	void setUp() {
+		when(repository.count()).thenReturn(2l);
+		doAnswer(invocation -> {
+			Consumer<String> consumer = invocation.getArgument(0);
+			Arrays.asList(VALID_TINY_URL_ID, OTHER_TINY_URL_ID).forEach(consumer);
+			return null;
+		}).when(repository).forEachId(any());
+		idFilter = createIdFilter(true, 1024 * 1024);
+	}
+
+	@Test
+	@DisplayName("Test Id Filter passes every id until it is built")
+	void testMightContainBeforeRebuild() {
+		// When & Then
+		Assertions.assertThat(idFilter.mightContain(UNKNOWN_TINY_URL_ID)).isTrue();
+	}
+
+	@Test
+	@DisplayName("Test Id Filter rejects the ids not scanned and counts them")
+	void testMightContain() {
+		// Given
+		idFilter.rebuild();
+
+		// When & Then
+		Assertions.assertThat(idFilter.mightContain(VALID_TINY_URL_ID)).isTrue();
+		Assertions.assertThat(idFilter.mightContain(OTHER_TINY_URL_ID)).isTrue();
+		Assertions.assertThat(idFilter.mightContain(UNKNOWN_TINY_URL_ID)).isFalse();
+		Assertions.assertThat(meterRegistry.get("urlshortener.idfilter.rejected").counter().count()).isEqualTo(1);
+		Assertions.assertThat(meterRegistry.get("urlshortener.idfilter.ids").gauge().value()).isEqualTo(2);
+	}
+
+	@Test
+	@DisplayName("Test Id Filter passes an id put after the rebuild")
+	void testPut() {
+		// Given
+		idFilter.rebuild();
+
+		// When
+		idFilter.put(UNKNOWN_TINY_URL_ID);
+
+		// Then
+		Assertions.assertThat(idFilter.mightContain(UNKNOWN_TINY_URL_ID)).isTrue();
+	}
+
+	@Test
+	@DisplayName("Test Id Filter keeps an id put while it is rebuilt")
+	void testPutDuringRebuild() {
+		// Given
+		idFilter.rebuild();
+		doAnswer(invocation -> {
+			idFilter.put(UNKNOWN_TINY_URL_ID);
+			return null;
+		}).when(repository).forEachId(any());
+
+		// When
+		idFilter.rebuild();
+
+		// Then
+		Assertions.assertThat(idFilter.mightContain(UNKNOWN_TINY_URL_ID)).isTrue();
+		Assertions.assertThat(idFilter.mightContain(VALID_TINY_URL_ID)).isFalse();
+	}
+
+	@Test
+	@DisplayName("Test Id Filter passes an id created by another instance from the next rebuild")
+	void testRebuildWithIdOfAnotherInstance() {
+		// Given
+		idFilter.rebuild();
+		doAnswer(invocation -> {
+			Consumer<String> consumer = invocation.getArgument(0);
+			Arrays.asList(VALID_TINY_URL_ID, OTHER_TINY_URL_ID, UNKNOWN_TINY_URL_ID).forEach(consumer);
+			return null;
+		}).when(repository).forEachId(any());
+
+		// When
+		idFilter.rebuild();
+
+		// Then
+		Assertions.assertThat(idFilter.mightContain(UNKNOWN_TINY_URL_ID)).isTrue();
+	}
+
+	@Test
+	@DisplayName("Test disabled Id Filter is never built")
+	void testRebuildDisabled() {
+		// Given
+		URLIdFilter disabledIdFilter = createIdFilter(false, 1024 * 1024);
+
+		// When
+		disabledIdFilter.rebuild();
+
+		// Then
+		Assertions.assertThat(disabledIdFilter.mightContain(UNKNOWN_TINY_URL_ID)).isTrue();
+		verify(repository, never()).forEachId(any());
+	}
+
+	@Test
+	@DisplayName("Test Id Filter capacity follows the memory budget and false positive probability")
+	void testMaximumExpectedInsertions() {
+		// When & Then, 9.59 bits per id at 1%
+		Assertions.assertThat(createIdFilter(true, 1024 * 1024).getMaximumExpectedInsertions())
+				.isBetween(875_000l, 876_000l);
+	}
+
+	private URLIdFilter createIdFilter(boolean enabled, long memoryBudgetBytes) {
+		URLIdFilter urlIdFilter = new URLIdFilter();
+		ReflectionTestUtils.setField(urlIdFilter, "enabled", enabled);
+		ReflectionTestUtils.setField(urlIdFilter, "falsePositiveProbability", 0.01);
+		ReflectionTestUtils.setField(urlIdFilter, "memoryBudgetBytes", memoryBudgetBytes);
+		ReflectionTestUtils.setField(urlIdFilter, "repository", repository);
+		ReflectionTestUtils.setField(urlIdFilter, "meterRegistry", meterRegistry);
+		urlIdFilter.init();
+		return urlIdFilter;
+	}
+
+}
@@ -0,0 +1,149 @@
+package de.test.url.shortener.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.test.url.shortener.repository.URLShortenerRepository;
+import de.test.url.shortener.repository.domain.LinkClicks;
+import de.test.url.shortener.repository.domain.URLDetails;
+import de.test.url.shortener.service.click.HotLinks;
+import de.test.url.shortener.service.linkindex.LinkIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(SpringExtension.class)
+@DisplayName("URL Resolution Cache Warmer Test")
+class URLResolutionCacheWarmerTest {
+
+	private static final String VALID_TINY_URL_ID = "3fKq9Z";
+
+	private static final String CACHED_TINY_URL_ID = "4gLr0a";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@TempDir
+	Path directory;
+
+	@Mock
+	private HotLinks hotLinks;
+
+	@Mock
+	private URLShortenerRepository repository;
+
+	@Mock
+	private URLResolutionCache resolutionCache;
+
+	@Mock
+	private LinkIndex linkIndex;
+
+	@InjectMocks
+	private URLResolutionCacheWarmer resolutionCacheWarmer;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(resolutionCacheWarmer, "meterRegistry", meterRegistry);
+		resolutionCacheWarmer.init();
+		when(hotLinks.getCapacity()).thenReturn(10);
+	}
+
+	@Test
+	@DisplayName("Test Warm loads the hot links not cached into the resolution cache")
+	void testWarm() {
+		// Given
+		URLDetails urlDetails = URLDetails.builder().id(VALID_TINY_URL_ID).url("http://www.google.com/")
+				.userId("user").build();
+		when(hotLinks.getTop(10)).thenReturn(Arrays.asList(LinkClicks.builder().id(CACHED_TINY_URL_ID).build(),
+				LinkClicks.builder().id(VALID_TINY_URL_ID).build()));
+		when(resolutionCache.contains(CACHED_TINY_URL_ID)).thenReturn(true);
+		when(repository.findAllById(Collections.singletonList(VALID_TINY_URL_ID)))
+				.thenReturn(Collections.singletonList(urlDetails));
+
+		// When
+		resolutionCacheWarmer.warm();
+
+		// Then
+		verify(resolutionCache).put(urlDetails);
+		verify(linkIndex).put(urlDetails);
+		Assertions.assertThat(meterRegistry.get("urlshortener.cache.warmed").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Test Warm without hot links not cached queries nothing")
+	void testWarmAllCached() {
+		// Given
+		when(hotLinks.getTop(10))
+				.thenReturn(Collections.singletonList(LinkClicks.builder().id(CACHED_TINY_URL_ID).build()));
+		when(resolutionCache.contains(CACHED_TINY_URL_ID)).thenReturn(true);
+
+		// When
+		resolutionCacheWarmer.warm();
+
+		// Then
+		verify(repository, never()).findAllById(any());
+	}
+
+	@Test
+	@DisplayName("Test Run loads the tiny URLs of the snapshot still stored and restores their clicks")
+	void testRun() throws IOException, InterruptedException {
+		// Given
+		Path snapshotFile = directory.resolve("hot-links.snapshot");
+		HotLinksSnapshot.write(snapshotFile,
+				Arrays.asList(LinkClicks.builder().id(VALID_TINY_URL_ID).clicks(42l).error(3l).build(),
+						LinkClicks.builder().id(CACHED_TINY_URL_ID).clicks(7l).build()));
+		ReflectionTestUtils.setField(resolutionCacheWarmer, "snapshotFile", snapshotFile.toString());
+		ReflectionTestUtils.setField(resolutionCacheWarmer, "warmUpThreads", 2);
+		URLDetails urlDetails = URLDetails.builder().id(VALID_TINY_URL_ID).url("http://www.google.com/")
+				.userId("user").build();
+		when(repository.findAllById(Collections.singletonList(VALID_TINY_URL_ID)))
+				.thenReturn(Collections.singletonList(urlDetails));
+
+		// When
+		resolutionCacheWarmer.run(null);
+
+		// Then
+		verify(resolutionCache).put(urlDetails);
+		verify(linkIndex).put(urlDetails);
+		verify(hotLinks).restore(VALID_TINY_URL_ID, "user", 42, 3);
+		verify(repository).findAllById(Collections.singletonList(CACHED_TINY_URL_ID));
+		Assertions.assertThat(meterRegistry.get("urlshortener.cache.warmed").counter().count()).isEqualTo(1);
+		Assertions.assertThat(meterRegistry.get("urlshortener.cache.warmup").timer().count()).isEqualTo(1);
+		Assertions.assertThat(meterRegistry.get("urlshortener.startup.time").timeGauge().value()).isPositive();
+	}
+
+	@Test
+	@DisplayName("Test Warm writes the hot links to the snapshot")
+	void testWarmSnapshot() throws IOException {
+		// Given
+		Path snapshotFile = directory.resolve("hot-links.snapshot");
+		ReflectionTestUtils.setField(resolutionCacheWarmer, "snapshotFile", snapshotFile.toString());
+		List<LinkClicks> hot = Collections
+				.singletonList(LinkClicks.builder().id(CACHED_TINY_URL_ID).clicks(5l).build());
+		when(hotLinks.getTop(10)).thenReturn(hot);
+		when(resolutionCache.contains(CACHED_TINY_URL_ID)).thenReturn(true);
+
+		// When
+		resolutionCacheWarmer.warm();
+
+		// Then
+		Assertions.assertThat(HotLinksSnapshot.read(snapshotFile)).isEqualTo(hot);
+	}
+
+}
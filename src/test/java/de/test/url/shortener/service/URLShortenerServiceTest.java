@@ -2,42 +2,103 @@ package de.test.url.shortener.service;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.persistence.NoResultException;
 
 import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import de.test.url.shortener.repository.URLShortenerRepository;
+import de.test.url.shortener.repository.domain.ClickGranularity;
+import de.test.url.shortener.repository.domain.LinkClicks;
+import de.test.url.shortener.repository.domain.LinkVisitors;
 import de.test.url.shortener.repository.domain.Statistics;
+import de.test.url.shortener.repository.domain.StatisticsPage;
+import de.test.url.shortener.repository.domain.StatisticsSort;
 import de.test.url.shortener.repository.domain.URLDetails;
+import de.test.url.shortener.service.click.ClickEventPipeline;
+import de.test.url.shortener.service.click.ClickStatistics;
+import de.test.url.shortener.service.click.HotLinks;
+import de.test.url.shortener.service.click.UniqueVisitors;
+import de.test.url.shortener.service.linkindex.LinkIndex;
+import de.test.url.shortener.service.shortcode.ShortCodeGenerator;
 
 @ExtendWith(SpringExtension.class)
 @DisplayName("URL Shortener Service Test")
 class URLShortenerServiceTest {
 
-	private static final String VALID_TINY_URL_ID = "e02a1c6b-9574-4178-b01a-88d9c2ccf1e2";
+	private static final String VALID_TINY_URL_ID = "3fKq9Z";
 
 	private static final String VALID_USER = "user";
 
 	private static final String VALID_URL = "http://www.google.com/";
 
+	private static final String VALID_REFERRER = "https://www.example.com/";
+
+	private static final String VALID_USER_AGENT = "Mozilla/5.0";
+
+	private static final String VALID_CLIENT_ADDRESS = "192.0.2.1";
+
 	@Mock
 	private URLShortenerRepository repository;
 
+	@Mock
+	private CallCountBuffer callCountBuffer;
+
+	@Mock
+	private URLResolutionCache resolutionCache;
+
+	@Mock
+	private URLIdFilter idFilter;
+
+	@Mock
+	private LinkIndex linkIndex;
+
+	@Mock
+	private ClickEventPipeline clickEventPipeline;
+
+	@Mock
+	private ClickStatistics clickStatistics;
+
+	@Mock
+	private HotLinks hotLinks;
+
+	@Mock
+	private UniqueVisitors uniqueVisitors;
+
+	@Mock
+	private ShortCodeGenerator shortCodeGenerator;
+
 	@InjectMocks
 	private URLShortenerService urlShortenerService = new URLShortenerServiceImpl();
 
+	@BeforeEach
+	void setUp() {
+		when(idFilter.mightContain(any())).thenReturn(true);
+	}
+
 	@Test
 	@DisplayName("Test URL Shortener Creation with empty user id")
 	void testCreateWithEmptyUserId() {
@@ -79,11 +140,8 @@ class URLShortenerServiceTest {
 	void testCreate() {
 		// Given
 		URLDetails urlDetailsExpected = URLDetails.builder().url(VALID_URL).userId(VALID_USER)
-				.id(VALID_TINY_URL_ID).build();
-		when(repository.findByUserIdAndUrl(urlDetailsExpected.getUserId(), urlDetailsExpected.getUrl()))
-				.thenReturn(Optional.of(urlDetailsExpected));
-		urlDetailsExpected.setCreationCount(urlDetailsExpected.getCreationCount() + 1);
-		when(repository.save(urlDetailsExpected)).thenReturn(urlDetailsExpected);
+				.id(VALID_TINY_URL_ID).creationCount(2l).build();
+		when(repository.incrementCreationCount(VALID_USER, VALID_URL)).thenReturn(Optional.of(urlDetailsExpected));
 
 		// When
 		URLDetails urlDetailsActual = urlShortenerService.create(urlDetailsExpected.getUserId(),
@@ -91,6 +149,8 @@ class URLShortenerServiceTest {
 
 		// Then
 		Assertions.assertThat(urlDetailsActual).isEqualTo(urlDetailsExpected);
+		verify(shortCodeGenerator, never()).next();
+		verify(repository, never()).upsert(any(), any(), any());
 	}
 
 	@Test
@@ -100,9 +160,8 @@ class URLShortenerServiceTest {
 		URLDetails urlDetailsExpected = URLDetails.builder().url(VALID_URL).userId(VALID_USER)
 				.id(VALID_TINY_URL_ID).creationCount(1l).build();
 
-		when(repository.findByUserIdAndUrl(urlDetailsExpected.getUserId(), urlDetailsExpected.getUrl()))
-				.thenReturn(Optional.empty());
-		when(repository.save(any(URLDetails.class))).thenReturn(urlDetailsExpected);
+		when(shortCodeGenerator.next()).thenReturn(VALID_TINY_URL_ID);
+		when(repository.upsert(VALID_TINY_URL_ID, VALID_USER, VALID_URL)).thenReturn(urlDetailsExpected);
 
 		// When
 		URLDetails urlDetailsActual = urlShortenerService.create(urlDetailsExpected.getUserId(),
@@ -110,6 +169,28 @@ class URLShortenerServiceTest {
 
 		// Then
 		Assertions.assertThat(urlDetailsActual).isEqualTo(urlDetailsExpected);
+		verify(idFilter).put(VALID_TINY_URL_ID);
+		verify(resolutionCache).put(urlDetailsExpected);
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Creation with a concurrent creation of the same user id and URL")
+	void testCreateConcurrent() {
+		// Given
+		URLDetails urlDetailsExpected = URLDetails.builder().url(VALID_URL).userId(VALID_USER)
+				.id(VALID_TINY_URL_ID).creationCount(2l).build();
+
+		when(shortCodeGenerator.next()).thenReturn("Zq9Kf3");
+		when(repository.upsert("Zq9Kf3", VALID_USER, VALID_URL))
+				.thenThrow(new DataIntegrityViolationException("uk_urldetails_user_id_url_hash"))
+				.thenReturn(urlDetailsExpected);
+
+		// When
+		URLDetails urlDetailsActual = urlShortenerService.create(VALID_USER, VALID_URL);
+
+		// Then
+		Assertions.assertThat(urlDetailsActual).isEqualTo(urlDetailsExpected);
+		verify(repository, times(2)).upsert("Zq9Kf3", VALID_USER, VALID_URL);
 	}
 
 	@Test
@@ -172,13 +253,17 @@ class URLShortenerServiceTest {
 		// Given
 		String invalidUserId = "ivaliduser";
 		String id = VALID_TINY_URL_ID;
-		when(repository.findByUserIdAndId(invalidUserId, id))
-				.thenThrow(new NoResultException("No URL available for the userid " + invalidUserId + " id " + id));
+		URLDetails urlDetails = URLDetails.builder().url(VALID_URL).userId(VALID_USER).id(id).creationCount(1l)
+				.build();
+		when(repository.findById(id)).thenReturn(Optional.of(urlDetails));
 		// When and Then
 		NoResultException noResultException = assertThrows(NoResultException.class,
 				() -> urlShortenerService.get(invalidUserId, id));
 		Assertions.assertThat(noResultException)
 				.hasMessageContaining("No URL available for the userid " + invalidUserId + " id " + id);
+		verify(resolutionCache).put(urlDetails);
+		verify(resolutionCache, never()).putMissing(any());
+		verify(callCountBuffer, never()).increment(any());
 	}
 
 	@Test
@@ -187,13 +272,42 @@ class URLShortenerServiceTest {
 		// Given
 		String userId = VALID_USER;
 		String invalidId = "abcd";
-		when(repository.findByUserIdAndId(userId, invalidId))
-				.thenThrow(new NoResultException("No URL available for the userid " + userId + " id " + invalidId));
+		when(repository.findById(invalidId)).thenReturn(Optional.empty());
 		// When and Then
 		NoResultException noResultException = assertThrows(NoResultException.class,
 				() -> urlShortenerService.get(userId, invalidId));
 		Assertions.assertThat(noResultException)
 				.hasMessageContaining("No URL available for the userid " + userId + " id " + invalidId);
+		Assertions.assertThat(noResultException.getStackTrace()).isEmpty();
+		verify(resolutionCache).putMissing(invalidId);
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Get with id rejected by the id filter")
+	void testGetWithFilteredId() {
+		// Given
+		when(idFilter.mightContain(VALID_TINY_URL_ID)).thenReturn(false);
+		// When and Then
+		NoResultException noResultException = assertThrows(NoResultException.class,
+				() -> urlShortenerService.get(VALID_USER, VALID_TINY_URL_ID));
+		Assertions.assertThat(noResultException)
+				.hasMessageContaining("No URL available for the userid " + VALID_USER + " id " + VALID_TINY_URL_ID);
+		verify(repository, never()).findById(any());
+		verify(resolutionCache, never()).putMissing(any());
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Get with id cached as missing")
+	void testGetWithMissingId() {
+		// Given
+		when(resolutionCache.isMissing(VALID_TINY_URL_ID)).thenReturn(true);
+		// When and Then
+		NoResultException noResultException = assertThrows(NoResultException.class,
+				() -> urlShortenerService.get(VALID_USER, VALID_TINY_URL_ID));
+		Assertions.assertThat(noResultException)
+				.hasMessageContaining("No URL available for the userid " + VALID_USER + " id " + VALID_TINY_URL_ID);
+		verify(repository, never()).findById(any());
+		verify(callCountBuffer, never()).increment(any());
 	}
 
 	@Test
@@ -203,19 +317,325 @@ class URLShortenerServiceTest {
 		URLDetails urlDetailsExpected = URLDetails.builder().url(VALID_URL).userId(VALID_USER)
 				.id(VALID_TINY_URL_ID).creationCount(1l).build();
 
-		when(repository.findByUserIdAndId(urlDetailsExpected.getUserId(), urlDetailsExpected.getId()))
-				.thenReturn(Optional.of(urlDetailsExpected));
-
-		urlDetailsExpected.setCallCount(1l);
-
-		when(repository.save(any(URLDetails.class))).thenReturn(urlDetailsExpected);
+		when(repository.findById(urlDetailsExpected.getId())).thenReturn(Optional.of(urlDetailsExpected));
 
 		// When
 		String urlActual = urlShortenerService.get(urlDetailsExpected.getUserId(), urlDetailsExpected.getId());
 
 		// Then
 		Assertions.assertThat(urlActual).isEqualTo(urlDetailsExpected.getUrl());
+		verify(callCountBuffer).increment(urlDetailsExpected.getId());
+		verify(resolutionCache).put(urlDetailsExpected);
+		verify(linkIndex).put(urlDetailsExpected);
+
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Get with valid user id and cached id")
+	void testGetCached() {
+		// Given
+		when(resolutionCache.getIfPresent(VALID_TINY_URL_ID)).thenReturn(new ResolvedURL(VALID_USER, VALID_URL));
+
+		// When
+		String urlActual = urlShortenerService.get(VALID_USER, VALID_TINY_URL_ID, VALID_CLIENT_ADDRESS, VALID_REFERRER,
+				VALID_USER_AGENT);
+
+		// Then
+		Assertions.assertThat(urlActual).isEqualTo(VALID_URL);
+		verify(repository, never()).findById(any());
+		verify(callCountBuffer).increment(VALID_TINY_URL_ID);
+		verify(clickEventPipeline).record(VALID_TINY_URL_ID, VALID_USER, VALID_CLIENT_ADDRESS, VALID_REFERRER,
+				VALID_USER_AGENT);
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Get with valid user id and indexed id")
+	void testGetIndexed() {
+		// Given
+		when(linkIndex.get(VALID_TINY_URL_ID)).thenReturn(new ResolvedURL(VALID_USER, VALID_URL));
+
+		// When
+		String urlActual = urlShortenerService.get(VALID_USER, VALID_TINY_URL_ID);
+
+		// Then
+		Assertions.assertThat(urlActual).isEqualTo(VALID_URL);
+		verify(repository, never()).findById(any());
+		verify(callCountBuffer).increment(VALID_TINY_URL_ID);
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Get with cached id of another user")
+	void testGetCachedWithInvalidUserId() {
+		// Given
+		String invalidUserId = "ivaliduser";
+		when(resolutionCache.getIfPresent(VALID_TINY_URL_ID)).thenReturn(new ResolvedURL(VALID_USER, VALID_URL));
+
+		// When and Then
+		NoResultException noResultException = assertThrows(NoResultException.class,
+				() -> urlShortenerService.get(invalidUserId, VALID_TINY_URL_ID));
+		Assertions.assertThat(noResultException)
+				.hasMessageContaining("No URL available for the userid " + invalidUserId + " id " + VALID_TINY_URL_ID);
+		verify(callCountBuffer, never()).increment(any());
+		verify(clickEventPipeline, never()).record(anyString(), anyString(), any(), any(), any());
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Bulk Creation creates each distinct URL once")
+	void testCreateAllDeduplicates() {
+		// Given
+		String otherURL = "http://www.gmail.com/";
+		Map<String, String> idsByURL = new LinkedHashMap<>();
+		idsByURL.put(VALID_URL, VALID_TINY_URL_ID);
+		idsByURL.put(otherURL, "4gLr0a");
+		URLDetails urlDetails = URLDetails.builder().id(VALID_TINY_URL_ID).userId(VALID_USER).url(VALID_URL)
+				.creationCount(1l).build();
+		URLDetails otherURLDetails = URLDetails.builder().id("4gLr0a").userId(VALID_USER).url(otherURL)
+				.creationCount(1l).build();
+		when(shortCodeGenerator.next()).thenReturn(VALID_TINY_URL_ID, "4gLr0a");
+		when(repository.upsertAll(VALID_USER, idsByURL)).thenReturn(Arrays.asList(urlDetails, otherURLDetails));
+
+		// When
+		Map<String, URLDetails> urlDetailsByURL = urlShortenerService.createAll(VALID_USER,
+				Arrays.asList(VALID_URL, otherURL, VALID_URL));
+
+		// Then
+		Assertions.assertThat(urlDetailsByURL).containsEntry(VALID_URL, urlDetails).containsEntry(otherURL,
+				otherURLDetails);
+		verify(shortCodeGenerator, times(2)).next();
+		verify(idFilter).put(VALID_TINY_URL_ID);
+		verify(idFilter).put("4gLr0a");
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Bulk Creation draws short codes for the URLs not existing yet only")
+	void testCreateAllExisting() {
+		// Given
+		String otherURL = "http://www.gmail.com/";
+		URLDetails urlDetails = URLDetails.builder().id(VALID_TINY_URL_ID).userId(VALID_USER).url(VALID_URL)
+				.creationCount(2l).build();
+		URLDetails otherURLDetails = URLDetails.builder().id("4gLr0a").userId(VALID_USER).url(otherURL)
+				.creationCount(1l).build();
+		when(repository.incrementCreationCounts(VALID_USER, new LinkedHashSet<>(Arrays.asList(VALID_URL, otherURL))))
+				.thenReturn(Collections.singletonList(urlDetails));
+		when(shortCodeGenerator.next()).thenReturn("4gLr0a");
+		when(repository.upsertAll(VALID_USER, Collections.singletonMap(otherURL, "4gLr0a")))
+				.thenReturn(Collections.singletonList(otherURLDetails));
+
+		// When
+		Map<String, URLDetails> urlDetailsByURL = urlShortenerService.createAll(VALID_USER,
+				Arrays.asList(VALID_URL, otherURL));
+
+		// Then
+		Assertions.assertThat(urlDetailsByURL).containsEntry(VALID_URL, urlDetails).containsEntry(otherURL,
+				otherURLDetails);
+		verify(shortCodeGenerator, times(1)).next();
+		verify(idFilter).put(VALID_TINY_URL_ID);
+		verify(idFilter).put("4gLr0a");
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Bulk Creation retries once after a concurrent insert")
+	void testCreateAllRetriesOnConcurrentInsert() {
+		// Given
+		URLDetails urlDetails = URLDetails.builder().id(VALID_TINY_URL_ID).userId(VALID_USER).url(VALID_URL)
+				.creationCount(2l).build();
+		when(shortCodeGenerator.next()).thenReturn(VALID_TINY_URL_ID);
+		when(repository.upsertAll(any(), any())).thenThrow(new DataIntegrityViolationException("duplicate key"))
+				.thenReturn(Collections.singletonList(urlDetails));
+
+		// When
+		Map<String, URLDetails> urlDetailsByURL = urlShortenerService.createAll(VALID_USER,
+				Collections.singletonList(VALID_URL));
+
+		// Then
+		Assertions.assertThat(urlDetailsByURL).containsEntry(VALID_URL, urlDetails);
+		verify(repository, times(2)).upsertAll(any(), any());
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Bulk Creation without URLs")
+	void testCreateAllWithoutURLs() {
+		// When
+		Map<String, URLDetails> urlDetailsByURL = urlShortenerService.createAll(VALID_USER, Collections.emptyList());
+
+		// Then
+		Assertions.assertThat(urlDetailsByURL).isEmpty();
+		verify(repository, never()).upsertAll(any(), any());
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Bulk Creation with too many URLs")
+	void testCreateAllWithTooManyURLs() {
+		// When and Then
+		IllegalArgumentException illegalArgumentException = assertThrows(IllegalArgumentException.class,
+				() -> urlShortenerService.createAll(VALID_USER, Collections.nCopies(10_001, VALID_URL)));
+		Assertions.assertThat(illegalArgumentException).hasMessageContaining("URLs per batch");
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Resolve with cached id")
+	void testResolveCached() {
+		// Given
+		when(resolutionCache.getIfPresent(VALID_TINY_URL_ID)).thenReturn(new ResolvedURL(VALID_USER, VALID_URL));
+
+		// When
+		String urlActual = urlShortenerService.resolve(VALID_TINY_URL_ID);
+
+		// Then
+		Assertions.assertThat(urlActual).isEqualTo(VALID_URL);
+		verify(repository, never()).findById(any());
+		verify(callCountBuffer).increment(VALID_TINY_URL_ID);
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Resolve with indexed id")
+	void testResolveIndexed() {
+		// Given
+		when(linkIndex.get(VALID_TINY_URL_ID)).thenReturn(new ResolvedURL(VALID_USER, VALID_URL));
+
+		// When
+		String urlActual = urlShortenerService.resolve(VALID_TINY_URL_ID);
+
+		// Then
+		Assertions.assertThat(urlActual).isEqualTo(VALID_URL);
+		verify(repository, never()).findById(any());
+		verify(callCountBuffer).increment(VALID_TINY_URL_ID);
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Resolve with id not cached")
+	void testResolve() {
+		// Given
+		URLDetails urlDetailsExpected = URLDetails.builder().url(VALID_URL).userId(VALID_USER)
+				.id(VALID_TINY_URL_ID).creationCount(1l).build();
+		when(repository.findById(VALID_TINY_URL_ID)).thenReturn(Optional.of(urlDetailsExpected));
 
+		// When
+		String urlActual = urlShortenerService.resolve(VALID_TINY_URL_ID, VALID_CLIENT_ADDRESS, VALID_REFERRER,
+				VALID_USER_AGENT);
+
+		// Then
+		Assertions.assertThat(urlActual).isEqualTo(VALID_URL);
+		verify(resolutionCache).put(urlDetailsExpected);
+		verify(callCountBuffer).increment(VALID_TINY_URL_ID);
+		verify(clickEventPipeline).record(VALID_TINY_URL_ID, VALID_USER, VALID_CLIENT_ADDRESS, VALID_REFERRER,
+				VALID_USER_AGENT);
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Peek looks up the URL without counting a call or a click")
+	void testPeek() {
+		// Given
+		URLDetails urlDetailsExpected = URLDetails.builder().url(VALID_URL).userId(VALID_USER)
+				.id(VALID_TINY_URL_ID).creationCount(1l).build();
+		when(repository.findById(VALID_TINY_URL_ID)).thenReturn(Optional.of(urlDetailsExpected));
+
+		// When
+		String urlActual = urlShortenerService.peek(VALID_TINY_URL_ID);
+
+		// Then
+		Assertions.assertThat(urlActual).isEqualTo(VALID_URL);
+		Assertions.assertThat(urlShortenerService.peek("4gLr0a")).isNull();
+		verify(resolutionCache).put(urlDetailsExpected);
+		verify(callCountBuffer, never()).increment(any());
+		verify(clickEventPipeline, never()).record(anyString(), anyString(), any(), any(), any());
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Resolve with unknown id")
+	void testResolveWithInvalidId() {
+		// Given
+		when(repository.findById(VALID_TINY_URL_ID)).thenReturn(Optional.empty());
+
+		// When
+		String urlActual = urlShortenerService.resolve(VALID_TINY_URL_ID);
+
+		// Then
+		Assertions.assertThat(urlActual).isNull();
+		verify(resolutionCache).putMissing(VALID_TINY_URL_ID);
+		verify(callCountBuffer, never()).increment(any());
+		verify(clickEventPipeline, never()).record(anyString(), anyString(), any(), any(), any());
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Resolve with id rejected by the id filter")
+	void testResolveWithFilteredId() {
+		// Given
+		when(idFilter.mightContain(VALID_TINY_URL_ID)).thenReturn(false);
+
+		// When
+		String urlActual = urlShortenerService.resolve(VALID_TINY_URL_ID);
+
+		// Then
+		Assertions.assertThat(urlActual).isNull();
+		verify(repository, never()).findById(any());
+		verify(callCountBuffer, never()).increment(any());
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Resolve with id cached as missing")
+	void testResolveWithMissingId() {
+		// Given
+		when(resolutionCache.isMissing(VALID_TINY_URL_ID)).thenReturn(true);
+
+		// When
+		String urlActual = urlShortenerService.resolve(VALID_TINY_URL_ID);
+
+		// Then
+		Assertions.assertThat(urlActual).isNull();
+		verify(repository, never()).findById(any());
+		verify(callCountBuffer, never()).increment(any());
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Resolve All with cached and not cached ids")
+	void testResolveAll() {
+		// Given
+		String otherId = "4gLr0a";
+		String otherURL = "http://www.gmail.com/";
+		URLDetails otherURLDetails = URLDetails.builder().id(otherId).userId(VALID_USER).url(otherURL)
+				.creationCount(1l).build();
+		when(resolutionCache.getIfPresent(VALID_TINY_URL_ID)).thenReturn(new ResolvedURL(VALID_USER, VALID_URL));
+		when(repository.findAllById(Arrays.asList(otherId, "5hMs1b")))
+				.thenReturn(Collections.singletonList(otherURLDetails));
+
+		// When
+		Map<String, String> urlsById = urlShortenerService.resolveAll(VALID_USER,
+				Arrays.asList(otherId, VALID_TINY_URL_ID, "5hMs1b", otherId));
+
+		// Then
+		Assertions.assertThat(urlsById).containsExactly(Assertions.entry(otherId, otherURL),
+				Assertions.entry(VALID_TINY_URL_ID, VALID_URL));
+		verify(resolutionCache).put(otherURLDetails);
+		verify(resolutionCache).putMissing("5hMs1b");
+		verify(callCountBuffer).increment(otherId);
+		verify(callCountBuffer).increment(VALID_TINY_URL_ID);
+		verify(callCountBuffer, times(2)).increment(any());
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Resolve All leaves out the ids of another user")
+	void testResolveAllWithInvalidUserId() {
+		// Given
+		when(resolutionCache.getIfPresent(VALID_TINY_URL_ID)).thenReturn(new ResolvedURL(VALID_USER, VALID_URL));
+
+		// When
+		Map<String, String> urlsById = urlShortenerService.resolveAll("ivaliduser",
+				Collections.singletonList(VALID_TINY_URL_ID));
+
+		// Then
+		Assertions.assertThat(urlsById).isEmpty();
+		verify(repository, never()).findAllById(any());
+		verify(callCountBuffer, never()).increment(any());
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Resolve All with too many ids")
+	void testResolveAllWithTooManyIds() {
+		// When and Then
+		IllegalArgumentException illegalArgumentException = assertThrows(IllegalArgumentException.class,
+				() -> urlShortenerService.resolveAll(VALID_USER, Collections.nCopies(10_001, VALID_TINY_URL_ID)));
+		Assertions.assertThat(illegalArgumentException).hasMessageContaining("ids per batch");
 	}
 
 	@Test
@@ -292,18 +712,17 @@ class URLShortenerServiceTest {
 	@DisplayName("Test URL Shortener Get All User Statistics with valid user id")
 	void testGetAllStatistics() {
 		// Given
-		URLDetails urlDetailsExpected = URLDetails.builder().url(VALID_URL).userId(VALID_USER)
-				.id(VALID_TINY_URL_ID).creationCount(1l).build();
-
-		when(repository.findAll()).thenReturn(Collections.singletonList(urlDetailsExpected));
 		List<Statistics> statisticsListExpected = Collections
-				.singletonList(Statistics.builder().url(urlDetailsExpected.getUrl()).creationCount(1l).build());
+				.singletonList(Statistics.builder().url(VALID_URL).creationCount(1l).build());
+
+		when(repository.findAllStatistics()).thenReturn(statisticsListExpected);
 
 		// When
 		List<Statistics> statisticsListActual = urlShortenerService.getAllStatistics();
 
 		// Then
 		Assertions.assertThat(statisticsListActual).isEqualTo(statisticsListExpected);
+		verify(uniqueVisitors).addTo(null, statisticsListExpected);
 	}
 
 	@Test
@@ -316,4 +735,104 @@ class URLShortenerServiceTest {
 		Assertions.assertThat(statisticsListActual).isEqualTo(Collections.emptyList());
 	}
 
+	@Test
+	@DisplayName("Test URL Shortener Get All Statistics Page continues after the last URL")
+	void testGetAllStatisticsPage() {
+		// Given
+		List<Statistics> statisticsListExpected = Collections
+				.singletonList(Statistics.builder().url(VALID_URL).creationCount(1l).build());
+		when(repository.findAllStatisticsAfter("http://www.gmail.com/", PageRequest.of(0, 1)))
+				.thenReturn(statisticsListExpected);
+
+		// When
+		StatisticsPage statisticsPageActual = urlShortenerService.getAllStatistics("http://www.gmail.com/", 1,
+				StatisticsSort.URL);
+
+		// Then
+		Assertions.assertThat(statisticsPageActual.getStatistics()).isEqualTo(statisticsListExpected);
+		Assertions.assertThat(statisticsPageActual.getNextCursor()).isEqualTo(VALID_URL);
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Get User Statistics Page sorted by call count")
+	void testGetUserStatisticsPageByCallCount() {
+		// Given
+		List<Statistics> statisticsListExpected = Collections
+				.singletonList(Statistics.builder().url(VALID_URL).creationCount(1l).callCount(5l).build());
+		when(repository.findTopUserStatisticsByCallCount(VALID_USER, PageRequest.of(0, 10)))
+				.thenReturn(statisticsListExpected);
+
+		// When
+		StatisticsPage statisticsPageActual = urlShortenerService.getUserStatistics(VALID_USER, null, 10,
+				StatisticsSort.CALL_COUNT);
+
+		// Then
+		Assertions.assertThat(statisticsPageActual.getStatistics()).isEqualTo(statisticsListExpected);
+		Assertions.assertThat(statisticsPageActual.getNextCursor()).isNull();
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Get All Statistics Page with invalid page size and cursor")
+	void testGetAllStatisticsPageWithInvalidParameters() {
+		// When and Then
+		Assertions.assertThat(assertThrows(IllegalArgumentException.class,
+				() -> urlShortenerService.getAllStatistics(null, 0, StatisticsSort.URL)))
+				.hasMessageContaining("Invalid page size");
+		Assertions.assertThat(assertThrows(IllegalArgumentException.class,
+				() -> urlShortenerService.getAllStatistics(VALID_URL, 10, StatisticsSort.CALL_COUNT)))
+				.hasMessageContaining("Cursor is not supported");
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Get Top Links adds the URLs to the top links")
+	void testGetTopLinks() {
+		// Given
+		when(clickStatistics.getTop(ClickGranularity.HOUR, null, null, 10)).thenReturn(
+				Collections.singletonList(LinkClicks.builder().id(VALID_TINY_URL_ID).clicks(5l).build()));
+		when(repository.findAllById(Collections.singletonList(VALID_TINY_URL_ID))).thenReturn(Collections
+				.singletonList(URLDetails.builder().id(VALID_TINY_URL_ID).url(VALID_URL).userId(VALID_USER).build()));
+
+		// When
+		List<LinkClicks> topLinksActual = urlShortenerService.getTopLinks(ClickGranularity.HOUR, null, null, 10);
+
+		// Then
+		Assertions.assertThat(topLinksActual).containsExactly(
+				LinkClicks.builder().id(VALID_TINY_URL_ID).url(VALID_URL).clicks(5l).build());
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Get Hot Links of a user adds the URLs to the hot links")
+	void testGetHotLinks() {
+		// Given
+		when(hotLinks.getTop(VALID_USER, 10)).thenReturn(
+				Collections.singletonList(LinkClicks.builder().id(VALID_TINY_URL_ID).clicks(5l).build()));
+		when(repository.findAllById(Collections.singletonList(VALID_TINY_URL_ID))).thenReturn(Collections
+				.singletonList(URLDetails.builder().id(VALID_TINY_URL_ID).url(VALID_URL).userId(VALID_USER).build()));
+
+		// When
+		List<LinkClicks> hotLinksActual = urlShortenerService.getHotLinks(VALID_USER, 10);
+
+		// Then
+		Assertions.assertThat(hotLinksActual).containsExactly(
+				LinkClicks.builder().id(VALID_TINY_URL_ID).url(VALID_URL).clicks(5l).build());
+		verify(hotLinks, never()).getTop(10);
+	}
+
+	@Test
+	@DisplayName("Test URL Shortener Get Unique Visitors of a tiny URL in a range")
+	void testGetUniqueVisitors() {
+		// Given
+		Instant from = Instant.parse("2020-09-13T00:00:00Z");
+		when(uniqueVisitors.getUniqueVisitors(VALID_TINY_URL_ID, from, null)).thenReturn(42l);
+
+		// When
+		LinkVisitors linkVisitorsActual = urlShortenerService.getUniqueVisitors(VALID_TINY_URL_ID, from, null);
+
+		// Then
+		Assertions.assertThat(linkVisitorsActual)
+				.isEqualTo(LinkVisitors.builder().id(VALID_TINY_URL_ID).uniqueVisitors(42l).build());
+		Assertions.assertThatIllegalArgumentException()
+				.isThrownBy(() -> urlShortenerService.getUniqueVisitors("", null, null));
+	}
+
 }
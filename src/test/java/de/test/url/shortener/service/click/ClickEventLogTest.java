@@ -0,0 +1,139 @@
+package de.test.url.shortener.service.click;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@DisplayName("Click Event Log Test")
+class ClickEventLogTest {
+
+	private static final ClickEvent CLICK_EVENT = new ClickEvent("3fKq9Z", 1_600_000_000_000l, "user",
+			"https://www.example.com/", 42, 4242);
+
+	private static final ClickEvent OTHER_CLICK_EVENT = new ClickEvent("4gLr0a", 1_600_000_001_000l, "admin", null,
+			0, 0);
+
+	private static final long SEGMENT_SIZE = 1 << 18;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	@DisplayName("Test Click Event Log reads the events appended in order")
+	void testAppend() throws IOException {
+		// Given
+		try (ClickEventLog eventLog = ClickEventLog.open(directory, SEGMENT_SIZE, 0)) {
+			// When
+			eventLog.append(Arrays.asList(CLICK_EVENT, OTHER_CLICK_EVENT));
+			eventLog.append(Arrays.asList(CLICK_EVENT));
+
+			// Then
+			Assertions.assertThat(read()).containsExactly(CLICK_EVENT, OTHER_CLICK_EVENT, CLICK_EVENT);
+		}
+	}
+
+	@Test
+	@DisplayName("Test Click Event Log rotates full segments and deletes the oldest beyond the retained ones")
+	void testRotate() throws IOException {
+		// Given
+		List<ClickEvent> events = new ArrayList<>();
+		for (int event = 0; event < 40_000; event++) {
+			events.add(new ClickEvent("id" + event, event, "user", null, event, event));
+		}
+
+		try (ClickEventLog eventLog = ClickEventLog.open(directory, SEGMENT_SIZE, 3)) {
+			// When
+			eventLog.append(events);
+
+			// Then
+			List<Path> segments = eventLog.segments();
+			Assertions.assertThat(segments).hasSize(3);
+			for (Path segment : segments) {
+				Assertions.assertThat(segment.toFile().length()).isLessThanOrEqualTo(SEGMENT_SIZE);
+			}
+			List<ClickEvent> retained = read();
+			Assertions.assertThat(retained).isNotEmpty().hasSizeLessThan(events.size());
+			Assertions.assertThat(retained)
+					.isEqualTo(events.subList(events.size() - retained.size(), events.size()));
+		}
+	}
+
+	@Test
+	@DisplayName("Test Click Event Log reopened appends to a new segment and skips a torn record")
+	void testReopen() throws IOException {
+		// Given
+		Path segment;
+		try (ClickEventLog eventLog = ClickEventLog.open(directory, SEGMENT_SIZE, 0)) {
+			eventLog.append(Arrays.asList(CLICK_EVENT, OTHER_CLICK_EVENT));
+			segment = eventLog.segments().get(0);
+		}
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 1);
+		}
+
+		// When
+		try (ClickEventLog eventLog = ClickEventLog.open(directory, SEGMENT_SIZE, 0)) {
+			eventLog.append(Arrays.asList(OTHER_CLICK_EVENT));
+
+			// Then
+			Assertions.assertThat(eventLog.segments()).hasSize(2);
+			Assertions.assertThat(read()).containsExactly(CLICK_EVENT, OTHER_CLICK_EVENT);
+		}
+	}
+
+	@Test
+	@DisplayName("Test Click Event Log failing to write drops the batch and appends the next one to a new segment")
+	void testAppendFailed() throws IOException {
+		// Given
+		try (ClickEventLog eventLog = ClickEventLog.open(directory, SEGMENT_SIZE, 0)) {
+			eventLog.append(Arrays.asList(CLICK_EVENT));
+			((FileChannel) ReflectionTestUtils.getField(eventLog, "channel")).close();
+
+			// When
+			Assertions.assertThatIOException().isThrownBy(() -> eventLog.append(Arrays.asList(OTHER_CLICK_EVENT)));
+			eventLog.append(Arrays.asList(CLICK_EVENT));
+
+			// Then
+			Assertions.assertThat(eventLog.segments()).hasSize(2);
+			Assertions.assertThat(read()).containsExactly(CLICK_EVENT, CLICK_EVENT);
+		}
+	}
+
+	@Test
+	@DisplayName("Test Click Event Log failing to open a new segment after a failed write opens it on the next append")
+	void testAppendFailedToRotate() throws IOException {
+		// Given
+		try (ClickEventLog eventLog = ClickEventLog.open(directory, SEGMENT_SIZE, 0)) {
+			eventLog.append(Arrays.asList(CLICK_EVENT));
+			((FileChannel) ReflectionTestUtils.getField(eventLog, "channel")).close();
+			Files.createFile(directory.resolve("clicks-00000000000000000002.log"));
+
+			// When
+			Assertions.assertThatIOException().isThrownBy(() -> eventLog.append(Arrays.asList(OTHER_CLICK_EVENT)))
+					.satisfies(exception -> Assertions.assertThat(exception.getSuppressed()).hasSize(1));
+			eventLog.append(Arrays.asList(CLICK_EVENT));
+
+			// Then
+			Assertions.assertThat(eventLog.segments()).hasSize(3);
+			Assertions.assertThat(read()).containsExactly(CLICK_EVENT, CLICK_EVENT);
+		}
+	}
+
+	private List<ClickEvent> read() throws IOException {
+		List<ClickEvent> events = new ArrayList<>();
+		ClickEventLog.read(directory, events::add);
+		return events;
+	}
+
+}
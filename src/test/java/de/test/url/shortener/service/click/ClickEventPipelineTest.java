@@ -0,0 +1,116 @@
+package de.test.url.shortener.service.click;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.hash.Hashing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Click Event Pipeline Test")
+class ClickEventPipelineTest {
+
+	private static final String VALID_TINY_URL_ID = "3fKq9Z";
+
+	private static final String VALID_USER = "user";
+
+	private static final String VALID_REFERRER = "https://www.example.com/";
+
+	private static final String VALID_USER_AGENT = "Mozilla/5.0";
+
+	private static final String VISITOR_SECRET = "visitor-secret";
+
+	private static final String VALID_CLIENT_ADDRESS = "192.0.2.1";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@TempDir
+	Path directory;
+
+	private ClickEventPipeline clickEventPipeline;
+
+	@AfterEach
+	void tearDown() throws IOException, InterruptedException {
+		clickEventPipeline.close();
+	}
+
+	@Test
+	@DisplayName("Test Click Event Pipeline logs the events recorded by the time it is closed")
+	void testRecord() throws IOException, InterruptedException {
+		// Given
+		clickEventPipeline = createClickEventPipeline(true);
+
+		// When
+		for (int click = 0; click < 1000; click++) {
+			clickEventPipeline.record(VALID_TINY_URL_ID, VALID_USER, VALID_CLIENT_ADDRESS, VALID_REFERRER,
+					VALID_USER_AGENT);
+		}
+		clickEventPipeline.record(VALID_TINY_URL_ID, VALID_USER, null, null, null);
+		clickEventPipeline.close();
+
+		// Then
+		List<ClickEvent> events = read();
+		Assertions.assertThat(events).hasSize(1001);
+		ClickEvent event = events.get(0);
+		Assertions.assertThat(event.getId()).isEqualTo(VALID_TINY_URL_ID);
+		Assertions.assertThat(event.getUserId()).isEqualTo(VALID_USER);
+		Assertions.assertThat(event.getReferrer()).isEqualTo(VALID_REFERRER);
+		Assertions.assertThat(event.getUserAgentHash())
+				.isEqualTo(Hashing.murmur3_32().hashString(VALID_USER_AGENT, StandardCharsets.UTF_8).asInt());
+		Assertions.assertThat(event.getVisitorHash())
+				.isEqualTo(Hashing.hmacSha256(VISITOR_SECRET.getBytes(StandardCharsets.UTF_8))
+						.hashString(VALID_CLIENT_ADDRESS + '\0' + VALID_USER_AGENT, StandardCharsets.UTF_8).asLong());
+		Assertions.assertThat(event.getTimestamp()).isPositive();
+		Assertions.assertThat(events.get(1000).getReferrer()).isNull();
+		Assertions.assertThat(events.get(1000).getUserAgentHash()).isZero();
+		Assertions.assertThat(events.get(1000).getVisitorHash()).isZero();
+		Assertions.assertThat(meterRegistry.get("urlshortener.clicks.logged").counter().count()).isEqualTo(1001);
+	}
+
+	@Test
+	@DisplayName("Test disabled Click Event Pipeline logs nothing")
+	void testDisabled() throws IOException, InterruptedException {
+		// Given
+		clickEventPipeline = createClickEventPipeline(false);
+
+		// When
+		clickEventPipeline.record(VALID_TINY_URL_ID, VALID_USER, VALID_CLIENT_ADDRESS, VALID_REFERRER,
+				VALID_USER_AGENT);
+		clickEventPipeline.close();
+
+		// Then
+		Assertions.assertThat(read()).isEmpty();
+		Assertions.assertThat(directory.resolve("clicks")).doesNotExist();
+	}
+
+	private List<ClickEvent> read() throws IOException {
+		List<ClickEvent> events = new ArrayList<>();
+		ClickEventLog.read(directory.resolve("clicks"), events::add);
+		return events;
+	}
+
+	private ClickEventPipeline createClickEventPipeline(boolean enabled) throws IOException {
+		ClickEventPipeline pipeline = new ClickEventPipeline();
+		ReflectionTestUtils.setField(pipeline, "enabled", enabled);
+		ReflectionTestUtils.setField(pipeline, "bufferSize", 1024);
+		ReflectionTestUtils.setField(pipeline, "batchSize", 100);
+		ReflectionTestUtils.setField(pipeline, "directory", directory.resolve("clicks").toString());
+		ReflectionTestUtils.setField(pipeline, "segmentSize", 1l << 20);
+		ReflectionTestUtils.setField(pipeline, "retainedSegments", 0);
+		ReflectionTestUtils.setField(pipeline, "visitorSecret", VISITOR_SECRET);
+		ReflectionTestUtils.setField(pipeline, "meterRegistry", meterRegistry);
+		pipeline.init();
+		return pipeline;
+	}
+
+}
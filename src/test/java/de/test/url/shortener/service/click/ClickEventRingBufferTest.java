@@ -0,0 +1,101 @@
+package de.test.url.shortener.service.click;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Click Event Ring Buffer Test")
+class ClickEventRingBufferTest {
+
+	private static final String VALID_USER = "user";
+
+	@Test
+	@DisplayName("Test Ring Buffer drains the events in order, in batches of the maximum")
+	void testDrainTo() {
+		// Given
+		ClickEventRingBuffer ringBuffer = new ClickEventRingBuffer(8);
+		for (int id = 0; id < 5; id++) {
+			Assertions.assertThat(ringBuffer.offer(event("id" + id))).isTrue();
+		}
+		List<ClickEvent> batch = new ArrayList<>();
+
+		// When
+		int drained = ringBuffer.drainTo(batch, 3);
+
+		// Then
+		Assertions.assertThat(drained).isEqualTo(3);
+		Assertions.assertThat(batch).extracting(ClickEvent::getId).containsExactly("id0", "id1", "id2");
+		Assertions.assertThat(ringBuffer.size()).isEqualTo(2);
+		Assertions.assertThat(ringBuffer.drainTo(batch, 3)).isEqualTo(2);
+		Assertions.assertThat(ringBuffer.drainTo(batch, 3)).isZero();
+	}
+
+	@Test
+	@DisplayName("Test full Ring Buffer refuses events until drained")
+	void testOfferFull() {
+		// Given
+		ClickEventRingBuffer ringBuffer = new ClickEventRingBuffer(3);
+		for (int id = 0; id < ringBuffer.capacity(); id++) {
+			ringBuffer.offer(event("id" + id));
+		}
+
+		// When & Then
+		Assertions.assertThat(ringBuffer.capacity()).isEqualTo(4);
+		Assertions.assertThat(ringBuffer.offer(event("id4"))).isFalse();
+		ringBuffer.drainTo(new ArrayList<>(), 1);
+		Assertions.assertThat(ringBuffer.offer(event("id4"))).isTrue();
+		List<ClickEvent> batch = new ArrayList<>();
+		ringBuffer.drainTo(batch, 10);
+		Assertions.assertThat(batch).extracting(ClickEvent::getId).containsExactly("id1", "id2", "id3", "id4");
+	}
+
+	@Test
+	@DisplayName("Test Ring Buffer loses no event offered by concurrent producers")
+	void testOfferConcurrent() throws InterruptedException {
+		// Given
+		int producers = 4;
+		int eventsPerProducer = 10_000;
+		ClickEventRingBuffer ringBuffer = new ClickEventRingBuffer(1024);
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		CountDownLatch done = new CountDownLatch(producers);
+		for (int producer = 0; producer < producers; producer++) {
+			int first = producer * eventsPerProducer;
+			executor.execute(() -> {
+				for (int id = first; id < first + eventsPerProducer; id++) {
+					while (!ringBuffer.offer(event(Integer.toString(id)))) {
+						Thread.yield();
+					}
+				}
+				done.countDown();
+			});
+		}
+
+		// When
+		Set<String> ids = new HashSet<>();
+		List<ClickEvent> batch = new ArrayList<>();
+		while (done.getCount() > 0 || ringBuffer.size() > 0) {
+			ringBuffer.drainTo(batch, 100);
+			batch.forEach(event -> ids.add(event.getId()));
+			batch.clear();
+		}
+		executor.shutdown();
+
+		// Then
+		Assertions.assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		Assertions.assertThat(ids).hasSize(producers * eventsPerProducer);
+	}
+
+	private static ClickEvent event(String id) {
+		return new ClickEvent(id, 0, VALID_USER, null, 0, 0);
+	}
+
+}
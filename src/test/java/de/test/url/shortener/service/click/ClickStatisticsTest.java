@@ -0,0 +1,191 @@
+package de.test.url.shortener.service.click;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.test.url.shortener.repository.ClickStatisticsRepository;
+import de.test.url.shortener.repository.domain.ClickBucket;
+import de.test.url.shortener.repository.domain.ClickGranularity;
+import de.test.url.shortener.repository.domain.ClickTimeSeries;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Click Statistics Test")
+class ClickStatisticsTest {
+
+	private static final String VALID_TINY_URL_ID = "3fKq9Z";
+
+	private static final String OTHER_TINY_URL_ID = "4gLr0a";
+
+	private static final Instant NOW = Instant.parse("2020-09-13T12:30:30Z");
+
+	private static final Instant HOUR = Instant.parse("2020-09-13T12:00:00Z");
+
+	private static final Instant DAY = Instant.parse("2020-09-13T00:00:00Z");
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final ClickStatisticsRepository repository = Mockito.mock(ClickStatisticsRepository.class);
+
+	private ClickStatistics clickStatistics;
+
+	@BeforeEach
+	void setUp() {
+		clickStatistics = new ClickStatistics();
+		ReflectionTestUtils.setField(clickStatistics, "hourRetentionDays", 31);
+		ReflectionTestUtils.setField(clickStatistics, "dayRetentionDays", 1096);
+		ReflectionTestUtils.setField(clickStatistics, "repository", repository);
+		ReflectionTestUtils.setField(clickStatistics, "meterRegistry", meterRegistry);
+		setClock(NOW);
+		clickStatistics.init();
+	}
+
+	@Test
+	@DisplayName("Test Click Statistics counts the clicks of the current minute in memory and late ones apart")
+	void testMinuteTimeSeries() {
+		// Given
+		clickStatistics.handle(Arrays.asList(click(VALID_TINY_URL_ID, "2020-09-13T12:30:01Z"),
+				click(VALID_TINY_URL_ID, "2020-09-13T12:30:29Z"), click(OTHER_TINY_URL_ID, "2020-09-13T12:30:05Z"),
+				click(VALID_TINY_URL_ID, "2020-09-13T12:29:59Z")));
+
+		// When
+		ClickTimeSeries timeSeries = clickStatistics.getTimeSeries(VALID_TINY_URL_ID, ClickGranularity.MINUTE,
+				Instant.parse("2020-09-13T12:28:00Z"), null);
+
+		// Then
+		Assertions.assertThat(timeSeries.getId()).isEqualTo(VALID_TINY_URL_ID);
+		Assertions.assertThat(timeSeries.getGranularity()).isEqualTo(ClickGranularity.MINUTE);
+		Assertions.assertThat(timeSeries.getBuckets()).containsExactly(
+				new ClickBucket(Instant.parse("2020-09-13T12:28:00Z"), 0),
+				new ClickBucket(Instant.parse("2020-09-13T12:29:00Z"), 0),
+				new ClickBucket(Instant.parse("2020-09-13T12:30:00Z"), 2));
+		Assertions.assertThat(meterRegistry.get("urlshortener.clickstatistics.late").counter().count()).isEqualTo(1);
+		Assertions.assertThat(meterRegistry.get("urlshortener.clickstatistics.links").gauge().value()).isEqualTo(2);
+		Mockito.verifyNoInteractions(repository);
+	}
+
+	@Test
+	@DisplayName("Test Click Statistics rolls up the minutes completed more than a minute ago into hour and day buckets")
+	void testRollup() {
+		// Given
+		clickStatistics.handle(Arrays.asList(click(VALID_TINY_URL_ID, "2020-09-13T12:30:01Z"),
+				click(VALID_TINY_URL_ID, "2020-09-13T12:30:59Z"), click(OTHER_TINY_URL_ID, "2020-09-13T12:31:05Z")));
+		setClock(Instant.parse("2020-09-13T12:32:10Z"));
+
+		// When
+		clickStatistics.rollup();
+		clickStatistics.handle(Arrays.asList(click(VALID_TINY_URL_ID, "2020-09-13T12:30:30Z"),
+				click(VALID_TINY_URL_ID, "2020-09-13T12:31:30Z"), click(VALID_TINY_URL_ID, "2020-09-13T12:32:05Z")));
+
+		// Then
+		Mockito.verify(repository).addClicks(expected(VALID_TINY_URL_ID, 2));
+		Mockito.verify(repository).deleteBefore(ClickGranularity.HOUR,
+				Instant.parse("2020-08-13T12:32:10Z").toEpochMilli());
+		Mockito.verify(repository).deleteBefore(ClickGranularity.DAY,
+				Instant.parse("2017-09-13T12:32:10Z").toEpochMilli());
+		Assertions.assertThat(meterRegistry.get("urlshortener.clickstatistics.late").counter().count()).isEqualTo(1);
+
+		// When
+		Mockito.when(repository.findBuckets(VALID_TINY_URL_ID, ClickGranularity.HOUR, HOUR.toEpochMilli(),
+				Instant.parse("2020-09-13T13:00:00Z").toEpochMilli()))
+				.thenReturn(Collections.singletonMap(HOUR.toEpochMilli(), 2l));
+		ClickTimeSeries timeSeries = clickStatistics.getTimeSeries(VALID_TINY_URL_ID, ClickGranularity.HOUR, HOUR,
+				Instant.parse("2020-09-13T13:00:00Z"));
+
+		// Then the minutes not rolled up yet add to the hour rolled up
+		Assertions.assertThat(timeSeries.getBuckets()).containsExactly(new ClickBucket(HOUR, 4));
+	}
+
+	@Test
+	@DisplayName("Test Click Statistics retries the clicks of a failed rollup with the next one and keeps their minutes rolled up")
+	void testRollupFailure() {
+		// Given
+		clickStatistics.handle(Arrays.asList(click(VALID_TINY_URL_ID, "2020-09-13T12:30:01Z")));
+		Mockito.doThrow(new IllegalStateException("Database down")).doNothing().when(repository)
+				.addClicks(ArgumentMatchers.any());
+		setClock(Instant.parse("2020-09-13T12:32:10Z"));
+
+		// When
+		clickStatistics.rollup();
+		clickStatistics.handle(Arrays.asList(click(VALID_TINY_URL_ID, "2020-09-13T12:30:40Z"),
+				click(VALID_TINY_URL_ID, "2020-09-13T12:31:00Z")));
+		setClock(Instant.parse("2020-09-13T12:33:10Z"));
+		clickStatistics.rollup();
+
+		// Then
+		Mockito.verify(repository).addClicks(expected(VALID_TINY_URL_ID, 1));
+		Mockito.verify(repository).addClicks(expected(VALID_TINY_URL_ID, 2));
+		Mockito.verify(repository, Mockito.times(1)).deleteBefore(ArgumentMatchers.eq(ClickGranularity.HOUR),
+				ArgumentMatchers.anyLong());
+		Assertions.assertThat(meterRegistry.get("urlshortener.clickstatistics.late").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Test Click Statistics drops the tiny URLs without clicks in the last hour")
+	void testEviction() {
+		// Given
+		clickStatistics.handle(Arrays.asList(click(VALID_TINY_URL_ID, "2020-09-13T12:30:01Z")));
+		setClock(Instant.parse("2020-09-13T13:40:00Z"));
+
+		// When
+		clickStatistics.rollup();
+
+		// Then
+		Assertions.assertThat(meterRegistry.get("urlshortener.clickstatistics.links").gauge().value()).isZero();
+		Mockito.verify(repository).addClicks(expected(VALID_TINY_URL_ID, 1));
+	}
+
+	@Test
+	@DisplayName("Test Click Statistics rejects minute time series beyond the last hour and top links of minutes")
+	void testInvalidRange() {
+		// Given & When & Then
+		Assertions.assertThatIllegalArgumentException().isThrownBy(() -> clickStatistics
+				.getTimeSeries(VALID_TINY_URL_ID, ClickGranularity.MINUTE, Instant.parse("2020-09-13T11:00:00Z"), null));
+		Assertions.assertThatIllegalArgumentException().isThrownBy(
+				() -> clickStatistics.getTimeSeries(VALID_TINY_URL_ID, ClickGranularity.HOUR, NOW, DAY));
+		Assertions.assertThatIllegalArgumentException()
+				.isThrownBy(() -> clickStatistics.getTop(ClickGranularity.MINUTE, null, null, 10));
+		Assertions.assertThatIllegalArgumentException()
+				.isThrownBy(() -> clickStatistics.getTop(ClickGranularity.DAY, null, null, 0));
+	}
+
+	private void setClock(Instant instant) {
+		ReflectionTestUtils.setField(clickStatistics, "clock", Clock.fixed(instant, ZoneOffset.UTC));
+	}
+
+	private static ClickEvent click(String id, String timestamp) {
+		return new ClickEvent(id, Instant.parse(timestamp).toEpochMilli(), null, null, 0, 0);
+	}
+
+	/**
+	 * @param idsAndClicks tiny URL ids each followed by its clicks, all in
+	 *                     the hour of {@link #NOW}
+	 */
+	private static Map<ClickGranularity, Map<String, Map<Long, Long>>> expected(Object... idsAndClicks) {
+		Map<ClickGranularity, Map<String, Map<Long, Long>>> clicks = new EnumMap<>(ClickGranularity.class);
+		clicks.put(ClickGranularity.HOUR, new HashMap<>());
+		clicks.put(ClickGranularity.DAY, new HashMap<>());
+		for (int pair = 0; pair < idsAndClicks.length; pair += 2) {
+			long pairClicks = (Integer) idsAndClicks[pair + 1];
+			clicks.get(ClickGranularity.HOUR).put((String) idsAndClicks[pair],
+					Collections.singletonMap(HOUR.toEpochMilli(), pairClicks));
+			clicks.get(ClickGranularity.DAY).put((String) idsAndClicks[pair],
+					Collections.singletonMap(DAY.toEpochMilli(), pairClicks));
+		}
+		return clicks;
+	}
+
+}
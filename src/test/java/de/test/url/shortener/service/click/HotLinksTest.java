@@ -0,0 +1,89 @@
+package de.test.url.shortener.service.click;
+
+import java.util.Arrays;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.test.url.shortener.repository.domain.LinkClicks;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Hot Links Test")
+class HotLinksTest {
+
+	private static final String VALID_TINY_URL_ID = "3fKq9Z";
+
+	private static final String OTHER_TINY_URL_ID = "4gLr0a";
+
+	private static final String VALID_USER = "user";
+
+	private static final String OTHER_USER = "admin";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private HotLinks hotLinks;
+
+	@BeforeEach
+	void setUp() {
+		hotLinks = new HotLinks();
+		ReflectionTestUtils.setField(hotLinks, "capacity", 10);
+		ReflectionTestUtils.setField(hotLinks, "perUserCapacity", 5);
+		ReflectionTestUtils.setField(hotLinks, "maximumUsers", 10l);
+		ReflectionTestUtils.setField(hotLinks, "meterRegistry", meterRegistry);
+		hotLinks.init();
+	}
+
+	@Test
+	@DisplayName("Test Hot Links ranks the tiny URLs clicked overall and per user")
+	void testGetTop() {
+		// When
+		hotLinks.handle(Arrays.asList(click(VALID_TINY_URL_ID, VALID_USER), click(OTHER_TINY_URL_ID, OTHER_USER),
+				click(OTHER_TINY_URL_ID, OTHER_USER), click(VALID_TINY_URL_ID, null),
+				click(VALID_TINY_URL_ID, VALID_USER)));
+
+		// Then
+		Assertions.assertThat(hotLinks.getTop(10)).containsExactly(
+				LinkClicks.builder().id(VALID_TINY_URL_ID).clicks(3l).build(),
+				LinkClicks.builder().id(OTHER_TINY_URL_ID).clicks(2l).build());
+		Assertions.assertThat(hotLinks.getTop(VALID_USER, 5))
+				.containsExactly(LinkClicks.builder().id(VALID_TINY_URL_ID).clicks(2l).build());
+		Assertions.assertThat(hotLinks.getTop(OTHER_USER, 5))
+				.containsExactly(LinkClicks.builder().id(OTHER_TINY_URL_ID).clicks(2l).build());
+		Assertions.assertThat(hotLinks.getTop("unknown", 5)).isEmpty();
+		Assertions.assertThat(meterRegistry.get("urlshortener.hotlinks.users").gauge().value()).isEqualTo(2);
+	}
+
+	@Test
+	@DisplayName("Test Hot Links adds the clicks restored to the ones counted and keeps their error")
+	void testRestore() {
+		// Given
+		hotLinks.handle(Arrays.asList(click(OTHER_TINY_URL_ID, OTHER_USER), click(VALID_TINY_URL_ID, VALID_USER)));
+
+		// When
+		hotLinks.restore(VALID_TINY_URL_ID, VALID_USER, 41, 4);
+
+		// Then
+		Assertions.assertThat(hotLinks.getTop(10)).containsExactly(
+				LinkClicks.builder().id(VALID_TINY_URL_ID).clicks(42l).error(4l).build(),
+				LinkClicks.builder().id(OTHER_TINY_URL_ID).clicks(1l).build());
+		Assertions.assertThat(hotLinks.getTop(VALID_USER, 5))
+				.containsExactly(LinkClicks.builder().id(VALID_TINY_URL_ID).clicks(42l).error(4l).build());
+	}
+
+	@Test
+	@DisplayName("Test Hot Links rejects a limit beyond its capacity")
+	void testGetTopWithInvalidLimit() {
+		// When & Then
+		Assertions.assertThatIllegalArgumentException().isThrownBy(() -> hotLinks.getTop(11));
+		Assertions.assertThatIllegalArgumentException().isThrownBy(() -> hotLinks.getTop(VALID_USER, 6));
+		Assertions.assertThatIllegalArgumentException().isThrownBy(() -> hotLinks.getTop(0));
+	}
+
+	private static ClickEvent click(String id, String userId) {
+		return new ClickEvent(id, System.currentTimeMillis(), userId, null, 0, 0);
+	}
+
+}
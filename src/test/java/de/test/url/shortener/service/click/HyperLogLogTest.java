@@ -0,0 +1,91 @@
+package de.test.url.shortener.service.click;
+
+import java.nio.charset.StandardCharsets;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Percentage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.hash.Hashing;
+
+@DisplayName("HyperLogLog Test")
+class HyperLogLogTest {
+
+	@Test
+	@DisplayName("Test HyperLogLog estimates the distinct hashes sparse and dense")
+	void testEstimate() {
+		// Given
+		HyperLogLog sketch = new HyperLogLog();
+
+		// When & Then
+		Assertions.assertThat(sketch.estimate()).isZero();
+		add(sketch, 0, 100);
+		add(sketch, 0, 100);
+		Assertions.assertThat(sketch.estimate()).isCloseTo(100, Percentage.withPercentage(2));
+		Assertions.assertThat(sketch.toBytes()).hasSizeLessThan(HyperLogLog.REGISTERS);
+		add(sketch, 100, 100_000);
+		Assertions.assertThat(sketch.estimate()).isCloseTo(100_000, Percentage.withPercentage(5));
+		Assertions.assertThat(sketch.toBytes()).hasSize(2 + HyperLogLog.REGISTERS);
+	}
+
+	@Test
+	@DisplayName("Test HyperLogLog merges idempotent and commutative")
+	void testMerge() {
+		// Given
+		HyperLogLog sketch = new HyperLogLog();
+		add(sketch, 0, 10_000);
+		HyperLogLog other = new HyperLogLog();
+		add(other, 5_000, 20_000);
+
+		// When
+		HyperLogLog merged = HyperLogLog.fromBytes(sketch.toBytes());
+		merged.merge(other);
+		merged.merge(other);
+		HyperLogLog reversed = HyperLogLog.fromBytes(other.toBytes());
+		reversed.merge(sketch);
+
+		// Then
+		Assertions.assertThat(merged.toBytes()).isEqualTo(reversed.toBytes());
+		Assertions.assertThat(merged.estimate()).isCloseTo(20_000, Percentage.withPercentage(5));
+	}
+
+	@Test
+	@DisplayName("Test HyperLogLog round trips through its bytes")
+	void testToBytes() {
+		// Given
+		HyperLogLog sparse = new HyperLogLog();
+		add(sparse, 0, 10);
+		HyperLogLog dense = new HyperLogLog();
+		add(dense, 0, 10_000);
+
+		// When & Then
+		Assertions.assertThat(HyperLogLog.fromBytes(sparse.toBytes()).toBytes()).isEqualTo(sparse.toBytes());
+		Assertions.assertThat(HyperLogLog.fromBytes(sparse.toBytes()).estimate()).isEqualTo(sparse.estimate());
+		Assertions.assertThat(HyperLogLog.fromBytes(dense.toBytes()).toBytes()).isEqualTo(dense.toBytes());
+		Assertions.assertThat(HyperLogLog.fromBytes(dense.toBytes()).estimate()).isEqualTo(dense.estimate());
+	}
+
+	@Test
+	@DisplayName("Test HyperLogLog rejects invalid bytes")
+	void testFromInvalidBytes() {
+		// When & Then
+		Assertions.assertThatIllegalArgumentException()
+				.isThrownBy(() -> HyperLogLog.fromBytes(new byte[] { 0, 14 }));
+		Assertions.assertThatIllegalArgumentException()
+				.isThrownBy(() -> HyperLogLog.fromBytes(new byte[] { 2, HyperLogLog.PRECISION }));
+		Assertions.assertThatIllegalArgumentException()
+				.isThrownBy(() -> HyperLogLog.fromBytes(new byte[] { 1, HyperLogLog.PRECISION, 0 }));
+		Assertions.assertThatIllegalArgumentException()
+				.isThrownBy(() -> HyperLogLog.fromBytes(new byte[] { 0, HyperLogLog.PRECISION, 0x10, 0, 1 }));
+		Assertions.assertThatIllegalArgumentException()
+				.isThrownBy(() -> HyperLogLog.fromBytes(new byte[] { 0, HyperLogLog.PRECISION, 0, 0, 0 }));
+	}
+
+	private static void add(HyperLogLog sketch, int from, int to) {
+		for (int visitor = from; visitor < to; visitor++) {
+			sketch.add(Hashing.murmur3_128().hashString("192.0.2." + visitor, StandardCharsets.UTF_8).asLong());
+		}
+	}
+
+}
@@ -0,0 +1,100 @@
+package de.test.url.shortener.service.click;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Space Saving Test")
+class SpaceSavingTest {
+
+	@Test
+	@DisplayName("Test Space Saving counts exactly while the items fit into its counters")
+	void testExact() {
+		// Given
+		SpaceSaving spaceSaving = new SpaceSaving(4);
+
+		// When
+		for (String item : new String[] { "a", "b", "a", "c", "a", "b" }) {
+			spaceSaving.add(item);
+		}
+
+		// Then
+		List<SpaceSaving.Counter> top = spaceSaving.top(10);
+		Assertions.assertThat(top).extracting(SpaceSaving.Counter::getItem).containsExactly("a", "b", "c");
+		Assertions.assertThat(top).extracting(SpaceSaving.Counter::getCount).containsExactly(3l, 2l, 1l);
+		Assertions.assertThat(top).extracting(SpaceSaving.Counter::getError).containsOnly(0l);
+		Assertions.assertThat(spaceSaving.top(1)).extracting(SpaceSaving.Counter::getItem).containsExactly("a");
+	}
+
+	@Test
+	@DisplayName("Test Space Saving adds counts and inherits the least count as error beyond its counters")
+	void testAddCount() {
+		// Given
+		SpaceSaving spaceSaving = new SpaceSaving(2);
+
+		// When
+		spaceSaving.add("a", 5);
+		spaceSaving.add("b", 3);
+		spaceSaving.add("a");
+		spaceSaving.add("c", 2);
+
+		// Then
+		List<SpaceSaving.Counter> top = spaceSaving.top(10);
+		Assertions.assertThat(top).extracting(SpaceSaving.Counter::getItem).containsExactly("a", "c");
+		Assertions.assertThat(top).extracting(SpaceSaving.Counter::getCount).containsExactly(6l, 5l);
+		Assertions.assertThat(top).extracting(SpaceSaving.Counter::getError).containsExactly(0l, 3l);
+	}
+
+	@Test
+	@DisplayName("Test Space Saving adds an estimated count with its error")
+	void testAddCountWithError() {
+		// Given
+		SpaceSaving spaceSaving = new SpaceSaving(2);
+
+		// When
+		spaceSaving.add("a", 5, 1);
+		spaceSaving.add("a", 2, 2);
+		spaceSaving.add("b", 3, 0);
+		spaceSaving.add("c", 2, 1);
+
+		// Then
+		List<SpaceSaving.Counter> top = spaceSaving.top(10);
+		Assertions.assertThat(top).extracting(SpaceSaving.Counter::getItem).containsExactly("a", "c");
+		Assertions.assertThat(top).extracting(SpaceSaving.Counter::getCount).containsExactly(7l, 5l);
+		Assertions.assertThat(top).extracting(SpaceSaving.Counter::getError).containsExactly(3l, 4l);
+	}
+
+	@Test
+	@DisplayName("Test Space Saving keeps the heavy hitters of a skewed stream beyond its counters")
+	void testHeavyHitters() {
+		// Given
+		SpaceSaving spaceSaving = new SpaceSaving(50);
+		Map<String, Long> counts = new HashMap<>();
+		Random random = new Random(42);
+
+		// When
+		for (int click = 0; click < 100_000; click++) {
+			// a third of the clicks on 5 hot items, the rest on 10000 cold ones
+			String item = click % 3 == 0 ? "hot" + random.nextInt(5) : "cold" + random.nextInt(10_000);
+			spaceSaving.add(item);
+			counts.merge(item, 1l, Long::sum);
+		}
+
+		// Then
+		List<SpaceSaving.Counter> top = spaceSaving.top(5);
+		Assertions.assertThat(top).extracting(SpaceSaving.Counter::getItem)
+				.containsExactlyInAnyOrder("hot0", "hot1", "hot2", "hot3", "hot4");
+		for (SpaceSaving.Counter counter : spaceSaving.top(50)) {
+			long count = counts.get(counter.getItem());
+			Assertions.assertThat(counter.getCount()).isGreaterThanOrEqualTo(count);
+			Assertions.assertThat(counter.getCount() - counter.getError()).isLessThanOrEqualTo(count);
+		}
+		Assertions.assertThat(spaceSaving.size()).isEqualTo(spaceSaving.capacity());
+	}
+
+}
@@ -0,0 +1,180 @@
+package de.test.url.shortener.service.click;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.hash.Hashing;
+
+import de.test.url.shortener.repository.VisitorSketchRepository;
+import de.test.url.shortener.repository.domain.Statistics;
+
+@DisplayName("Unique Visitors Test")
+class UniqueVisitorsTest {
+
+	private static final String VALID_TINY_URL_ID = "3fKq9Z";
+
+	private static final String OTHER_TINY_URL_ID = "4gLr0a";
+
+	private static final String VALID_URL = "http://www.google.com/";
+
+	private static final Instant NOW = Instant.parse("2020-09-13T12:30:30Z");
+
+	private static final long DAY = Instant.parse("2020-09-13T00:00:00Z").toEpochMilli();
+
+	private static final long PREVIOUS_DAY = Instant.parse("2020-09-12T00:00:00Z").toEpochMilli();
+
+	private final VisitorSketchRepository repository = Mockito.mock(VisitorSketchRepository.class);
+
+	private UniqueVisitors uniqueVisitors;
+
+	@BeforeEach
+	void setUp() {
+		uniqueVisitors = new UniqueVisitors();
+		ReflectionTestUtils.setField(uniqueVisitors, "retentionDays", 1096);
+		ReflectionTestUtils.setField(uniqueVisitors, "repository", repository);
+		ReflectionTestUtils.setField(uniqueVisitors, "clock", Clock.fixed(NOW, ZoneOffset.UTC));
+	}
+
+	@Test
+	@DisplayName("Test Flush merges the sketches of each day and of all days and deletes the days beyond the retention once a day")
+	void testFlush() {
+		// Given
+		uniqueVisitors.handle(Arrays.asList(click(VALID_TINY_URL_ID, NOW, visitor(1)),
+				click(VALID_TINY_URL_ID, NOW, visitor(2)), click(VALID_TINY_URL_ID, NOW, visitor(1)),
+				click(VALID_TINY_URL_ID, NOW.minus(1, ChronoUnit.DAYS), visitor(1)),
+				click(OTHER_TINY_URL_ID, NOW, 0)));
+
+		// When
+		uniqueVisitors.flush();
+		uniqueVisitors.flush();
+
+		// Then
+		Map<Long, Map<String, byte[]>> sketches = captureMerge(1).get(0);
+		Assertions.assertThat(sketches).containsOnlyKeys(DAY, PREVIOUS_DAY, VisitorSketchRepository.ALL_DAYS);
+		Assertions.assertThat(sketches.get(DAY)).containsOnlyKeys(VALID_TINY_URL_ID);
+		Assertions.assertThat(estimate(sketches.get(DAY).get(VALID_TINY_URL_ID))).isEqualTo(2);
+		Assertions.assertThat(estimate(sketches.get(PREVIOUS_DAY).get(VALID_TINY_URL_ID))).isEqualTo(1);
+		Assertions.assertThat(estimate(sketches.get(VisitorSketchRepository.ALL_DAYS).get(VALID_TINY_URL_ID)))
+				.isEqualTo(2);
+		Mockito.verify(repository).deleteBefore(Instant.parse("2017-09-13T00:00:00Z").toEpochMilli());
+	}
+
+	@Test
+	@DisplayName("Test Flush failed is retried with the clicks since then by the next flush")
+	void testFlushRetried() {
+		// Given
+		Mockito.doThrow(new IllegalStateException("unavailable")).doNothing().when(repository)
+				.merge(ArgumentMatchers.any(), ArgumentMatchers.any());
+		uniqueVisitors.handle(Collections.singletonList(click(VALID_TINY_URL_ID, NOW, visitor(1))));
+		uniqueVisitors.flush();
+
+		// When
+		uniqueVisitors.handle(Collections.singletonList(click(VALID_TINY_URL_ID, NOW, visitor(2))));
+		uniqueVisitors.flush();
+
+		// Then
+		Map<Long, Map<String, byte[]>> sketches = captureMerge(2).get(1);
+		Assertions.assertThat(estimate(sketches.get(DAY).get(VALID_TINY_URL_ID))).isEqualTo(2);
+		Assertions.assertThat(estimate(sketches.get(VisitorSketchRepository.ALL_DAYS).get(VALID_TINY_URL_ID)))
+				.isEqualTo(2);
+	}
+
+	@Test
+	@DisplayName("Test Flush losing the insert of a sketch to another node is merged again right away")
+	void testFlushRetriedOnConflict() {
+		// Given
+		Mockito.doThrow(new DataIntegrityViolationException("duplicate key")).doNothing().when(repository)
+				.merge(ArgumentMatchers.any(), ArgumentMatchers.any());
+		uniqueVisitors.handle(Collections.singletonList(click(VALID_TINY_URL_ID, NOW, visitor(1))));
+
+		// When
+		uniqueVisitors.flush();
+		uniqueVisitors.flush();
+
+		// Then
+		List<Map<Long, Map<String, byte[]>>> sketches = captureMerge(2);
+		Assertions.assertThat(sketches.get(1)).isSameAs(sketches.get(0));
+		Mockito.verify(repository).deleteBefore(ArgumentMatchers.anyLong());
+	}
+
+	@Test
+	@DisplayName("Test Add To sets the unique visitors of the statistics from the sketches of their URL")
+	void testAddTo() {
+		// Given
+		Statistics statistics = new Statistics(VALID_URL, 2, 3);
+		Statistics otherStatistics = new Statistics("http://www.yahoo.com/", 1, 0);
+		Mockito.when(repository.findSketchesByURL("user", Arrays.asList(VALID_URL, "http://www.yahoo.com/")))
+				.thenReturn(Collections.singletonMap(VALID_URL,
+						Arrays.asList(sketch(visitor(1), visitor(2)), sketch(visitor(2), visitor(3)))));
+
+		// When
+		uniqueVisitors.addTo("user", Arrays.asList(statistics, otherStatistics));
+
+		// Then
+		Assertions.assertThat(statistics.getUniqueVisitors()).isEqualTo(3);
+		Assertions.assertThat(otherStatistics.getUniqueVisitors()).isZero();
+	}
+
+	@Test
+	@DisplayName("Test Get Unique Visitors reads all days without a range and the day buckets of a range")
+	void testGetUniqueVisitors() {
+		// Given
+		Mockito.when(repository.findSketches(VALID_TINY_URL_ID, VisitorSketchRepository.ALL_DAYS, 0))
+				.thenReturn(Collections.singletonList(sketch(visitor(1), visitor(2), visitor(3))));
+		Mockito.when(repository.findSketches(VALID_TINY_URL_ID, PREVIOUS_DAY, NOW.toEpochMilli() + 1))
+				.thenReturn(Arrays.asList(sketch(visitor(1)), sketch(visitor(1), visitor(2))));
+
+		// When & Then
+		Assertions.assertThat(uniqueVisitors.getUniqueVisitors(VALID_TINY_URL_ID, null, null)).isEqualTo(3);
+		Assertions.assertThat(
+				uniqueVisitors.getUniqueVisitors(VALID_TINY_URL_ID, NOW.minus(1, ChronoUnit.DAYS), null))
+				.isEqualTo(2);
+		Assertions.assertThatIllegalArgumentException()
+				.isThrownBy(() -> uniqueVisitors.getUniqueVisitors(VALID_TINY_URL_ID, NOW,
+						Instant.ofEpochMilli(DAY)));
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Map<Long, Map<String, byte[]>>> captureMerge(int times) {
+		ArgumentCaptor<Map<Long, Map<String, byte[]>>> captor = ArgumentCaptor.forClass(Map.class);
+		Mockito.verify(repository, Mockito.times(times)).merge(captor.capture(), ArgumentMatchers.any());
+		return captor.getAllValues();
+	}
+
+	private static long visitor(int visitor) {
+		return Hashing.murmur3_128().hashInt(visitor).asLong();
+	}
+
+	private static byte[] sketch(long... visitors) {
+		HyperLogLog sketch = new HyperLogLog();
+		for (long visitor : visitors) {
+			sketch.add(visitor);
+		}
+		return sketch.toBytes();
+	}
+
+	private static long estimate(byte[] sketch) {
+		return HyperLogLog.fromBytes(sketch).estimate();
+	}
+
+	private static ClickEvent click(String id, Instant timestamp, long visitorHash) {
+		return new ClickEvent(id, timestamp.toEpochMilli(), "user", null, 0, visitorHash);
+	}
+
+}
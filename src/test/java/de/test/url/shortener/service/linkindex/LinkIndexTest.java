@@ -0,0 +1,181 @@
+package de.test.url.shortener.service.linkindex;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.test.url.shortener.repository.URLShortenerRepository;
+import de.test.url.shortener.repository.domain.URLDetails;
+import de.test.url.shortener.service.ResolvedURL;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Link Index Test")
+class LinkIndexTest {
+
+	private static final URLDetails URL_DETAILS = URLDetails.builder().id("3fKq9Z").userId("user")
+			.url("http://www.google.com/").build();
+
+	private static final URLDetails OTHER_URL_DETAILS = URLDetails.builder().id("4gLr0a").userId("user")
+			.url("http://www.gmail.com/").build();
+
+	private final URLShortenerRepository repository = mock(URLShortenerRepository.class);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@TempDir
+	Path directory;
+
+	private LinkIndex linkIndex;
+
+	@AfterEach
+	void tearDown() throws IOException {
+		linkIndex.close();
+	}
+
+	@Test
+	@DisplayName("Test Link Index is rebuilt from the data base when it is not in sync")
+	void testVerify() throws IOException {
+		// Given
+		linkIndex = createLinkIndex(true);
+		when(repository.count()).thenReturn(1l);
+		doAnswer(invocation -> {
+			Consumer<URLDetails> consumer = invocation.getArgument(0);
+			consumer.accept(URL_DETAILS);
+			return null;
+		}).when(repository).forEachURLDetails(any());
+
+		// When
+		linkIndex.verify();
+
+		// Then
+		Assertions.assertThat(linkIndex.get(URL_DETAILS.getId()))
+				.isEqualTo(new ResolvedURL(URL_DETAILS.getUserId(), URL_DETAILS.getUrl()));
+		Assertions.assertThat(linkIndex.get(OTHER_URL_DETAILS.getId())).isNull();
+		Assertions.assertThat(meterRegistry.get("urlshortener.linkindex.lookups").tag("result", "hit").counter()
+				.count()).isEqualTo(1);
+		Assertions.assertThat(meterRegistry.get("urlshortener.linkindex.size").gauge().value()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Test Link Index reopened in sync with the data base is not rebuilt")
+	void testVerifyInSync() throws IOException {
+		// Given
+		linkIndex = createLinkIndex(true);
+		linkIndex.put(URL_DETAILS);
+		linkIndex.close();
+		linkIndex = createLinkIndex(true);
+		when(repository.count()).thenReturn(1l);
+		doAnswer(invocation -> {
+			Consumer<String> consumer = invocation.getArgument(0);
+			consumer.accept(URL_DETAILS.getId());
+			return null;
+		}).when(repository).forEachId(any());
+
+		// When
+		linkIndex.verify();
+
+		// Then
+		Assertions.assertThat(linkIndex.get(URL_DETAILS.getId()))
+				.isEqualTo(new ResolvedURL(URL_DETAILS.getUserId(), URL_DETAILS.getUrl()));
+		verify(repository, never()).forEachURLDetails(any());
+	}
+
+	@Test
+	@DisplayName("Test Link Index of as many ids as rows but other ones is rebuilt")
+	void testVerifyWithOtherIds() throws IOException {
+		// Given
+		linkIndex = createLinkIndex(true);
+		linkIndex.put(URL_DETAILS);
+		when(repository.count()).thenReturn(1l);
+		doAnswer(invocation -> {
+			Consumer<String> consumer = invocation.getArgument(0);
+			consumer.accept(OTHER_URL_DETAILS.getId());
+			return null;
+		}).when(repository).forEachId(any());
+		doAnswer(invocation -> {
+			Consumer<URLDetails> consumer = invocation.getArgument(0);
+			consumer.accept(OTHER_URL_DETAILS);
+			return null;
+		}).when(repository).forEachURLDetails(any());
+
+		// When
+		linkIndex.verify();
+
+		// Then
+		Assertions.assertThat(linkIndex.get(URL_DETAILS.getId())).isNull();
+		Assertions.assertThat(linkIndex.get(OTHER_URL_DETAILS.getId()))
+				.isEqualTo(new ResolvedURL(OTHER_URL_DETAILS.getUserId(), OTHER_URL_DETAILS.getUrl()));
+	}
+
+	@Test
+	@DisplayName("Test Link Index keeps a link put while it is rebuilt")
+	void testPutDuringRebuild() throws IOException {
+		// Given
+		linkIndex = createLinkIndex(true);
+		doAnswer(invocation -> {
+			linkIndex.put(OTHER_URL_DETAILS);
+			return null;
+		}).when(repository).forEachURLDetails(any());
+
+		// When
+		linkIndex.rebuild();
+
+		// Then
+		Assertions.assertThat(linkIndex.get(OTHER_URL_DETAILS.getId())).isNotNull();
+	}
+
+	@Test
+	@DisplayName("Test removed link is not resolved by the Link Index")
+	void testRemove() throws IOException {
+		// Given
+		linkIndex = createLinkIndex(true);
+		linkIndex.put(URL_DETAILS);
+
+		// When
+		linkIndex.remove(URL_DETAILS.getId());
+
+		// Then
+		Assertions.assertThat(linkIndex.get(URL_DETAILS.getId())).isNull();
+	}
+
+	@Test
+	@DisplayName("Test disabled Link Index resolves nothing")
+	void testDisabled() throws IOException {
+		// Given
+		linkIndex = createLinkIndex(false);
+
+		// When
+		linkIndex.put(URL_DETAILS);
+		linkIndex.verify();
+
+		// Then
+		Assertions.assertThat(linkIndex.get(URL_DETAILS.getId())).isNull();
+		Assertions.assertThat(directory.resolve("links.idx")).doesNotExist();
+	}
+
+	private LinkIndex createLinkIndex(boolean enabled) throws IOException {
+		LinkIndex index = new LinkIndex();
+		ReflectionTestUtils.setField(index, "enabled", enabled);
+		ReflectionTestUtils.setField(index, "file", directory.resolve("links.idx").toString());
+		ReflectionTestUtils.setField(index, "capacity", 100l);
+		ReflectionTestUtils.setField(index, "repository", repository);
+		ReflectionTestUtils.setField(index, "meterRegistry", meterRegistry);
+		index.init();
+		return index;
+	}
+
+}
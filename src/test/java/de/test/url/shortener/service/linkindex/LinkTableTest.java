@@ -0,0 +1,187 @@
+package de.test.url.shortener.service.linkindex;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicReference;
+import java.nio.file.Path;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.test.url.shortener.service.ResolvedURL;
+
+@DisplayName("Link Table Test")
+class LinkTableTest {
+
+	private static final String VALID_TINY_URL_ID = "3fKq9Z";
+
+	private static final String VALID_USER = "user";
+
+	private static final String VALID_URL = "http://www.google.com/";
+
+	@TempDir
+	Path directory;
+
+	@Test
+	@DisplayName("Test Link Table resolves the ids put and no others")
+	void testGet() throws IOException {
+		try (LinkTable table = LinkTable.open(directory.resolve("links.idx"), 2000)) {
+			// Given
+			for (int id = 0; id < 2000; id++) {
+				Assertions.assertThat(table.put("id" + id, VALID_USER + id % 10, VALID_URL + id)).isTrue();
+			}
+
+			// When & Then
+			for (int id = 0; id < 2000; id++) {
+				Assertions.assertThat(table.get("id" + id))
+						.isEqualTo(new ResolvedURL(VALID_USER + id % 10, VALID_URL + id));
+			}
+			Assertions.assertThat(table.get("id2000")).isNull();
+			Assertions.assertThat(table.size()).isEqualTo(2000);
+		}
+	}
+
+	@Test
+	@DisplayName("Test Link Table keeps the first entry of an id put twice")
+	void testPutTwice() throws IOException {
+		try (LinkTable table = LinkTable.open(directory.resolve("links.idx"), 10)) {
+			// Given
+			table.put(VALID_TINY_URL_ID, VALID_USER, VALID_URL);
+
+			// When
+			table.put(VALID_TINY_URL_ID, "admin", "http://www.gmail.com/");
+
+			// Then
+			Assertions.assertThat(table.get(VALID_TINY_URL_ID)).isEqualTo(new ResolvedURL(VALID_USER, VALID_URL));
+			Assertions.assertThat(table.size()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	@DisplayName("Test Link Table removes an id and keeps resolving the others")
+	void testRemove() throws IOException {
+		try (LinkTable table = LinkTable.open(directory.resolve("links.idx"), 100)) {
+			// Given
+			for (int id = 0; id < 100; id++) {
+				table.put("id" + id, VALID_USER, VALID_URL + id);
+			}
+
+			// When
+			boolean removed = table.remove("id50");
+
+			// Then
+			Assertions.assertThat(removed).isTrue();
+			Assertions.assertThat(table.remove("id50")).isFalse();
+			Assertions.assertThat(table.get("id50")).isNull();
+			Assertions.assertThat(table.size()).isEqualTo(99);
+			for (int id = 0; id < 100; id++) {
+				if (id != 50) {
+					Assertions.assertThat(table.get("id" + id)).isNotNull();
+				}
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Test Link Table refuses an id beyond its capacity")
+	void testPutFull() throws IOException {
+		try (LinkTable table = LinkTable.open(directory.resolve("links.idx"), 10)) {
+			// Given
+			long capacity = table.capacity();
+			for (int id = 0; id < capacity; id++) {
+				Assertions.assertThat(table.put("id" + id, VALID_USER, VALID_URL)).isTrue();
+			}
+
+			// When & Then
+			Assertions.assertThat(table.put(VALID_TINY_URL_ID, VALID_USER, VALID_URL)).isFalse();
+			Assertions.assertThat(table.get(VALID_TINY_URL_ID)).isNull();
+			Assertions.assertThat(table.get("id0")).isNotNull();
+		}
+	}
+
+	@Test
+	@DisplayName("Test Link Table reopened from its file keeps its ids unless it is too small")
+	void testReopen() throws IOException {
+		// Given
+		Path file = directory.resolve("links.idx");
+		try (LinkTable table = LinkTable.open(file, 1000)) {
+			table.put(VALID_TINY_URL_ID, VALID_USER, VALID_URL);
+			table.put("4gLr0a", VALID_USER, "http://www.gmail.com/");
+			table.remove("4gLr0a");
+		}
+
+		// When & Then
+		try (LinkTable table = LinkTable.open(file, 10)) {
+			Assertions.assertThat(table.get(VALID_TINY_URL_ID)).isEqualTo(new ResolvedURL(VALID_USER, VALID_URL));
+			Assertions.assertThat(table.get("4gLr0a")).isNull();
+			Assertions.assertThat(table.size()).isEqualTo(1);
+			Assertions.assertThat(table.checksum()).isEqualTo(LinkTable.checksum(VALID_TINY_URL_ID));
+			Assertions.assertThat(table.capacity()).isGreaterThanOrEqualTo(1000);
+		}
+		try (LinkTable table = LinkTable.open(file, 100_000)) {
+			Assertions.assertThat(table.get(VALID_TINY_URL_ID)).isNull();
+			Assertions.assertThat(table.size()).isZero();
+			Assertions.assertThat(table.checksum()).isZero();
+		}
+	}
+
+	@Test
+	@DisplayName("Test Link Table maps its file only as far as its entries reach")
+	void testFileSize() throws IOException {
+		// Given
+		Path file = directory.resolve("links.idx");
+		String longURL = VALID_URL + new String(new char[20_000]).replace('\0', 'a');
+
+		try (LinkTable table = LinkTable.open(file, 100)) {
+			// When & Then
+			Assertions.assertThat(Files.size(file)).isEqualTo(LinkTable.MAPPING_CHUNK);
+
+			for (int id = 0; id < 100; id++) {
+				table.put("id" + id, VALID_USER, longURL + id);
+			}
+			Assertions.assertThat(Files.size(file)).isBetween(2L * LinkTable.MAPPING_CHUNK,
+					3L * LinkTable.MAPPING_CHUNK);
+			for (int id = 0; id < 100; id++) {
+				Assertions.assertThat(table.get("id" + id)).isEqualTo(new ResolvedURL(VALID_USER, longURL + id));
+			}
+		}
+		try (LinkTable table = LinkTable.open(file, 100)) {
+			Assertions.assertThat(table.get("id99")).isEqualTo(new ResolvedURL(VALID_USER, longURL + 99));
+		}
+	}
+
+	@Test
+	@DisplayName("Test Link Table read while it is written resolves an id to its URL or not at all")
+	void testGetWhilePut() throws Exception {
+		try (LinkTable table = LinkTable.open(directory.resolve("links.idx"), 10_000)) {
+			// Given
+			int ids = 10_000;
+			AtomicReference<String> wrong = new AtomicReference<>();
+			Thread reader = new Thread(() -> {
+				for (int round = 0; round < 20 && wrong.get() == null; round++) {
+					for (int id = 0; id < ids; id++) {
+						ResolvedURL resolvedURL = table.get("id" + id);
+						if (resolvedURL != null && !resolvedURL.getUrl().equals(VALID_URL + id)) {
+							wrong.set("id" + id);
+						}
+					}
+				}
+			});
+
+			// When
+			reader.start();
+			for (int id = 0; id < ids; id++) {
+				table.put("id" + id, VALID_USER, VALID_URL + id);
+			}
+			reader.join();
+
+			// Then
+			Assertions.assertThat(wrong.get()).isNull();
+			Assertions.assertThat(table.get("id" + (ids - 1)))
+					.isEqualTo(new ResolvedURL(VALID_USER, VALID_URL + (ids - 1)));
+		}
+	}
+
+}
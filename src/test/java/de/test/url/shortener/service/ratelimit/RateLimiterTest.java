@@ -0,0 +1,118 @@
+package de.test.url.shortener.service.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.test.url.shortener.service.ratelimit.RateLimitProperties.Quota;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Rate Limiter Test")
+class RateLimiterTest {
+
+	private static final long NOW = 1_000_000_000l;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private RateLimiter rateLimiter;
+
+	@BeforeEach
+	void setUp() {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.setDefaultQuota(new Quota(1, 1));
+		properties.getRoles().put("USER", new Quota(1, 2));
+		properties.getRoles().put("ADMIN", new Quota(1, 5));
+
+		rateLimiter = new RateLimiter();
+		ReflectionTestUtils.setField(rateLimiter, "properties", properties);
+		ReflectionTestUtils.setField(rateLimiter, "meterRegistry", meterRegistry);
+		rateLimiter.init();
+	}
+
+	@Test
+	@DisplayName("Test Token Bucket admits a burst and then one request per token interval")
+	void testTokenBucket() {
+		// Given
+		TokenBucket tokenBucket = new TokenBucket("USER", 10, 3, NOW);
+
+		// When & Then
+		Assertions.assertThat(tokenBucket.tryAcquire(NOW)).isZero();
+		Assertions.assertThat(tokenBucket.tryAcquire(NOW)).isZero();
+		Assertions.assertThat(tokenBucket.tryAcquire(NOW)).isZero();
+		Assertions.assertThat(tokenBucket.tryAcquire(NOW)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+		Assertions.assertThat(tokenBucket.tryAcquire(NOW + TimeUnit.MILLISECONDS.toNanos(100))).isZero();
+		Assertions.assertThat(tokenBucket.tryAcquire(NOW + TimeUnit.MILLISECONDS.toNanos(100))).isPositive();
+	}
+
+	@Test
+	@DisplayName("Test Token Bucket is full again after an idle period")
+	void testTokenBucketRefill() {
+		// Given
+		TokenBucket tokenBucket = new TokenBucket("USER", 10, 2, NOW);
+		tokenBucket.tryAcquire(NOW);
+		tokenBucket.tryAcquire(NOW);
+
+		// When
+		long later = NOW + TimeUnit.SECONDS.toNanos(10);
+
+		// Then
+		Assertions.assertThat(tokenBucket.tryAcquire(later)).isZero();
+		Assertions.assertThat(tokenBucket.tryAcquire(later)).isZero();
+		Assertions.assertThat(tokenBucket.tryAcquire(later)).isPositive();
+	}
+
+	@Test
+	@DisplayName("Test Rate Limiter applies the role quota and counts throttled requests")
+	void testTryAcquireWithRoleQuota() {
+		// Given
+		Authentication user = authentication("user", "ROLE_USER");
+
+		// When & Then
+		Assertions.assertThat(rateLimiter.tryAcquire(user)).isZero();
+		Assertions.assertThat(rateLimiter.tryAcquire(user)).isZero();
+		Assertions.assertThat(rateLimiter.tryAcquire(user)).isPositive();
+		Assertions.assertThat(
+				meterRegistry.get("urlshortener.ratelimit.throttled").tag("quota", "USER").counter().count())
+				.isEqualTo(1);
+		Assertions.assertThat(meterRegistry.get("urlshortener.ratelimit.throttled").counters())
+				.extracting(counter -> counter.getId().getTag("quota")).containsExactlyInAnyOrder("default", "USER",
+						"ADMIN");
+	}
+
+	@Test
+	@DisplayName("Test Rate Limiter applies the largest role quota of a user")
+	void testTryAcquireWithSeveralRoles() {
+		// Given
+		Authentication admin = authentication("admin", "ROLE_USER", "ROLE_ADMIN");
+
+		// When & Then
+		for (int request = 0; request < 5; request++) {
+			Assertions.assertThat(rateLimiter.tryAcquire(admin)).isZero();
+		}
+		Assertions.assertThat(rateLimiter.tryAcquire(admin)).isPositive();
+	}
+
+	@Test
+	@DisplayName("Test Rate Limiter applies the default quota to a user without role quota")
+	void testTryAcquireWithDefaultQuota() {
+		// Given
+		Authentication tester = authentication("test", "ROLE_TESTER");
+
+		// When & Then
+		Assertions.assertThat(rateLimiter.tryAcquire(tester)).isZero();
+		Assertions.assertThat(rateLimiter.tryAcquire(tester)).isPositive();
+		Assertions.assertThat(rateLimiter.tryAcquire(authentication("user", "ROLE_USER"))).isZero();
+	}
+
+	private Authentication authentication(String userId, String... authorities) {
+		return new UsernamePasswordAuthenticationToken(userId, null, AuthorityUtils.createAuthorityList(authorities));
+	}
+
+}
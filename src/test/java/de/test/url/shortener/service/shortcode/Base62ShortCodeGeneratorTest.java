@@ -0,0 +1,165 @@
+package de.test.url.shortener.service.shortcode;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.test.url.shortener.repository.URLShortenerRepository;
+
+@ExtendWith(SpringExtension.class)
+@DisplayName("Base62 Short Code Generator Test")
+class Base62ShortCodeGeneratorTest {
+
+	private static final long BLOCK_SIZE = 1000;
+
+	private static final String VALID_SECRET = "short code secret";
+
+	@Mock
+	private URLShortenerRepository repository;
+
+	@InjectMocks
+	private Base62ShortCodeGenerator shortCodeGenerator;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(shortCodeGenerator, "blockSize", BLOCK_SIZE);
+		ReflectionTestUtils.setField(shortCodeGenerator, "obfuscate", true);
+		ReflectionTestUtils.setField(shortCodeGenerator, "secret", VALID_SECRET);
+		shortCodeGenerator.init();
+	}
+
+	@Test
+	@DisplayName("Test Short Codes are unique 6 character Base62 codes")
+	void testEncodeIsUnique() {
+		// Given
+		Set<String> codes = new HashSet<>();
+
+		// When
+		for (long value = 0; value < 200_000; value++) {
+			codes.add(shortCodeGenerator.encode(value));
+		}
+
+		// Then
+		Assertions.assertThat(codes).hasSize(200_000);
+		Assertions.assertThat(codes).allMatch(code -> code.length() == 6 && code.chars().allMatch(
+				character -> Base62.digit((char) character) >= 0));
+	}
+
+	@Test
+	@DisplayName("Test Short Codes depend on the secret of any text")
+	void testEncodeWithSecret() {
+		// Given
+		String code = shortCodeGenerator.encode(1);
+
+		// When
+		ReflectionTestUtils.setField(shortCodeGenerator, "secret", "another secret");
+		shortCodeGenerator.init();
+
+		// Then
+		Assertions.assertThat(shortCodeGenerator.encode(1)).isNotEqualTo(code);
+		ReflectionTestUtils.setField(shortCodeGenerator, "secret", VALID_SECRET);
+		shortCodeGenerator.init();
+		Assertions.assertThat(shortCodeGenerator.encode(1)).isEqualTo(code);
+	}
+
+	@Test
+	@DisplayName("Test Short Code Generator without a secret fails to start unless not obfuscating")
+	void testInitWithoutSecret() {
+		// Given
+		ReflectionTestUtils.setField(shortCodeGenerator, "secret", "");
+
+		// When & Then
+		Assertions.assertThatIllegalStateException().isThrownBy(() -> shortCodeGenerator.init())
+				.withMessageContaining("urlshortener.short-code.secret");
+		ReflectionTestUtils.setField(shortCodeGenerator, "obfuscate", false);
+		shortCodeGenerator.init();
+		Assertions.assertThat(shortCodeGenerator.encode(61)).isEqualTo("00000z");
+	}
+
+	@Test
+	@DisplayName("Test Short Codes beyond 2^35 values use 10 characters")
+	void testEncodeLongCode() {
+		// When & Then
+		Assertions.assertThat(shortCodeGenerator.encode((1l << 35) - 1)).hasSize(6);
+		Assertions.assertThat(shortCodeGenerator.encode(1l << 35)).hasSize(10);
+	}
+
+	@Test
+	@DisplayName("Test Short Codes beyond 2^59 values are rejected")
+	void testEncodeExhausted() {
+		// When & Then
+		Assertions.assertThatIllegalStateException().isThrownBy(() -> shortCodeGenerator.encode(1l << 59));
+	}
+
+	@Test
+	@DisplayName("Test Short Code blocks are reserved once per block size")
+	void testNextReservesBlocks() {
+		// Given
+		when(repository.nextShortCodeBlock()).thenReturn(1l, 2l);
+		Set<String> codes = new HashSet<>();
+
+		// When
+		for (int count = 0; count < BLOCK_SIZE + 1; count++) {
+			codes.add(shortCodeGenerator.next());
+		}
+
+		// Then
+		verify(repository, times(2)).nextShortCodeBlock();
+		Assertions.assertThat(codes).hasSize((int) BLOCK_SIZE + 1);
+		Assertions.assertThat(codes).contains(shortCodeGenerator.encode(BLOCK_SIZE),
+				shortCodeGenerator.encode(2 * BLOCK_SIZE));
+	}
+
+	@Test
+	@DisplayName("Test Short Code skips reserved codes")
+	void testNextSkipsReserved() {
+		// Given
+		when(repository.nextShortCodeBlock()).thenReturn(1l);
+		ReflectionTestUtils.setField(shortCodeGenerator, "reserved",
+				Collections.singleton(shortCodeGenerator.encode(BLOCK_SIZE)));
+
+		// When & Then
+		Assertions.assertThat(shortCodeGenerator.next()).isEqualTo(shortCodeGenerator.encode(BLOCK_SIZE + 1));
+	}
+
+	@Test
+	@DisplayName("Test Short Code check on a part of a path for codes of the format and range issued and not reserved")
+	void testIsShortCode() {
+		// Given
+		String path = "/" + shortCodeGenerator.encode(1) + "/" + shortCodeGenerator.encode(1l << 35);
+		ReflectionTestUtils.setField(shortCodeGenerator, "reserved", Collections.singleton("assets"));
+
+		// When & Then
+		Assertions.assertThat(shortCodeGenerator.isShortCode(path, 1, 7)).isTrue();
+		Assertions.assertThat(shortCodeGenerator.isShortCode(path, 8, 18)).isTrue();
+		Assertions.assertThat(shortCodeGenerator.isShortCode(path, 1, 8)).isFalse();
+		Assertions.assertThat(shortCodeGenerator.isShortCode(path, 0, 6)).isFalse();
+		Assertions.assertThat(shortCodeGenerator.isShortCode("/assets", 1, 7)).isFalse();
+		Assertions.assertThat(shortCodeGenerator.isShortCode("/zzzzzz", 1, 7)).isFalse();
+		Assertions.assertThat(shortCodeGenerator.isShortCode("/zzzzzzzzzz", 1, 11)).isFalse();
+	}
+
+	@Test
+	@DisplayName("Test Base62 encode and decode")
+	void testBase62() {
+		// When & Then
+		Assertions.assertThat(Base62.encode(61, 2)).isEqualTo("0z");
+		Assertions.assertThat(Base62.decode(Base62.encode(123_456_789l, 6))).isEqualTo(123_456_789l);
+		Assertions.assertThatIllegalArgumentException().isThrownBy(() -> Base62.encode(62, 1));
+	}
+
+}
@@ -0,0 +1,100 @@
+package de.test.url.shortener.service.token;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.test.url.shortener.repository.domain.AccessToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("HMAC Token Service Test")
+class HmacTokenServiceTest {
+
+	private static final String SECRET = "a-secret-of-at-least-32-bytes-length";
+
+	private static final String NORMAL_USER = "user";
+
+	private static final String ROLE_USER = "ROLE_USER";
+
+	private final Authentication authentication = new UsernamePasswordAuthenticationToken(NORMAL_USER, "user",
+			AuthorityUtils.createAuthorityList(ROLE_USER));
+
+	private HmacTokenService tokenService;
+
+	@BeforeEach
+	void setUp() {
+		tokenService = createTokenService(SECRET, 3600);
+	}
+
+	@Test
+	@DisplayName("Test Token is verified to the user and authorities it was issued for")
+	void testVerify() {
+		// Given
+		AccessToken accessToken = tokenService.issue(authentication);
+
+		// When
+		Authentication verified = tokenService.verify(accessToken.getAccessToken());
+
+		// Then
+		Assertions.assertThat(accessToken.getTokenType()).isEqualTo("Bearer");
+		Assertions.assertThat(accessToken.getExpiresIn()).isEqualTo(3600);
+		Assertions.assertThat(verified.getName()).isEqualTo(NORMAL_USER);
+		Assertions.assertThat(verified.getCredentials()).isNull();
+		Assertions.assertThat(AuthorityUtils.authorityListToSet(verified.getAuthorities())).containsExactly(ROLE_USER);
+		Assertions.assertThat(tokenService.verify(accessToken.getAccessToken())).isSameAs(verified);
+	}
+
+	@Test
+	@DisplayName("Test Token signed with another secret is rejected")
+	void testVerifyWithOtherSecret() {
+		// Given
+		AccessToken accessToken = createTokenService("another-secret-of-at-least-32-bytes", 3600)
+				.issue(authentication);
+
+		// When & Then
+		Assertions.assertThat(tokenService.verify(accessToken.getAccessToken())).isNull();
+	}
+
+	@Test
+	@DisplayName("Test expired Token is rejected")
+	void testVerifyExpired() {
+		// Given
+		AccessToken accessToken = createTokenService(SECRET, -1).issue(authentication);
+
+		// When & Then
+		Assertions.assertThat(tokenService.verify(accessToken.getAccessToken())).isNull();
+	}
+
+	@Test
+	@DisplayName("Test malformed Tokens are rejected")
+	void testVerifyMalformed() {
+		// Given
+		String accessToken = tokenService.issue(authentication).getAccessToken();
+
+		// When & Then
+		Assertions.assertThat(tokenService.verify("")).isNull();
+		Assertions.assertThat(tokenService.verify("a.b.c")).isNull();
+		Assertions.assertThat(tokenService.verify(accessToken.substring(0, accessToken.lastIndexOf('.')))).isNull();
+		Assertions.assertThat(tokenService.verify(accessToken + "!")).isNull();
+	}
+
+	private HmacTokenService createTokenService(String secret, long validitySeconds) {
+		HmacTokenService hmacTokenService = new HmacTokenService();
+		ReflectionTestUtils.setField(hmacTokenService, "secret", secret);
+		ReflectionTestUtils.setField(hmacTokenService, "validitySeconds", validitySeconds);
+		ReflectionTestUtils.setField(hmacTokenService, "cacheMaximumSize", 100l);
+		ReflectionTestUtils.setField(hmacTokenService, "cacheExpireAfterWriteSeconds", 60l);
+		ReflectionTestUtils.setField(hmacTokenService, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(hmacTokenService, "meterRegistry", new SimpleMeterRegistry());
+		hmacTokenService.init();
+		return hmacTokenService;
+	}
+
+}